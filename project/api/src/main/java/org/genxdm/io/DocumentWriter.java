@@ -29,9 +29,8 @@ public interface DocumentWriter<N>
    * 
    * @param byteStream the target output stream; may not be null
    * @param source the starting node from which to traverse (usually a document node); may not be null
-   * @param encoding the encoding in which to write characters as bytes; if null, or an unsupported encoding
-   *   for the JVM, "UTF-8" will be used.
-   * @param config the serialization parameters for this output
+   * @param config the serialization parameters for this output; if they name no encoding, "UTF-8"
+   *   will be used, and an encoding that the JVM does not support is an error.
    */
    void write(final OutputStream byteStream, final N source, final SerializationParams config) throws IOException, XdmMarshalException;
 
@@ -121,8 +121,9 @@ public class GenxdmSerialization
     @Override
     public Map<Character, String> getUseCharacterMaps()
     {
-        // TODO: not supported at this time.
-        return new HashMap<Character, String>();
+        if (characterMaps == null)
+            return new HashMap<Character, String>();
+        return characterMaps;
     }
 
     @Override
@@ -187,6 +188,15 @@ public class GenxdmSerialization
         standalone = value;
     }
     
+    /** Sets the character maps returned by getUseCharacterMaps().  This is
+     * not part of ConfigurableSerializationParams, so that existing
+     * implementations of that interface need not change.
+     */
+    public void setUseCharacterMaps(Map<Character, String> map)
+    {
+        characterMaps = map;
+    }
+    
     private boolean indent;
     private boolean omitDeclaration;
     private boolean bom;
@@ -197,6 +207,7 @@ public class GenxdmSerialization
     private Standalone standalone = Standalone.OMIT;
     private List<QName> cdataElements;
     private NamespaceContext namespaceHints;
+    private Map<Character, String> characterMaps;
     
     private static String URI = "http://www.genxdm.org/serialization";
     private static final QName method = new QName(URI, "basic");
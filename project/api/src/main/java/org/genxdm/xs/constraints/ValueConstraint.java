@@ -92,4 +92,12 @@ public final class ValueConstraint
     {
         return lexicalForm;
     }
+
+    /**
+     * The type against which the lexical form is validated to give the value.
+     */
+    public SimpleType getConstrainedType()
+    {
+        return constrainedType;
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.benchmarks;
+
+import org.apache.axiom.om.impl.llom.factory.OMLinkedListImplFactory;
+import org.genxdm.ProcessingContext;
+import org.genxdm.bridge.compact.CompactProcessingContext;
+import org.genxdm.bridge.axiom.AxiomProcessingContext;
+import org.genxdm.bridge.cx.base.XmlNodeContext;
+import org.genxdm.bridge.dom.DomProcessingContext;
+
+/** The bridges under measurement.
+ *
+ * Every trial gets a fresh processing context, so that no state (name
+ * pools, schema caches) leaks from one parameter combination to the next.
+ */
+public enum Bridge
+{
+    CX
+    {
+        @Override
+        public ProcessingContext<?> newProcessingContext()
+        {
+            return new XmlNodeContext();
+        }
+    },
+    DOM
+    {
+        @Override
+        public ProcessingContext<?> newProcessingContext()
+        {
+            return new DomProcessingContext();
+        }
+    },
+    AXIOM
+    {
+        @Override
+        public ProcessingContext<?> newProcessingContext()
+        {
+            return new AxiomProcessingContext(new OMLinkedListImplFactory());
+        }
+    },
+    COMPACT
+    {
+        @Override
+        public ProcessingContext<?> newProcessingContext()
+        {
+            return new CompactProcessingContext();
+        }
+    };
+
+    public abstract ProcessingContext<?> newProcessingContext();
+}
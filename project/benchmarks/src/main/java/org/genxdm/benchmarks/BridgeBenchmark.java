@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Common parameters and setup for the benchmarks.
+ *
+ * Each trial is run for every combination of bridge, document shape, and
+ * document size; the parameters may be narrowed or widened from the JMH
+ * command line (for instance, <code>-p bridge=CX -p size=100000</code>).
+ * The fixture is built once per trial, outside of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class BridgeBenchmark
+{
+    @Setup(Level.Trial)
+    public void setUpFixture()
+        throws Exception
+    {
+        fixture = BridgeFixture.newFixture(bridge, shape, size);
+    }
+
+    @Param({ "CX", "DOM", "AXIOM", "COMPACT" })
+    public Bridge bridge;
+
+    @Param({ "RECORDS", "TREE" })
+    public DocumentShape shape;
+
+    /** Records for the record shape, nodes for the tree shape. */
+    @Param({ "100", "10000" })
+    public int size;
+
+    protected BridgeFixture<?, ?> fixture;
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.genxdm.Model;
+import org.genxdm.ProcessingContext;
+import org.genxdm.bridgekit.xs.DefaultCatalog;
+import org.genxdm.bridgekit.xs.DefaultCatalogResolver;
+import org.genxdm.bridgekit.xs.DefaultSchemaCatalog;
+import org.genxdm.exceptions.XdmMarshalException;
+import org.genxdm.io.DocumentHandler;
+import org.genxdm.processor.w3c.xs.W3cXmlSchemaParser;
+import org.genxdm.processor.w3c.xs.validation.ValidatorFactory;
+import org.genxdm.processor.xpath.v10.XPathToolkitFactoryImpl;
+import org.genxdm.typed.TypedContext;
+import org.genxdm.typed.ValidationHandler;
+import org.genxdm.xpath.v10.ExprParseException;
+import org.genxdm.xpath.v10.NodeDynamicContext;
+import org.genxdm.xpath.v10.NodeIterator;
+import org.genxdm.xpath.v10.NodeSetExpr;
+import org.genxdm.xpath.v10.StaticContext;
+import org.genxdm.xpath.v10.XPathCompiler;
+import org.genxdm.xpath.v10.XPathToolkit;
+import org.genxdm.xs.exceptions.AbortException;
+import org.genxdm.xs.exceptions.SchemaExceptionCatcher;
+import org.genxdm.xs.exceptions.SchemaExceptionThrower;
+
+/** Everything one benchmark trial needs for one bridge: the generated
+ * document (as bytes and as a tree), a schema-aware context with the
+ * benchmark schema loaded, validators, and a compiled XPath.
+ *
+ * Generic in the node and atom types of the bridge, so that the benchmark
+ * classes, which only see the wildcard, need not be.
+ *
+ * @param <N> the node handle type of the bridge
+ * @param <A> the atom type of the bridge
+ */
+public final class BridgeFixture<N, A>
+{
+    public static BridgeFixture<?, ?> newFixture(final Bridge bridge, final DocumentShape shape, final int size)
+        throws IOException, AbortException, ExprParseException
+    {
+        return create(bridge.newProcessingContext(), shape, size);
+    }
+
+    private static <N> BridgeFixture<N, Object> create(final ProcessingContext<N> context, final DocumentShape shape, final int size)
+        throws IOException, AbortException, ExprParseException
+    {
+        return new BridgeFixture<N, Object>(context, shape, size);
+    }
+
+    private BridgeFixture(final ProcessingContext<N> context, final DocumentShape shape, final int size)
+        throws IOException, AbortException, ExprParseException
+    {
+        m_model = context.getModel();
+        m_handler = context.newDocumentHandler();
+        m_bytes = DocumentGenerator.generate(shape, size).getBytes(StandardCharsets.UTF_8);
+        m_document = parse();
+
+        m_typed = context.getTypedContext(null);
+        loadSchema(m_typed);
+        final ValidatorFactory<N, A> factory = new ValidatorFactory<N, A>(m_typed);
+        m_validator = factory.newXdmContentValidator();
+        m_validator.setSchema(m_typed.getSchema());
+        m_validator.setSchemaExceptionHandler(m_errors);
+        m_treeValidator = factory.newXdmContentValidator();
+        m_treeValidator.setSchema(m_typed.getSchema());
+        m_treeValidator.setSchemaExceptionHandler(m_errors);
+
+        final XPathToolkit tools = new XPathToolkitFactoryImpl().newXPathToolkit();
+        m_compiler = tools.newXPathCompiler();
+        m_staticContext = tools.newExprContextStaticArgs();
+        m_staticContext.declareNamespace("b", DocumentGenerator.NAMESPACE);
+        m_path = shape.getPath();
+        m_expression = compile();
+        m_dynamicContext = tools.<N>newExprContextDynamicArgs().build();
+
+        // a benchmark that measures the wrong thing is worse than none
+        validate();
+        if (!m_errors.isEmpty())
+            throw new IllegalStateException("Generated " + shape + " document is invalid: " + m_errors.get(0).getMessage());
+        if (evaluate() == 0)
+            throw new IllegalStateException("Path " + m_path + " selects nothing in the " + shape + " document");
+    }
+
+    public N parse()
+        throws IOException, XdmMarshalException
+    {
+        return m_handler.parse(new ByteArrayInputStream(m_bytes), null);
+    }
+
+    /** Visit every node in document order through the first-child, next-sibling,
+     * and parent accessors, along with the attributes of each element.
+     *
+     * @return the number of nodes visited.
+     */
+    public int walk()
+    {
+        int count = 0;
+        N node = m_document;
+        while (node != null)
+        {
+            count++;
+            if (m_model.isElement(node))
+            {
+                for (final N attribute : m_model.getAttributeAxis(node, false))
+                {
+                    if (attribute != null)
+                        count++;
+                }
+            }
+            N next = m_model.getFirstChild(node);
+            while ((next == null) && !node.equals(m_document)) // handles need not be identical
+            {
+                next = m_model.getNextSibling(node);
+                if (next == null)
+                    node = m_model.getParent(node);
+            }
+            node = next;
+        }
+        return count;
+    }
+
+    /** Visit every node below the document through the descendant axis.
+     *
+     * @return the number of nodes visited.
+     */
+    public int descendants()
+    {
+        int count = 0;
+        for (final N node : m_model.getDescendantAxis(m_document))
+        {
+            if (node != null)
+                count++;
+        }
+        return count;
+    }
+
+    /** Stream the untyped document through the validator, discarding the output. */
+    public int validate()
+    {
+        m_errors.clear();
+        m_model.stream(m_document, m_validator);
+        return m_errors.size();
+    }
+
+    /** Validate the untyped document into a typed tree, as the bridge does it. */
+    public N validateInMemory()
+    {
+        m_errors.clear();
+        return m_typed.validate(m_document, m_treeValidator, null);
+    }
+
+    /** Serialize the document, discarding the characters.
+     *
+     * @return the number of characters written.
+     */
+    public long serialize()
+        throws IOException, XdmMarshalException
+    {
+        final CountingWriter writer = new CountingWriter();
+        m_handler.write(writer, m_document);
+        return writer.count;
+    }
+
+    public NodeSetExpr compile()
+        throws ExprParseException
+    {
+        return m_compiler.compileNodeSetExpr(m_path, m_staticContext);
+    }
+
+    /** Evaluate the precompiled path against the document.
+     *
+     * @return the number of nodes selected.
+     */
+    public int evaluate()
+    {
+        final NodeIterator<N> iterator = m_expression.nodeIterator(m_model, m_document, m_dynamicContext);
+        int count = 0;
+        while (iterator.next() != null)
+        {
+            count++;
+        }
+        return count;
+    }
+
+    private static void loadSchema(final TypedContext<?, ?> typed)
+        throws IOException, AbortException
+    {
+        final W3cXmlSchemaParser parser = new W3cXmlSchemaParser();
+        parser.setCatalogResolver(DefaultCatalogResolver.SINGLETON, new DefaultSchemaCatalog(new DefaultCatalog()));
+        parser.setComponentProvider(typed.getSchema().getComponentProvider());
+        final InputStream stream = BridgeFixture.class.getResourceAsStream(DocumentGenerator.SCHEMA);
+        if (stream == null)
+            throw new IllegalStateException("Missing resource " + DocumentGenerator.SCHEMA);
+        try
+        {
+            typed.getSchema().register(parser.parse(null, stream, null, SchemaExceptionThrower.SINGLETON));
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    /** A sink, so that serialization is not measured together with buffer growth. */
+    private static final class CountingWriter
+        extends Writer
+    {
+        @Override
+        public void write(final char[] buffer, final int offset, final int length)
+        {
+            count += length;
+        }
+
+        @Override
+        public void write(final String value, final int offset, final int length)
+        {
+            count += length;
+        }
+
+        @Override
+        public void write(final int c)
+        {
+            count++;
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        private long count;
+    }
+
+    private final Model<N> m_model;
+    private final DocumentHandler<N> m_handler;
+    private final byte[] m_bytes;
+    private final N m_document;
+    private final TypedContext<N, A> m_typed;
+    private final ValidationHandler<A> m_validator;
+    private final ValidationHandler<A> m_treeValidator;
+    private final SchemaExceptionCatcher m_errors = new SchemaExceptionCatcher();
+    private final XPathCompiler m_compiler;
+    private final StaticContext m_staticContext;
+    private final String m_path;
+    private final NodeSetExpr m_expression;
+    private final NodeDynamicContext<N> m_dynamicContext;
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.benchmarks;
+
+import java.util.Random;
+
+/** Produces repeatable benchmark documents of a given shape and size.
+ *
+ * Documents are generated as text, from a fixed seed, so that every bridge
+ * parses exactly the same input and runs from different builds can be
+ * compared.
+ */
+public final class DocumentGenerator
+{
+    private DocumentGenerator()
+    {
+    }
+
+    public static String generate(final DocumentShape shape, final int size)
+    {
+        if (size < 1)
+            throw new IllegalArgumentException("size must be positive: " + size);
+        final StringBuilder buffer = new StringBuilder(size * 160);
+        final Random random = new Random(SEED);
+        buffer.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        switch (shape)
+        {
+            case RECORDS :
+                records(buffer, size, random);
+                break;
+            case TREE :
+                buffer.append("<node xmlns=\"").append(NAMESPACE).append('"');
+                node(buffer, 0, 0, size, random);
+                break;
+            default :
+                throw new AssertionError(shape);
+        }
+        return buffer.toString();
+    }
+
+    private static void records(final StringBuilder buffer, final int size, final Random random)
+    {
+        buffer.append("<records xmlns=\"").append(NAMESPACE).append("\">\n");
+        for (int i = 0; i < size; i++)
+        {
+            buffer.append("  <record id=\"r").append(i).append("\" status=\"").append(STATUS[random.nextInt(STATUS.length)]).append("\">\n");
+            buffer.append("    <name>").append(WORDS[random.nextInt(WORDS.length)]).append(' ').append(WORDS[random.nextInt(WORDS.length)]).append("</name>\n");
+            buffer.append("    <amount>").append(random.nextInt(100000)).append('.').append(10 + random.nextInt(90)).append("</amount>\n");
+            buffer.append("    <date>20").append(10 + random.nextInt(20)).append('-').append(pad(1 + random.nextInt(12))).append('-').append(pad(1 + random.nextInt(28))).append("</date>\n");
+            final int tags = random.nextInt(4);
+            if (tags > 0)
+            {
+                buffer.append("    <tags>");
+                for (int t = 0; t < tags; t++)
+                {
+                    buffer.append("<tag>").append(WORDS[random.nextInt(WORDS.length)]).append("</tag>");
+                }
+                buffer.append("</tags>\n");
+            }
+            buffer.append("  </record>\n");
+        }
+        buffer.append("</records>\n");
+    }
+
+    /** Nodes are numbered as in a heap, so that the children of node i are
+     * 4i+1 .. 4i+4; the depth of recursion is logarithmic in the size.
+     * The start tag has been opened (without attributes) by the caller.
+     */
+    private static void node(final StringBuilder buffer, final int index, final int level, final int size, final Random random)
+    {
+        buffer.append(" id=\"n").append(index).append("\" level=\"").append(level).append("\">");
+        buffer.append("<label>").append(WORDS[random.nextInt(WORDS.length)]).append("</label>");
+        for (int child = index * FANOUT + 1; (child <= index * FANOUT + FANOUT) && (child < size); child++)
+        {
+            buffer.append("<node");
+            node(buffer, child, level + 1, size, random);
+        }
+        buffer.append("</node>");
+    }
+
+    private static String pad(final int value)
+    {
+        return (value < 10) ? "0" + value : Integer.toString(value);
+    }
+
+    public static final String NAMESPACE = "http://www.genxdm.org/benchmarks";
+    public static final String SCHEMA = "benchmark.xsd";
+
+    private static final long SEED = 20101010L;
+    private static final int FANOUT = 4;
+    private static final String [] STATUS = { "active", "closed", "pending" };
+    private static final String [] WORDS = { "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel", "india", "juliet", "kilo", "lima" };
+}
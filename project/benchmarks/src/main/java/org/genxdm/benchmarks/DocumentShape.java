@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.benchmarks;
+
+/** The shapes of document that {@link DocumentGenerator} can produce.
+ *
+ * Each shape is valid against benchmark.xsd, and carries an XPath that
+ * selects a proper subset of its nodes, using the prefix "b" for the
+ * benchmark namespace.
+ */
+public enum DocumentShape
+{
+    /** A document element with one shallow, wide record per unit of size. */
+    RECORDS("/b:records/b:record[@status='active']/b:amount"),
+    /** A balanced tree of nested nodes, four children each, one node per unit of size. */
+    TREE("//b:node[@level='3']/b:label");
+
+    private DocumentShape(final String path)
+    {
+        this.path = path;
+    }
+
+    public String getPath()
+    {
+        return path;
+    }
+
+    private final String path;
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/** Navigating a parsed document, both by the primitive accessors and
+ * by the descendant axis.
+ */
+public class TraversalBenchmark
+    extends BridgeBenchmark
+{
+    @Benchmark
+    public int walk()
+    {
+        return fixture.walk();
+    }
+
+    @Benchmark
+    public int descendantAxis()
+    {
+        return fixture.descendants();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/** Validating a parsed document against the benchmark schema, both
+ * as a stream with the output discarded (the cost of the validator itself)
+ * and in memory (which adds building or annotating the typed tree).
+ */
+public class ValidationBenchmark
+    extends BridgeBenchmark
+{
+    @Benchmark
+    public int validateStream()
+    {
+        return fixture.validate();
+    }
+
+    @Benchmark
+    public Object validateInMemory()
+    {
+        return fixture.validateInMemory();
+    }
+}
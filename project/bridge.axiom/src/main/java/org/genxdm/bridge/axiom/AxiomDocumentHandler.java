@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.axiom;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.axiom.om.OMDocument;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.exceptions.XdmMarshalException;
+import org.genxdm.processor.io.DefaultDocumentHandler;
+
+/** DocumentHandler returned by the AxiomProcessingContext.
+ *
+ * By default, this handler behaves exactly as the DefaultDocumentHandler:
+ * the whole tree is built as the document is parsed. Calling
+ * {@link #setDeferredBuilding(boolean)} hands the parse to Axiom's own
+ * StAX builder instead, which builds nodes only as navigation reaches them:
+ * a document returned from a deferred parse is (mostly) unbuilt, and
+ * processing that looks only at the start of a large document (the header
+ * of a SOAP envelope, say) never builds the rest of it.
+ *
+ * The price of deferral is that the stream or reader must remain open
+ * until the document has been built as far as it is going to be (or until
+ * it is abandoned); closing it earlier causes later navigation to fail.
+ * Deferred documents also do not index their ID attributes as they are
+ * parsed, so getElementById() will not find elements in them.
+ */
+public class AxiomDocumentHandler
+    extends DefaultDocumentHandler<Object>
+{
+    public AxiomDocumentHandler(final AxiomProcessingContext context)
+    {
+        super(context);
+        this.context = context;
+    }
+
+    /** Select whether parsing builds the whole tree, or defers building.
+     *
+     * @param deferred if true, parse with Axiom's builder, which builds nodes
+     * on demand; if false (the default), build the tree as it is parsed.
+     */
+    public void setDeferredBuilding(boolean deferred)
+    {
+        this.deferred = deferred;
+    }
+
+    public boolean isDeferredBuilding()
+    {
+        return deferred;
+    }
+
+    @Override
+    public Object parse(InputStream byteStream, String systemId)
+        throws IOException, XdmMarshalException
+    {
+        if (!deferred)
+            return super.parse(byteStream, systemId);
+        PreCondition.assertNotNull(byteStream, "byteStream");
+        try
+        {
+            if (systemId == null)
+                return defer(ipf.createXMLStreamReader(byteStream), null);
+            return defer(ipf.createXMLStreamReader(systemId, byteStream), systemId);
+        }
+        catch (XMLStreamException xse)
+        {
+            throw new XdmMarshalException(xse);
+        }
+    }
+
+    @Override
+    public Object parse(Reader characterStream, String systemId)
+        throws IOException, XdmMarshalException
+    {
+        if (!deferred)
+            return super.parse(characterStream, systemId);
+        PreCondition.assertNotNull(characterStream, "characterStream");
+        try
+        {
+            if (systemId == null)
+                return defer(ipf.createXMLStreamReader(characterStream), null);
+            return defer(ipf.createXMLStreamReader(systemId, characterStream), systemId);
+        }
+        catch (XMLStreamException xse)
+        {
+            throw new XdmMarshalException(xse);
+        }
+    }
+
+    private OMDocument defer(final XMLStreamReader reader, final String systemId)
+        throws XdmMarshalException
+    {
+        // the builder reads no further than it must to create the document node;
+        // the rest is read as AxiomModel navigates into the tree.
+        final OMDocument document = OMXMLBuilderFactory.createStAXOMBuilder(context.getOMFactory(), reader).getDocument();
+        if (systemId != null)
+        {
+            try
+            {
+                final URI uri = new URI(systemId);
+                synchronized (AxiomProcessingContext.docURIs)
+                {
+                    AxiomProcessingContext.docURIs.put(document, uri);
+                }
+            }
+            catch (URISyntaxException use)
+            {
+                throw new XdmMarshalException(use);
+            }
+        }
+        return document;
+    }
+
+    private final AxiomProcessingContext context;
+    private boolean deferred;
+}
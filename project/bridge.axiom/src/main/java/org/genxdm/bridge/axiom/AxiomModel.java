@@ -15,6 +15,7 @@
  */
 package org.genxdm.bridge.axiom;
 
+import java.lang.ref.WeakReference;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -51,6 +52,8 @@ import org.genxdm.bridgekit.axes.IterablePrecedingSiblingAxis;
 import org.genxdm.bridgekit.misc.AbstractReferenceMap;
 import org.genxdm.bridgekit.misc.ReferenceIdentityMap;
 import org.genxdm.bridgekit.names.QNameComparator;
+import org.genxdm.bridgekit.tree.DocumentOrderIndex;
+import org.genxdm.bridgekit.tree.OrderIndexProvider;
 import org.genxdm.bridgekit.tree.Ordering;
 import org.genxdm.exceptions.GenXDMException;
 import org.genxdm.exceptions.PreCondition;
@@ -60,12 +63,28 @@ import org.genxdm.names.NamespaceBinding;
 import org.genxdm.nodes.NodeIndex;
 
 public class AxiomModel
-    implements Model<Object>
+    implements Model<Object>, OrderIndexProvider<Object>
 {
 
     @Override
     public int compare(Object one, Object two)
     {
+        if (one == two)
+            return Ordering.EQUAL;
+        // the last index used answers without a walk to the root, or the side table, while it is current.
+        final DocumentOrderIndex<Object> last = lastIndex.get();
+        if (last != null)
+        {
+            final int result = last.compareIfCurrent(one, two, this);
+            if (result != DocumentOrderIndex.UNKNOWN)
+                return result;
+        }
+        final DocumentOrderIndex<Object> index = getOrderIndex(one);
+        if (index != last)
+            lastIndex = new WeakReference<DocumentOrderIndex<Object>>(index);
+        final int result = index.compare(one, two, this);
+        if (result != DocumentOrderIndex.UNKNOWN)
+            return result;
         return Ordering.compareNodes(one, two, this);
     }
 
@@ -1446,6 +1465,44 @@ public class AxiomModel
         return null;
     }
     
+    /**
+     * Supplies the document order index for the tree containing a node, creating it if necessary.
+     * Axiom nodes have nowhere to keep it, so it is held in a side table keyed by the root;
+     * {@link #compare} tries the last index it used before it comes here.
+     */
+    @Override
+    public DocumentOrderIndex<Object> getOrderIndex(final Object node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        final Object root = getRoot(node);
+        synchronized (orderIndexes)
+        {
+            DocumentOrderIndex<Object> index = orderIndexes.get(root);
+            if (index == null)
+            {
+                index = new DocumentOrderIndex<Object>(root);
+                orderIndexes.put(root, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Invalidates the document order index for the tree containing a node, if there is one.
+     * Must be called for every change to the child axis.
+     */
+    protected void invalidateOrderIndex(final Object node)
+    {
+        final Object root = getRoot(node);
+        final DocumentOrderIndex<Object> index;
+        synchronized (orderIndexes)
+        {
+            index = orderIndexes.get(root);
+        }
+        if (index != null)
+            index.invalidate();
+    }
+
     // done as static so that the fragmentbuilder can use the only map that we want to have around.
     static public AttributeIdentity attributeIdentity(OMAttribute attr)
     {
@@ -1545,4 +1602,10 @@ public class AxiomModel
     }
 
     private static final Map<OMAttribute, AttributeIdentity> attributes = new ReferenceIdentityMap<OMAttribute, AttributeIdentity>(AbstractReferenceMap.ReferenceStrength.WEAK, AbstractReferenceMap.ReferenceStrength.HARD);
+    // the index refers to every node of its tree, and so to the root; held softly, so that
+    // the tree can still be collected (the index is simply rebuilt if it is needed again).
+    private static final Map<Object, DocumentOrderIndex<Object>> orderIndexes = new ReferenceIdentityMap<Object, DocumentOrderIndex<Object>>(AbstractReferenceMap.ReferenceStrength.WEAK, AbstractReferenceMap.ReferenceStrength.SOFT);
+
+    // held weakly, as in the side table, so that the model does not keep the tree of the last comparison alive.
+    private volatile WeakReference<DocumentOrderIndex<Object>> lastIndex = new WeakReference<DocumentOrderIndex<Object>>(null);
 }
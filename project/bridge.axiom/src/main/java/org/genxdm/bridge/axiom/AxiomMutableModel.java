@@ -58,6 +58,8 @@ public class AxiomMutableModel
         PreCondition.assertNotNull(content, "content");
         OMContainer container = AxiomSupport.dynamicDowncastContainer(parent);
         OMNode childNode = AxiomSupport.staticDowncastNode(content);
+        invalidateOrderIndex(content);
+        invalidateOrderIndex(parent);
         container.addChild(childNode);
     }
 
@@ -124,6 +126,7 @@ public class AxiomMutableModel
             default :
                 OMNode node = AxiomSupport.dynamicDowncastNode(target);
                 //OMContainer container = node.getParent();
+                invalidateOrderIndex(node);
                 
                 node.detach();
 
@@ -140,6 +143,7 @@ public class AxiomMutableModel
     {
         PreCondition.assertNotNull(target, "target");
         OMContainer container = AxiomSupport.dynamicDowncastContainer(target);
+        invalidateOrderIndex(container);
         OMNode current = container.getFirstOMChild();
         OMNode next = current.getNextOMSibling();
         List<Object> list = new ArrayList<Object>();
@@ -165,6 +169,8 @@ public class AxiomMutableModel
         PreCondition.assertNotNull(content, "content");
         OMNode t = AxiomSupport.dynamicDowncastNode(target);
         OMNode c = AxiomSupport.dynamicDowncastNode(content);
+        invalidateOrderIndex(c);
+        invalidateOrderIndex(t);
         t.insertSiblingAfter(c);
     }
 
@@ -224,6 +230,8 @@ public class AxiomMutableModel
         PreCondition.assertNotNull(content, "content");
         OMNode t = AxiomSupport.dynamicDowncastNode(target);
         OMNode c = AxiomSupport.dynamicDowncastNode(content);
+        invalidateOrderIndex(c);
+        invalidateOrderIndex(t);
         insertBeforeWorkAround(t, c);
     }
 
@@ -262,6 +270,8 @@ public class AxiomMutableModel
         OMContainer container = AxiomSupport.dynamicDowncastContainer(parent);
         OMNode node = AxiomSupport.dynamicDowncastNode(content);
         OMNode first = container.getFirstOMChild();
+        invalidateOrderIndex(node);
+        invalidateOrderIndex(container);
         first.insertSiblingBefore(node);
     }
 
@@ -314,6 +324,8 @@ public class AxiomMutableModel
                 {
                     OMNode original = AxiomSupport.dynamicDowncastNode(target);
                     OMNode replacement = AxiomSupport.dynamicDowncastNode(content);
+                    invalidateOrderIndex(replacement);
+                    invalidateOrderIndex(original);
                     
                     OMContainer originalParent = insertBeforeWorkAround(
                             original, replacement);
@@ -349,6 +361,7 @@ public class AxiomMutableModel
             case TEXT :
                 // can't actually replace a text node's value, in axiom
                 OMText node = AxiomSupport.dynamicDowncastText(target);
+                invalidateOrderIndex(node);
                 insertBeforeWorkAround(node, factory.createText(value));
                 node.detach();
                 return node.getText();
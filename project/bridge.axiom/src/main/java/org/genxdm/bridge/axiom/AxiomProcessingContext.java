@@ -34,7 +34,6 @@ import org.genxdm.bridgekit.misc.UnaryIterable;
 import org.genxdm.bridgekit.tree.CursorOnModel;
 import org.genxdm.bridgekit.tree.MutableCursorOnMutableModel;
 import org.genxdm.exceptions.PreCondition;
-import org.genxdm.io.DocumentHandler;
 import org.genxdm.io.FragmentBuilder;
 import org.genxdm.io.Resolver;
 import org.genxdm.io.SerializationParams;
@@ -42,7 +41,6 @@ import org.genxdm.mutable.MutableContext;
 import org.genxdm.mutable.MutableCursor;
 import org.genxdm.mutable.MutableModel;
 import org.genxdm.mutable.NodeFactory;
-import org.genxdm.processor.io.DefaultDocumentHandler;
 import org.genxdm.xs.SchemaComponentCache;
 
 /** ProcessingContext to support abstraction of the AxiOM LLOM tree model.
@@ -81,31 +79,34 @@ public class AxiomProcessingContext
         this.omfactory = factory;
     }
     
+    /** @return an {@link AxiomDocumentHandler}, which may be asked to defer
+     * building the documents that it parses.
+     */
     @Override
-    public DocumentHandler<Object> newDocumentHandler()
+    public AxiomDocumentHandler newDocumentHandler()
     {
-        DocumentHandler<Object> handler = new DefaultDocumentHandler<Object>(this);
+        AxiomDocumentHandler handler = new AxiomDocumentHandler(this);
         // TODO: should the DocumentHandler interface grow these methods?
         if (resolver != null)
-            ((DefaultDocumentHandler<Object>)handler).setResolver(resolver);
+            handler.setResolver(resolver);
         if (reporter != null)
-            ((DefaultDocumentHandler<Object>)handler).setReporter(reporter);
+            handler.setReporter(reporter);
         return handler;
     }
 
     @Override
-    public DocumentHandler<Object> newDocumentHandler(XMLReporter aReporter, Resolver aResolver)
+    public AxiomDocumentHandler newDocumentHandler(XMLReporter aReporter, Resolver aResolver)
     {
-        DocumentHandler<Object> handler = new DefaultDocumentHandler<Object>(this);
+        AxiomDocumentHandler handler = new AxiomDocumentHandler(this);
         // TODO: should supplying a null reporter or resolver override a non-null default reporter or resolver?
         if (aResolver != null)
-            ((DefaultDocumentHandler<Object>)handler).setResolver(aResolver);
+            handler.setResolver(aResolver);
         else if (resolver != null)
-            ((DefaultDocumentHandler<Object>)handler).setResolver(resolver);
+            handler.setResolver(resolver);
         if (aReporter != null)
-            ((DefaultDocumentHandler<Object>)handler).setReporter(aReporter);
+            handler.setReporter(aReporter);
         else if (reporter != null)
-            ((DefaultDocumentHandler<Object>)handler).setReporter(reporter);
+            handler.setReporter(reporter);
         return handler;
     }
     
@@ -15,9 +15,21 @@
  */
 package org.genxdm.bridge.axiom.tests;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.net.URI;
+
+import org.apache.axiom.om.OMContainer;
 import org.apache.axiom.om.impl.llom.factory.OMLinkedListImplFactory;
+import org.genxdm.Model;
+import org.genxdm.bridge.axiom.AxiomDocumentHandler;
 import org.genxdm.bridge.axiom.AxiomProcessingContext;
 import org.genxdm.processor.io.tests.ParseBase;
+import org.junit.Test;
 
 public class ParseTest
     extends ParseBase<Object>
@@ -29,4 +41,41 @@ public class ParseTest
         return new AxiomProcessingContext(new OMLinkedListImplFactory());
     }
 
+    @Test
+    public void deferredBuilding()
+        throws Exception
+    {
+        AxiomProcessingContext context = newProcessingContext();
+        AxiomDocumentHandler handler = context.newDocumentHandler();
+        assertFalse(handler.isDeferredBuilding());
+        handler.setDeferredBuilding(true);
+        Object document = handler.parse(new StringReader(ENVELOPE), "http://www.genxdm.org/envelope.xml");
+        Model<Object> model = context.getModel();
+        assertFalse(((OMContainer)document).isComplete());
+        assertEquals(new URI("http://www.genxdm.org/envelope.xml"), model.getDocumentURI(document));
+
+        // reading the header leaves the body unbuilt
+        Object envelope = model.getFirstChildElement(document);
+        Object header = model.getFirstChildElement(envelope);
+        assertEquals("Header", model.getLocalName(header));
+        assertEquals("first", model.getStringValue(header));
+        assertFalse(((OMContainer)envelope).isComplete());
+
+        Object body = model.getNextSiblingElement(header);
+        assertNotNull(body);
+        assertEquals("Body", model.getLocalName(body));
+        assertEquals("second", model.getAttributeStringValue(body, "", "id"));
+
+        // navigated fully, the deferred document is the same as the eager one
+        handler.setDeferredBuilding(false);
+        Object eager = handler.parse(new StringReader(ENVELOPE), null);
+        assertEquals(model.getStringValue(eager), model.getStringValue(document));
+        assertTrue(((OMContainer)document).isComplete());
+    }
+
+    private static final String ENVELOPE =
+        "<e:Envelope xmlns:e='http://www.genxdm.org/envelope'>" +
+        "<e:Header>first</e:Header>" +
+        "<e:Body id='second'><payload>one</payload><payload>two</payload><!-- end --></e:Body>" +
+        "</e:Envelope>";
 }
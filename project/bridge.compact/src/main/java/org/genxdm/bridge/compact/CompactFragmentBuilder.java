@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import org.genxdm.NodeKind;
+import org.genxdm.exceptions.GenXDMException;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.io.DtdAttributeKind;
+import org.genxdm.io.FragmentBuilder;
+
+/**
+ * Builds {@link CompactTree}s.  Nodes are appended to growable working
+ * arrays as their events arrive; when the outermost node is complete, the
+ * arrays are copied, trimmed to size, into a new tree, and reused for the
+ * next one.
+ *
+ * <p>Namespaces and attributes are held back until the element's first child
+ * (or its end) so that they can be stored namespaces first, whatever order
+ * they were reported in.  As in the other bridges, a later attribute with
+ * the same name replaces an earlier one, and the first declaration of a
+ * prefix wins.  Adjacent text is not coalesced.</p>
+ */
+public class CompactFragmentBuilder
+    implements FragmentBuilder<CompactNode>
+{
+    CompactFragmentBuilder(final CompactNames names)
+    {
+        this(names, false);
+    }
+
+    CompactFragmentBuilder(final CompactNames names, final boolean typed)
+    {
+        this.names = PreCondition.assertNotNull(names, "names");
+        this.typed = typed;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public void attribute(final String namespaceURI, final String localName, final String prefix, final String value, final DtdAttributeKind type)
+        throws GenXDMException
+    {
+        addAttribute(namespaceURI, localName, prefix, value, type, null, null);
+    }
+
+    public void close()
+        throws IOException
+    {
+        flush();
+    }
+
+    public void comment(final String value)
+        throws GenXDMException
+    {
+        addLeaf(NodeKind.COMMENT, NO_NAME, value, null);
+    }
+
+    public void endDocument()
+        throws GenXDMException
+    {
+        // this one should be for the document; if it wasn't, there were elements open.  close 'em all.
+        endContainer();
+        while (depth > 0)
+            endContainer();
+    }
+
+    public void endElement()
+        throws GenXDMException
+    {
+        endContainer();
+    }
+
+    public void flush()
+        throws IOException
+    {
+        // nothing is buffered between events
+    }
+
+    public CompactNode getNode()
+    {
+        if (nodes.size() > 0)
+            return nodes.get(0);
+        return null;
+    }
+
+    public List<CompactNode> getNodes()
+    {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    public void namespace(final String prefix, final String namespaceURI)
+        throws GenXDMException
+    {
+        final String nsPrefix = nonNull(prefix);
+        final String uri = nonNull(namespaceURI);
+        if (depth == 0)
+        {
+            add(NodeKind.NAMESPACE, null, names.intern(XMLConstants.NULL_NS_URI, nsPrefix, XMLConstants.DEFAULT_NS_PREFIX), uri, null, null);
+            endTree();
+            return;
+        }
+        checkPending();
+        for (final Pending ns : pending)
+        {
+            if (ns.namespace && ns.localName.equals(nsPrefix))
+                return;
+        }
+        pending.add(new Pending(true, XMLConstants.NULL_NS_URI, nsPrefix, XMLConstants.DEFAULT_NS_PREFIX, uri, null, null, null));
+    }
+
+    public void processingInstruction(final String target, final String data)
+        throws GenXDMException
+    {
+        addLeaf(NodeKind.PROCESSING_INSTRUCTION, names.intern(XMLConstants.NULL_NS_URI, target, XMLConstants.DEFAULT_NS_PREFIX), data, null);
+    }
+
+    public void reset()
+    {
+        count = 0;
+        charCount = 0;
+        depth = 0;
+        pending.clear();
+        elementOpen = false;
+        nodes.clear();
+    }
+
+    public void startDocument(final URI documentURI, final String docTypeDecl)
+        throws GenXDMException
+    {
+        if (depth > 0)
+            throw new IllegalStateException("A document cannot be contained by a document or element.");
+        this.documentURI = documentURI;
+        this.docTypeDecl = docTypeDecl;
+        add(NodeKind.DOCUMENT, null, NO_NAME, null, null, null);
+        push(count - 1);
+    }
+
+    public void startElement(final String namespaceURI, final String localName, final String prefix)
+        throws GenXDMException
+    {
+        openElement(namespaceURI, localName, prefix, null);
+    }
+
+    public void text(final String data)
+        throws GenXDMException
+    {
+        addLeaf(NodeKind.TEXT, NO_NAME, data, null);
+    }
+
+    protected void openElement(final String namespaceURI, final String localName, final String prefix, final QName type)
+    {
+        flushPending();
+        add(NodeKind.ELEMENT, null, names.intern(nonNull(namespaceURI), localName, nonNull(prefix)), null, type, null);
+        push(count - 1);
+        elementOpen = true;
+    }
+
+    protected void addAttribute(final String namespaceURI, final String localName, final String prefix, final String value, final DtdAttributeKind dtdKind, final QName type, final List<?> atoms)
+    {
+        final String uri = nonNull(namespaceURI);
+        final String attPrefix = nonNull(prefix);
+        if (depth == 0)
+        {
+            add(NodeKind.ATTRIBUTE, dtdKind, names.intern(uri, localName, attPrefix), value, type, atoms);
+            endTree();
+            return;
+        }
+        checkPending();
+        final Pending attribute = new Pending(false, uri, localName, attPrefix, value, dtdKind, type, atoms);
+        for (int i = 0; i < pending.size(); i++)
+        {
+            final Pending existing = pending.get(i);
+            if (!existing.namespace && existing.localName.equals(localName) && existing.namespaceURI.equals(uri))
+            {
+                pending.set(i, attribute);
+                return;
+            }
+        }
+        pending.add(attribute);
+    }
+
+    protected void addLeaf(final NodeKind kind, final int nameId, final String value, final List<?> atoms)
+    {
+        flushPending();
+        add(kind, null, nameId, value, null, atoms);
+        if (depth == 0)
+            endTree();
+    }
+
+    private void add(final NodeKind kind, final DtdAttributeKind dtdKind, final int nameId, final String text, final QName type, final Object atoms)
+    {
+        if (count + 1 >= kinds.length)
+            grow();
+        final int parent = (depth > 0) ? open[depth - 1] : CompactTree.NONE;
+        kinds[count] = CompactTree.pack(kind, dtdKind);
+        parents[count] = parent;
+        nexts[count] = CompactTree.NONE;
+        nameIds[count] = nameId;
+        texts[count] = charCount;
+        if (text != null)
+            appendChars(text);
+        if (typed)
+        {
+            types[count] = type;
+            values[count] = atoms;
+        }
+        if ((parent != CompactTree.NONE) && (kind != NodeKind.ATTRIBUTE) && (kind != NodeKind.NAMESPACE))
+        {
+            final int previous = lastChild[depth - 1];
+            if (previous != CompactTree.NONE)
+                nexts[previous] = count;
+            lastChild[depth - 1] = count;
+        }
+        count++;
+    }
+
+    private void appendChars(final String text)
+    {
+        final int length = text.length();
+        if (charCount + length > chars.length)
+            chars = Arrays.copyOf(chars, Math.max(chars.length << 1, charCount + length));
+        text.getChars(0, length, chars, charCount);
+        charCount += length;
+    }
+
+    private void push(final int index)
+    {
+        if (depth == open.length)
+        {
+            open = CompactModel.grow(open);
+            lastChild = CompactModel.grow(lastChild);
+        }
+        open[depth] = index;
+        lastChild[depth] = CompactTree.NONE;
+        depth++;
+    }
+
+    private void endContainer()
+    {
+        flushPending();
+        if (depth == 0)
+            throw new IllegalStateException("Closed a container that was never opened.");
+        depth--;
+        if (depth == 0)
+            endTree();
+    }
+
+    private void checkPending()
+    {
+        if (!elementOpen)
+            throw new IllegalStateException("Namespaces and attributes must precede the content of an element.");
+    }
+
+    /** Write the held-back namespaces, then attributes, of the current element. */
+    private void flushPending()
+    {
+        if (!elementOpen)
+            return;
+        elementOpen = false;
+        if (pending.isEmpty())
+            return;
+        for (final Pending ns : pending)
+        {
+            if (ns.namespace)
+                add(NodeKind.NAMESPACE, null, names.intern(ns.namespaceURI, ns.localName, ns.prefix), ns.value, null, null);
+        }
+        for (final Pending att : pending)
+        {
+            if (!att.namespace)
+                add(NodeKind.ATTRIBUTE, att.dtdKind, names.intern(att.namespaceURI, att.localName, att.prefix), att.value, att.type, att.atoms);
+        }
+        pending.clear();
+    }
+
+    private void endTree()
+    {
+        texts[count] = charCount;
+        final CompactTree tree = new CompactTree(names, Arrays.copyOf(kinds, count), Arrays.copyOf(parents, count),
+                                                 Arrays.copyOf(nexts, count), Arrays.copyOf(nameIds, count),
+                                                 Arrays.copyOf(texts, count + 1), Arrays.copyOf(chars, charCount),
+                                                 typed ? Arrays.copyOf(types, count) : null,
+                                                 typed ? Arrays.copyOf(values, count) : null,
+                                                 documentURI, docTypeDecl);
+        nodes.add(new CompactNode(tree, 0));
+        count = 0;
+        charCount = 0;
+        documentURI = null;
+        docTypeDecl = null;
+        if (kinds.length > RETAINED_CAPACITY)
+            allocate(INITIAL_CAPACITY);
+    }
+
+    private void grow()
+    {
+        final int capacity = kinds.length << 1;
+        kinds = Arrays.copyOf(kinds, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        nexts = Arrays.copyOf(nexts, capacity);
+        nameIds = Arrays.copyOf(nameIds, capacity);
+        texts = Arrays.copyOf(texts, capacity);
+        if (typed)
+        {
+            types = Arrays.copyOf(types, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private void allocate(final int capacity)
+    {
+        kinds = new byte[capacity];
+        parents = new int[capacity];
+        nexts = new int[capacity];
+        nameIds = new int[capacity];
+        texts = new int[capacity];
+        chars = new char[capacity * 8];
+        if (typed)
+        {
+            types = new QName[capacity];
+            values = new Object[capacity];
+        }
+    }
+
+    private static String nonNull(final String value)
+    {
+        return (value == null) ? XMLConstants.NULL_NS_URI : value;
+    }
+
+    private static final class Pending
+    {
+        Pending(final boolean namespace, final String namespaceURI, final String localName, final String prefix,
+                final String value, final DtdAttributeKind dtdKind, final QName type, final List<?> atoms)
+        {
+            this.namespace = namespace;
+            this.namespaceURI = namespaceURI;
+            this.localName = localName;
+            this.prefix = prefix;
+            this.value = value;
+            this.dtdKind = dtdKind;
+            this.type = type;
+            this.atoms = atoms;
+        }
+
+        final boolean namespace;
+        final String namespaceURI;
+        final String localName;
+        final String prefix;
+        final String value;
+        final DtdAttributeKind dtdKind;
+        final QName type;
+        final List<?> atoms;
+    }
+
+    private static final int NO_NAME = CompactTree.NONE;
+    private static final int INITIAL_CAPACITY = 64;
+    // working arrays grown beyond this are dropped after each tree, rather than kept
+    private static final int RETAINED_CAPACITY = 1 << 16;
+
+    private final CompactNames names;
+    private final boolean typed;
+    private final List<CompactNode> nodes = new ArrayList<CompactNode>();
+    private final List<Pending> pending = new ArrayList<Pending>();
+
+    private byte[] kinds;
+    private int[] parents;
+    private int[] nexts;
+    private int[] nameIds;
+    private int[] texts;
+    private char[] chars;
+    private QName[] types;
+    private Object[] values;
+    private int count;
+    private int charCount;
+
+    private int[] open = new int[16];
+    private int[] lastChild = new int[16];
+    private int depth;
+    private boolean elementOpen;
+    private URI documentURI;
+    private String docTypeDecl;
+}
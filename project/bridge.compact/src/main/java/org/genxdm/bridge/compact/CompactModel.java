@@ -0,0 +1,738 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import org.genxdm.Model;
+import org.genxdm.NodeKind;
+import org.genxdm.bridgekit.axes.IterableAncestorAxis;
+import org.genxdm.bridgekit.axes.IterableAncestorOrSelfAxis;
+import org.genxdm.bridgekit.axes.IterableChildAxis;
+import org.genxdm.bridgekit.axes.IterableChildAxisElements;
+import org.genxdm.bridgekit.axes.IterableChildAxisElementsByName;
+import org.genxdm.bridgekit.axes.IterableFollowingAxis;
+import org.genxdm.bridgekit.axes.IterableFollowingSiblingAxis;
+import org.genxdm.bridgekit.axes.IterablePrecedingAxis;
+import org.genxdm.bridgekit.axes.IterablePrecedingSiblingAxis;
+import org.genxdm.bridgekit.misc.UnaryIterable;
+import org.genxdm.bridgekit.names.DefaultNamespaceBinding;
+import org.genxdm.bridgekit.names.FingerprintProvider;
+import org.genxdm.bridgekit.names.NamePool;
+import org.genxdm.bridgekit.names.QNameComparator;
+import org.genxdm.bridgekit.tree.Ordering;
+import org.genxdm.exceptions.GenXDMException;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.io.ContentHandler;
+import org.genxdm.names.NamespaceBinding;
+import org.genxdm.nodes.NodeIndex;
+
+public class CompactModel
+    implements Model<CompactNode>, FingerprintProvider<CompactNode>
+{
+    CompactModel()
+    {
+    }
+
+    @Override
+    public void stream(final CompactNode node, final ContentHandler handler)
+        throws GenXDMException
+    {
+        PreCondition.assertNotNull(node, "node");
+        final CompactTree tree = node.tree;
+        if (node.isCopy())
+        {
+            if (tree.getNodeKind(node.index) == NodeKind.NAMESPACE)
+                handler.namespace(tree.getLocalName(node.index), tree.getText(node.index));
+            else
+                handler.attribute(tree.getNamespaceURI(node.index), tree.getLocalName(node.index), tree.getPrefix(node.index), tree.getText(node.index), tree.getDtdAttributeKind(node.index));
+            return;
+        }
+        final int end = tree.getSubtreeEnd(node.index);
+        // containers still open, innermost last
+        int[] open = new int[16];
+        int depth = 0;
+        for (int index = node.index; index < end; index++)
+        {
+            final int parent = tree.getParent(index);
+            while ((depth > 0) && (open[depth - 1] != parent))
+                close(tree, open[--depth], handler);
+            switch (tree.getNodeKind(index))
+            {
+                case DOCUMENT :
+                    handler.startDocument(tree.getDocumentURI(), tree.getDocTypeDecl());
+                    break;
+                case ELEMENT :
+                    handler.startElement(tree.getNamespaceURI(index), tree.getLocalName(index), tree.getPrefix(index));
+                    break;
+                case NAMESPACE :
+                    handler.namespace(tree.getLocalName(index), tree.getText(index));
+                    continue;
+                case ATTRIBUTE :
+                    handler.attribute(tree.getNamespaceURI(index), tree.getLocalName(index), tree.getPrefix(index), tree.getText(index), tree.getDtdAttributeKind(index));
+                    continue;
+                case TEXT :
+                    handler.text(tree.getText(index));
+                    continue;
+                case COMMENT :
+                    handler.comment(tree.getText(index));
+                    continue;
+                case PROCESSING_INSTRUCTION :
+                    handler.processingInstruction(tree.getLocalName(index), tree.getText(index));
+                    continue;
+                default :
+                    throw new AssertionError(tree.getNodeKind(index));
+            }
+            if (depth == open.length)
+                open = grow(open);
+            open[depth++] = index;
+        }
+        while (depth > 0)
+            close(tree, open[--depth], handler);
+    }
+
+    @Override
+    public int compare(final CompactNode n1, final CompactNode n2)
+    {
+        if ((n1.tree == n2.tree) && !n1.isCopy() && !n2.isCopy())
+        {
+            if (n1.index == n2.index)
+                return Ordering.EQUAL;
+            return (n1.index < n2.index) ? Ordering.BEFORE : +1;
+        }
+        return Ordering.compareNodes(n1, n2, this);
+    }
+
+    @Override
+    public Iterable<QName> getAttributeNames(final CompactNode node, final boolean orderCanonical)
+    {
+        PreCondition.assertNotNull(node, "node");
+        final CompactTree tree = node.tree;
+        // null for anything but an element; empty for an element without attributes
+        if (node.isCopy() || !tree.isKind(node.index, NodeKind.ELEMENT))
+            return null;
+        if (tree.getFirst(node.index, NodeKind.ATTRIBUTE) == CompactTree.NONE)
+            return new UnaryIterable<QName>(null);
+        final List<QName> names = new ArrayList<QName>();
+        final int end = tree.getContentStart(node.index);
+        for (int index = node.index + 1; index < end; index++)
+        {
+            if (tree.isKind(index, NodeKind.ATTRIBUTE))
+                names.add(tree.getName(index));
+        }
+        if (orderCanonical)
+            Collections.sort(names, new QNameComparator());
+        return names;
+    }
+
+    @Override
+    public String getAttributeStringValue(final CompactNode parent, final String namespaceURI, final String localName)
+    {
+        final int attribute = getAttributeIndex(parent, namespaceURI, localName);
+        if (attribute == CompactTree.NONE)
+            return null;
+        return parent.tree.getText(attribute);
+    }
+
+    @Override
+    public URI getBaseURI(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        if (node.tree.isKind(0, NodeKind.DOCUMENT))
+            return node.tree.getDocumentURI();
+        return null;
+    }
+
+    @Override
+    public URI getDocumentURI(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        if (!node.isCopy() && node.tree.isKind(node.index, NodeKind.DOCUMENT))
+            return node.tree.getDocumentURI();
+        return null;
+    }
+
+    @Override
+    public NodeIndex getIndex(final CompactNode node)
+    {
+        // not supported; see CompactProcessingContext.isSupported
+        return null;
+    }
+
+    @Override
+    public String getLocalName(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.getLocalName(node.index);
+    }
+
+    @Override
+    public Iterable<NamespaceBinding> getNamespaceBindings(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        final CompactTree tree = node.tree;
+        if (node.isCopy() || (tree.getFirst(node.index, NodeKind.NAMESPACE) == CompactTree.NONE))
+            return new UnaryIterable<NamespaceBinding>(null);
+        final List<NamespaceBinding> bindings = new ArrayList<NamespaceBinding>();
+        final int end = tree.getContentStart(node.index);
+        for (int index = node.index + 1; index < end; index++)
+        {
+            if (tree.isKind(index, NodeKind.NAMESPACE))
+                bindings.add(new DefaultNamespaceBinding(tree.getLocalName(index), tree.getText(index)));
+        }
+        return bindings;
+    }
+
+    @Override
+    public String getNamespaceForPrefix(final CompactNode node, final String prefix)
+    {
+        PreCondition.assertNotNull(node, "node");
+        PreCondition.assertNotNull(prefix, "prefix");
+        final CompactTree tree = node.tree;
+        if (node.isCopy() || !tree.isKind(node.index, NodeKind.ELEMENT))
+            return null;
+        final int end = tree.getContentStart(node.index);
+        for (int index = node.index + 1; index < end; index++)
+        {
+            if (tree.isKind(index, NodeKind.NAMESPACE) && prefix.equals(tree.getLocalName(index)))
+                return tree.getText(index);
+        }
+        return null;
+    }
+
+    @Override
+    public Iterable<String> getNamespaceNames(final CompactNode node, final boolean orderCanonical)
+    {
+        PreCondition.assertNotNull(node, "node");
+        final CompactTree tree = node.tree;
+        if (node.isCopy() || (tree.getFirst(node.index, NodeKind.NAMESPACE) == CompactTree.NONE))
+            return new UnaryIterable<String>(null);
+        final List<String> names = new ArrayList<String>();
+        final int end = tree.getContentStart(node.index);
+        for (int index = node.index + 1; index < end; index++)
+        {
+            if (tree.isKind(index, NodeKind.NAMESPACE))
+                names.add(tree.getLocalName(index));
+        }
+        if (orderCanonical)
+            Collections.sort(names);
+        return names;
+    }
+
+    @Override
+    public String getNamespaceURI(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.getNamespaceURI(node.index);
+    }
+
+    @Override
+    public CompactNode getNodeId(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        // handles are equal when they are handles on the same node
+        return node;
+    }
+
+    @Override
+    public NodeKind getNodeKind(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.getNodeKind(node.index);
+    }
+
+    @Override
+    public String getPrefix(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.getPrefix(node.index);
+    }
+
+    @Override
+    public String getStringValue(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.getStringValue(node.index);
+    }
+
+    @Override
+    public boolean hasAttributes(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return !node.isCopy() && (node.tree.getFirst(node.index, NodeKind.ATTRIBUTE) != CompactTree.NONE);
+    }
+
+    @Override
+    public boolean hasChildren(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return !node.isCopy() && (node.tree.getFirstChild(node.index) != CompactTree.NONE);
+    }
+
+    @Override
+    public boolean hasNamespaces(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return !node.isCopy() && (node.tree.getFirst(node.index, NodeKind.NAMESPACE) != CompactTree.NONE);
+    }
+
+    @Override
+    public boolean hasNextSibling(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return !node.isCopy() && (node.tree.getNextSibling(node.index) != CompactTree.NONE);
+    }
+
+    @Override
+    public boolean hasParent(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.isCopy() || (node.tree.getParent(node.index) != CompactTree.NONE);
+    }
+
+    @Override
+    public boolean hasPreviousSibling(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return !node.isCopy() && (node.tree.getPreviousSibling(node.index) != CompactTree.NONE);
+    }
+
+    @Override
+    public boolean isAttribute(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.isKind(node.index, NodeKind.ATTRIBUTE);
+    }
+
+    @Override
+    public boolean isElement(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.isKind(node.index, NodeKind.ELEMENT);
+    }
+
+    @Override
+    public boolean isId(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        final CompactTree tree = node.tree;
+        int index = node.index;
+        if (tree.isKind(index, NodeKind.TEXT))
+            index = tree.getParent(index);
+        if (tree.isKind(index, NodeKind.ELEMENT))
+        {
+            final int end = tree.getContentStart(index);
+            for (int attribute = index + 1; attribute < end; attribute++)
+            {
+                if (tree.isIdAttribute(attribute))
+                    return true;
+            }
+            return false;
+        }
+        return tree.isIdAttribute(index);
+    }
+
+    @Override
+    public boolean isIdRefs(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        final CompactTree tree = node.tree;
+        int index = node.index;
+        if (tree.isKind(index, NodeKind.TEXT))
+            index = tree.getParent(index);
+        if (tree.isKind(index, NodeKind.ELEMENT))
+        {
+            final int end = tree.getContentStart(index);
+            for (int attribute = index + 1; attribute < end; attribute++)
+            {
+                if (tree.isIdRefsAttribute(attribute))
+                    return true;
+            }
+            return false;
+        }
+        return tree.isIdRefsAttribute(index);
+    }
+
+    @Override
+    public boolean isNamespace(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.getNodeKind(node.index) == NodeKind.NAMESPACE;
+    }
+
+    @Override
+    public boolean isText(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.isKind(node.index, NodeKind.TEXT);
+    }
+
+    @Override
+    public boolean matches(final CompactNode node, final NodeKind nodeKind, final String namespaceURI, final String localName)
+    {
+        PreCondition.assertNotNull(node, "node");
+        // null nodekind means "match anything"
+        if ((nodeKind == null) || (nodeKind == node.tree.getNodeKind(node.index)))
+            return node.tree.matches(node.index, namespaceURI, localName);
+        return false;
+    }
+
+    @Override
+    public boolean matches(final CompactNode node, final String namespaceURI, final String localName)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.matches(node.index, namespaceURI, localName);
+    }
+
+    @Override
+    public int getFingerprint(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.tree.getFingerprint(node.index);
+    }
+
+    @Override
+    public CompactNode getAttribute(final CompactNode node, final String namespaceURI, final String localName)
+    {
+        return handle(node.tree, getAttributeIndex(node, namespaceURI, localName));
+    }
+
+    @Override
+    public CompactNode getElementById(final CompactNode context, final String id)
+    {
+        PreCondition.assertNotNull(context, "node");
+        return handle(context.tree, context.tree.getElementById(id));
+    }
+
+    @Override
+    public CompactNode getFirstChild(final CompactNode origin)
+    {
+        PreCondition.assertNotNull(origin, "node");
+        if (origin.isCopy())
+            return null;
+        return handle(origin.tree, origin.tree.getFirstChild(origin.index));
+    }
+
+    @Override
+    public CompactNode getFirstChildElement(final CompactNode node)
+    {
+        return getFirstChildElementByName(node, null, null);
+    }
+
+    @Override
+    public CompactNode getFirstChildElementByName(final CompactNode node, final String namespaceURI, final String localName)
+    {
+        PreCondition.assertNotNull(node, "node");
+        if (node.isCopy())
+            return null;
+        final CompactTree tree = node.tree;
+        return handle(tree, nextElement(tree, tree.getFirstChild(node.index), namespaceURI, localName));
+    }
+
+    @Override
+    public CompactNode getLastChild(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        if (node.isCopy())
+            return null;
+        return handle(node.tree, node.tree.getLastChild(node.index));
+    }
+
+    @Override
+    public CompactNode getNextSibling(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        if (node.isCopy())
+            return null;
+        return handle(node.tree, node.tree.getNextSibling(node.index));
+    }
+
+    @Override
+    public CompactNode getNextSiblingElement(final CompactNode node)
+    {
+        return getNextSiblingElementByName(node, null, null);
+    }
+
+    @Override
+    public CompactNode getNextSiblingElementByName(final CompactNode node, final String namespaceURI, final String localName)
+    {
+        PreCondition.assertNotNull(node, "node");
+        if (node.isCopy())
+            return null;
+        final CompactTree tree = node.tree;
+        return handle(tree, nextElement(tree, tree.getNextSibling(node.index), namespaceURI, localName));
+    }
+
+    @Override
+    public CompactNode getParent(final CompactNode origin)
+    {
+        PreCondition.assertNotNull(origin, "node");
+        if (origin.isCopy())
+            return new CompactNode(origin.tree, origin.owner);
+        return handle(origin.tree, origin.tree.getParent(origin.index));
+    }
+
+    @Override
+    public CompactNode getPreviousSibling(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        if (node.isCopy())
+            return null;
+        return handle(node.tree, node.tree.getPreviousSibling(node.index));
+    }
+
+    @Override
+    public CompactNode getRoot(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        if (node.index == 0)
+            return node;
+        return new CompactNode(node.tree, 0);
+    }
+
+    @Override
+    public Iterable<CompactNode> getAncestorAxis(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return new IterableAncestorAxis<CompactNode>(node, this);
+    }
+
+    @Override
+    public Iterable<CompactNode> getAncestorOrSelfAxis(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return new IterableAncestorOrSelfAxis<CompactNode>(node, this);
+    }
+
+    @Override
+    public Iterable<CompactNode> getAttributeAxis(final CompactNode node, final boolean inherit)
+    {
+        PreCondition.assertNotNull(node, "node");
+        final CompactTree tree = node.tree;
+        if (node.isCopy() || !tree.isKind(node.index, NodeKind.ELEMENT))
+            return CompactProcessingContext.EMPTY_NODE_SEQUENCE;
+        final Iterable<CompactNode> attributes = new CompactRange(tree, node.index + 1, tree.getContentStart(node.index), NodeKind.ATTRIBUTE);
+        if (!inherit)
+            return attributes;
+        // attributes in the xml namespace are inherited; report them as attributes of this
+        // element, with the nearest declaration winning, and the element's own above all.
+        final Map<QName, CompactNode> attributeMap = new LinkedHashMap<QName, CompactNode>();
+        for (final int scope : getAncestorScopes(tree, node.index))
+        {
+            final int end = tree.getContentStart(scope);
+            for (int index = scope + 1; index < end; index++)
+            {
+                if (tree.isKind(index, NodeKind.ATTRIBUTE) && XMLConstants.XML_NS_URI.equals(tree.getNamespaceURI(index)))
+                    attributeMap.put(tree.getName(index), new CompactNode(tree, index, node.index));
+            }
+        }
+        for (final CompactNode attribute : attributes)
+        {
+            attributeMap.put(tree.getName(attribute.index), attribute);
+        }
+        return attributeMap.values();
+    }
+
+    @Override
+    public Iterable<CompactNode> getChildAxis(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return new IterableChildAxis<CompactNode>(node, this);
+    }
+
+    @Override
+    public Iterable<CompactNode> getChildElements(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return new IterableChildAxisElements<CompactNode>(node, this);
+    }
+
+    @Override
+    public Iterable<CompactNode> getChildElementsByName(final CompactNode node, final String namespaceURI, final String localName)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return new IterableChildAxisElementsByName<CompactNode>(node, namespaceURI, localName, this);
+    }
+
+    @Override
+    public Iterable<CompactNode> getDescendantAxis(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        if (node.isCopy() || !node.tree.isChildAxis(node.index))
+            return CompactProcessingContext.EMPTY_NODE_SEQUENCE;
+        // descendants are the positions after the node, up to the end of its subtree
+        return new CompactRange(node.tree, node.index + 1, node.tree.getSubtreeEnd(node.index), null);
+    }
+
+    @Override
+    public Iterable<CompactNode> getDescendantOrSelfAxis(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        if (node.isCopy() || !node.tree.isChildAxis(node.index))
+            return new UnaryIterable<CompactNode>(node);
+        return new CompactRange(node.tree, node.index, node.tree.getSubtreeEnd(node.index), null);
+    }
+
+    @Override
+    public Iterable<CompactNode> getFollowingAxis(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return new IterableFollowingAxis<CompactNode>(node, this);
+    }
+
+    @Override
+    public Iterable<CompactNode> getFollowingSiblingAxis(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return new IterableFollowingSiblingAxis<CompactNode>(node, this);
+    }
+
+    @Override
+    public Iterable<CompactNode> getNamespaceAxis(final CompactNode node, final boolean inherit)
+    {
+        PreCondition.assertNotNull(node, "node");
+        final CompactTree tree = node.tree;
+        if (node.isCopy() || !tree.isKind(node.index, NodeKind.ELEMENT))
+            return CompactProcessingContext.EMPTY_NODE_SEQUENCE;
+        if (!inherit)
+            return new CompactRange(tree, node.index + 1, tree.getContentStart(node.index), NodeKind.NAMESPACE);
+        final Map<String, CompactNode> namespaceMap = new LinkedHashMap<String, CompactNode>();
+        // the xml prefix is implicitly declared by the XML Namespaces Recommendation.
+        namespaceMap.put(XMLConstants.XML_NS_PREFIX, new CompactNode(tree, CompactNode.XML_NAMESPACE, node.index));
+        final List<Integer> scopes = getAncestorScopes(tree, node.index);
+        scopes.add(node.index);
+        for (final int scope : scopes)
+        {
+            final int end = tree.getContentStart(scope);
+            for (int index = scope + 1; index < end; index++)
+            {
+                if (tree.isKind(index, NodeKind.NAMESPACE))
+                {
+                    final String prefix = tree.getLocalName(index);
+                    if (tree.getText(index).trim().length() == 0) // a cancellation
+                        namespaceMap.remove(prefix);
+                    else if (scope == node.index)
+                        namespaceMap.put(prefix, new CompactNode(tree, index));
+                    else
+                        namespaceMap.put(prefix, new CompactNode(tree, index, node.index));
+                }
+            }
+        }
+        return namespaceMap.values();
+    }
+
+    @Override
+    public Iterable<CompactNode> getPrecedingAxis(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return new IterablePrecedingAxis<CompactNode>(node, this);
+    }
+
+    @Override
+    public Iterable<CompactNode> getPrecedingSiblingAxis(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return new IterablePrecedingSiblingAxis<CompactNode>(node, this);
+    }
+
+    int getAttributeIndex(final CompactNode node, final String namespaceURI, final String localName)
+    {
+        PreCondition.assertNotNull(node, "node");
+        PreCondition.assertNotNull(localName, "localName");
+        if (node.isCopy())
+            return CompactTree.NONE;
+        return node.tree.getAttribute(node.index, (namespaceURI == null) ? XMLConstants.NULL_NS_URI : namespaceURI, localName);
+    }
+
+    static CompactNode handle(final CompactTree tree, final int index)
+    {
+        return (index == CompactTree.NONE) ? null : new CompactNode(tree, index);
+    }
+
+    static int[] grow(final int[] array)
+    {
+        final int[] grown = new int[array.length << 1];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    private void close(final CompactTree tree, final int index, final ContentHandler handler)
+    {
+        if (tree.isKind(index, NodeKind.DOCUMENT))
+            handler.endDocument();
+        else
+            handler.endElement();
+    }
+
+    /** The first element at or after a sibling position with a matching name. */
+    private int nextElement(final CompactTree tree, final int first, final String namespaceURI, final String localName)
+    {
+        if ((namespaceURI != null) && (localName != null))
+        {
+            final NamePool pool = NamePool.getDefault();
+            final int fingerprint = pool.peekFingerprint(namespaceURI, localName);
+            if (fingerprint != NamePool.NONE)
+            {
+                for (int sibling = first; sibling != CompactTree.NONE; sibling = tree.getNextSibling(sibling))
+                {
+                    if (tree.getFingerprint(sibling) == fingerprint)
+                        return sibling;
+                }
+                return CompactTree.NONE;
+            }
+            // every element name is pooled until the pool is full; an unpooled name matches nothing before then
+            if (!pool.isFull())
+                return CompactTree.NONE;
+            for (int sibling = first; sibling != CompactTree.NONE; sibling = tree.getNextSibling(sibling))
+            {
+                if ((tree.getFingerprint(sibling) == NamePool.NONE) && tree.isKind(sibling, NodeKind.ELEMENT) && tree.matches(sibling, namespaceURI, localName))
+                    return sibling;
+            }
+            return CompactTree.NONE;
+        }
+        int sibling = first;
+        while (sibling != CompactTree.NONE)
+        {
+            if (tree.isKind(sibling, NodeKind.ELEMENT) && tree.matches(sibling, namespaceURI, localName))
+                return sibling;
+            sibling = tree.getNextSibling(sibling);
+        }
+        return CompactTree.NONE;
+    }
+
+    /** The element ancestors of a node, outermost first. */
+    private List<Integer> getAncestorScopes(final CompactTree tree, final int index)
+    {
+        final LinkedList<Integer> ancestors = new LinkedList<Integer>();
+        int parent = tree.getParent(index);
+        while (parent != CompactTree.NONE)
+        {
+            if (tree.isKind(parent, NodeKind.ELEMENT))
+                ancestors.addFirst(parent);
+            parent = tree.getParent(parent);
+        }
+        return ancestors;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.namespace.QName;
+
+import org.genxdm.bridgekit.names.NamePool;
+
+/**
+ * Interns the (namespace, local name, prefix) triples of a processing context,
+ * so that trees store one int per named node.  Each id also records the
+ * fingerprint of its expanded name in the default {@link NamePool}.
+ *
+ * <p>Interning may happen on several threads at once (one builder per thread);
+ * lookup of an id that a tree holds never blocks.</p>
+ */
+final class CompactNames
+{
+    int intern(final String namespaceURI, final String localName, final String prefix)
+    {
+        final Key key = new Key(namespaceURI, localName, prefix);
+        final Integer id = ids.get(key);
+        if (id != null)
+            return id;
+        return add(key);
+    }
+
+    QName getName(final int id)
+    {
+        return table[id];
+    }
+
+    String getNamespaceURI(final int id)
+    {
+        return table[id].getNamespaceURI();
+    }
+
+    String getLocalName(final int id)
+    {
+        return table[id].getLocalPart();
+    }
+
+    String getPrefix(final int id)
+    {
+        return table[id].getPrefix();
+    }
+
+    int getFingerprint(final int id)
+    {
+        return fingerprints[id];
+    }
+
+    private synchronized int add(final Key key)
+    {
+        final Integer existing = ids.get(key);
+        if (existing != null)
+            return existing;
+        final int id = count;
+        QName[] names = table;
+        int[] prints = fingerprints;
+        if (id == names.length)
+        {
+            names = Arrays.copyOf(names, id << 1);
+            prints = Arrays.copyOf(prints, id << 1);
+        }
+        names[id] = new QName(key.namespaceURI, key.localName, key.prefix);
+        prints[id] = NamePool.getDefault().getFingerprint(key.namespaceURI, key.localName);
+        // publish the tables before the id, so that any thread holding the id sees the name
+        fingerprints = prints;
+        table = names;
+        count = id + 1;
+        ids.put(key, id);
+        return id;
+    }
+
+    /** QName equality ignores the prefix, which the tree must preserve. */
+    private static final class Key
+    {
+        Key(final String namespaceURI, final String localName, final String prefix)
+        {
+            this.namespaceURI = namespaceURI;
+            this.localName = localName;
+            this.prefix = prefix;
+            this.hash = (namespaceURI.hashCode() * 31 + localName.hashCode()) * 31 + prefix.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object other)
+        {
+            if (this == other)
+                return true;
+            if (!(other instanceof Key))
+                return false;
+            final Key key = (Key)other;
+            return (hash == key.hash) && localName.equals(key.localName) &&
+                   namespaceURI.equals(key.namespaceURI) && prefix.equals(key.prefix);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        final String namespaceURI;
+        final String localName;
+        final String prefix;
+        private final int hash;
+    }
+
+    private final ConcurrentHashMap<Key, Integer> ids = new ConcurrentHashMap<Key, Integer>();
+    private volatile QName[] table = new QName[64];
+    private volatile int[] fingerprints = new int[64];
+    private int count;
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact;
+
+/**
+ * Handle on a node of a {@link CompactTree}: the tree, and the node's position
+ * in it.  Handles carry no node state, so two handles on the same node are
+ * equal, but need not be identical.
+ *
+ * <p>Attributes and namespaces reported on an element by the inheriting
+ * attribute and namespace axes are not in the tree at that element; their
+ * handle names the node they copy, and the element that owns the copy.</p>
+ */
+public final class CompactNode
+{
+    CompactNode(final CompactTree tree, final int index)
+    {
+        this(tree, index, NO_OWNER);
+    }
+
+    CompactNode(final CompactTree tree, final int index, final int owner)
+    {
+        this.tree = tree;
+        this.index = index;
+        this.owner = owner;
+    }
+
+    @Override
+    public boolean equals(final Object other)
+    {
+        if (this == other)
+            return true;
+        if (!(other instanceof CompactNode))
+            return false;
+        final CompactNode node = (CompactNode)other;
+        return (tree == node.tree) && (index == node.index) && (owner == node.owner);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return System.identityHashCode(tree) + 31 * (index + 31 * owner);
+    }
+
+    @Override
+    public String toString()
+    {
+        return tree.getNodeKind(this) + "#" + index;
+    }
+
+    boolean isCopy()
+    {
+        return owner != NO_OWNER;
+    }
+
+    /** Position of the implicit namespace node for the xml prefix. */
+    static final int XML_NAMESPACE = -2;
+    static final int NO_OWNER = -1;
+
+    final CompactTree tree;
+    final int index;
+    final int owner;
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLReporter;
+
+import org.genxdm.Cursor;
+import org.genxdm.Feature;
+import org.genxdm.Model;
+import org.genxdm.ProcessingContext;
+import org.genxdm.bridgekit.filters.FilteredFragmentBuilder;
+import org.genxdm.bridgekit.filters.NamespaceFixupFilter;
+import org.genxdm.bridgekit.misc.UnaryIterable;
+import org.genxdm.bridgekit.tree.CursorOnModel;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.io.DocumentHandler;
+import org.genxdm.io.FragmentBuilder;
+import org.genxdm.io.Resolver;
+import org.genxdm.io.SerializationParams;
+import org.genxdm.mutable.MutableContext;
+import org.genxdm.processor.io.DefaultDocumentHandler;
+import org.genxdm.xs.SchemaComponentCache;
+
+/**
+ * Processing context for a read-only bridge whose trees are stored as
+ * parallel arrays rather than as linked node objects.
+ *
+ * <p>Trees are built once, by a fragment builder or document handler, and
+ * never change afterwards, so the bridge has no mutable context, and
+ * validation produces a new tree rather than annotating the old one.
+ * Names are shared by all the trees of a context.</p>
+ */
+public final class CompactProcessingContext
+    implements ProcessingContext<CompactNode>
+{
+    public CompactProcessingContext()
+    {
+    }
+
+    @Override
+    public Model<CompactNode> getModel()
+    {
+        return model;
+    }
+
+    @Override
+    public MutableContext<CompactNode> getMutableContext()
+    {
+        // immutable trees
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public CompactSAContext getTypedContext(final SchemaComponentCache cache)
+    {
+        CompactSAContext tc;
+        if (cache != null)
+            tc = typedContexts.get(cache);
+        else
+        {
+            if (defaultCache != null)
+                tc = typedContexts.get(defaultCache);
+            else
+            {
+                tc = new CompactSAContext(this, null);
+                defaultCache = tc.getSchema();
+                typedContexts.put(defaultCache, tc);
+            }
+        }
+
+        if (tc == null) // only happens if cache supplied, first time seen
+        {
+            tc = new CompactSAContext(this, cache);
+            typedContexts.put(cache, tc);
+        }
+        return tc;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public CompactSAContext getTempTypedContext(final SchemaComponentCache cache)
+    {
+        // if it's null, return the default
+        if (cache == null)
+            return getTypedContext(null);
+        // otherwise, return a new one, and don't remember
+        return new CompactSAContext(this, cache);
+    }
+
+    @Override
+    public boolean isNode(final Object item)
+    {
+        return (item instanceof CompactNode);
+    }
+
+    @Override
+    public boolean isSupported(final String feature)
+    {
+        PreCondition.assertNotNull(feature, "feature");
+        if (feature.equals(Feature.MUTABILITY) ||
+            feature.equals(Feature.IN_TREE_INDEX) ||
+            feature.equals(Feature.IN_TREE_VALIDATION) )
+            return false;
+        if (feature.startsWith(Feature.PREFIX))
+            return true;
+        return false;
+    }
+
+    @Override
+    public Cursor newCursor(final CompactNode node)
+    {
+        return new CursorOnModel<CompactNode>(node, model);
+    }
+
+    @Override
+    public FragmentBuilder<CompactNode> newFragmentBuilder()
+    {
+        return newFragmentBuilder(true);
+    }
+
+    @Override
+    public FragmentBuilder<CompactNode> newFragmentBuilder(final boolean namespaceFixup)
+    {
+        if (namespaceFixup)
+            return new FilteredFragmentBuilder<CompactNode>(new NamespaceFixupFilter(this), new CompactFragmentBuilder(names));
+        return new CompactFragmentBuilder(names);
+    }
+
+    @Override
+    public CompactNode node(final Object item)
+    {
+        return isNode(item) ? (CompactNode)item : null;
+    }
+
+    @Override
+    public CompactNode[] nodeArray(final int size)
+    {
+        return new CompactNode[size];
+    }
+
+    @Override
+    public Iterable<CompactNode> emptySequence()
+    {
+        return EMPTY_NODE_SEQUENCE;
+    }
+
+    @Override
+    public DocumentHandler<CompactNode> newDocumentHandler()
+    {
+        return newDocumentHandler(null, null);
+    }
+
+    @Override
+    public DocumentHandler<CompactNode> newDocumentHandler(final XMLReporter reporter, final Resolver resolver)
+    {
+        final DefaultDocumentHandler<CompactNode> handler = new DefaultDocumentHandler<CompactNode>(this);
+        handler.setCursorParsing(true);
+        if (resolver != null)
+            handler.setResolver(resolver);
+        else if (this.resolver != null)
+            handler.setResolver(this.resolver);
+        if (reporter != null)
+            handler.setReporter(reporter);
+        else if (this.reporter != null)
+            handler.setReporter(this.reporter);
+        return handler;
+    }
+
+    @Override
+    public void setDefaultReporter(final XMLReporter reporter)
+    {
+        this.reporter = reporter;
+    }
+
+    @Override
+    public void setDefaultResolver(final Resolver resolver)
+    {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public XMLReporter getDefaultReporter()
+    {
+        return reporter;
+    }
+
+    @Override
+    public Resolver getDefaultResolver()
+    {
+        return resolver;
+    }
+
+    @Override
+    public String getRegisteredPrefix(final String namespace)
+    {
+        String prefix = null;
+        for (CompactSAContext tc : typedContexts.values())
+        {
+            prefix = tc.getRegisteredPrefix(namespace);
+            if (prefix != null)
+                break;
+        }
+        return prefix;
+    }
+
+    @Override
+    public SerializationParams getDefaultParameters()
+    {
+        return parameters;
+    }
+
+    @Override
+    public void setDefaultParameters(final SerializationParams config)
+    {
+        this.parameters = config;
+    }
+
+    CompactNames getNames()
+    {
+        return names;
+    }
+
+    private final CompactNames names = new CompactNames();
+    private final CompactModel model = new CompactModel();
+    private final Map<SchemaComponentCache, CompactSAContext> typedContexts = new HashMap<SchemaComponentCache, CompactSAContext>();
+    private SchemaComponentCache defaultCache;
+    private XMLReporter reporter;
+    private Resolver resolver;
+    private SerializationParams parameters;
+
+    static final Iterable<CompactNode> EMPTY_NODE_SEQUENCE = new UnaryIterable<CompactNode>(null);
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.genxdm.NodeKind;
+
+/**
+ * The nodes of a run of positions in a tree, optionally restricted to one
+ * node kind, or to the nodes of the child axis.  Namespaces, attributes,
+ * and descendants are all such runs.
+ */
+final class CompactRange
+    implements Iterable<CompactNode>
+{
+    /**
+     * @param kind the kind of node to report, or null to report the nodes of
+     * the child axis (everything except namespaces and attributes).
+     */
+    CompactRange(final CompactTree tree, final int start, final int end, final NodeKind kind)
+    {
+        this.tree = tree;
+        this.start = start;
+        this.end = end;
+        this.kind = kind;
+    }
+
+    @Override
+    public Iterator<CompactNode> iterator()
+    {
+        return new Iterator<CompactNode>() {
+            @Override
+            public boolean hasNext()
+            {
+                position = advance(position);
+                return position < end;
+            }
+
+            @Override
+            public CompactNode next()
+            {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return new CompactNode(tree, position++);
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            private int position = start;
+        };
+    }
+
+    private int advance(int position)
+    {
+        while ((position < end) && !accept(position))
+            position++;
+        return position;
+    }
+
+    private boolean accept(final int position)
+    {
+        if (kind == null)
+            return tree.isChildAxis(position);
+        return tree.isKind(position, kind);
+    }
+
+    private final CompactTree tree;
+    private final int start;
+    private final int end;
+    private final NodeKind kind;
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact;
+
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLReporter;
+
+import org.genxdm.ProcessingContext;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgekit.atoms.XmlAtomBridge;
+import org.genxdm.bridgekit.filters.FilteredSequenceBuilder;
+import org.genxdm.bridgekit.filters.NamespaceFixupSequenceFilter;
+import org.genxdm.bridgekit.names.DefaultNamespaceRegistrar;
+import org.genxdm.bridgekit.tree.CursorOnTypedModel;
+import org.genxdm.bridgekit.validation.GenericValidator;
+import org.genxdm.bridgekit.xs.SchemaCacheFactory;
+import org.genxdm.bridgekit.xs.TypesBridgeImpl;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.io.ContentGenerator;
+import org.genxdm.io.Resolver;
+import org.genxdm.names.NamespaceRegistrar;
+import org.genxdm.processor.io.ValidatingDocumentHandler;
+import org.genxdm.typed.TypedContext;
+import org.genxdm.typed.TypedCursor;
+import org.genxdm.typed.TypedModel;
+import org.genxdm.typed.ValidationHandler;
+import org.genxdm.typed.ValidatorFactory;
+import org.genxdm.typed.io.SAXValidator;
+import org.genxdm.typed.io.SequenceBuilder;
+import org.genxdm.typed.io.SequenceFilter;
+import org.genxdm.typed.types.AtomBridge;
+import org.genxdm.typed.types.TypesBridge;
+import org.genxdm.xs.SchemaComponentCache;
+
+public final class CompactSAContext
+    implements TypedContext<CompactNode, XmlAtom>
+{
+    CompactSAContext(final CompactProcessingContext context, final SchemaComponentCache schema)
+    {
+        this.context = PreCondition.assertNotNull(context, "context");
+        if (schema == null)
+            this.schema = new SchemaCacheFactory().newSchemaCache();
+        else
+            this.schema = schema;
+        this.types = new TypesBridgeImpl();
+        this.atoms = new XmlAtomBridge(this.schema);
+        this.model = new CompactSAModel(atoms);
+        gator = new GenericValidator<CompactNode, XmlAtom>(this);
+        ns2pReg = new DefaultNamespaceRegistrar(null);
+    }
+
+    @Override
+    public AtomBridge<XmlAtom> getAtomBridge()
+    {
+        return atoms;
+    }
+
+    @Override
+    public TypesBridge getTypesBridge()
+    {
+        return types;
+    }
+
+    @Override
+    public SchemaComponentCache getSchema()
+    {
+        return schema;
+    }
+
+    @Override
+    public TypedModel<CompactNode, XmlAtom> getModel()
+    {
+        return model;
+    }
+
+    @Override
+    public ProcessingContext<CompactNode> getProcessingContext()
+    {
+        return context;
+    }
+
+    @Override
+    public TypedCursor<CompactNode, XmlAtom> newCursor(final CompactNode node)
+    {
+        return new CursorOnTypedModel<CompactNode, XmlAtom>(node, model);
+    }
+
+    @Override
+    public SequenceBuilder<CompactNode, XmlAtom> newSequenceBuilder()
+    {
+        return newSequenceBuilder(true);
+    }
+
+    @Override
+    public SequenceBuilder<CompactNode, XmlAtom> newSequenceBuilder(final boolean namespaceFixup)
+    {
+        final CompactSequenceBuilder builder = new CompactSequenceBuilder(context.getNames(), atoms);
+        if (namespaceFixup)
+        {
+            SequenceFilter<XmlAtom> filter = new NamespaceFixupSequenceFilter<XmlAtom>(this);
+            filter.setAtomBridge(atoms);
+            filter.setSchema(schema);
+            return new FilteredSequenceBuilder<CompactNode, XmlAtom>(filter, builder);
+        }
+        return builder;
+    }
+
+    @Override
+    public ValidatingDocumentHandler<CompactNode, XmlAtom> newDocumentHandler(final SAXValidator<XmlAtom> validator, final XMLReporter reporter, final Resolver resolver)
+    {
+        // deprecated, don't use
+        return new ValidatingDocumentHandler<CompactNode, XmlAtom>(this, validator, reporter, resolver);
+    }
+
+    @Override
+    public ValidatingDocumentHandler<CompactNode, XmlAtom> newDocumentHandler(final ValidatorFactory<XmlAtom> factory, final XMLReporter reporter, final Resolver resolver)
+    {
+        return new ValidatingDocumentHandler<CompactNode, XmlAtom>(this, factory, reporter, resolver);
+    }
+
+    @Override
+    public CompactNode validate(final ContentGenerator source, final ValidationHandler<XmlAtom> validator, final QName initialType)
+    {
+        return gator.validate(source, validator, initialType);
+    }
+
+    @Override
+    public CompactNode validate(final CompactNode source, final ValidationHandler<XmlAtom> validator, final QName initialType)
+    {
+        // trees cannot be annotated in place; the result is a new, typed tree
+        return gator.validate(source, validator, initialType);
+    }
+
+    @Override
+    public Map<String, String> getNamespaceRegistry()
+    {
+        return ns2pReg.getNamespaceRegistry();
+    }
+
+    @Override
+    public String getRegisteredPrefix(final String namespace)
+    {
+        return ns2pReg.getRegisteredPrefix(namespace);
+    }
+
+    @Override
+    public void registerNamespace(final String namespace, final String prefix)
+    {
+        ns2pReg.registerNamespace(namespace, prefix);
+    }
+
+    @Override
+    public void registerNamespaces(final Map<String, String> nsToPrefixMap)
+    {
+        ns2pReg.registerNamespaces(nsToPrefixMap);
+    }
+
+    private final CompactProcessingContext context;
+    private final CompactSAModel model;
+    private final XmlAtomBridge atoms;
+    private final TypesBridge types;
+    private final SchemaComponentCache schema;
+    private final GenericValidator<CompactNode, XmlAtom> gator;
+    private final NamespaceRegistrar ns2pReg;
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.genxdm.NodeKind;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgekit.atoms.XsiNil;
+import org.genxdm.bridgekit.xs.BuiltInSchema;
+import org.genxdm.exceptions.GenXDMException;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.typed.TypedModel;
+import org.genxdm.typed.io.SequenceHandler;
+import org.genxdm.typed.types.AtomBridge;
+
+public class CompactSAModel
+    extends CompactModel
+    implements TypedModel<CompactNode, XmlAtom>
+{
+    CompactSAModel(final AtomBridge<XmlAtom> bridge)
+    {
+        this.bridge = PreCondition.assertNotNull(bridge, "atomBridge");
+    }
+
+    @Override
+    public QName getAttributeTypeName(final CompactNode parent, final String namespaceURI, final String localName)
+    {
+        final int attribute = getAttributeIndex(parent, namespaceURI, localName);
+        if (attribute == CompactTree.NONE)
+            return null;
+        return getTypeName(parent.tree, attribute);
+    }
+
+    @Override
+    public Iterable<? extends XmlAtom> getAttributeValue(final CompactNode parent, final String namespaceURI, final String localName)
+    {
+        final int attribute = getAttributeIndex(parent, namespaceURI, localName);
+        if (attribute == CompactTree.NONE)
+            return null;
+        return getAtoms(parent.tree, attribute);
+    }
+
+    @Override
+    public QName getTypeName(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return getTypeName(node.tree, node.index);
+    }
+
+    @Override
+    public Iterable<? extends XmlAtom> getValue(final CompactNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        final CompactTree tree = node.tree;
+        switch (tree.getNodeKind(node.index))
+        {
+            case ATTRIBUTE :
+            {
+                return getAtoms(tree, node.index);
+            }
+            case TEXT :
+            case NAMESPACE :
+            case COMMENT :
+            case PROCESSING_INSTRUCTION :
+            case DOCUMENT :
+            {
+                return bridge.wrapAtom(bridge.createString(tree.getStringValue(node.index)));
+            }
+            case ELEMENT :
+            {
+                if (XsiNil.isNilledElement(this, node, bridge)) // xsi:nil special case returns null.
+                    return bridge.emptySequence();
+                final int firstChild = tree.getFirstChild(node.index);
+                if ((firstChild != CompactTree.NONE) && (tree.getNextSibling(firstChild) == CompactTree.NONE) &&
+                    tree.isKind(firstChild, NodeKind.TEXT)) // simple content
+                    return getAtoms(tree, firstChild);
+                return bridge.wrapAtom(bridge.createString(tree.getStringValue(node.index))); // complex or empty content
+            }
+            default :
+            {
+                throw new AssertionError(tree.getNodeKind(node.index));
+            }
+        }
+    }
+
+    @Override
+    public void stream(final CompactNode node, final SequenceHandler<XmlAtom> handler, final boolean bogus)
+        throws GenXDMException
+    {
+        PreCondition.assertNotNull(node, "node");
+        final CompactTree tree = node.tree;
+        if (node.isCopy())
+        {
+            if (tree.getNodeKind(node.index) == NodeKind.NAMESPACE)
+                handler.namespace(tree.getLocalName(node.index), tree.getText(node.index));
+            else
+                handler.attribute(tree.getNamespaceURI(node.index), tree.getLocalName(node.index), tree.getPrefix(node.index), getAtoms(tree, node.index), getTypeName(tree, node.index));
+            return;
+        }
+        final int end = tree.getSubtreeEnd(node.index);
+        // containers still open, innermost last
+        int[] open = new int[16];
+        int depth = 0;
+        for (int index = node.index; index < end; index++)
+        {
+            final int parent = tree.getParent(index);
+            while ((depth > 0) && (open[depth - 1] != parent))
+                close(tree, open[--depth], handler);
+            switch (tree.getNodeKind(index))
+            {
+                case DOCUMENT :
+                    handler.startDocument(tree.getDocumentURI(), null);
+                    break;
+                case ELEMENT :
+                    handler.startElement(tree.getNamespaceURI(index), tree.getLocalName(index), tree.getPrefix(index), getTypeName(tree, index));
+                    break;
+                case NAMESPACE :
+                    handler.namespace(tree.getLocalName(index), tree.getText(index));
+                    continue;
+                case ATTRIBUTE :
+                    handler.attribute(tree.getNamespaceURI(index), tree.getLocalName(index), tree.getPrefix(index), getAtoms(tree, index), getTypeName(tree, index));
+                    continue;
+                case TEXT :
+                    handler.text(getAtoms(tree, index));
+                    continue;
+                case COMMENT :
+                    handler.comment(tree.getText(index));
+                    continue;
+                case PROCESSING_INSTRUCTION :
+                    handler.processingInstruction(tree.getLocalName(index), tree.getText(index));
+                    continue;
+                default :
+                    throw new AssertionError(tree.getNodeKind(index));
+            }
+            if (depth == open.length)
+                open = grow(open);
+            open[depth++] = index;
+        }
+        while (depth > 0)
+            close(tree, open[--depth], handler);
+    }
+
+    private void close(final CompactTree tree, final int index, final SequenceHandler<XmlAtom> handler)
+    {
+        if (tree.isKind(index, NodeKind.DOCUMENT))
+            handler.endDocument();
+        else
+            handler.endElement();
+    }
+
+    /** The typed value of an attribute or text node; untyped atomic if none was built. */
+    private List<XmlAtom> getAtoms(final CompactTree tree, final int index)
+    {
+        final Object value = tree.getValue(index);
+        if (value != null)
+            return CompactTree.asList(value);
+        return bridge.wrapAtom(bridge.createUntypedAtomic(tree.getText(index)));
+    }
+
+    private QName getTypeName(final CompactTree tree, final int index)
+    {
+        switch (tree.getNodeKind(index))
+        {
+            case ELEMENT :
+            {
+                final QName type = tree.getType(index);
+                return (type == null) ? UNTYPED : type;
+            }
+            case ATTRIBUTE :
+            {
+                final QName type = tree.getType(index);
+                return (type == null) ? UNTYPED_ATOMIC : type;
+            }
+            case TEXT :
+            {
+                final int parent = tree.getParent(index);
+                if (tree.isKind(parent, NodeKind.ELEMENT))
+                    return getTypeName(tree, parent);
+                return null;
+            }
+            default :
+                return null;
+        }
+    }
+
+    private static final QName UNTYPED = BuiltInSchema.SINGLETON.UNTYPED.getName();
+    private static final QName UNTYPED_ATOMIC = BuiltInSchema.SINGLETON.UNTYPED_ATOMIC.getName();
+
+    private final AtomBridge<XmlAtom> bridge;
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.genxdm.NodeKind;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.exceptions.GenXDMException;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.io.DtdAttributeKind;
+import org.genxdm.typed.io.SequenceBuilder;
+import org.genxdm.typed.types.AtomBridge;
+
+/**
+ * Builds typed {@link CompactTree}s: element and attribute type names, and
+ * the typed values of attributes and text, are kept alongside the usual
+ * arrays.  The string value of typed content is its canonical form.
+ */
+public class CompactSequenceBuilder
+    extends CompactFragmentBuilder
+    implements SequenceBuilder<CompactNode, XmlAtom>
+{
+    CompactSequenceBuilder(final CompactNames names, final AtomBridge<XmlAtom> atoms)
+    {
+        super(names, true);
+        this.atoms = PreCondition.assertNotNull(atoms, "atomBridge");
+    }
+
+    public void attribute(final String namespaceURI, final String localName, final String prefix, final List<? extends XmlAtom> data, final QName type)
+        throws GenXDMException
+    {
+        addAttribute(namespaceURI, localName, prefix, atoms.getC14NString(data), DtdAttributeKind.CDATA, type, data);
+    }
+
+    public void startElement(final String namespaceURI, final String localName, final String prefix, final QName type)
+        throws GenXDMException
+    {
+        openElement(namespaceURI, localName, prefix, type);
+    }
+
+    public void text(final List<? extends XmlAtom> data)
+        throws GenXDMException
+    {
+        addLeaf(NodeKind.TEXT, CompactTree.NONE, atoms.getC14NString(data), data);
+    }
+
+    private final AtomBridge<XmlAtom> atoms;
+}
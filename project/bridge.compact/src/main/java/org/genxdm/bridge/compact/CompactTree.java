@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import org.genxdm.NodeKind;
+import org.genxdm.bridgekit.names.NamePool;
+import org.genxdm.io.DtdAttributeKind;
+
+/**
+ * An immutable tree, stored as parallel arrays indexed by node position.
+ *
+ * <p>Nodes are numbered in document order: an element, then its namespaces,
+ * then its attributes, then its children, each child followed by its own
+ * subtree.  Position zero is the root.  Since the numbering is document
+ * order, comparing two nodes of the same tree is comparing two ints, and
+ * the descendants of a node are a contiguous range.</p>
+ *
+ * <p>Only parent and next sibling are stored; the first child is the first
+ * position after the namespaces and attributes that still has the node as
+ * parent, and the last child and previous sibling are found by climbing
+ * back from the end of a subtree, or from the position before a node.
+ * All text (character data, attribute values, comment and processing
+ * instruction content, namespace URIs) shares one char array; the
+ * text of node <code>i</code> runs from <code>texts[i]</code> to
+ * <code>texts[i + 1]</code>.</p>
+ */
+final class CompactTree
+{
+    CompactTree(final CompactNames names, final byte[] kinds, final int[] parents, final int[] nexts,
+                final int[] nameIds, final int[] texts, final char[] chars, final QName[] types, final Object[] values,
+                final URI documentURI, final String docTypeDecl)
+    {
+        this.names = names;
+        this.kinds = kinds;
+        this.parents = parents;
+        this.nexts = nexts;
+        this.nameIds = nameIds;
+        this.texts = texts;
+        this.chars = chars;
+        this.types = types;
+        this.values = values;
+        this.documentURI = documentURI;
+        this.docTypeDecl = docTypeDecl;
+    }
+
+    int size()
+    {
+        return kinds.length;
+    }
+
+    NodeKind getNodeKind(final int index)
+    {
+        if (index == CompactNode.XML_NAMESPACE)
+            return NodeKind.NAMESPACE;
+        return NODE_KINDS[kinds[index] & KIND_MASK];
+    }
+
+    NodeKind getNodeKind(final CompactNode node)
+    {
+        return getNodeKind(node.index);
+    }
+
+    DtdAttributeKind getDtdAttributeKind(final int index)
+    {
+        return DTD_KINDS[(kinds[index] & 0xFF) >>> KIND_BITS];
+    }
+
+    /** True for nodes on the child axis of their parent: not attributes or namespaces. */
+    boolean isChildAxis(final int index)
+    {
+        final int kind = kinds[index] & KIND_MASK;
+        return (kind != ATTRIBUTE) && (kind != NAMESPACE);
+    }
+
+    boolean isKind(final int index, final NodeKind kind)
+    {
+        return (index >= 0) && ((kinds[index] & KIND_MASK) == kind.ordinal());
+    }
+
+    int getParent(final int index)
+    {
+        return parents[index];
+    }
+
+    int getNextSibling(final int index)
+    {
+        return nexts[index];
+    }
+
+    int getPreviousSibling(final int index)
+    {
+        final int parent = parents[index];
+        if ((parent < 0) || !isChildAxis(index))
+            return NONE;
+        int previous = index - 1;
+        if (previous == parent)
+            return NONE;
+        // the position before a node is the last of its previous sibling's subtree
+        while (parents[previous] != parent)
+            previous = parents[previous];
+        return isChildAxis(previous) ? previous : NONE;
+    }
+
+    /** The first position after the namespaces and attributes of a node. */
+    int getContentStart(final int index)
+    {
+        int position = index + 1;
+        while ((position < kinds.length) && (parents[position] == index) && !isChildAxis(position))
+            position++;
+        return position;
+    }
+
+    int getFirstChild(final int index)
+    {
+        final int kind = kinds[index] & KIND_MASK;
+        if ((kind != ELEMENT) && (kind != DOCUMENT))
+            return NONE;
+        final int first = getContentStart(index);
+        if ((first < kinds.length) && (parents[first] == index))
+            return first;
+        return NONE;
+    }
+
+    int getLastChild(final int index)
+    {
+        if (getFirstChild(index) == NONE)
+            return NONE;
+        int last = getSubtreeEnd(index) - 1;
+        while (parents[last] != index)
+            last = parents[last];
+        return last;
+    }
+
+    /** The first position after the subtree rooted at a node. */
+    int getSubtreeEnd(final int index)
+    {
+        if (!isChildAxis(index))
+            return index + 1;
+        int ancestor = index;
+        while (ancestor >= 0)
+        {
+            final int next = nexts[ancestor];
+            if (next != NONE)
+                return next;
+            ancestor = parents[ancestor];
+        }
+        return kinds.length;
+    }
+
+    int getNameId(final int index)
+    {
+        return nameIds[index];
+    }
+
+    QName getName(final int index)
+    {
+        final int id = nameIds[index];
+        return (id == NONE) ? null : names.getName(id);
+    }
+
+    String getNamespaceURI(final int index)
+    {
+        if (index == CompactNode.XML_NAMESPACE)
+            return XMLConstants.NULL_NS_URI;
+        final int id = nameIds[index];
+        return (id == NONE) ? null : names.getNamespaceURI(id);
+    }
+
+    String getLocalName(final int index)
+    {
+        if (index == CompactNode.XML_NAMESPACE)
+            return XMLConstants.XML_NS_PREFIX;
+        final int id = nameIds[index];
+        return (id == NONE) ? null : names.getLocalName(id);
+    }
+
+    String getPrefix(final int index)
+    {
+        if (index == CompactNode.XML_NAMESPACE)
+            return XMLConstants.DEFAULT_NS_PREFIX;
+        final int id = nameIds[index];
+        return (id == NONE) ? null : names.getPrefix(id);
+    }
+
+    /** The pooled fingerprint of an element or attribute name; NamePool.NONE for other nodes. */
+    int getFingerprint(final int index)
+    {
+        if ((index == CompactNode.XML_NAMESPACE) || !(isKind(index, NodeKind.ELEMENT) || isKind(index, NodeKind.ATTRIBUTE)))
+            return NamePool.NONE;
+        return names.getFingerprint(nameIds[index]);
+    }
+
+    boolean matches(final int index, final String namespaceURI, final String localName)
+    {
+        if ((localName != null) && !localName.equals(getLocalName(index)))
+            return false;
+        return (namespaceURI == null) || namespaceURI.equals(getNamespaceURI(index));
+    }
+
+    /** The text held by the node itself; empty for elements and documents. */
+    String getText(final int index)
+    {
+        if (index == CompactNode.XML_NAMESPACE)
+            return XMLConstants.XML_NS_URI;
+        final int start = texts[index];
+        return new String(chars, start, texts[index + 1] - start);
+    }
+
+    String getStringValue(final int index)
+    {
+        final int kind = (index < 0) ? NAMESPACE : (kinds[index] & KIND_MASK);
+        if ((kind != ELEMENT) && (kind != DOCUMENT))
+            return getText(index);
+        final int end = getSubtreeEnd(index);
+        int first = NONE;
+        StringBuilder builder = null;
+        for (int position = index + 1; position < end; position++)
+        {
+            if ((kinds[position] & KIND_MASK) == TEXT)
+            {
+                if (first == NONE)
+                    first = position;
+                else
+                {
+                    if (builder == null)
+                    {
+                        builder = new StringBuilder();
+                        builder.append(chars, texts[first], texts[first + 1] - texts[first]);
+                    }
+                    builder.append(chars, texts[position], texts[position + 1] - texts[position]);
+                }
+            }
+        }
+        if (builder != null)
+            return builder.toString();
+        return (first == NONE) ? "" : getText(first);
+    }
+
+    /** The attribute of an element with the given name, or {@link #NONE}. */
+    int getAttribute(final int element, final String namespaceURI, final String localName)
+    {
+        if ((kinds[element] & KIND_MASK) != ELEMENT)
+            return NONE;
+        final int end = getContentStart(element);
+        for (int position = element + 1; position < end; position++)
+        {
+            if (((kinds[position] & KIND_MASK) == ATTRIBUTE) &&
+                localName.equals(getLocalName(position)) && namespaceURI.equals(getNamespaceURI(position)))
+                return position;
+        }
+        return NONE;
+    }
+
+    /** The first position of the given kind among the namespaces and attributes of a node, or {@link #NONE}. */
+    int getFirst(final int index, final NodeKind kind)
+    {
+        final int end = getContentStart(index);
+        for (int position = index + 1; position < end; position++)
+        {
+            if ((kinds[position] & KIND_MASK) == kind.ordinal())
+                return position;
+        }
+        return NONE;
+    }
+
+    QName getType(final int index)
+    {
+        return ((types == null) || (index < 0)) ? null : types[index];
+    }
+
+    Object getValue(final int index)
+    {
+        return ((values == null) || (index < 0)) ? null : values[index];
+    }
+
+    URI getDocumentURI()
+    {
+        return documentURI;
+    }
+
+    String getDocTypeDecl()
+    {
+        return docTypeDecl;
+    }
+
+    boolean isIdAttribute(final int index)
+    {
+        if (!isKind(index, NodeKind.ATTRIBUTE))
+            return false;
+        if (getDtdAttributeKind(index) == DtdAttributeKind.ID)
+            return true;
+        if (XMLConstants.XML_NS_URI.equals(getNamespaceURI(index)) && "id".equals(getLocalName(index)))
+            return true;
+        final QName type = getType(index);
+        return (type != null) && XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(type.getNamespaceURI()) &&
+               type.getLocalPart().equals("ID");
+    }
+
+    boolean isIdRefsAttribute(final int index)
+    {
+        if (!isKind(index, NodeKind.ATTRIBUTE))
+            return false;
+        final DtdAttributeKind dtdKind = getDtdAttributeKind(index);
+        if ((dtdKind == DtdAttributeKind.IDREF) || (dtdKind == DtdAttributeKind.IDREFS))
+            return true;
+        final QName type = getType(index);
+        return (type != null) && XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(type.getNamespaceURI()) &&
+               (type.getLocalPart().equals("IDREF") || type.getLocalPart().equals("IDREFS"));
+    }
+
+    /** The element carrying an ID attribute with the given value, or {@link #NONE}. */
+    int getElementById(final String id)
+    {
+        Map<String, Integer> ids = idIndex;
+        if (ids == null)
+        {
+            // built on first use; racing threads build equal maps
+            ids = new HashMap<String, Integer>();
+            for (int position = 0; position < kinds.length; position++)
+            {
+                if (isIdAttribute(position))
+                {
+                    final String value = getText(position);
+                    if (!ids.containsKey(value))
+                        ids.put(value, parents[position]);
+                }
+            }
+            idIndex = ids;
+        }
+        final Integer element = ids.get(id);
+        return (element == null) ? NONE : element;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <A> List<A> asList(final Object value)
+    {
+        return (List<A>)value;
+    }
+
+    static byte pack(final NodeKind kind, final DtdAttributeKind dtdKind)
+    {
+        return (byte)(kind.ordinal() | ((dtdKind == null) ? 0 : dtdKind.ordinal() << KIND_BITS));
+    }
+
+    static final int NONE = -1;
+
+    private static final int KIND_BITS = 3;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+    private static final NodeKind[] NODE_KINDS = NodeKind.values();
+    private static final DtdAttributeKind[] DTD_KINDS = DtdAttributeKind.values();
+    private static final int ELEMENT = NodeKind.ELEMENT.ordinal();
+    private static final int DOCUMENT = NodeKind.DOCUMENT.ordinal();
+    private static final int ATTRIBUTE = NodeKind.ATTRIBUTE.ordinal();
+    private static final int NAMESPACE = NodeKind.NAMESPACE.ordinal();
+    private static final int TEXT = NodeKind.TEXT.ordinal();
+
+    private final CompactNames names;
+    private final byte[] kinds;
+    private final int[] parents;
+    private final int[] nexts;
+    private final int[] nameIds;
+    private final int[] texts;
+    private final char[] chars;
+    private final QName[] types;
+    private final Object[] values;
+    private final URI documentURI;
+    private final String docTypeDecl;
+    private volatile Map<String, Integer> idIndex;
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.compact.tests;
+
+import org.genxdm.bridge.compact.CompactProcessingContext;
+import org.genxdm.bridge.compact.CompactNode;
+import org.genxdm.bridgetest.axes.AxisNodeNavigatorBase;
+
+public class AxisNodeNavigatorTest
+    extends AxisNodeNavigatorBase<CompactNode>
+{
+
+    @Override
+    public CompactProcessingContext newProcessingContext()
+    {
+        return new CompactProcessingContext();
+    }
+
+}
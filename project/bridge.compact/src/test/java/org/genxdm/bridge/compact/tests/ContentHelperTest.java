@@ -0,0 +1,16 @@
+package org.genxdm.bridge.compact.tests;
+
+import org.genxdm.bridge.compact.CompactProcessingContext;
+import org.genxdm.bridge.compact.CompactNode;
+import org.genxdm.bridgetest.io.ContentHelperBase;
+
+public class ContentHelperTest
+    extends ContentHelperBase<CompactNode>
+{
+
+    @Override
+    public CompactProcessingContext newProcessingContext()
+    {
+        return new CompactProcessingContext();
+    }
+}
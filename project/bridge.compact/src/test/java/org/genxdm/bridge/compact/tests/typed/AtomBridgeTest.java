@@ -0,0 +1,18 @@
+package org.genxdm.bridge.compact.tests.typed;
+
+import org.genxdm.bridge.compact.CompactProcessingContext;
+import org.genxdm.bridge.compact.CompactNode;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgetest.typed.types.AtomBridgeBase;
+
+public class AtomBridgeTest
+    extends AtomBridgeBase<CompactNode, XmlAtom>
+{
+
+    @Override
+    public CompactProcessingContext newProcessingContext()
+    {
+        return new CompactProcessingContext();
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.genxdm.bridge.compact.tests.typed;
+
+import org.genxdm.bridge.compact.CompactProcessingContext;
+import org.genxdm.bridge.compact.CompactNode;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.processor.w3c.xs.validation.ValidatorFactory;
+import org.genxdm.processor.w3c.xs.validationtest.TypedAnonymousValidationBase;
+import org.genxdm.typed.ValidationHandler;
+import org.genxdm.typed.io.SAXValidator;
+
+public class TypedAnonymousValidationTest
+    extends TypedAnonymousValidationBase<CompactNode, XmlAtom>
+{
+
+    @Override
+    public CompactProcessingContext newProcessingContext()
+    {
+        return new CompactProcessingContext();
+    }
+
+
+    @Override
+    public SAXValidator<XmlAtom> getSAXValidator()
+    {
+        ValidatorFactory<CompactNode, XmlAtom> factory = new ValidatorFactory<CompactNode, XmlAtom>(newProcessingContext().getTypedContext(null));
+        return factory.newSAXContentValidator();
+    }
+
+    @Override
+    public ValidationHandler<XmlAtom> getValidationHandler()
+    {
+        ValidatorFactory<CompactNode, XmlAtom> factory = new ValidatorFactory<CompactNode, XmlAtom>(newProcessingContext().getTypedContext(null));
+        return factory.newXdmContentValidator();
+    }
+
+}
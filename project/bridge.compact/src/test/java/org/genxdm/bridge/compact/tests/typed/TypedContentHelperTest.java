@@ -0,0 +1,46 @@
+package org.genxdm.bridge.compact.tests.typed;
+
+import org.genxdm.bridge.compact.CompactProcessingContext;
+import org.genxdm.bridge.compact.CompactNode;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgetest.typed.io.TypedContentHelperBase;
+import org.genxdm.processor.w3c.xs.W3cXmlSchemaParser;
+import org.genxdm.processor.w3c.xs.validation.ValidatorFactory;
+import org.genxdm.typed.ValidationHandler;
+import org.genxdm.typed.io.TypedDocumentHandler;
+import org.genxdm.xs.SchemaParser;
+
+public class TypedContentHelperTest<N, A> extends TypedContentHelperBase<CompactNode, XmlAtom>
+{
+
+    @Override
+    public CompactProcessingContext newProcessingContext()
+    {
+        return new CompactProcessingContext();
+    }
+
+    @Override
+    public ValidationHandler<XmlAtom> getValidationHandler()
+    {
+        return null;
+    }
+
+    @Override
+    public SchemaParser getSchemaParser()
+    {
+        return new W3cXmlSchemaParser();
+    }
+
+    private ValidatorFactory<CompactNode,XmlAtom> getValidatorFactory()
+    {
+        ValidatorFactory<CompactNode, XmlAtom> factory = new ValidatorFactory<CompactNode, XmlAtom>(tc);
+        return factory;
+    }
+    
+    public TypedDocumentHandler<CompactNode, XmlAtom> getTypedDocumentHandler()
+    {
+        TypedDocumentHandler<CompactNode, XmlAtom> typedDocHandler  = tc.newDocumentHandler(getValidatorFactory(), null, null);
+        return typedDocHandler;
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.genxdm.bridge.compact.tests.typed;
+
+import org.genxdm.bridge.compact.CompactProcessingContext;
+import org.genxdm.bridge.compact.CompactNode;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgetest.typed.io.ValidatingContentHelperBase;
+import org.genxdm.processor.w3c.xs.W3cXmlSchemaParser;
+import org.genxdm.typed.ValidationHandler;
+import org.genxdm.typed.ValidatorFactory;
+import org.genxdm.xs.SchemaParser;
+
+public class ValidatingContentHelperTest
+    extends ValidatingContentHelperBase<CompactNode, XmlAtom>
+{
+
+    @Override
+    public CompactProcessingContext newProcessingContext()
+    {
+        return new CompactProcessingContext();
+    }
+
+    @Override
+    public ValidationHandler<XmlAtom> getValidationHandler()
+    {
+        @SuppressWarnings("unchecked")
+        ValidatorFactory<XmlAtom> factory = new org.genxdm.processor.w3c.xs.validation.ValidatorFactory<CompactNode, XmlAtom>(context.getTypedContext(getCache()));
+        return factory.newXdmContentValidator();
+    }
+
+    @Override
+    public SchemaParser getSchemaParser()
+    {
+        return new W3cXmlSchemaParser();
+    }
+
+}
@@ -157,14 +157,40 @@ public final class XmlNodeContext
     @Override
     public DocumentHandler<XmlNode> newDocumentHandler()
     {
-        return new DefaultDocumentHandler<XmlNode>(this);
+        return newDocumentHandler(null, null);
     }
 
     @Override
-    public DocumentHandler<XmlNode> newDocumentHandler(final XMLReporter reporter, final Resolver resolver)
+    public DocumentHandler<XmlNode> newDocumentHandler(final XMLReporter aReporter, final Resolver aResolver)
     {
-        // TODO: implement
-        return newDocumentHandler();
+        final DefaultDocumentHandler<XmlNode> handler = new DefaultDocumentHandler<XmlNode>(this);
+        handler.setCursorParsing(cursorParsing);
+        // a null reporter or resolver does not override the default
+        if (aResolver != null)
+            handler.setResolver(aResolver);
+        else if (resolver != null)
+            handler.setResolver(resolver);
+        if (aReporter != null)
+            handler.setReporter(aReporter);
+        else if (reporter != null)
+            handler.setReporter(reporter);
+        return handler;
+    }
+
+    /** Select the input engine of the document handlers created from now on.
+     * 
+     * @param cursor if true, parse with an XMLStreamReader, which allocates no
+     * event objects; if false (the default), with an XMLEventReader.
+     * @see DefaultDocumentHandler#setCursorParsing(boolean)
+     */
+    public void setCursorParsing(boolean cursor)
+    {
+        this.cursorParsing = cursor;
+    }
+
+    public boolean isCursorParsing()
+    {
+        return cursorParsing;
     }
     
     @Override
@@ -224,6 +250,7 @@ public final class XmlNodeContext
     private SchemaComponentCache defaultCache;
     private XMLReporter reporter;
     private Resolver resolver;
+    private boolean cursorParsing;
     
     static final Iterable<XmlNode> EMPTY_NODE_SEQUENCE = new UnaryIterable<XmlNode>(null); 
 }
@@ -25,7 +25,6 @@ import org.genxdm.NodeKind;
 import org.genxdm.NodeSource;
 import org.genxdm.bridge.cx.tree.Walker;
 import org.genxdm.bridge.cx.tree.XmlNode;
-import org.genxdm.bridgekit.tree.Ordering;
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.io.ContentHandler;
 
@@ -57,7 +56,7 @@ public class XmlNodeCursor
 
     public boolean moveToElementById(String id)
     {
-        return moveToNode(node.getElementById(id));
+        return moveToNode(node.getElementById(id, new XmlNodeModel()));
     }
 
     public boolean moveToFirstChild()
@@ -135,7 +134,7 @@ public class XmlNodeCursor
     public int compareTo(Cursor arg0)
     {
         XmlNodeModel model = new XmlNodeModel();
-        return Ordering.compareNodes(node, ((XmlNodeCursor)arg0).node, model);
+        return model.compare(node, ((XmlNodeCursor)arg0).node);
     }
 
     protected boolean moveToNode(final XmlNode position)
@@ -15,6 +15,7 @@
  */
 package org.genxdm.bridge.cx.base;
 
+import java.lang.ref.WeakReference;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -34,6 +35,7 @@ import org.genxdm.bridge.cx.tree.XmlNamespaceNode;
 import org.genxdm.bridge.cx.tree.XmlNode;
 import org.genxdm.bridge.cx.tree.XmlNodeFactory;
 import org.genxdm.bridge.cx.tree.XmlNodeMutator;
+import org.genxdm.bridge.cx.tree.XmlRootNode;
 import org.genxdm.bridgekit.axes.IterableAncestorAxis;
 import org.genxdm.bridgekit.axes.IterableAncestorOrSelfAxis;
 import org.genxdm.bridgekit.axes.IterableChildAxis;
@@ -45,6 +47,9 @@ import org.genxdm.bridgekit.axes.IterableFollowingAxis;
 import org.genxdm.bridgekit.axes.IterableFollowingSiblingAxis;
 import org.genxdm.bridgekit.axes.IterablePrecedingAxis;
 import org.genxdm.bridgekit.axes.IterablePrecedingSiblingAxis;
+import org.genxdm.bridgekit.names.FingerprintProvider;
+import org.genxdm.bridgekit.tree.DocumentOrderIndex;
+import org.genxdm.bridgekit.tree.OrderIndexProvider;
 import org.genxdm.bridgekit.tree.Ordering;
 import org.genxdm.exceptions.GenXDMException;
 import org.genxdm.exceptions.PreCondition;
@@ -53,7 +58,7 @@ import org.genxdm.names.NamespaceBinding;
 import org.genxdm.nodes.NodeIndex;
 
 public class XmlNodeModel
-    implements Model<XmlNode>
+    implements Model<XmlNode>, OrderIndexProvider<XmlNode>, FingerprintProvider<XmlNode>
 {
 
     @Override
@@ -67,9 +72,45 @@ public class XmlNodeModel
     @Override
     public int compare(final XmlNode n1, final XmlNode n2)
     {
+        if (n1 == n2)
+            return Ordering.EQUAL;
+        // the last index used answers without a walk to the root while it is current.
+        final DocumentOrderIndex<XmlNode> last = lastIndex.get();
+        if (last != null)
+        {
+            final int result = last.compareIfCurrent(n1, n2, this);
+            if (result != DocumentOrderIndex.UNKNOWN)
+                return result;
+        }
+        final DocumentOrderIndex<XmlNode> index = getOrderIndex(n1);
+        if (index != null)
+        {
+            if (index != last)
+                lastIndex = new WeakReference<DocumentOrderIndex<XmlNode>>(index);
+            final int result = index.compare(n1, n2, this);
+            if (result != DocumentOrderIndex.UNKNOWN)
+                return result;
+        }
         return Ordering.compareNodes(n1, n2, this);
     }
 
+    @Override
+    public DocumentOrderIndex<XmlNode> getOrderIndex(final XmlNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        final XmlNode root = node.getRoot();
+        if (root.getNodeKind() == NodeKind.DOCUMENT)
+            return ((XmlRootNode)root).getOrderIndex();
+        return null;
+    }
+
+    @Override
+    public int getFingerprint(final XmlNode node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return node.getFingerprint();
+    }
+
     @Override
     public Iterable<QName> getAttributeNames(XmlNode node, boolean orderCanonical)
     {
@@ -278,7 +319,7 @@ public class XmlNodeModel
     public XmlNode getElementById(XmlNode context, String id)
     {
         PreCondition.assertNotNull(context, "node");
-        return context.getElementById(id);
+        return context.getElementById(id, this);
     }
 
     @Override
@@ -549,4 +590,6 @@ public class XmlNodeModel
         return new IterablePrecedingSiblingAxis<XmlNode>(node, this);
     }
 
+    // held weakly, so that the model does not keep the tree of the last comparison alive.
+    private volatile WeakReference<DocumentOrderIndex<XmlNode>> lastIndex = new WeakReference<DocumentOrderIndex<XmlNode>>(null);
 }
@@ -36,6 +36,7 @@ public final class XmlAttributeNode
         this.namespaceURI = (namespace == null) ? "" : namespace;
         this.localName = localName;
         this.prefixHint = prefix;
+        setFingerprint();
         checkId();
     }
     
@@ -45,6 +46,7 @@ public final class XmlAttributeNode
         this.namespaceURI = (namespace == null) ? "" : namespace;
         this.localName = localName;
         this.prefixHint = prefix;
+        setFingerprint();
         checkId();
     }
     
@@ -95,6 +97,31 @@ public final class XmlAttributeNode
             ((XmlRootNode)getRoot()).addIdNode(this);
     }
     
+    // the document's id index is keyed by value, so a change to the value
+    // or the type of an id attribute has to be reflected there.
+    private void uncheckId()
+    {
+        if (isId() && (parent != null) && (getRoot().getNodeKind() == NodeKind.DOCUMENT) )
+            ((XmlRootNode)getRoot()).removeIdNode(this);
+    }
+    
+    @Override
+    public Iterable<? extends XmlAtom> setValue(final List<? extends XmlAtom> data)
+    {
+        uncheckId();
+        final Iterable<? extends XmlAtom> ret = super.setValue(data);
+        checkId();
+        return ret;
+    }
+    
+    @Override
+    public void setTypeName(QName name)
+    {
+        uncheckId();
+        super.setTypeName(name);
+        checkId();
+    }
+    
     /**
      * An internal implementation detail of mutability, to support the mutability API, we
      * need to allow for the setting of the "isId" character, which in this case means setting
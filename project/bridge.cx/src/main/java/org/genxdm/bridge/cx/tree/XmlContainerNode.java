@@ -20,6 +20,7 @@ import javax.xml.namespace.QName;
 import org.genxdm.NodeKind;
 import org.genxdm.bridgekit.atoms.XmlAtom;
 import org.genxdm.bridgekit.misc.UnaryIterable;
+import org.genxdm.bridgekit.names.NamePool;
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.names.NamespaceBinding;
 import org.genxdm.nodes.NodeIndex;
@@ -66,6 +67,8 @@ public class XmlContainerNode
 
     public XmlElementNode getFirstChildElementByName(String nsURI, String lName)
     {
+        if ( (nsURI != null) && (lName != null) )
+            return nextSiblingElement(firstChild, nsURI, lName);
         if (firstChild == null)
             return null;
         if (firstChild.isElement())
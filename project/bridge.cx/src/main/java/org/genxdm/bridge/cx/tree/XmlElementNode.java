@@ -41,6 +41,7 @@ public final class XmlElementNode
         this.localName = localName;
         this.namespaceURI = namespace;
         this.prefixHint = prefix;
+        setFingerprint();
     }
 
     public XmlAttributeNode getAttribute(String nsURI, final String name)
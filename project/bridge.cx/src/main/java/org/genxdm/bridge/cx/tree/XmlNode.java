@@ -19,8 +19,10 @@ import java.net.URI;
 
 import javax.xml.namespace.QName;
 
+import org.genxdm.Model;
 import org.genxdm.NodeKind;
 import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgekit.names.NamePool;
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.nodes.Informer;
 import org.genxdm.nodes.TypeInformer;
@@ -50,10 +52,10 @@ public abstract class XmlNode
         return null;
     }
 
-    public XmlElementNode getElementById(final String id)
+    public XmlElementNode getElementById(final String id, final Model<XmlNode> model)
     {
         if (getRoot().getNodeKind() == NodeKind.DOCUMENT)
-            return ((XmlRootNode)getRoot()).getElementById(id);
+            return ((XmlRootNode)getRoot()).getElementById(id, model);
         return null;
     }
 
@@ -90,6 +92,8 @@ public abstract class XmlNode
 
     public XmlElementNode getNextSiblingElementByName(final String nsURI, final String lName)
     {
+        if ( (nsURI != null) && (lName != null) )
+            return nextSiblingElement(nextSibling, nsURI, lName);
         if (nextSibling == null)
             return null;
         if (nextSibling.isElement())
@@ -107,6 +111,12 @@ public abstract class XmlNode
         }
         return nextSibling.getNextSiblingElementByName(nsURI, lName);
     }
+
+    /** The fingerprint of this node's name in the default name pool; NONE unless this is an element or attribute. */
+    public int getFingerprint()
+    {
+        return fingerprint;
+    }
     
     public XmlNode getNodeId()
     {
@@ -135,9 +145,10 @@ public abstract class XmlNode
 
     public XmlNode getRoot()
     {
-        if (parent != null)
-            return parent.getRoot();
-        return this;
+        XmlNode root = this;
+        while (root.parent != null)
+            root = root.parent;
+        return root;
     }
 
     public boolean hasNextSibling()
@@ -191,10 +202,45 @@ public abstract class XmlNode
     {
         this.parent = container;
     }
+
+    /** Pool the name of an element or attribute; called once, by its constructor. */
+    void setFingerprint()
+    {
+        // a null namespace matches no namespace test, so it gets no fingerprint either
+        if (namespaceURI != null)
+            fingerprint = NamePool.getDefault().getFingerprint(namespaceURI, localName);
+    }
+
+    /** The first element at or after the given node, among its siblings, with the given name. */
+    static XmlElementNode nextSiblingElement(final XmlNode initial, final String nsURI, final String lName)
+    {
+        final NamePool pool = NamePool.getDefault();
+        final int fingerprint = pool.peekFingerprint(nsURI, lName);
+        if (fingerprint != NamePool.NONE)
+        {
+            for (XmlNode candidate = initial; candidate != null; candidate = candidate.nextSibling)
+            {
+                if ( (candidate.fingerprint == fingerprint) && candidate.isElement() )
+                    return (XmlElementNode)candidate;
+            }
+            return null;
+        }
+        if (!pool.isFull()) // no element has been given this name
+            return null;
+        // the name came after the pool filled up, so its elements have no fingerprint
+        for (XmlNode candidate = initial; candidate != null; candidate = candidate.nextSibling)
+        {
+            if ( (candidate.fingerprint == NamePool.NONE) && candidate.isElement()
+                 && lName.equals(candidate.localName) && nsURI.equals(candidate.namespaceURI) )
+                return (XmlElementNode)candidate;
+        }
+        return null;
+    }
     
     protected String localName;
     protected String namespaceURI;
     protected String prefixHint;
+    protected int fingerprint = NamePool.NONE;
 
     protected XmlNode nextSibling;
     protected XmlNode prevSibling;
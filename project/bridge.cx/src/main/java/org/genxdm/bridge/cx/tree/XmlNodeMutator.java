@@ -37,7 +37,9 @@ public class XmlNodeMutator
         PreCondition.assertNotNull(newChild, "newChild");
         PreCondition.assertTrue(parent.getNodeKind().isContainer(), "parent is container");
         PreCondition.assertTrue(newChild.getNodeKind().isChild(), "content is child");
+        invalidateOrder(parent, newChild);
         ((XmlContainerNode)parent).appendChild(newChild);
+        addIds(newChild);
     }
 
     public void appendChildren(final XmlNode parent, final Iterable<XmlNode> content)
@@ -107,7 +109,10 @@ public class XmlNodeMutator
         else if (kind == NodeKind.NAMESPACE)
             ((XmlElementNode)target.getParent()).removeNamespace((XmlNamespaceNode)target);
         else
+        {
+            invalidateOrder(target, null);
             target.getParent().removeChild(target);
+        }
         return target;
     }
 
@@ -146,6 +151,7 @@ public class XmlNodeMutator
         PreCondition.assertNotNull(content, "content");
         PreCondition.assertTrue(target.hasParent(), "target has parent");
         PreCondition.assertTrue(content.getNodeKind().isChild(), "content is child");
+        invalidateOrder(target, content);
         XmlNode next = target.getNextSibling();
         if (next == null)
         {
@@ -155,6 +161,7 @@ public class XmlNodeMutator
         {
             target.getParent().insertChild(content, next);
         }
+        addIds(content);
     }
     
     public void insertAfter(final XmlNode target, final Iterable<XmlNode> content)
@@ -199,7 +206,9 @@ public class XmlNodeMutator
         PreCondition.assertNotNull(content, "content");
         PreCondition.assertTrue(target.hasParent(), "target has parent");
         PreCondition.assertTrue(content.getNodeKind().isChild(), "content is child");
+        invalidateOrder(target, content);
         target.getParent().insertChild(content, target);
+        addIds(content);
     }
     
     public void insertBefore(final XmlNode target, final Iterable<XmlNode> content)
@@ -229,11 +238,13 @@ public class XmlNodeMutator
         PreCondition.assertNotNull(content, "content");
         PreCondition.assertTrue(parent.getNodeKind().isContainer(), "parent is container");
         PreCondition.assertTrue(content.getNodeKind().isChild(), "content is child");
+        invalidateOrder(parent, content);
         XmlContainerNode container = (XmlContainerNode)parent;
         if (container.getFirstChild() == null)
             container.appendChild(content);
         else
             container.insertChild(content, container.getFirstChild());
+        addIds(content);
     }
 
     public void prependChildren(final XmlNode parent, final Iterable<XmlNode> content)
@@ -287,8 +298,10 @@ public class XmlNodeMutator
         }
         else
         {
+            invalidateOrder(target, content);
             parent.insertChild(content, target);
             parent.removeChild(target);
+            addIds(content);
         }
         return target;
     }
@@ -352,5 +365,34 @@ public class XmlNodeMutator
         element.setNamespace(namespace);
     }
     
+    // changes to the child axis make the document order numbering stale,
+    // both in the target tree and in any tree that the content is taken from.
+    // attributes and namespaces are ordered by their parent, so they don't.
+    private void invalidateOrder(final XmlNode target, final XmlNode content)
+    {
+        XmlNode root = target.getRoot();
+        if (root.getNodeKind() == NodeKind.DOCUMENT)
+            ((XmlRootNode)root).getOrderIndex().invalidate();
+        if ( (content != null) && content.hasParent() )
+        {
+            root = content.getRoot();
+            if (root.getNodeKind() == NodeKind.DOCUMENT)
+                ((XmlRootNode)root).getOrderIndex().invalidate();
+        }
+    }
+
+    // id attributes register themselves when they are added to an element in a
+    // document, but not when the element they are on is added to one.  the index
+    // drops entries for detached attributes itself, so removal needs nothing.
+    private void addIds(final XmlNode content)
+    {
+        if (content.isElement())
+        {
+            final XmlNode root = content.getRoot();
+            if (root.getNodeKind() == NodeKind.DOCUMENT)
+                ((XmlRootNode)root).addIdNodes(content);
+        }
+    }
+
     private XmlNodeFactory factory = new XmlNodeFactory();
 }
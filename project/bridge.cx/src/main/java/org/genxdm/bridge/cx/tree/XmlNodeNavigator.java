@@ -15,6 +15,8 @@
  */
 package org.genxdm.bridge.cx.tree;
 
+import org.genxdm.Model;
+
 /** An interface that splits the difference between "model" and "cursor".
  * 
  * @author alewis@tibco.com
@@ -25,7 +27,7 @@ interface XmlNodeNavigator
 {
     XmlAttributeNode getAttribute(String namespaceURI, String localName);
     
-    XmlElementNode getElementById(String id);
+    XmlElementNode getElementById(String id, Model<XmlNode> model);
 
     XmlNode getFirstChild();
 
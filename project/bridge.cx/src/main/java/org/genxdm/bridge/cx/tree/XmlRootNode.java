@@ -16,11 +16,17 @@
 package org.genxdm.bridge.cx.tree;
 
 import java.net.URI;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
+import org.genxdm.Model;
 import org.genxdm.NodeKind;
 import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgekit.tree.DocumentOrderIndex;
+import org.genxdm.exceptions.PreCondition;
 import org.genxdm.typed.types.AtomBridge;
 
 public final class XmlRootNode
@@ -49,22 +55,46 @@ public final class XmlRootNode
         return documentURI;
     }
     
-    public XmlElementNode getElementById(String id)
+    /**
+     * Returns the element with the given id, or null.  The model orders
+     * duplicate ids, so that the first in document order wins.  Lookup does
+     * not change the index; it may be called from several threads at once,
+     * so long as nothing mutates the tree meanwhile.
+     */
+    public XmlElementNode getElementById(String id, Model<XmlNode> model)
     {
-        if ( (id == null) || (id.trim().length() == 0) )
+        PreCondition.assertNotNull(model, "model");
+        if (id == null)
+            return null;
+        final String key = id.trim();
+        if (key.length() == 0)
             return null;
-        // TODO: enhancement
-        // collect a set of possible nodes, then compare by document order,
-        // and return the (parent of the) first.  in most cases, there will only be one, 
-        // anyway, so this adds weight and time to handle a corner case.
-        for (XmlNode node : idNodes)
+        XmlNode attribute = idNodes.get(key);
+        if ( (attribute != null) && !isIdOf(attribute, key) )
+            attribute = null; // detached, or no longer an id; a duplicate may take its place
+        final List<XmlNode> others = duplicateIds.get(key);
+        if (others != null)
         {
-            if (id.equals(node.getStringValue()))
+            // a validity error, but not a well-formedness error: the first in document order wins
+            for (XmlNode other : others)
             {
-                return (XmlElementNode)node.parent;
+                if (isIdOf(other, key) &&
+                    ( (attribute == null) || (orderIndex.getOrderKey(other.parent, model) < orderIndex.getOrderKey(attribute.parent, model)) ) )
+                    attribute = other;
             }
         }
-        return null;
+        if (attribute == null)
+            return null;
+        return (XmlElementNode)attribute.parent;
+    }
+    
+    /**
+     * The document order index for this tree.  It is kept current by
+     * {@link XmlNodeMutator}, which invalidates it on structural change.
+     */
+    public DocumentOrderIndex<XmlNode> getOrderIndex()
+    {
+        return orderIndex;
     }
     
     void setAtomBridge(AtomBridge<XmlAtom> bridge)
@@ -77,7 +107,25 @@ public final class XmlRootNode
         // we *could* check that the id is unique.  it's prolly better to handle
         // that in lookup, though, because it's a validation constraint, not a
         // well-formedness constraint, so we shouldn't barf.
-        idNodes.add(node);
+        final String key = node.getStringValue().trim();
+        if (key.length() == 0)
+            return;
+        final XmlNode existing = idNodes.get(key);
+        if ( (existing == null) || !isIdOf(existing, key) )
+        {
+            idNodes.put(key, node);
+            pruneDuplicates(key, node);
+        }
+        else if (existing != node)
+        {
+            List<XmlNode> others = pruneDuplicates(key, node);
+            if (others == null)
+            {
+                others = new ArrayList<XmlNode>(2);
+                duplicateIds.put(key, others);
+            }
+            others.add(node);
+        }
     }
     
     /**
@@ -90,7 +138,89 @@ public final class XmlRootNode
      * @param node The attribute node to remove from the ID set.
      */
     void removeIdNode(XmlNode node) {
-        idNodes.remove(node);
+        final String key = node.getStringValue().trim();
+        if (idNodes.get(key) == node)
+        {
+            idNodes.remove(key);
+            promoteDuplicate(key);
+        }
+        else
+        {
+            final List<XmlNode> others = duplicateIds.get(key);
+            if ( (others != null) && others.remove(node) && others.isEmpty() )
+                duplicateIds.remove(key);
+        }
+    }
+    
+    /**
+     * Adds the id attributes of a subtree that has just been attached to this
+     * document.  Attributes set on an element already in the document add
+     * themselves; a subtree built on its own and then inserted has to be
+     * walked.
+     */
+    void addIdNodes(XmlNode subtree)
+    {
+        if (subtree.isElement())
+        {
+            XmlNode attribute = ((XmlElementNode)subtree).firstAttribute;
+            while (attribute != null)
+            {
+                if (attribute.isId())
+                    addIdNode(attribute);
+                attribute = attribute.nextSibling;
+            }
+            XmlNode child = ((XmlElementNode)subtree).firstChild;
+            while (child != null)
+            {
+                addIdNodes(child);
+                child = child.nextSibling;
+            }
+        }
+    }
+    
+    // entries are not removed when a subtree is detached, so they are checked on
+    // lookup, and dropped the next time the same id is added or removed.
+    private boolean isIdOf(XmlNode attribute, String key)
+    {
+        return (attribute.parent != null) && (attribute.getRoot() == this) &&
+               attribute.isId() && key.equals(attribute.getStringValue().trim());
+    }
+    
+    private XmlNode promoteDuplicate(String key)
+    {
+        final List<XmlNode> others = duplicateIds.get(key);
+        if (others == null)
+            return null;
+        XmlNode promoted = null;
+        while ( (promoted == null) && !others.isEmpty() )
+        {
+            final XmlNode candidate = others.remove(others.size() - 1);
+            if (isIdOf(candidate, key))
+                promoted = candidate;
+        }
+        if (others.isEmpty())
+            duplicateIds.remove(key);
+        if (promoted != null)
+            idNodes.put(key, promoted);
+        return promoted;
+    }
+    
+    // drops the stale duplicates of a key, and the node itself; returns the list that remains
+    private List<XmlNode> pruneDuplicates(String key, XmlNode node)
+    {
+        final List<XmlNode> others = duplicateIds.get(key);
+        if (others == null)
+            return null;
+        for (Iterator<XmlNode> it = others.iterator(); it.hasNext(); )
+        {
+            final XmlNode other = it.next();
+            if ( (other == node) || !isIdOf(other, key) )
+                it.remove();
+        }
+        if (!others.isEmpty())
+            return others;
+        duplicateIds.remove(key);
+        return null;
     }
     
     private void parseDocTypeDecl()
@@ -106,5 +236,9 @@ public final class XmlRootNode
     protected final URI documentURI;
     protected final String docTypeDecl;
     protected AtomBridge<XmlAtom> atomBridge;
-    private Set<XmlNode> idNodes = new HashSet<XmlNode>();
+    // id attributes by (trimmed) value; the rare second and later attributes
+    // with the same value are kept apart, so that the common case costs one entry.
+    private final Map<String, XmlNode> idNodes = new HashMap<String, XmlNode>();
+    private final Map<String, List<XmlNode>> duplicateIds = new HashMap<String, List<XmlNode>>();
+    private final DocumentOrderIndex<XmlNode> orderIndex = new DocumentOrderIndex<XmlNode>(this);
 }
@@ -15,9 +15,16 @@
  */
 package org.genxdm.bridge.cx.tests;
 
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
 import org.genxdm.bridge.cx.base.XmlNodeContext;
 import org.genxdm.bridge.cx.tree.XmlNode;
 import org.genxdm.bridgetest.mutable.MutableModelBase;
+import org.genxdm.io.DtdAttributeKind;
+import org.genxdm.io.FragmentBuilder;
+import org.genxdm.mutable.MutableModel;
+import org.junit.Test;
 
 public class MutableModelTest
     extends MutableModelBase<XmlNode>
@@ -29,4 +36,53 @@ public class MutableModelTest
         return new XmlNodeContext();
     }
 
+    @Test
+    public void idLookupFollowsChanges()
+    {
+        XmlNodeContext context = newProcessingContext();
+        MutableModel<XmlNode> model = context.getMutableContext().getModel();
+
+        XmlNode doc = buildDocument(context, "foo", "before");
+        XmlNode fooElem = model.getFirstChildElement(doc);
+        XmlNode barElem = model.getFirstChildElement(fooElem);
+        assertSame(barElem, model.getElementById(doc, "before"));
+
+        // a new value replaces the old one
+        model.replaceValue(model.getAttribute(barElem, "", "id"), "after");
+        assertNull(model.getElementById(doc, "before"));
+        assertSame(barElem, model.getElementById(doc, "after"));
+
+        // a subtree moved in from another document brings its ids along
+        XmlNode other = buildDocument(context, "baz", "moved");
+        XmlNode movedElem = model.getFirstChildElement(model.getFirstChildElement(other));
+        model.appendChild(fooElem, model.delete(movedElem));
+        assertSame(movedElem, model.getElementById(doc, "moved"));
+        assertNull(model.getElementById(other, "moved"));
+
+        // and a deleted one takes them away
+        model.delete(barElem);
+        assertNull(model.getElementById(doc, "after"));
+        assertSame(movedElem, model.getElementById(doc, "moved"));
+
+        // a duplicate earlier in document order wins, until it is deleted
+        XmlNode third = buildDocument(context, "qux", "moved");
+        XmlNode duplicateElem = model.getFirstChildElement(model.getFirstChildElement(third));
+        model.insertBefore(movedElem, model.delete(duplicateElem));
+        assertSame(duplicateElem, model.getElementById(doc, "moved"));
+        model.delete(duplicateElem);
+        assertSame(movedElem, model.getElementById(doc, "moved"));
+    }
+
+    private XmlNode buildDocument(XmlNodeContext context, String name, String id)
+    {
+        FragmentBuilder<XmlNode> builder = context.newFragmentBuilder();
+        builder.startDocument(null, null);
+        builder.startElement("", name, "");
+        builder.startElement("", "bar", "");
+        builder.attribute("", "id", "", id, DtdAttributeKind.ID);
+        builder.endElement();
+        builder.endElement();
+        builder.endDocument();
+        return builder.getNode();
+    }
 }
@@ -15,9 +15,17 @@
  */
 package org.genxdm.bridge.cx.tests;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+
 import org.genxdm.bridge.cx.base.XmlNodeContext;
 import org.genxdm.bridge.cx.tree.XmlNode;
+import org.genxdm.processor.io.DefaultDocumentHandler;
 import org.genxdm.processor.io.tests.ParseBase;
+import org.junit.Test;
 
 public class ParseTest
     extends ParseBase<XmlNode>
@@ -29,4 +37,23 @@ public class ParseTest
         return new XmlNodeContext();
     }
 
+    @Test
+    public void cursorParsingIsOptIn()
+        throws Exception
+    {
+        XmlNodeContext context = newProcessingContext();
+        assertFalse(context.isCursorParsing());
+        assertFalse(((DefaultDocumentHandler<XmlNode>)context.newDocumentHandler()).isCursorParsing());
+        assertFalse(((DefaultDocumentHandler<XmlNode>)context.newDocumentHandler(null, null)).isCursorParsing());
+        XmlNode events = context.newDocumentHandler().parse(new StringReader(DOC), null);
+
+        context.setCursorParsing(true);
+        DefaultDocumentHandler<XmlNode> handler = (DefaultDocumentHandler<XmlNode>)context.newDocumentHandler();
+        assertTrue(handler.isCursorParsing());
+        XmlNode cursor = handler.parse(new StringReader(DOC), null);
+        assertEquals(context.getModel().getStringValue(events), context.getModel().getStringValue(cursor));
+    }
+
+    private static final String DOC = "<a x='1'>one<b>two</b><!-- c --><?p i?>three</a>";
+
 }
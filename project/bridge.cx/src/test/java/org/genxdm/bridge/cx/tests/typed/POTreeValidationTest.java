@@ -2,6 +2,11 @@ package org.genxdm.bridge.cx.tests.typed;
 
 import org.genxdm.bridge.cx.base.XmlNodeContext;
 import org.genxdm.bridge.cx.tree.XmlNode;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.xml.namespace.QName;
+
 import org.genxdm.bridgekit.atoms.XmlAtom;
 import org.genxdm.processor.w3c.xs.validation.ValidatorFactory;
 import org.genxdm.processor.w3c.xs.validationtest.TreeValidationBase;
@@ -33,4 +38,18 @@ public class POTreeValidationTest
         return factory.newXdmContentValidator();
     }
 
+    @Override
+    public ValidationHandler<XmlAtom> getParallelValidationHandler(List<QName> forkPath, ForkJoinPool pool)
+    {
+        ValidatorFactory<XmlNode, XmlAtom> factory = new ValidatorFactory<XmlNode, XmlAtom>(newProcessingContext().getTypedContext(null));
+        return factory.newParallelXdmContentValidator(forkPath, pool);
+    }
+
+    @Override
+    public ValidationHandler<XmlAtom> getSpillingValidationHandler(long identitySpillThreshold)
+    {
+        ValidatorFactory<XmlNode, XmlAtom> factory = new ValidatorFactory<XmlNode, XmlAtom>(newProcessingContext().getTypedContext(null));
+        return factory.identitySpillThreshold(identitySpillThreshold).newXdmContentValidator();
+    }
+
 }
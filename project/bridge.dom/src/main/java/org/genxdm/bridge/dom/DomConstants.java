@@ -23,5 +23,7 @@ public interface DomConstants {
     final static String DEFAULT_ATOM_SEPARATOR = " ";
     final static Emulation DEFAULT_EMULATION = Emulation.MODERN;
     final static String UD_ANNOTATION_TYPE = "{http://org.genxdm.bridge.dom}annotation-type";
+    final static String UD_ORDER_INDEX = "{http://org.genxdm.bridge.dom}order-index";
+    final static String UD_TYPED_VALUE = "{http://org.genxdm.bridge.dom}typed-value";
 
 }
\ No newline at end of file
@@ -88,6 +88,7 @@ public class DomDocumentHandler extends DefaultDocumentHandler<Node> {
             PreCondition.assertTrue(m_dbf.isNamespaceAware(), "Document Builder factory must be namespace aware.");
             DocumentBuilder db = getDocumentBuilder();
             result = db.parse(source);
+            DomSupport.enableOrderIndex(result);
         }
         catch (ParserConfigurationException pce)
         {
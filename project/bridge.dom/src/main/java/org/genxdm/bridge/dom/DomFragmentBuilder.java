@@ -281,6 +281,7 @@ public class DomFragmentBuilder
     private Document newDocument(final URI documentURI)
     {
         final Document document = m_db.newDocument();
+        DomSupport.enableOrderIndex(document);
 
         if (null != documentURI)
         {
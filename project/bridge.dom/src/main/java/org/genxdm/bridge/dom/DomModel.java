@@ -43,6 +43,8 @@ import org.genxdm.bridgekit.axes.IterablePrecedingSiblingAxis;
 import org.genxdm.bridgekit.misc.UnaryIterable;
 import org.genxdm.bridgekit.names.DefaultNamespaceBinding;
 import org.genxdm.bridgekit.names.QNameComparator;
+import org.genxdm.bridgekit.tree.DocumentOrderIndex;
+import org.genxdm.bridgekit.tree.OrderIndexProvider;
 import org.genxdm.bridgekit.tree.Ordering;
 import org.genxdm.exceptions.GenXDMException;
 import org.genxdm.exceptions.PreCondition;
@@ -57,15 +59,31 @@ import org.w3c.dom.Node;
 import org.w3c.dom.TypeInfo;
 
 public class DomModel
-    implements Model<Node>
+    implements Model<Node>, OrderIndexProvider<Node>
 {
 
     @Override
     public int compare(Node one, Node two)
     {
+        if (one == two)
+            return Ordering.EQUAL;
+        final DocumentOrderIndex<Node> index = DomSupport.getOrderIndex(one);
+        if (index != null)
+        {
+            final int result = index.compare(one, two, this);
+            if (result != DocumentOrderIndex.UNKNOWN)
+                return result;
+        }
         return Ordering.compareNodes(one, two, this);
     }
 
+    @Override
+    public DocumentOrderIndex<Node> getOrderIndex(Node node)
+    {
+        PreCondition.assertNotNull(node, "node");
+        return DomSupport.getOrderIndex(node);
+    }
+
     @Override
     public Iterable<Node> getAncestorAxis(Node node)
     {
@@ -50,6 +50,7 @@ public final class DomModelMutable
     {
         PreCondition.assertArgumentNotNull(parent, "parent");
         PreCondition.assertArgumentNotNull(newChild, "newChild");
+        changingChildren(parent, newChild);
         parent.appendChild(ensureOwnership(DomSupport.getOwner(parent), newChild));
     }
     
@@ -60,6 +61,7 @@ public final class DomModelMutable
         final Document owner = parent.getOwnerDocument();
         for (Node node : content)
         {
+            changingChildren(parent, node);
             parent.appendChild(ensureOwnership(owner, node));
         }
     }
@@ -68,6 +70,7 @@ public final class DomModelMutable
     {
         PreCondition.assertNotNull(parent, "parent");
         PreCondition.assertNotNull(content, "content");
+        changingChildren(parent, content);
         parent.insertBefore(ensureOwnership(parent.getOwnerDocument(), content), parent.getFirstChild());
     }
     
@@ -102,6 +105,7 @@ public final class DomModelMutable
         final Node parent = target.getParentNode();
         if (parent != null)
         {
+            changingChildren(parent, content);
             parent.insertBefore(ensureOwnership(target.getOwnerDocument(), content), target);
         }
     }
@@ -116,6 +120,7 @@ public final class DomModelMutable
             final Document owner = target.getOwnerDocument();
             for (Node node : content)
             {
+                changingChildren(parent, node);
                 parent.insertBefore(ensureOwnership(owner, node), target);
             }
         }
@@ -131,6 +136,7 @@ public final class DomModelMutable
         if (parent != null)
         {
             final Document owner = target.getOwnerDocument();
+            changingChildren(parent, content);
             if (next != null)
                 parent.insertBefore(ensureOwnership(owner, content), next);
             else
@@ -149,6 +155,7 @@ public final class DomModelMutable
             final Document owner = target.getOwnerDocument();
             for (Node node : content)
             {
+                changingChildren(parent, node);
                 if (next != null)
                     parent.insertBefore(ensureOwnership(owner, node), next);
                 else
@@ -160,13 +167,17 @@ public final class DomModelMutable
     public Node delete(final Node target)
     {
         PreCondition.assertArgumentNotNull(target, "target");
+        DomSupport.clearTypedValue(target);
         if (target instanceof Attr)
         {
             return ((Attr)target).getOwnerElement().removeAttributeNode((Attr)target);
         }
         Node parent = target.getParentNode();
         if (parent != null)
+        {
+            DomSupport.invalidateOrderIndex(parent);
             return parent.removeChild(target);
+        }
         return null;
     }
     
@@ -174,6 +185,8 @@ public final class DomModelMutable
     {
         PreCondition.assertNotNull(target, "target");
         List<Node> deleted = new ArrayList<Node>();
+        DomSupport.clearTypedValue(target);
+        DomSupport.invalidateOrderIndex(target);
         if (getNodeKind(target).isContainer())
             for (Node child : getChildAxis(target))
             {
@@ -201,6 +214,7 @@ public final class DomModelMutable
                                      (contentNodeKind == NodeKind.COMMENT) ||
                                      (contentNodeKind == NodeKind.PROCESSING_INSTRUCTION) );
         }
+        clearTypedValues(target, content);
         if (target instanceof Attr)
         {
             final Element owner = ((Attr)target).getOwnerElement();
@@ -210,7 +224,10 @@ public final class DomModelMutable
         }
         final Node parent = target.getParentNode();
         if (parent != null)
+        {
+            DomSupport.invalidateOrderIndex(parent);
             return parent.replaceChild(ensureOwnership(target.getOwnerDocument(), content), target);
+        }
         return null;
     }
     
@@ -220,12 +237,15 @@ public final class DomModelMutable
         if (getNodeKind(target).isContainer() || getNodeKind(target).isNamespace() )
             return null; // throw an exception, really.
         String retval = getStringValue(target);
+        DomSupport.clearTypedValue(target);
         target.setNodeValue(value);
         return retval;
     }
 
     public void insertAttribute(final Node element, final Node attribute)
     {
+        // an xsi:nil attribute changes the typed value of the element
+        clearTypedValues(element, attribute);
         ((Element)element).setAttributeNodeNS((Attr)ensureOwnership(element.getOwnerDocument(), attribute));
     }
     
@@ -255,6 +275,21 @@ public final class DomModelMutable
         parent.setIdAttributeNode( (Attr)attr, isId);
     }
 
+    private void changingChildren(final Node parent, final Node content)
+    {
+        // the content leaves its old parent, if any, in the same document; a copy is made of content from another
+        clearTypedValues(parent, content);
+        DomSupport.invalidateOrderIndex(parent);
+    }
+
+    private void clearTypedValues(final Node target, final Node content)
+    {
+        DomSupport.clearTypedValue(target);
+        final Node oldParent = content.getParentNode();
+        if (oldParent != null)
+            DomSupport.clearTypedValue(oldParent);
+    }
+
     private Node ensureOwnership(Document d, Node n)
     {
         if (n.getOwnerDocument() != d) {
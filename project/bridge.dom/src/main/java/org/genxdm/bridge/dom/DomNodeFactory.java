@@ -66,6 +66,7 @@ public class DomNodeFactory
         try
         {
             m_doc = m_dbf.newDocumentBuilder().newDocument();
+            DomSupport.enableOrderIndex(m_doc);
             return m_doc;
         }
         catch (ParserConfigurationException pce)
@@ -18,6 +18,7 @@ package org.genxdm.bridge.dom;
 import javax.xml.XMLConstants;
 
 import org.genxdm.NodeKind;
+import org.genxdm.bridgekit.tree.DocumentOrderIndex;
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.typed.types.Emulation;
 import org.w3c.dom.Attr;
@@ -217,6 +218,121 @@ public final class DomSupport implements DomConstants
         return node.getOwnerDocument();
     }
 
+    /**
+     * Returns the document order index for the document that owns a node, or null if the document is not indexed.
+     * <p>
+     * Only documents passed to {@link #enableOrderIndex(Node)} are indexed; the bridge does that for the documents it
+     * builds. A DOM that comes from elsewhere is compared by walking the tree, because it may be changed directly
+     * without the bridge knowing.
+     * </p>
+     * 
+     * @param node
+     *            A node in the document.
+     */
+    @SuppressWarnings("unchecked")
+    public static DocumentOrderIndex<Node> getOrderIndex(final Node node)
+    {
+        final Document owner = getOwner(node);
+        if (owner == null)
+            return null;
+        try
+        {
+            return (DocumentOrderIndex<Node>)owner.getUserData(UD_ORDER_INDEX);
+        }
+        catch (final AbstractMethodError e)
+        {
+            // DOM without Level 3 user data
+            return null;
+        }
+    }
+
+    /**
+     * Keeps a document order index for the document that owns a node, so that its nodes are compared in constant time.
+     * <p>
+     * {@link DomModelMutable} invalidates the index whenever it changes the child axis of a node. Once the index is
+     * enabled, any change made to the DOM directly, without going through it, must be followed by a call to
+     * {@link #invalidateOrderIndex(Node)}; otherwise nodes may be compared in the order the tree had before. If the DOM
+     * does not support Level 3 user data, this does nothing.
+     * </p>
+     * 
+     * @param node
+     *            A node in the document.
+     */
+    public static void enableOrderIndex(final Node node)
+    {
+        final Document owner = getOwner(node);
+        if (owner == null)
+            return;
+        try
+        {
+            if (owner.getUserData(UD_ORDER_INDEX) == null)
+            {
+                synchronized (owner)
+                {
+                    if (owner.getUserData(UD_ORDER_INDEX) == null)
+                        owner.setUserData(UD_ORDER_INDEX, new DocumentOrderIndex<Node>(owner), null);
+                }
+            }
+        }
+        catch (final AbstractMethodError e)
+        {
+            // DOM without Level 3 user data
+        }
+    }
+
+    /**
+     * Discards the typed value recorded during validation for a node and for each of its ancestor elements, whose
+     * typed values may include the node's string value.
+     * 
+     * @param node
+     *            The node whose value, or whose children, are about to change.
+     */
+    public static void clearTypedValue(final Node node)
+    {
+        if (!supportsCoreLevel3(node))
+            return;
+        try
+        {
+            Node current = node;
+            while (current != null)
+            {
+                if (current.getUserData(UD_TYPED_VALUE) != null)
+                    current.setUserData(UD_TYPED_VALUE, null, null);
+                current = (current instanceof Attr) ? ((Attr)current).getOwnerElement() : current.getParentNode();
+            }
+        }
+        catch (final AbstractMethodError e)
+        {
+            // DOM without Level 3 user data never has a typed value
+        }
+    }
+
+    /**
+     * Invalidates the document order index of the document that owns a node, if it has one. Must be called whenever a
+     * node is added to, removed from, or moved within the child axis of a node in the document.
+     * 
+     * @param node
+     *            A node in the document.
+     */
+    @SuppressWarnings("unchecked")
+    public static void invalidateOrderIndex(final Node node)
+    {
+        final Document owner = getOwner(node);
+        if (owner != null)
+        {
+            try
+            {
+                final Object index = owner.getUserData(UD_ORDER_INDEX);
+                if (index != null)
+                    ((DocumentOrderIndex<Node>)index).invalidate();
+            }
+            catch (final AbstractMethodError e)
+            {
+                // DOM without Level 3 user data never has an index
+            }
+        }
+    }
+
     /**
      * XPath-correct implementation of parent axis navigation.
      */
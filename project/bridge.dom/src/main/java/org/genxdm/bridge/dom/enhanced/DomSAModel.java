@@ -90,6 +90,9 @@ class DomSAModel
                 {
                     final SimpleType simpleType = (SimpleType)type;
                     final String stringValue = getStringValue(node);
+                    final List<XmlAtom> cached = DomTypedValue.get(node, stringValue);
+                    if (cached != null)
+                        return cached;
                     try
                     {
                         return simpleType.validate(stringValue, atomBridge);
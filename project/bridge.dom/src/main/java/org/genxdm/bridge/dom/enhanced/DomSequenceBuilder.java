@@ -46,14 +46,18 @@ final class DomSequenceBuilder
     {
         if (m_depth > 0)
         {
-            final Node attribute = DomSupport.setAttributeUntyped(m_current, namespaceURI, localName, prefix, Emulation.C14N.atomsToString(data, atomBridge));
+            final String lexical = Emulation.C14N.atomsToString(data, atomBridge);
+            final Node attribute = DomSupport.setAttributeUntyped(m_current, namespaceURI, localName, prefix, lexical);
             setAnnotationType(attribute, type);
+            DomTypedValue.set(attribute, lexical, data);
         }
         else
         {
             startNodeProcessing();
-            m_current = DomSupport.createAttributeUntyped(getOwner(), namespaceURI, localName, prefix, Emulation.C14N.atomsToString(data, atomBridge));
+            final String lexical = Emulation.C14N.atomsToString(data, atomBridge);
+            m_current = DomSupport.createAttributeUntyped(getOwner(), namespaceURI, localName, prefix, lexical);
             setAnnotationType(m_current, type);
+            DomTypedValue.set(m_current, lexical, data);
             endNodeProcessing();
         }
     }
@@ -66,7 +70,13 @@ final class DomSequenceBuilder
 
     public void text(final List<? extends XmlAtom> value) throws GenXDMException
     {
-        text(atomBridge.getC14NString(value));
+        final String lexical = atomBridge.getC14NString(value);
+        text(lexical);
+        // simple content arrives as typed text; if there is more than one
+        // segment, the lexical form will not match the element's string
+        // value, and the cached value is ignored.
+        if ((m_depth > 0) && (m_current.getNodeType() == Node.ELEMENT_NODE))
+            DomTypedValue.set(m_current, lexical, value);
     }
 
     private void setAnnotationType(final Node node, final QName type)
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridge.dom.enhanced;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.genxdm.bridge.dom.DomConstants;
+import org.genxdm.bridge.dom.DomSupport;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.w3c.dom.Node;
+
+/**
+ * The typed value computed for an element or attribute during validation, kept
+ * in the {@link DomConstants#UD_TYPED_VALUE} user data slot of the node so that
+ * {@link DomSAModel#getValue} need not validate the string value again.
+ *
+ * <p>The lexical form from which the value was computed is kept with it; a
+ * cached value is only used while the string value of the node is unchanged,
+ * so that changes made directly to the DOM (bypassing the mutable model,
+ * which discards cached values) are never answered from the cache.</p>
+ */
+final class DomTypedValue
+{
+    private DomTypedValue(final String lexical, final List<? extends XmlAtom> value)
+    {
+        this.lexical = lexical;
+        this.value = Collections.unmodifiableList(new ArrayList<XmlAtom>(value));
+    }
+
+    static void set(final Node node, final String lexical, final List<? extends XmlAtom> value)
+    {
+        if (DomSupport.supportsCoreLevel3(node))
+        {
+            try
+            {
+                node.setUserData(DomConstants.UD_TYPED_VALUE, new DomTypedValue(lexical, value), null);
+            }
+            catch (final AbstractMethodError e)
+            {
+                // no cache; values will be computed on demand.
+            }
+        }
+    }
+
+    /**
+     * @return the cached value, or null if there is none or the string value
+     * of the node has changed since it was computed.
+     */
+    static List<XmlAtom> get(final Node node, final String stringValue)
+    {
+        if (DomSupport.supportsCoreLevel3(node))
+        {
+            try
+            {
+                final Object cached = node.getUserData(DomConstants.UD_TYPED_VALUE);
+                if (cached instanceof DomTypedValue)
+                {
+                    final DomTypedValue typed = (DomTypedValue)cached;
+                    if (typed.lexical.equals(stringValue))
+                        return typed.value;
+                }
+            }
+            catch (final AbstractMethodError e)
+            {
+                // fall through
+            }
+        }
+        return null;
+    }
+
+    private final String lexical;
+    private final List<XmlAtom> value;
+}
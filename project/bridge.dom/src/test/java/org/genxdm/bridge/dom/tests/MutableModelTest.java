@@ -15,8 +15,21 @@
  */
 package org.genxdm.bridge.dom.tests;
 
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.genxdm.Model;
 import org.genxdm.bridge.dom.DomProcessingContext;
+import org.genxdm.bridge.dom.DomSupport;
 import org.genxdm.bridgetest.mutable.MutableModelBase;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
 public class MutableModelTest
@@ -27,4 +40,55 @@ public class MutableModelTest
     {
         return new DomProcessingContext();
     }
+
+    @Test
+    public void directChangesInvalidateTheOrderIndex()
+        throws Exception
+    {
+        DomProcessingContext context = newProcessingContext();
+        Document doc = (Document)context.newDocumentHandler().parse(new StringReader("<root><a/><b/></root>"), null);
+        Model<Node> model = context.getModel();
+        Element root = doc.getDocumentElement();
+        Node a = root.getFirstChild();
+        Node b = root.getLastChild();
+        for (int i = 0; i < 100; i++)
+            assertTrue(model.compare(a, b) < 0);
+
+        // a change made through the DOM itself is followed by an explicit invalidation
+        root.removeChild(a);
+        root.appendChild(a);
+        DomSupport.invalidateOrderIndex(root);
+        for (int i = 0; i < 100; i++)
+            assertTrue(model.compare(b, a) < 0);
+    }
+
+    @Test
+    public void foreignDocumentsAreNotIndexed()
+        throws Exception
+    {
+        DomProcessingContext context = newProcessingContext();
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        Document doc = dbf.newDocumentBuilder().newDocument();
+        Element root = doc.createElementNS(null, "root");
+        doc.appendChild(root);
+        Node a = root.appendChild(doc.createElementNS(null, "a"));
+        Node b = root.appendChild(doc.createElementNS(null, "b"));
+        Model<Node> model = context.getModel();
+        for (int i = 0; i < 100; i++)
+            assertTrue(model.compare(a, b) < 0);
+        assertNull(DomSupport.getOrderIndex(root));
+
+        // a DOM the bridge did not build may be changed directly, without telling it
+        root.removeChild(a);
+        root.appendChild(a);
+        for (int i = 0; i < 100; i++)
+            assertTrue(model.compare(b, a) < 0);
+
+        // unless its owner asks for the index
+        DomSupport.enableOrderIndex(root);
+        assertNotNull(DomSupport.getOrderIndex(a));
+        for (int i = 0; i < 100; i++)
+            assertTrue(model.compare(b, a) < 0);
+    }
 }
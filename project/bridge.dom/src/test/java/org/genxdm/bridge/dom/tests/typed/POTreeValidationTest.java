@@ -1,11 +1,29 @@
 package org.genxdm.bridge.dom.tests.typed;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.xml.namespace.QName;
+
 import org.genxdm.bridge.dom.DomProcessingContext;
 import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.mutable.MutableModel;
 import org.genxdm.processor.w3c.xs.validation.ValidatorFactory;
 import org.genxdm.processor.w3c.xs.validationtest.TreeValidationBase;
+import org.genxdm.typed.TypedContext;
+import org.genxdm.typed.TypedModel;
 import org.genxdm.typed.ValidationHandler;
 import org.genxdm.typed.io.SAXValidator;
+import org.genxdm.xs.exceptions.SchemaExceptionThrower;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
 public class POTreeValidationTest
@@ -18,6 +36,58 @@ public class POTreeValidationTest
         return new DomProcessingContext();
     }
 
+    // values computed during validation are kept on the nodes, until the mutable model or the DOM changes them
+    @Test
+    public void typedValuesFollowMutation()
+        throws Exception
+    {
+        final DomProcessingContext context = newProcessingContext();
+        final TypedContext<Node, XmlAtom> typed = context.getTypedContext(null);
+        loadSchema(typed.getSchema());
+        final ValidationHandler<XmlAtom> validator = getValidationHandler();
+        validator.setSchemaExceptionHandler(SchemaExceptionThrower.SINGLETON);
+        final Document doc = (Document)typed.validate(parseInstance(context.newDocumentHandler()), validator, null);
+        final TypedModel<Node, XmlAtom> model = typed.getModel();
+        final MutableModel<Node> mutable = context.getMutableContext().getModel();
+
+        final Element quantity = (Element)doc.getElementsByTagName("quantity").item(0);
+        final Iterable<? extends XmlAtom> validated = model.getValue(quantity);
+        assertSame(validated, model.getValue(quantity));
+        assertEquals("1", valueOf(typed, quantity));
+
+        // the same text, set through the model, still discards the validated value
+        mutable.replaceValue(quantity.getFirstChild(), "1");
+        assertNotSame(validated, model.getValue(quantity));
+        mutable.replaceValue(quantity.getFirstChild(), "2");
+        assertEquals("2", valueOf(typed, quantity));
+
+        // changes to the child axis discard it too
+        final Element price = (Element)doc.getElementsByTagName("USPrice").item(0);
+        assertSame(model.getValue(price), model.getValue(price));
+        mutable.deleteChildren(price);
+        mutable.appendChild(price, context.getMutableContext().getNodeFactory().createText("12.50"));
+        assertEquals("12.5", valueOf(typed, price));
+
+        final Node orderDate = doc.getDocumentElement().getAttributeNode("orderDate");
+        assertEquals("1999-10-20", valueOf(typed, orderDate));
+        mutable.replaceValue(orderDate, "2001-02-03");
+        assertEquals("2001-02-03", valueOf(typed, orderDate));
+
+        // and a cached value is not used once the DOM has been changed directly
+        final Element second = (Element)doc.getElementsByTagName("quantity").item(1);
+        assertEquals("1", valueOf(typed, second));
+        second.getFirstChild().setNodeValue("3");
+        assertEquals("3", valueOf(typed, second));
+    }
+
+    private static String valueOf(final TypedContext<Node, XmlAtom> typed, final Node node)
+    {
+        final Iterator<? extends XmlAtom> value = typed.getModel().getValue(node).iterator();
+        final String c14n = typed.getAtomBridge().getC14NForm(value.next());
+        assertFalse(value.hasNext());
+        return c14n;
+    }
+
     @Override
     public SAXValidator<XmlAtom> getSAXValidator()
     {
@@ -32,4 +102,18 @@ public class POTreeValidationTest
         return factory.newXdmContentValidator();
     }
 
+    @Override
+    public ValidationHandler<XmlAtom> getParallelValidationHandler(List<QName> forkPath, ForkJoinPool pool)
+    {
+        ValidatorFactory<Node, XmlAtom> factory = new ValidatorFactory<Node, XmlAtom>(newProcessingContext().getTypedContext(null));
+        return factory.newParallelXdmContentValidator(forkPath, pool);
+    }
+
+    @Override
+    public ValidationHandler<XmlAtom> getSpillingValidationHandler(long identitySpillThreshold)
+    {
+        ValidatorFactory<Node, XmlAtom> factory = new ValidatorFactory<Node, XmlAtom>(newProcessingContext().getTypedContext(null));
+        return factory.identitySpillThreshold(identitySpillThreshold).newXdmContentValidator();
+    }
+
 }
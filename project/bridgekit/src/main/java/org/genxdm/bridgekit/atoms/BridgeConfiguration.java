@@ -46,7 +46,24 @@ public final class BridgeConfiguration
     	this.m_minimizeDouble = m_minimizeDouble;
     }
     
+    /**
+     * The number of lexical values, for each simple type, whose validated atoms the bridge
+     * remembers; zero, the default, for none.
+     * 
+     * @see ValidationMemo
+     */
+    public int getValidationMemoCapacity()
+    {
+        return m_validationMemoCapacity;
+    }
+    
+    public void setValidationMemoCapacity(final int capacity)
+    {
+        m_validationMemoCapacity = Math.max(0, capacity);
+    }
+    
     private boolean m_decodeBase64;
     private boolean m_omitDecimal;
 	private boolean m_minimizeDouble;
+    private int m_validationMemoCapacity;
 }
\ No newline at end of file
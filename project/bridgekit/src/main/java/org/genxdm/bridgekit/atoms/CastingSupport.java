@@ -201,6 +201,8 @@ public final class CastingSupport
                 final double doubleValue = atomBridge.getDouble(sourceAtom);
                 return atomBridge.createBoolean((0 != doubleValue && !Double.isNaN(doubleValue)));
             case DECIMAL:
+                if (hasLongForm(sourceAtom))
+                    return atomBridge.createBoolean(NumericSupport.getUnscaledValue((XmlAtom)sourceAtom) != 0);
                 final BigDecimal decimalValue = atomBridge.getDecimal(sourceAtom);
                 return atomBridge.createBoolean(decimalValue.signum() != 0);
             case INTEGER:
@@ -209,6 +211,8 @@ public final class CastingSupport
             case NON_NEGATIVE_INTEGER:
             case UNSIGNED_LONG:
             case POSITIVE_INTEGER:
+                if (hasLongForm(sourceAtom))
+                    return atomBridge.createBoolean(NumericSupport.getUnscaledValue((XmlAtom)sourceAtom) != 0);
                 return atomBridge.createBoolean(atomBridge.getInteger(sourceAtom).signum() != 0);
             case LONG:
                 return atomBridge.createBoolean(atomBridge.getLong(sourceAtom) != 0);
@@ -345,6 +349,8 @@ public final class CastingSupport
             case UNSIGNED_INT:
             case UNSIGNED_SHORT:
             case UNSIGNED_BYTE:
+                if (hasLongForm(sourceAtom))
+                    return atomBridge.createDecimal(NumericSupport.getUnscaledValue((XmlAtom)sourceAtom));
                 return atomBridge.createDecimal(new BigDecimal(atomBridge.getInteger(sourceAtom)));
             case LONG:
                 return atomBridge.createDecimal(atomBridge.getLong(sourceAtom));
@@ -375,6 +381,8 @@ public final class CastingSupport
                     case FLOAT:
                         return atomBridge.createInteger(castFloatAsInteger(atomBridge.getFloat(sourceAtom)));
                     case DECIMAL:
+                        if (hasLongForm(sourceAtom))
+                            return atomBridge.createInteger(truncatedLongValue(sourceAtom));
                         return atomBridge.createInteger(castDecimalAsInteger(atomBridge.getDecimal(sourceAtom)));
                     case INTEGER:
                         return sourceAtom;
@@ -409,6 +417,8 @@ public final class CastingSupport
                     case FLOAT:
                         return atomBridge.createLong(castFloatAsLong(atomBridge.getFloat(sourceAtom), checkCapacity, raiseError));
                     case DECIMAL:
+                        if (hasLongForm(sourceAtom))
+                            return atomBridge.createLong(truncatedLongValue(sourceAtom));
                         return atomBridge.createLong(castDecimalAsLong(atomBridge.getDecimal(sourceAtom), checkCapacity, raiseError));
                     case INTEGER:
                     case NON_POSITIVE_INTEGER:
@@ -416,6 +426,8 @@ public final class CastingSupport
                     case NON_NEGATIVE_INTEGER:
                     case POSITIVE_INTEGER:
                     case UNSIGNED_LONG:
+                        if (hasLongForm(sourceAtom))
+                            return atomBridge.createLong(NumericSupport.getUnscaledValue((XmlAtom)sourceAtom));
                         return atomBridge.createLong(castIntegerAsLong(atomBridge.getInteger(sourceAtom), checkCapacity, raiseError));
                     case LONG:
                         return sourceAtom;
@@ -1353,6 +1365,21 @@ public final class CastingSupport
         return castIntegerAsInt(castDecimalAsInteger(decval), checkCapacity, raiseError);
     }
 
+    /**
+     * Returns true if the atom is one of this package's, holding an xs:decimal or integer value as a long, so that
+     * casts between the numeric types need not go through {@link BigDecimal} or {@link BigInteger}.
+     */
+    private static <A> boolean hasLongForm(final A atom)
+    {
+        return (atom instanceof XmlAtom) && NumericSupport.hasLongForm((XmlAtom)atom);
+    }
+
+    private static <A> long truncatedLongValue(final A atom)
+    {
+        final XmlAtom value = (XmlAtom)atom;
+        return NumericSupport.integerPart(NumericSupport.getUnscaledValue(value), NumericSupport.getScale(value));
+    }
+
     private static BigInteger castDecimalAsInteger(final BigDecimal decval)
     {
         return decval.toBigInteger();
@@ -164,6 +164,32 @@ public final class NumericSupport
         return s;
     }
 
+    /**
+     * Compares two decimals, each given as an unscaled value and a scale from zero to
+     * {@link XmlDecimal#MAX_COMPACT_SCALE}, without {@link BigDecimal} unless aligning the scales overflows.
+     * 
+     * @return a negative number, zero, or a positive number as the left hand side is less than, equal to, or greater
+     *         than the right.
+     */
+    public static int compareDecimal(final long lhsUnscaled, final int lhsScale, final long rhsUnscaled, final int rhsScale)
+    {
+        if (lhsScale == rhsScale)
+            return Long.compare(lhsUnscaled, rhsUnscaled);
+        else if (lhsScale < rhsScale)
+        {
+            final long factor = POWERS_OF_TEN[rhsScale - lhsScale];
+            if ((lhsUnscaled <= Long.MAX_VALUE / factor) && (lhsUnscaled >= -(Long.MAX_VALUE / factor)))
+                return Long.compare(lhsUnscaled * factor, rhsUnscaled);
+        }
+        else
+        {
+            final long factor = POWERS_OF_TEN[lhsScale - rhsScale];
+            if ((rhsUnscaled <= Long.MAX_VALUE / factor) && (rhsUnscaled >= -(Long.MAX_VALUE / factor)))
+                return Long.compare(lhsUnscaled, rhsUnscaled * factor);
+        }
+        return BigDecimal.valueOf(lhsUnscaled, lhsScale).compareTo(BigDecimal.valueOf(rhsUnscaled, rhsScale));
+    }
+
     /**
      * Returns the decimal as {http://www.w3.org/2001/XMLSchema}decimal('canonical')
      */
@@ -211,6 +237,39 @@ public final class NumericSupport
         }
     }
 
+    /**
+     * The canonical representation of the decimal <code>unscaled &times; 10<sup>-scale</sup></code>, as
+     * {@link #formatDecimalC14N(BigDecimal)}, for a scale of zero or more.
+     */
+    public static String formatDecimalC14N(final long unscaled, final int scale)
+    {
+        final String digits = Long.toString(unscaled);
+        final int sign = (unscaled < 0) ? 1 : 0;
+        final int point = digits.length() - scale;
+        final StringBuilder buffer = new StringBuilder(digits.length() + scale + 3);
+        if (point <= sign)
+        {
+            buffer.append(digits, 0, sign).append("0.");
+            for (int i = point; i < sign; i++)
+            {
+                buffer.append('0');
+            }
+            buffer.append(digits, sign, digits.length());
+        }
+        else
+            buffer.append(digits, 0, point).append('.').append(digits, point, digits.length());
+
+        int length = buffer.length();
+        while ((buffer.charAt(length - 1) == '0') && (buffer.charAt(length - 2) != '.'))
+        {
+            --length;
+        }
+        buffer.setLength(length);
+        if (buffer.charAt(length - 1) == '.')
+            buffer.append('0');
+        return buffer.toString();
+    }
+
     public static String formatDecimalXPath10(final BigDecimal number)
     {
         return compressNumberString(number.toPlainString());
@@ -220,6 +279,16 @@ public final class NumericSupport
     {
         return compressNumberString(number.toPlainString());
     }
+
+    public static String formatDecimalXPath10(final long unscaled, final int scale)
+    {
+        return compressNumberString(formatDecimalC14N(unscaled, scale));
+    }
+
+    public static String formatDecimalXQuery10(final long unscaled, final int scale)
+    {
+        return compressNumberString(formatDecimalC14N(unscaled, scale));
+    }
 	
 	public static String formatDoubleC14NForm(final Double dblval, boolean minimize)
     {
@@ -470,6 +539,70 @@ public final class NumericSupport
         }
     }
 
+    /**
+     * Returns the scale of the long form of an atom that {@link #hasLongForm(XmlAtom) has one}; zero for the integer
+     * types.
+     */
+    public static int getScale(final XmlAtom atom)
+    {
+        if (atom instanceof XmlDecimal)
+            return ((XmlDecimal)atom).getScale();
+        else if (atom instanceof XmlForeignAtom)
+            return getScale(((XmlForeignAtom)atom).baseAtom);
+        return 0;
+    }
+
+    /**
+     * Returns the unscaled value of the long form of an atom that {@link #hasLongForm(XmlAtom) has one}.
+     */
+    public static long getUnscaledValue(final XmlAtom atom)
+    {
+        if (atom instanceof XmlDecimal)
+            return ((XmlDecimal)atom).getUnscaledValue();
+        else if (atom instanceof XmlInteger)
+            return ((XmlInteger)atom).getLongValue();
+        else if (atom instanceof XmlIntegerDerived)
+            return ((XmlIntegerDerived)atom).longValue();
+        else if (atom instanceof XmlLong)
+            return ((XmlLong)atom).getLongValue();
+        else if (atom instanceof XmlInt)
+            return ((XmlInt)atom).getIntValue();
+        else if (atom instanceof XmlShort)
+            return ((XmlShort)atom).getShortValue();
+        else if (atom instanceof XmlByte)
+            return ((XmlByte)atom).getByteValue();
+        else if (atom instanceof XmlForeignAtom)
+            return getUnscaledValue(((XmlForeignAtom)atom).baseAtom);
+        throw new AssertionError("NumericSupport.getUnscaledValue(" + atom.getClass().getName() + "): argument must have a long form");
+    }
+
+    /**
+     * Returns the integer part, truncated toward zero, of the decimal <code>unscaled &times; 10<sup>-scale</sup></code>,
+     * for a scale from zero to {@link XmlDecimal#MAX_COMPACT_SCALE}.
+     */
+    public static long integerPart(final long unscaled, final int scale)
+    {
+        return unscaled / POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Returns true if the atom is an xs:decimal, or of xs:integer or a type derived from it, whose value is held as a
+     * long: an unscaled value, with a scale (see {@link #getScale(XmlAtom)}) that is zero for the integer types. Such
+     * values are compared, cast and checked against facets without {@link BigDecimal} or {@link BigInteger}.
+     */
+    public static boolean hasLongForm(final XmlAtom atom)
+    {
+        if (atom instanceof XmlDecimal)
+            return ((XmlDecimal)atom).isCompact();
+        else if (atom instanceof XmlInteger)
+            return ((XmlInteger)atom).isLong();
+        else if (atom instanceof XmlIntegerDerived)
+            return ((XmlIntegerDerived)atom).isLong();
+        else if (atom instanceof XmlForeignAtom)
+            return hasLongForm(((XmlForeignAtom)atom).baseAtom);
+        return (atom instanceof XmlLong) || (atom instanceof XmlInt) || (atom instanceof XmlShort) || (atom instanceof XmlByte);
+    }
+
     /**
      * Returns a character array containing the specified number of the specified character. For n less than or equal to
      * zero, returns the empty string.
@@ -508,6 +641,28 @@ public final class NumericSupport
         return Integer.parseInt(exponentString);
     }
 
+    /**
+     * The number of digits in the decimal <code>unscaled &times; 10<sup>-scale</sup></code>, as constrained by the
+     * totalDigits facet: leading zeros, and trailing zeros after the decimal point, are not counted, and zero has one.
+     */
+    public static int totalDigits(long unscaled, int scale)
+    {
+        while ((scale > 0) && (unscaled % 10 == 0))
+        {
+            unscaled /= 10;
+            --scale;
+        }
+        // count on the negative side, where Long.MIN_VALUE has room
+        long value = (unscaled < 0) ? unscaled : -unscaled;
+        int digits = 1;
+        while (value <= -10)
+        {
+            value /= 10;
+            ++digits;
+        }
+        return Math.max(digits, scale);
+    }
+
     /**
      * Removes leading and trailing whitespace, and any leading plus sign provided it is followed by a digit (0 through
      * 9).
@@ -555,4 +710,13 @@ public final class NumericSupport
     private static final String MODERN_NEGATIVE_INFINITY_LITERAL = "-INF";
     private static final String MODERN_POSITIVE_INFINITY_LITERAL = "INF";
     private static final String NAN_LITERAL = "NaN";
+    private static final long[] POWERS_OF_TEN = new long[XmlDecimal.MAX_COMPACT_SCALE + 1];
+    static
+    {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+        {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
 }
@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridgekit.atoms;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.xs.types.NativeType;
+import org.genxdm.xs.types.SimpleType;
+
+/**
+ * A bounded memo, kept for each simple type, from a lexical value to the atoms that validating
+ * it produced, so that repeated values are parsed and checked against facets once.
+ *
+ * Only atomic types are memoized, and not xs:QName, xs:NOTATION or types derived from them,
+ * whose values depend on the in-scope namespaces; the atoms of the others are immutable, and
+ * depend on nothing but the lexical value. The lists of atoms are kept unmodifiable, since every
+ * caller that validates the same value shares one. Each type keeps the values most recently used,
+ * up to the capacity. Values that fail validation are not kept.
+ */
+public final class ValidationMemo
+{
+    /**
+     * @param capacity the number of values kept for each type; must be positive.
+     */
+    public ValidationMemo(final int capacity)
+    {
+        PreCondition.assertTrue(capacity > 0, "capacity > 0");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Forgets all values, and resets the counters.
+     */
+    public void clear()
+    {
+        memos.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Returns the atoms memoized for the lexical value of the type, or null; always null for a
+     * type that is not memoized.
+     */
+    public List<XmlAtom> get(final SimpleType type, final String lexicalValue)
+    {
+        final TypeMemo memo = getTypeMemo(type);
+        if (memo == null)
+            return null;
+        final List<XmlAtom> value;
+        synchronized (memo)
+        {
+            value = memo.get(lexicalValue);
+        }
+        if (value == null)
+            misses.incrementAndGet();
+        else
+            hits.incrementAndGet();
+        return value;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of lookups, for memoized types, that found a value.
+     */
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    /**
+     * Returns the proportion of lookups, for memoized types, that found a value; zero before the
+     * first.
+     */
+    public double getHitRate()
+    {
+        final long hitCount = hits.get();
+        final long total = hitCount + misses.get();
+        return (total == 0) ? 0.0 : ((double)hitCount / total);
+    }
+
+    /**
+     * Returns the number of lookups, for memoized types, that found no value.
+     */
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    /**
+     * Remembers the atoms that validating the lexical value of the type produced, and returns them
+     * as kept, unmodifiable; for a type that is not memoized, returns them as given.
+     */
+    public List<XmlAtom> put(final SimpleType type, final String lexicalValue, final List<XmlAtom> value)
+    {
+        final TypeMemo memo = getTypeMemo(type);
+        if (memo == null)
+            return value;
+        final List<XmlAtom> kept = Collections.unmodifiableList(value);
+        synchronized (memo)
+        {
+            memo.put(lexicalValue, kept);
+        }
+        return kept;
+    }
+
+    /**
+     * Returns true if values of the type are memoized.
+     */
+    public static boolean isMemoizable(final SimpleType type)
+    {
+        if (!type.isAtomicType())
+            return false;
+        final NativeType nativeType = type.getNativeType();
+        return (nativeType != NativeType.QNAME) && (nativeType != NativeType.NOTATION);
+    }
+
+    private TypeMemo getTypeMemo(final SimpleType type)
+    {
+        TypeMemo memo = memos.get(type);
+        if (memo == null)
+        {
+            memo = new TypeMemo(isMemoizable(type) ? capacity : 0);
+            final TypeMemo existing = memos.putIfAbsent(type, memo);
+            if (existing != null)
+                memo = existing;
+        }
+        return (memo.capacity == 0) ? null : memo;
+    }
+
+    // the values of one type, least recently used first; a capacity of zero marks a type that is not memoized
+    private static final class TypeMemo
+        extends LinkedHashMap<String, List<XmlAtom>>
+    {
+        TypeMemo(final int capacity)
+        {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, List<XmlAtom>> eldest)
+        {
+            return size() > capacity;
+        }
+
+        final int capacity;
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    private final int capacity;
+    private final ConcurrentHashMap<SimpleType, TypeMemo> memos = new ConcurrentHashMap<SimpleType, TypeMemo>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+}
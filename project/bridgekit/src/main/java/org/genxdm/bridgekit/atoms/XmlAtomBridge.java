@@ -53,12 +53,25 @@ public final class XmlAtomBridge implements AtomBridge<XmlAtom>
             flag_decodeBase64 = config.getDecodeBase64FromStringUntyped();
             flag_omitDecimal = config.getOmitDecimalPoint();
             flag_minimizeDouble = config.getMinimizeDouble();
+            if (config.getValidationMemoCapacity() > 0)
+                validationMemo = new ValidationMemo(config.getValidationMemoCapacity());
         }
     }
 
     public void setProcessingContext(final SchemaComponentCache schema)
     {
         this.schema = PreCondition.assertNotNull(schema, "schema");
+        if (validationMemo != null)
+            validationMemo.clear();
+    }
+
+    /**
+     * Returns the memo of validated lexical values, with its counters, or null if the
+     * configuration did not ask for one.
+     */
+    public ValidationMemo getValidationMemo()
+    {
+        return validationMemo;
     }
 
     @Override
@@ -590,7 +603,12 @@ public final class XmlAtomBridge implements AtomBridge<XmlAtom>
         if (atom instanceof XmlDecimal)
             return ((XmlDecimal)atom).getBigDecimalValue();
         else if (atom instanceof XmlInteger)
-            return new BigDecimal(((XmlInteger)atom).getBigIntegerValue());
+        {
+            final XmlInteger integer = (XmlInteger)atom;
+            if (integer.isLong())
+                return BigDecimal.valueOf(integer.getLongValue());
+            return new BigDecimal(integer.getBigIntegerValue());
+        }
         else if (atom instanceof XmlLong)
             return BigDecimal.valueOf(((XmlLong)atom).getLongValue());
         else if (atom instanceof XmlInt)
@@ -600,7 +618,12 @@ public final class XmlAtomBridge implements AtomBridge<XmlAtom>
         else if (atom instanceof XmlByte)
             return BigDecimal.valueOf(((XmlByte)atom).getByteValue());
         else if (atom instanceof XmlIntegerDerived)
-            return new BigDecimal(((XmlIntegerDerived)atom).integerValue());
+        {
+            final XmlIntegerDerived integer = (XmlIntegerDerived)atom;
+            if (integer.isLong())
+                return BigDecimal.valueOf(integer.longValue());
+            return new BigDecimal(integer.integerValue());
+        }
         else if (isForeignAtom(atom))
             return getDecimal(getNativeAtom(atom));
         PreCondition.assertNotNull(atom, "atom");
@@ -983,7 +1006,12 @@ public final class XmlAtomBridge implements AtomBridge<XmlAtom>
         else if (nativeAtom instanceof XmlFloat)
             return NumericSupport.formatFloatXPath10(((XmlFloat)nativeAtom).getFloatValue());
         else if (nativeAtom instanceof XmlDecimal)
-            return NumericSupport.formatDecimalXPath10(((XmlDecimal)nativeAtom).getBigDecimalValue());
+        {
+            final XmlDecimal decimal = (XmlDecimal)nativeAtom;
+            if (decimal.isCompact())
+                return NumericSupport.formatDecimalXPath10(decimal.getUnscaledValue(), decimal.getScale());
+            return NumericSupport.formatDecimalXPath10(decimal.getBigDecimalValue());
+        }
         return nativeAtom.getC14NForm();
     }
 
@@ -996,7 +1024,12 @@ public final class XmlAtomBridge implements AtomBridge<XmlAtom>
         else if (nativeAtom instanceof XmlFloat)
             return NumericSupport.formatFloatXQuery10(((XmlFloat)nativeAtom).getFloatValue());
         else if (nativeAtom instanceof XmlDecimal)
-            return NumericSupport.formatDecimalXQuery10(((XmlDecimal)nativeAtom).getBigDecimalValue());
+        {
+            final XmlDecimal decimal = (XmlDecimal)nativeAtom;
+            if (decimal.isCompact())
+                return NumericSupport.formatDecimalXQuery10(decimal.getUnscaledValue(), decimal.getScale());
+            return NumericSupport.formatDecimalXQuery10(decimal.getBigDecimalValue());
+        }
         return nativeAtom.getC14NForm();
     }
 
@@ -1076,4 +1109,7 @@ public final class XmlAtomBridge implements AtomBridge<XmlAtom>
     // except when the number is less or greater than -1000000 , 1000000 or between -0.000001 and 0.000001
     // When not set (set to false) the output is in exponential form irrespective of range or value
     public boolean flag_minimizeDouble;
+
+    // lexical values of simple types, with the atoms validating them produced; null unless configured
+    private ValidationMemo validationMemo;
 }
@@ -60,7 +60,7 @@ public final class XmlBase64Binary
     @Override
     public int hashCode()
     {
-        return bytes.hashCode();
+        return Arrays.hashCode(bytes);
     }
 
     public boolean isWhiteSpace()
@@ -16,12 +16,17 @@
 package org.genxdm.bridgekit.atoms;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.xs.types.NativeType;
 
 /**
  * Corresponds to the W3C XML Schema <a href="http://www.w3.org/TR/xmlschema-2/#decimal">decimal</a>.
+ * 
+ * Values whose unscaled value fits in a long, with a scale from zero to {@link #MAX_COMPACT_SCALE}, are held as an
+ * unscaled long and a scale, without a {@link BigDecimal}; any other value is held as a BigDecimal. As with
+ * BigDecimal, two values are equal only if their scales are too.
  */
 public final class XmlDecimal 
     extends XmlAbstractAtom
@@ -29,22 +34,45 @@ public final class XmlDecimal
     // TODO: Caching of common values.
     public static XmlDecimal valueOf(final BigDecimal decimalValue)
     {
+        PreCondition.assertArgumentNotNull(decimalValue, "decimalValue");
+        final int scale = decimalValue.scale();
+        // a long holds at most nineteen digits; precision() spares looking at the unscaled value of longer ones
+        if ((scale >= 0) && (scale <= MAX_COMPACT_SCALE) && (decimalValue.precision() <= 19))
+        {
+            final BigInteger unscaledValue = decimalValue.unscaledValue();
+            if (unscaledValue.bitLength() < 64)
+                return new XmlDecimal(unscaledValue.longValue(), scale);
+        }
         return new XmlDecimal(decimalValue);
     }
 
     public static XmlDecimal valueOf(final long decimalValue)
     {
-        return new XmlDecimal(decimalValue);
+        return new XmlDecimal(decimalValue, 0);
+    }
+
+    /**
+     * Returns the decimal <code>unscaledValue &times; 10<sup>-scale</sup></code>.
+     */
+    public static XmlDecimal valueOf(final long unscaledValue, final int scale)
+    {
+        if ((scale >= 0) && (scale <= MAX_COMPACT_SCALE))
+            return new XmlDecimal(unscaledValue, scale);
+        return valueOf(BigDecimal.valueOf(unscaledValue, scale));
     }
 
     private XmlDecimal(final BigDecimal decimalValue)
     {
-        this.decimalValue = PreCondition.assertArgumentNotNull(decimalValue, "decimalValue");
+        this.decimalValue = decimalValue;
+        this.unscaledValue = 0;
+        this.scale = 0;
     }
 
-    private XmlDecimal(final long decimalValue)
+    private XmlDecimal(final long unscaledValue, final int scale)
     {
-        this.decimalValue = BigDecimal.valueOf(decimalValue);
+        this.decimalValue = null;
+        this.unscaledValue = unscaledValue;
+        this.scale = scale;
     }
 
     /**
@@ -52,19 +80,53 @@ public final class XmlDecimal
      */
     public BigDecimal getBigDecimalValue()
     {
+        if (decimalValue == null)
+            return BigDecimal.valueOf(unscaledValue, scale);
         return decimalValue;
     }
 
+    /**
+     * Returns the scale of this value; only meaningful if {@link #isCompact()}.
+     */
+    public int getScale()
+    {
+        return scale;
+    }
+
+    /**
+     * Returns the unscaled value of this value; only meaningful if {@link #isCompact()}.
+     */
+    public long getUnscaledValue()
+    {
+        return unscaledValue;
+    }
+
+    /**
+     * Returns true if this value is held as an unscaled long and a scale.
+     */
+    public boolean isCompact()
+    {
+        return decimalValue == null;
+    }
+
     @Override
     public boolean equals(final Object obj)
     {
         if (obj instanceof XmlDecimal)
-            return decimalValue.equals(((XmlDecimal)obj).decimalValue);
+        {
+            final XmlDecimal other = (XmlDecimal)obj;
+            // the compact form is used whenever the value fits, so the forms never hold the same value
+            if (decimalValue == null)
+                return (other.decimalValue == null) && (unscaledValue == other.unscaledValue) && (scale == other.scale);
+            return decimalValue.equals(other.decimalValue);
+        }
         return false;
     }
 
     public String getC14NForm()
     {
+        if (decimalValue == null)
+            return NumericSupport.formatDecimalC14N(unscaledValue, scale);
         return NumericSupport.formatDecimalC14N(decimalValue);
     }
 
@@ -76,6 +138,8 @@ public final class XmlDecimal
     @Override
     public int hashCode()
     {
+        if (decimalValue == null)
+            return 31 * (int)(unscaledValue ^ (unscaledValue >>> 32)) + scale;
         return decimalValue.hashCode();
     }
 
@@ -84,5 +148,13 @@ public final class XmlDecimal
         return false;
     }
 
+    /**
+     * The largest scale held in the compact form.
+     */
+    public static final int MAX_COMPACT_SCALE = 18;
+
+    // null when the value is held as unscaledValue and scale
     private final BigDecimal decimalValue;
+    private final long unscaledValue;
+    private final int scale;
 }
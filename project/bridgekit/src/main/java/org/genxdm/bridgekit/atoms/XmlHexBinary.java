@@ -42,7 +42,7 @@ public final class XmlHexBinary
     @Override
     public int hashCode()
     {
-        return bytes.hashCode();
+        return Arrays.hashCode(bytes);
     }
 
     /**
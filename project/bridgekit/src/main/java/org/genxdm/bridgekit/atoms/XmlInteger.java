@@ -29,18 +29,33 @@ public final class XmlInteger
     private XmlInteger(final BigInteger integerValue) // use valueOf()
     {
         this.integerValue = PreCondition.assertArgumentNotNull(integerValue, "integerValue");
+        this.longValue = 0;
+    }
+
+    private XmlInteger(final long longValue) // use valueOf()
+    {
+        this.integerValue = null;
+        this.longValue = longValue;
     }
 
     @Override
     public boolean equals(final Object arg)
     {
         if (arg instanceof XmlInteger)
-            return integerValue.equals(((XmlInteger)arg).integerValue);
+        {
+            final XmlInteger other = (XmlInteger)arg;
+            // the long form is used whenever the value fits, so the forms never hold the same value
+            if (integerValue == null)
+                return (other.integerValue == null) && (longValue == other.longValue);
+            return integerValue.equals(other.integerValue);
+        }
         return false;
     }
 
     public String getC14NForm()
     {
+        if (integerValue == null)
+            return Long.toString(longValue);
         return integerValue.toString();
     }
 
@@ -52,6 +67,8 @@ public final class XmlInteger
     @Override
     public int hashCode()
     {
+        if (integerValue == null)
+            return (int)(longValue ^ (longValue >>> 32));
         return integerValue.hashCode();
     }
 
@@ -60,9 +77,27 @@ public final class XmlInteger
      */
     public BigInteger getBigIntegerValue()
     {
+        if (integerValue == null)
+            return BigInteger.valueOf(longValue);
         return integerValue;
     }
 
+    /**
+     * Returns this value as a long; only meaningful if {@link #isLong()}.
+     */
+    public long getLongValue()
+    {
+        return longValue;
+    }
+
+    /**
+     * Returns true if the value fits in a long, and is held as one.
+     */
+    public boolean isLong()
+    {
+        return integerValue == null;
+    }
+
     public boolean isWhiteSpace()
     {
         return false;
@@ -78,8 +113,8 @@ public final class XmlInteger
     {
         for (int i = 1; i <= MAX_CONSTANT; i++)
         {
-            posConst[i] = new XmlInteger(BigInteger.valueOf(+i));
-            negConst[i] = new XmlInteger(BigInteger.valueOf(-i));
+            posConst[i] = new XmlInteger(+i);
+            negConst[i] = new XmlInteger(-i);
         }
     }
 
@@ -88,7 +123,7 @@ public final class XmlInteger
      * 
      * @since 1.0
      */
-    public static final XmlInteger ZERO = new XmlInteger(BigInteger.valueOf(0));
+    public static final XmlInteger ZERO = new XmlInteger(0L);
     /**
      * The {@link XmlInteger} constant one.
      * 
@@ -105,6 +140,8 @@ public final class XmlInteger
 
     public static XmlInteger valueOf(final BigInteger value)
     {
+        if (PreCondition.assertArgumentNotNull(value, "value").bitLength() < 64)
+            return valueOf(value.longValue());
         return new XmlInteger(value);
     }
 
@@ -116,8 +153,10 @@ public final class XmlInteger
             return posConst[(int)value];
         else if ((value < 0) && (value >= -MAX_CONSTANT))
             return negConst[(int)-value];
-        return new XmlInteger(BigInteger.valueOf(value));
+        return new XmlInteger(value);
     }
 
+    // null when the value fits in longValue
     private final BigInteger integerValue;
+    private final long longValue;
 }
@@ -26,60 +26,64 @@ public final class XmlIntegerDerived
 {
     public static XmlIntegerDerived valueOf(final BigInteger integerValue, final NativeType nativeType)
     {
-        return new XmlIntegerDerived(integerValue, nativeType);
+        if (PreCondition.assertArgumentNotNull(integerValue, "integerValue").bitLength() < 64)
+            return new XmlIntegerDerived(integerValue.longValue(), null, nativeType);
+        return new XmlIntegerDerived(0, integerValue, nativeType);
     }
 
     public static XmlIntegerDerived valueOf(final long integerValue, final NativeType nativeType)
     {
-        return new XmlIntegerDerived(BigInteger.valueOf(integerValue), nativeType);
+        return new XmlIntegerDerived(integerValue, null, nativeType);
     }
 
-    private XmlIntegerDerived(final BigInteger integerValue, final NativeType nativeType)
+    private XmlIntegerDerived(final long longValue, final BigInteger bigValue, final NativeType nativeType)
     {
-        this.value = PreCondition.assertArgumentNotNull(integerValue, "integerValue");
+        this.longValue = longValue;
+        this.value = bigValue;
         this.type = PreCondition.assertArgumentNotNull(nativeType, "nativeType");
         // bounds checking
+        final int signum = (bigValue == null) ? Long.signum(longValue) : bigValue.signum();
         switch (nativeType)
         {
             case NEGATIVE_INTEGER:
-                if (integerValue.compareTo(BigInteger.ZERO) >= 0)
-                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' + "+integerValue.toString());
+                if (signum >= 0)
+                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' + "+getC14NForm());
                 break;
             case NON_POSITIVE_INTEGER:
-                if (integerValue.compareTo(BigInteger.ZERO) > 0)
-                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' + "+integerValue.toString());
+                if (signum > 0)
+                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' + "+getC14NForm());
                 break;
             case POSITIVE_INTEGER:
-                if (integerValue.compareTo(BigInteger.ZERO) <= 0)
-                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+integerValue.toString());
+                if (signum <= 0)
+                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+getC14NForm());
                 break;
             case NON_NEGATIVE_INTEGER:
             case UNSIGNED_LONG:
             case UNSIGNED_INT:
             case UNSIGNED_SHORT:
             case UNSIGNED_BYTE:
-                if (integerValue.compareTo(BigInteger.ZERO) < 0)
-                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+integerValue.toString());
+                if (signum < 0)
+                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+getC14NForm());
                 break;
             default:
         }
         switch (nativeType)
         {
             case UNSIGNED_LONG:
-                if (integerValue.compareTo(CastingSupport.UNSIGNED_LONG_MAX_VALUE) > 0)
-                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+integerValue.toString());
+                if (exceeds(CastingSupport.UNSIGNED_LONG_MAX_VALUE))
+                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+getC14NForm());
                 break;
             case UNSIGNED_INT:
-                if (integerValue.compareTo(CastingSupport.UNSIGNED_INT_MAX_VALUE) > 0)
-                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+integerValue.toString());
+                if (exceeds(CastingSupport.UNSIGNED_INT_MAX_VALUE))
+                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+getC14NForm());
                 break;
             case UNSIGNED_SHORT:
-                if (integerValue.compareTo(CastingSupport.UNSIGNED_SHORT_MAX_VALUE) > 0)
-                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+integerValue.toString());
+                if (exceeds(CastingSupport.UNSIGNED_SHORT_MAX_VALUE))
+                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+getC14NForm());
                 break;
             case UNSIGNED_BYTE:
-                if (integerValue.compareTo(CastingSupport.UNSIGNED_BYTE_MAX_VALUE) > 0)
-                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+integerValue.toString());
+                if (exceeds(CastingSupport.UNSIGNED_BYTE_MAX_VALUE))
+                    throw new GenXDMException("Invalid value for type '"+nativeType.toQName()+"' : "+getC14NForm());
                 break;
             default:
         }
@@ -91,13 +95,20 @@ public final class XmlIntegerDerived
         if (obj instanceof XmlIntegerDerived)
         {
             final XmlIntegerDerived x = (XmlIntegerDerived)obj;
-            return type == x.type && value.equals(x.value);
+            if (type != x.type)
+                return false;
+            // the long form is used whenever the value fits, so the forms never hold the same value
+            if (value == null)
+                return (x.value == null) && (longValue == x.longValue);
+            return value.equals(x.value);
         }
         return false;
     }
 
     public String getC14NForm()
     {
+        if (value == null)
+            return Long.toString(longValue);
         return value.toString();
     }
 
@@ -109,19 +120,32 @@ public final class XmlIntegerDerived
     @Override
     public int hashCode()
     {
-        return (17 + value.hashCode()) * 31 + type.hashCode();
+        final int valueHash = (value == null) ? (int)(longValue ^ (longValue >>> 32)) : value.hashCode();
+        return (17 + valueHash) * 31 + type.hashCode();
     }
 
     public BigInteger integerValue()
     {
+        if (value == null)
+            return BigInteger.valueOf(longValue);
         return value;
     }
 
     public int intValue()
     {
+        if (value == null)
+            return (int)longValue;
         return value.intValue();
     }
 
+    /**
+     * Returns true if the value fits in a long, and is held as one; {@link #longValue()} is then exact.
+     */
+    public boolean isLong()
+    {
+        return value == null;
+    }
+
     public boolean isWhiteSpace()
     {
         return false;
@@ -129,15 +153,28 @@ public final class XmlIntegerDerived
 
     public long longValue()
     {
+        if (value == null)
+            return longValue;
         return value.longValue();
     }
 
     public short shortValue()
     {
+        if (value == null)
+            return (short)longValue;
         return value.shortValue();
     }
 
+    private boolean exceeds(final BigInteger maxValue)
+    {
+        if (value == null)
+            return (maxValue.bitLength() < 64) && (longValue > maxValue.longValue());
+        return value.compareTo(maxValue) > 0;
+    }
+
     private final NativeType type;
 
+    // null when the value fits in longValue
     private final BigInteger value;
-}
+    private final long longValue;
+}
\ No newline at end of file
@@ -19,6 +19,8 @@ import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 import org.genxdm.Model;
+import org.genxdm.bridgekit.names.FingerprintProvider;
+import org.genxdm.bridgekit.names.NamePool;
 
 final class IteratorChildAxisElementsByName<N> implements Iterator<N>
 {
@@ -26,13 +28,27 @@ final class IteratorChildAxisElementsByName<N> implements Iterator<N>
     private final String m_namespaceURI;
     private final String m_localName;
     private final Model<N> m_model;
+    // set when the model carries fingerprints and the name is fully specified
+    private final FingerprintProvider<N> m_fingerprints;
+    private final int m_fingerprint;
 
+    @SuppressWarnings("unchecked")
     public IteratorChildAxisElementsByName(final N origin, final String namespaceURI, final String localName, final Model<N> model)
     {
         this.m_model = model;
         this.m_namespaceURI = namespaceURI;
         this.m_localName = localName;
-        this.m_pending = getNextElementByName(model.getFirstChild(origin), namespaceURI, localName, model);
+        if ( (model instanceof FingerprintProvider) && (namespaceURI != null) && (localName != null) )
+        {
+            m_fingerprints = (FingerprintProvider<N>)model;
+            m_fingerprint = NamePool.getDefault().peekFingerprint(namespaceURI, localName);
+        }
+        else
+        {
+            m_fingerprints = null;
+            m_fingerprint = NamePool.NONE;
+        }
+        this.m_pending = getNextElementByName(model.getFirstChild(origin));
     }
 
     public boolean hasNext()
@@ -45,7 +61,7 @@ final class IteratorChildAxisElementsByName<N> implements Iterator<N>
         if (m_pending != null)
         {
             final N last = m_pending;
-            m_pending = getNextElementByName(m_model.getNextSibling(m_pending), m_namespaceURI, m_localName, m_model);
+            m_pending = getNextElementByName(m_model.getNextSibling(m_pending));
             return last;
         }
         else
@@ -60,18 +76,44 @@ final class IteratorChildAxisElementsByName<N> implements Iterator<N>
         throw new UnsupportedOperationException();
     }
 
-    private static <N> N getNextElementByName(final N initial, final String namespaceURI, final String localName, final Model<N> model)
+    private N getNextElementByName(final N initial)
     {
+        if (m_fingerprints != null)
+        {
+            if (m_fingerprint != NamePool.NONE)
+            {
+                N candidate = initial;
+                while (null != candidate)
+                {
+                    if ( (m_fingerprints.getFingerprint(candidate) == m_fingerprint) && m_model.isElement(candidate) )
+                        return candidate;
+                    candidate = m_model.getNextSibling(candidate);
+                }
+                return null;
+            }
+            // a name that was never pooled belongs to no node of the model, unless the pool is full
+            if (!NamePool.getDefault().isFull())
+                return null;
+            N candidate = initial;
+            while (null != candidate)
+            {
+                if ( (m_fingerprints.getFingerprint(candidate) == NamePool.NONE) && m_model.isElement(candidate)
+                     && m_model.matches(candidate, m_namespaceURI, m_localName) )
+                    return candidate;
+                candidate = m_model.getNextSibling(candidate);
+            }
+            return null;
+        }
         N candidate = initial;
         while (null != candidate)
         {
-            if (model.isElement(candidate) && model.matches(candidate, namespaceURI, localName))
+            if (m_model.isElement(candidate) && m_model.matches(candidate, m_namespaceURI, m_localName))
             {
                 return candidate;
             }
             else
             {
-                candidate = model.getNextSibling(candidate);
+                candidate = m_model.getNextSibling(candidate);
             }
         }
         return null;
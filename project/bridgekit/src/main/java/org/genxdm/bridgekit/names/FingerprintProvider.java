@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridgekit.names;
+
+/**
+ * Implemented by models whose element and attribute nodes carry a
+ * fingerprint from the {@link NamePool#getDefault() default name pool}, so
+ * that name tests can compare ints instead of strings.
+ */
+public interface FingerprintProvider<N>
+{
+    /** Supply the fingerprint of a node's expanded name.
+     *
+     * @param node The node; may not be null.
+     * @return the fingerprint, or {@link NamePool#NONE} if the node is neither an element nor an attribute,
+     * or if its name came after the pool was full.
+     */
+    int getFingerprint(N node);
+}
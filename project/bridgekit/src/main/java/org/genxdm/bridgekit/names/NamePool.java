@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridgekit.names;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import org.genxdm.exceptions.PreCondition;
+
+/**
+ * Assigns an int fingerprint to each expanded name (namespace URI plus local
+ * name), so that two names can be compared with a single int comparison.
+ *
+ * <p>Namespace URIs and local names are each given an id; the pair of ids
+ * identifies the fingerprint.  Fingerprints are small, dense and never
+ * reused.  Tree builders, the schema cache and compiled name tests all use
+ * the {@link #getDefault() default pool}, so a fingerprint obtained from one
+ * can be compared with one obtained from another.</p>
+ *
+ * <p>A pool holds at most a fixed number of names, so that documents full of
+ * made-up names cannot grow it without end.  Once it is {@link #isFull()
+ * full}, a new name is given {@link #NONE}.  A name with a fingerprint has
+ * the same one on every node that bears it; a node whose fingerprint is
+ * NONE, in a full pool, must be matched by comparing its name.</p>
+ *
+ * <p>The pool is thread-safe.  Looking up a name already in the pool, or the
+ * name of a fingerprint, never blocks.</p>
+ */
+public final class NamePool
+{
+    public NamePool()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** A pool that holds at most <code>capacity</code> names. */
+    public NamePool(final int capacity)
+    {
+        PreCondition.assertTrue(capacity > 0, "capacity > 0");
+        this.capacity = capacity;
+    }
+
+    /** The pool shared by the bridges and processors. */
+    public static NamePool getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /** The fingerprint of an expanded name, allocated if the name is new to the pool.
+     *
+     * @param namespaceURI the namespace; null is treated as the empty namespace.
+     * @param localName the local name; may not be null.
+     * @return the fingerprint, or {@link #NONE} if the name is new and the pool is full.
+     */
+    public int getFingerprint(final String namespaceURI, final String localName)
+    {
+        final int fingerprint = peekFingerprint(namespaceURI, localName);
+        if (fingerprint != NONE)
+            return fingerprint;
+        return allocate(nonNull(namespaceURI), localName);
+    }
+
+    /** The fingerprint of a QName; the prefix plays no part. */
+    public int getFingerprint(final QName name)
+    {
+        PreCondition.assertNotNull(name, "name");
+        return getFingerprint(name.getNamespaceURI(), name.getLocalPart());
+    }
+
+    /** The fingerprint of an expanded name, without adding it to the pool.
+     *
+     * @return the fingerprint, or {@link #NONE} if the name is not in the pool.
+     */
+    public int peekFingerprint(final String namespaceURI, final String localName)
+    {
+        PreCondition.assertNotNull(localName, "localName");
+        final Integer uri = uriCodes.get(nonNull(namespaceURI));
+        if (uri == null)
+            return NONE;
+        final Integer local = localCodes.get(localName);
+        if (local == null)
+            return NONE;
+        final Integer fingerprint = fingerprints.get(key(uri, local));
+        return (fingerprint == null) ? NONE : fingerprint;
+    }
+
+    public String getNamespaceURI(final int fingerprint)
+    {
+        return uris[fingerprint];
+    }
+
+    public String getLocalName(final int fingerprint)
+    {
+        return locals[fingerprint];
+    }
+
+    /** The number of fingerprints allocated so far. */
+    public int size()
+    {
+        return fingerprints.size();
+    }
+
+    /** Whether the pool has stopped taking new names; once full, it stays full. */
+    public boolean isFull()
+    {
+        return full;
+    }
+
+    private synchronized int allocate(final String namespaceURI, final String localName)
+    {
+        // another thread may have added the name while this one waited
+        final int existing = peekFingerprint(namespaceURI, localName);
+        if (existing != NONE)
+            return existing;
+        final int fingerprint = count;
+        if (fingerprint == capacity)
+        {
+            full = true;
+            return NONE;
+        }
+        final int uri = code(uriCodes, namespaceURI);
+        final int local = code(localCodes, localName);
+        final Long key = key(uri, local);
+        String[] nsTable = uris;
+        String[] localTable = locals;
+        if (fingerprint == nsTable.length)
+        {
+            nsTable = Arrays.copyOf(nsTable, Math.min(fingerprint << 1, capacity));
+            localTable = Arrays.copyOf(localTable, Math.min(fingerprint << 1, capacity));
+        }
+        nsTable[fingerprint] = namespaceURI;
+        localTable[fingerprint] = localName;
+        // publish the tables before the fingerprint, so that any thread holding it can resolve it
+        locals = localTable;
+        uris = nsTable;
+        count = fingerprint + 1;
+        fingerprints.put(key, fingerprint);
+        return fingerprint;
+    }
+
+    private static int code(final ConcurrentHashMap<String, Integer> codes, final String value)
+    {
+        // callers hold the pool's lock
+        final Integer code = codes.get(value);
+        if (code != null)
+            return code;
+        final int next = codes.size();
+        codes.put(value, next);
+        return next;
+    }
+
+    private static Long key(final int uri, final int local)
+    {
+        return ((long)uri << 32) | (local & 0xFFFFFFFFL);
+    }
+
+    private static String nonNull(final String namespaceURI)
+    {
+        return (namespaceURI == null) ? XMLConstants.NULL_NS_URI : namespaceURI;
+    }
+
+    /** Returned by {@link #peekFingerprint} for a name that is not in the pool. */
+    public static final int NONE = -1;
+
+    /** The number of names the default pool holds. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final NamePool DEFAULT = new NamePool();
+
+    private final ConcurrentHashMap<String, Integer> uriCodes = new ConcurrentHashMap<String, Integer>();
+    private final ConcurrentHashMap<String, Integer> localCodes = new ConcurrentHashMap<String, Integer>();
+    private final ConcurrentHashMap<Long, Integer> fingerprints = new ConcurrentHashMap<Long, Integer>();
+    private volatile String[] uris = new String[256];
+    private volatile String[] locals = new String[256];
+    private int count;
+    private final int capacity;
+    private volatile boolean full;
+}
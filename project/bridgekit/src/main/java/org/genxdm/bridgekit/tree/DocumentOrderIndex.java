@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridgekit.tree;
+
+import org.genxdm.Model;
+import org.genxdm.exceptions.PreCondition;
+
+/**
+ * Pre-order numbering of a tree, used to put nodes into document order in
+ * constant time.
+ *
+ * <p>One index belongs to one tree root, and is held by the bridge (on the
+ * root node, or in a side table keyed by the root).  The numbering is built
+ * lazily: until a tree has been compared often enough to pay for a walk,
+ * {@link #compare} answers {@link #UNKNOWN} and the caller falls back to
+ * {@link Ordering#compareNodes}.  Once built, only the nodes of the child
+ * axis (and the root) are numbered; namespaces and attributes are ordered by
+ * the number of their parent element, namespaces first, then attributes,
+ * which is the same answer that {@link Ordering} gives.</p>
+ *
+ * <p>Bridges must call {@link #invalidate()} whenever the child axis of any
+ * node in the tree changes.  Changes to attributes, namespaces, or values do
+ * not affect the numbering.  The next comparisons fall back to the walking
+ * algorithm again until renumbering is worthwhile, so that interleaved
+ * mutation and comparison does not renumber the tree on every call.</p>
+ *
+ * <p>Nodes are looked up by object identity; a bridge that may hand out
+ * different objects for the same child node will simply see more fallbacks.
+ * An index may be shared between threads reading the same (unchanging) tree.</p>
+ *
+ * @param <N> the node handle type of the bridge
+ */
+public final class DocumentOrderIndex<N>
+{
+    public DocumentOrderIndex(final N root)
+    {
+        m_root = PreCondition.assertNotNull(root, "root");
+    }
+
+    /**
+     * Compare two nodes of the indexed tree for document order.
+     *
+     * @param lhs the first node; may not be null.
+     * @param rhs the second node; may not be null.
+     * @param model the model of the bridge that owns the tree.
+     * @return {@link Ordering#BEFORE}, {@link Ordering#EQUAL}, or a positive
+     * number if <code>lhs</code> follows <code>rhs</code>; {@link #UNKNOWN}
+     * if the index is not current or either node is not in the indexed tree.
+     */
+    public int compare(final N lhs, final N rhs, final Model<N> model)
+    {
+        final Numbering numbering = getNumbering(model);
+        if (numbering == null)
+            return UNKNOWN;
+        return compare(numbering, lhs, rhs, model);
+    }
+
+    /**
+     * Compare two nodes for document order if the index is current, without
+     * counting towards a renumbering if it is not.  Bridges may keep the last
+     * index they used and try it first, so that they need not find the root
+     * of the nodes; nodes of another tree are simply not found in it.
+     *
+     * @return as {@link #compare}.
+     */
+    public int compareIfCurrent(final N lhs, final N rhs, final Model<N> model)
+    {
+        final Numbering numbering = m_numbering;
+        if (numbering == null)
+            return UNKNOWN;
+        return compare(numbering, lhs, rhs, model);
+    }
+
+    private int compare(final Numbering numbering, final N lhs, final N rhs, final Model<N> model)
+    {
+        final long lhsKey = numbering.getOrderKey(lhs, model);
+        if (lhsKey < 0)
+            return UNKNOWN;
+        final long rhsKey = numbering.getOrderKey(rhs, model);
+        if (rhsKey < 0)
+            return UNKNOWN;
+        if (lhsKey < rhsKey)
+            return Ordering.BEFORE;
+        if (lhsKey > rhsKey)
+            return +1;
+        return Ordering.EQUAL;
+    }
+
+    /**
+     * Supply a key for a node such that comparing the keys of two nodes of
+     * the same tree gives the same answer as {@link #compare}.  Unlike compare,
+     * this always builds the numbering if it is not current, so it is
+     * intended for callers that are about to order many nodes at once.
+     *
+     * @param node the node for which a key is wanted; may not be null.
+     * @param model the model of the bridge that owns the tree.
+     * @return a non-negative key, or {@link #NO_KEY} if the node is not
+     * in the indexed tree.
+     */
+    public long getOrderKey(final N node, final Model<N> model)
+    {
+        Numbering numbering = m_numbering;
+        if (numbering == null)
+            numbering = renumberInternal(model);
+        return numbering.getOrderKey(node, model);
+    }
+
+    /**
+     * Discard the current numbering, if any.  Must be called by mutators
+     * whenever a node is added to, removed from, or moved within the child
+     * axis of any node in the tree.
+     */
+    public void invalidate()
+    {
+        final Numbering numbering = m_numbering;
+        if (numbering != null)
+        {
+            m_numbering = null;
+            m_fallbacks = 0;
+            m_threshold = Math.max(MIN_FALLBACKS, numbering.size >> 4);
+        }
+    }
+
+    public boolean isCurrent()
+    {
+        return m_numbering != null;
+    }
+
+    /**
+     * Whether it pays to order the given number of nodes of the tree by
+     * their keys, which renumbers the tree if the index is not current,
+     * rather than by comparison.  A comparison sort of n nodes falls back
+     * about n log n times; the tree is renumbered if that would reach the
+     * number of fallbacks after which {@link #compare} renumbers it anyway.
+     *
+     * @param nodes the number of nodes to be ordered.
+     */
+    public boolean isWorthKeying(final int nodes)
+    {
+        if (m_numbering != null)
+            return true;
+        final long comparisons = ((long)nodes) * (32 - Integer.numberOfLeadingZeros(nodes));
+        return comparisons >= (m_threshold - m_fallbacks);
+    }
+
+    /**
+     * Number the tree now, regardless of how often it has been compared.
+     *
+     * @param model the model of the bridge that owns the tree.
+     */
+    public void renumber(final Model<N> model)
+    {
+        renumberInternal(model);
+    }
+
+    private Numbering getNumbering(final Model<N> model)
+    {
+        final Numbering numbering = m_numbering;
+        if (numbering != null)
+            return numbering;
+        // racy increment is harmless: it only decides when to renumber
+        if (++m_fallbacks < m_threshold)
+            return null;
+        return renumberInternal(model);
+    }
+
+    private synchronized Numbering renumberInternal(final Model<N> model)
+    {
+        PreCondition.assertNotNull(model, "model");
+        if (m_numbering != null)
+            return m_numbering;
+        // first pass sizes the table, second fills it in pre-order
+        int count = 0;
+        N node = m_root;
+        while (node != null)
+        {
+            count++;
+            node = nextInPreOrder(node, model);
+        }
+        final Numbering numbering = new Numbering(count);
+        int order = 0;
+        node = m_root;
+        while (node != null)
+        {
+            numbering.put(node, order++);
+            node = nextInPreOrder(node, model);
+        }
+        m_numbering = numbering;
+        return numbering;
+    }
+
+    private N nextInPreOrder(final N node, final Model<N> model)
+    {
+        final N firstChild = model.getFirstChild(node);
+        if (firstChild != null)
+            return firstChild;
+        N current = node;
+        while (current != m_root)
+        {
+            final N next = model.getNextSibling(current);
+            if (next != null)
+                return next;
+            current = model.getParent(current);
+        }
+        return null;
+    }
+
+    /**
+     * Open-addressed identity table from node to pre-order number; avoids
+     * boxing and entry objects, since it is sized for every node in the tree.
+     */
+    private final class Numbering
+    {
+        Numbering(final int size)
+        {
+            this.size = size;
+            int capacity = 2;
+            while (capacity < size * 2)
+                capacity <<= 1;
+            keys = new Object[capacity];
+            orders = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        long getOrderKey(final N node, final Model<N> model)
+        {
+            final int order = get(node);
+            if (order >= 0)
+                return ((long)order) << 2;
+            // namespace and attribute nodes sort after their parent element,
+            // but before its first child.
+            final int offset;
+            if (model.isNamespace(node))
+                offset = 1;
+            else if (model.isAttribute(node))
+                offset = 2;
+            else
+                return NO_KEY;
+            final N parent = model.getParent(node);
+            if (parent == null)
+                return NO_KEY;
+            final int parentOrder = get(parent);
+            if (parentOrder < 0)
+                return NO_KEY;
+            return (((long)parentOrder) << 2) + offset;
+        }
+
+        void put(final Object node, final int order)
+        {
+            int slot = hash(node) & mask;
+            while (keys[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = node;
+            orders[slot] = order;
+        }
+
+        private int get(final Object node)
+        {
+            int slot = hash(node) & mask;
+            Object key;
+            while ((key = keys[slot]) != null)
+            {
+                if (key == node)
+                    return orders[slot];
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int hash(final Object node)
+        {
+            final int h = System.identityHashCode(node);
+            return h ^ (h >>> 16);
+        }
+
+        final int size;
+        private final Object[] keys;
+        private final int[] orders;
+        private final int mask;
+    }
+
+    /** Returned by {@link #compare} when the index cannot answer. */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+    /** Returned by {@link #getOrderKey} for nodes not in the indexed tree. */
+    public static final long NO_KEY = -1L;
+
+    private static final int MIN_FALLBACKS = 32;
+
+    private final N m_root;
+    private volatile Numbering m_numbering;
+    private int m_fallbacks;
+    private int m_threshold = MIN_FALLBACKS;
+}
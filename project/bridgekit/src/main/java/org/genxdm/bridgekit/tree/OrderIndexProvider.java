@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridgekit.tree;
+
+/**
+ * Implemented by models that keep a {@link DocumentOrderIndex}, so that
+ * processors can sort nodes by numeric keys instead of by comparison.
+ */
+public interface OrderIndexProvider<N>
+{
+    /** Supply the document order index for the tree containing a node.
+     *
+     * @param node The node; may not be null.
+     * @return the index, or null if the tree containing the node is not indexed.
+     */
+    DocumentOrderIndex<N> getOrderIndex(N node);
+}
@@ -15,7 +15,11 @@
  */
 package org.genxdm.bridgekit.xs;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.namespace.QName;
@@ -48,6 +52,7 @@ public final class ComponentBagImpl implements ComponentBag
     private final Map<QName, ModelGroup> m_modelGroups = new HashMap<QName, ModelGroup>();
     private final Map<QName, NotationDefinition> m_notations = new HashMap<QName, NotationDefinition>();
     private final Map<QName, SimpleType> m_simpleTypes = new HashMap<QName, SimpleType>();
+    private final List<URI> m_sourceLocations = new ArrayList<URI>();
 
     public void add(final ElementDefinition element)
     {
@@ -266,6 +271,25 @@ public final class ComponentBagImpl implements ComponentBag
         }
     }
 
+    /**
+     * Records the location of a schema document that the parser read, by way of an include, import or redefine,
+     * while building the components.
+     */
+    public void addSourceLocation(final URI location)
+    {
+        PreCondition.assertArgumentNotNull(location, "location");
+        m_sourceLocations.add(location);
+    }
+
+    /**
+     * The locations of the schema documents that were included, imported or redefined, in the order in which they
+     * were read; empty if there were none, or if the components were not parsed.
+     */
+    public List<URI> getSourceLocations()
+    {
+        return Collections.unmodifiableList(m_sourceLocations);
+    }
+
     public boolean hasAttribute(final QName name)
     {
         return m_attributes.containsKey(name);
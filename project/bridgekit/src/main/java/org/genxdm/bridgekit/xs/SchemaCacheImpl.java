@@ -23,8 +23,11 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.namespace.QName;
 
+import org.genxdm.bridgekit.atoms.XmlAtomBridge;
 import org.genxdm.bridgekit.misc.StringToURIParser;
+import org.genxdm.bridgekit.names.NamePool;
 import org.genxdm.bridgekit.xs.complex.CommentNodeTypeImpl;
+import org.genxdm.bridgekit.xs.simple.SimpleTypeImpl;
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.xs.ComponentBag;
 import org.genxdm.xs.ComponentProvider;
@@ -75,6 +78,8 @@ final class SchemaCacheImpl implements SchemaComponentCache
         {
             m_attributes.put(name, attribute);
             recordNamespace(attribute);
+            // pool the names of global declarations ahead of the documents that use them
+            NamePool.getDefault().getFingerprint(name);
         }
     }
 
@@ -86,6 +91,7 @@ final class SchemaCacheImpl implements SchemaComponentCache
         {
             m_elements.put(name, element);
             recordNamespace(element);
+            NamePool.getDefault().getFingerprint(name);
         }
     }
 
@@ -183,6 +189,7 @@ final class SchemaCacheImpl implements SchemaComponentCache
     public void lock()
     {
         m_isLocked = true;
+        compileEnumerations();
     }
 
     @Override
@@ -231,6 +238,31 @@ final class SchemaCacheImpl implements SchemaComponentCache
         PreCondition.assertFalse(m_isLocked, "isLocked -> true");
     }
 
+    // once the schema can no longer change, index the enumerations of the named simple types,
+    // and of the anonymous types of global elements and attributes
+    private void compileEnumerations()
+    {
+        final XmlAtomBridge atomBridge = new XmlAtomBridge(this);
+        for (final SimpleType simpleType : m_simpleTypes.values())
+        {
+            compileEnumerations(simpleType, atomBridge);
+        }
+        for (final ElementDefinition element : m_elements.values())
+        {
+            compileEnumerations(element.getType(), atomBridge);
+        }
+        for (final AttributeDefinition attribute : m_attributes.values())
+        {
+            compileEnumerations(attribute.getType(), atomBridge);
+        }
+    }
+
+    private static void compileEnumerations(final Type type, final XmlAtomBridge atomBridge)
+    {
+        if (type instanceof SimpleTypeImpl)
+            ((SimpleTypeImpl)type).compileEnumerations(atomBridge);
+    }
+
     private QName checkComponent(final SchemaComponent component, final ComponentKind kind)
     {
         PreCondition.assertNotNull(component, "component");
@@ -52,6 +52,24 @@ public final class FacetEnumerationImpl
         }
     }
 
+    public String getLexicalForm()
+    {
+        return value;
+    }
+
+    public SimpleType getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return the resolver for the prefix of a QName or NOTATION value, or null for other values.
+     */
+    public PrefixResolver getPrefixResolver()
+    {
+        return resolver;
+    }
+
     @Override
     public String toString()
     {
@@ -18,6 +18,8 @@ package org.genxdm.bridgekit.xs.constraint;
 import java.math.BigInteger;
 import java.util.List;
 
+import org.genxdm.bridgekit.atoms.NumericSupport;
+import org.genxdm.bridgekit.atoms.XmlAtom;
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.typed.types.AtomBridge;
 import org.genxdm.xs.exceptions.FacetException;
@@ -80,6 +82,11 @@ public final class FacetTotalDigitsImpl extends FacetImpl implements TotalDigits
                 return Long.toString(value).length();
             }
         }
+        else if ((atom instanceof XmlAtom) && NumericSupport.hasLongForm((XmlAtom)atom))
+        {
+            // integers and decimals held as longs are counted without BigInteger or the canonical form
+            return NumericSupport.totalDigits(NumericSupport.getUnscaledValue((XmlAtom)atom), NumericSupport.getScale((XmlAtom)atom));
+        }
         else if (nativeType.isInteger())
         {
             final BigInteger value = atomBridge.getInteger(atom);
@@ -64,6 +64,22 @@ public final class FacetValueCompImpl extends FacetImpl implements Limit
         return m_kind;
     }
 
+    /**
+     * The limit as it was written, before it is cast to the type.
+     */
+    public String getLexicalForm()
+    {
+        return m_value;
+    }
+
+    /**
+     * The atomic type of which the limit is a value.
+     */
+    public SimpleType getType()
+    {
+        return baseType;
+    }
+
     @Override
     public <A> A getLimit(AtomBridge<A> bridge)
     {
@@ -75,25 +91,14 @@ public final class FacetValueCompImpl extends FacetImpl implements Limit
             throws FacetException
     {
         PreCondition.assertArgumentNotNull(simpleType, "simpleType");
+        // TODO: If it is a list type we might have to work one way, union,
+        // another
+        final SimpleType uberType = baseType.getNativeTypeDefinition();
         for (final A atom : actualValue)
         {
 //          PreCondition.assertArgumentNotNull(atom, "atom");
     
-            // TODO: If it is a list type we might have to work one way, union,
-            // another
-            SimpleType uberType = baseType.getNativeTypeDefinition();
-    
-            final A rhsAtom;
-            try
-            {
-                rhsAtom = castAsUberType(getLimit(bridge), uberType.getName(), bridge);
-            }
-            catch (AtomCastException ace)
-            {
-                throw new GenXDMException(ace);
-            }
-            ValueComparator<A> comparator = calculateComparator(rhsAtom, m_kind, uberType.getNativeType(), bridge);
-            
+            final ValueComparator<A> comparator = getComparator(uberType, bridge);
             try
             {
                 final A lhsAtom = castAsUberType(atom, uberType.getName(), bridge);
@@ -211,6 +216,34 @@ public final class FacetValueCompImpl extends FacetImpl implements Limit
         }
     }
 
+    /**
+     * The comparator against the limit, cast to the native type.  Parsing and casting the limit is
+     * the same work for every value validated, so the comparator is kept for the last bridge it was
+     * made with; comparators hold no state beyond the limit.
+     */
+    private <A> ValueComparator<A> getComparator(final SimpleType uberType, final AtomBridge<A> bridge)
+    {
+        final BridgeComparator cached = lastComparator;
+        if ((cached != null) && (cached.bridge == bridge))
+        {
+            @SuppressWarnings("unchecked")
+            final ValueComparator<A> comparator = (ValueComparator<A>)cached.comparator;
+            return comparator;
+        }
+        final A rhsAtom;
+        try
+        {
+            rhsAtom = castAsUberType(getLimit(bridge), uberType.getName(), bridge);
+        }
+        catch (AtomCastException ace)
+        {
+            throw new GenXDMException(ace);
+        }
+        final ValueComparator<A> comparator = calculateComparator(rhsAtom, m_kind, uberType.getNativeType(), bridge);
+        lastComparator = new BridgeComparator(bridge, comparator);
+        return comparator;
+    }
+
     private <A> A castAsUberType(final A atom, final QName uberType, final AtomBridge<A> atomBridge)
         throws AtomCastException
     {
@@ -249,4 +282,17 @@ public final class FacetValueCompImpl extends FacetImpl implements Limit
     private final SimpleType baseType;
     private final String m_value;
     private final CastingContext castingContext = new CanonicalCastingContext();
+    private volatile BridgeComparator lastComparator;
+
+    private static final class BridgeComparator
+    {
+        BridgeComparator(final AtomBridge<?> bridge, final ValueComparator<?> comparator)
+        {
+            this.bridge = bridge;
+            this.comparator = comparator;
+        }
+
+        final AtomBridge<?> bridge;
+        final ValueComparator<?> comparator;
+    }
 }
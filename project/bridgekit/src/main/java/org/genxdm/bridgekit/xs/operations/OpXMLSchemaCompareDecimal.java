@@ -17,6 +17,8 @@ package org.genxdm.bridgekit.xs.operations;
 
 import java.math.BigDecimal;
 
+import org.genxdm.bridgekit.atoms.NumericSupport;
+import org.genxdm.bridgekit.atoms.XmlAtom;
 import org.genxdm.typed.types.AtomBridge;
 
 public final class OpXMLSchemaCompareDecimal<A> implements ValueComparator<A>
@@ -24,36 +26,46 @@ public final class OpXMLSchemaCompareDecimal<A> implements ValueComparator<A>
     private final OpXMLSchemaCompare m_opcode;
     private final BigDecimal decimalR;
     private final AtomBridge<A> atomBridge;
+    // the long form of the right hand side, if it has one
+    private final boolean longFormR;
+    private final long unscaledR;
+    private final int scaleR;
 
     public OpXMLSchemaCompareDecimal(final OpXMLSchemaCompare opcode, final A rhsAtom, final AtomBridge<A> atomBridge)
     {
         this.m_opcode = opcode;
         this.decimalR = atomBridge.getDecimal(rhsAtom);
         this.atomBridge = atomBridge;
-
+        this.longFormR = (rhsAtom instanceof XmlAtom) && NumericSupport.hasLongForm((XmlAtom)rhsAtom);
+        this.unscaledR = longFormR ? NumericSupport.getUnscaledValue((XmlAtom)rhsAtom) : 0;
+        this.scaleR = longFormR ? NumericSupport.getScale((XmlAtom)rhsAtom) : 0;
     }
 
     public boolean compare(final A lhs)
     {
-        final BigDecimal decimalL = atomBridge.getDecimal(lhs);
+        final int result;
+        if (longFormR && (lhs instanceof XmlAtom) && NumericSupport.hasLongForm((XmlAtom)lhs))
+            result = NumericSupport.compareDecimal(NumericSupport.getUnscaledValue((XmlAtom)lhs), NumericSupport.getScale((XmlAtom)lhs), unscaledR, scaleR);
+        else
+            result = atomBridge.getDecimal(lhs).compareTo(decimalR);
 
         switch (m_opcode)
         {
             case Gt:
             {
-                return decimalL.compareTo(decimalR) > 0;
+                return result > 0;
             }
             case Ge:
             {
-                return decimalL.compareTo(decimalR) >= 0;
+                return result >= 0;
             }
             case Lt:
             {
-                return decimalL.compareTo(decimalR) < 0;
+                return result < 0;
             }
             case Le:
             {
-                return decimalL.compareTo(decimalR) <= 0;
+                return result <= 0;
             }
             default:
             {
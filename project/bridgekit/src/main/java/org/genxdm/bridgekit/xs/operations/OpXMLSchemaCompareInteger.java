@@ -17,6 +17,8 @@ package org.genxdm.bridgekit.xs.operations;
 
 import java.math.BigInteger;
 
+import org.genxdm.bridgekit.atoms.NumericSupport;
+import org.genxdm.bridgekit.atoms.XmlAtom;
 import org.genxdm.typed.types.AtomBridge;
 
 public final class OpXMLSchemaCompareInteger<A> implements ValueComparator<A>
@@ -24,36 +26,44 @@ public final class OpXMLSchemaCompareInteger<A> implements ValueComparator<A>
     private final OpXMLSchemaCompare m_opcode;
     private final BigInteger operandRHS;
     private final AtomBridge<A> atomBridge;
+    // the right hand side as a long, if it is held as one
+    private final boolean longFormRHS;
+    private final long longRHS;
 
     public OpXMLSchemaCompareInteger(final OpXMLSchemaCompare opcode, final A rhsAtom, final AtomBridge<A> atomBridge)
     {
         this.m_opcode = opcode;
         this.operandRHS = atomBridge.getInteger(rhsAtom);
         this.atomBridge = atomBridge;
-
+        this.longFormRHS = (rhsAtom instanceof XmlAtom) && NumericSupport.hasLongForm((XmlAtom)rhsAtom);
+        this.longRHS = longFormRHS ? NumericSupport.getUnscaledValue((XmlAtom)rhsAtom) : 0;
     }
 
     public boolean compare(final A lhsAtom)
     {
-        final BigInteger operandLHS = atomBridge.getInteger(lhsAtom);
+        final int result;
+        if (longFormRHS && (lhsAtom instanceof XmlAtom) && NumericSupport.hasLongForm((XmlAtom)lhsAtom))
+            result = Long.compare(NumericSupport.getUnscaledValue((XmlAtom)lhsAtom), longRHS);
+        else
+            result = atomBridge.getInteger(lhsAtom).compareTo(operandRHS);
 
         switch (m_opcode)
         {
             case Gt:
             {
-                return operandLHS.compareTo(operandRHS) > 0;
+                return result > 0;
             }
             case Ge:
             {
-                return operandLHS.compareTo(operandRHS) >= 0;
+                return result >= 0;
             }
             case Lt:
             {
-                return operandLHS.compareTo(operandRHS) < 0;
+                return result < 0;
             }
             case Le:
             {
-                return operandLHS.compareTo(operandRHS) <= 0;
+                return result <= 0;
             }
             default:
             {
@@ -17,6 +17,8 @@ package org.genxdm.bridgekit.xs.operations;
 
 import java.math.BigInteger;
 
+import org.genxdm.bridgekit.atoms.NumericSupport;
+import org.genxdm.bridgekit.atoms.XmlAtom;
 import org.genxdm.typed.types.AtomBridge;
 import org.genxdm.exceptions.AtomCastException;
 import org.genxdm.xs.types.NativeType;
@@ -26,34 +28,43 @@ public final class OpXMLSchemaCompareIntegerRestricted<A> implements ValueCompar
     private final OpXMLSchemaCompare opcode;
     private final BigInteger operandRHS;
     private final AtomBridge<A> atomBridge;
+    // the right hand side as a long, if it is held as one
+    private final boolean longFormRHS;
+    private final long longRHS;
 
     public OpXMLSchemaCompareIntegerRestricted(final OpXMLSchemaCompare opcode, final A rhsAtom, final NativeType nativeType, final AtomBridge<A> atomBridge)
     {
         this.opcode = opcode;
         this.atomBridge = atomBridge;
         operandRHS = atomBridge.getInteger(rhsAtom);
+        longFormRHS = (rhsAtom instanceof XmlAtom) && NumericSupport.hasLongForm((XmlAtom)rhsAtom);
+        longRHS = longFormRHS ? NumericSupport.getUnscaledValue((XmlAtom)rhsAtom) : 0;
     }
 
     public boolean compare(final A lhsAtom) throws AtomCastException
     {
-        final BigInteger operandLHS = atomBridge.getInteger(lhsAtom);
+        final int result;
+        if (longFormRHS && (lhsAtom instanceof XmlAtom) && NumericSupport.hasLongForm((XmlAtom)lhsAtom))
+            result = Long.compare(NumericSupport.getUnscaledValue((XmlAtom)lhsAtom), longRHS);
+        else
+            result = atomBridge.getInteger(lhsAtom).compareTo(operandRHS);
         switch (opcode)
         {
             case Gt:
             {
-                return operandLHS.compareTo(operandRHS) > 0;
+                return result > 0;
             }
             case Ge:
             {
-                return operandLHS.compareTo(operandRHS) >= 0;
+                return result >= 0;
             }
             case Lt:
             {
-                return operandLHS.compareTo(operandRHS) < 0;
+                return result < 0;
             }
             case Le:
             {
-                return operandLHS.compareTo(operandRHS) <= 0;
+                return result <= 0;
             }
             default:
             {
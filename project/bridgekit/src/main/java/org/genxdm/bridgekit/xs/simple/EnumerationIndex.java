@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridgekit.xs.simple;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgekit.atoms.XmlAtomBridge;
+import org.genxdm.bridgekit.atoms.XmlDouble;
+import org.genxdm.bridgekit.atoms.XmlFloat;
+import org.genxdm.xs.components.EnumerationDefinition;
+
+/**
+ * The enumerated values of one simple type, as a hash set of their native atoms, so that a value
+ * is checked against thousands of enumerations as fast as against one.
+ *
+ * Membership is the same as comparing the native atoms with equals, one enumeration after another,
+ * for atoms whose hashCode agrees with equals.  The binary atoms hash their bytes by value, as they
+ * compare them; xs:double and xs:float do not fit (0 and -0 are equal, NaN is not equal to itself),
+ * so their enumerations are not indexed.
+ */
+final class EnumerationIndex
+{
+    private EnumerationIndex(final Set<Object> values)
+    {
+        this.values = values;
+    }
+
+    /**
+     * Stands for enumerations that have been looked at, and cannot be indexed.
+     */
+    static final EnumerationIndex NONE = new EnumerationIndex(null);
+
+    /**
+     * Returns the index of the enumerations, or null if they cannot be indexed.
+     */
+    static EnumerationIndex build(final Iterable<EnumerationDefinition> enumerations, final XmlAtomBridge atomBridge)
+    {
+        final Set<Object> values = new HashSet<Object>();
+        for (final EnumerationDefinition enumeration : enumerations)
+        {
+            final List<XmlAtom> value = enumeration.getValue(atomBridge);
+            if (value == null)
+                return null;
+            for (final XmlAtom atom : value)
+            {
+                final XmlAtom nativeAtom = atomBridge.getNativeAtom(atom);
+                if ((nativeAtom instanceof XmlDouble) || (nativeAtom instanceof XmlFloat))
+                    return null;
+            }
+            values.add(key(value, atomBridge));
+        }
+        return new EnumerationIndex(values);
+    }
+
+    boolean contains(final List<? extends XmlAtom> value, final XmlAtomBridge atomBridge)
+    {
+        return values.contains(key(value, atomBridge));
+    }
+
+    // a single atom stands for itself (an atom is a list of one); longer values are lists of native atoms
+    private static Object key(final List<? extends XmlAtom> value, final XmlAtomBridge atomBridge)
+    {
+        if (value.size() == 1)
+            return atomBridge.getNativeAtom(value.get(0));
+        final List<XmlAtom> key = new ArrayList<XmlAtom>(value.size());
+        for (final XmlAtom atom : value)
+        {
+            key.add(atomBridge.getNativeAtom(atom));
+        }
+        return key;
+    }
+
+    private final Set<Object> values;
+}
@@ -176,6 +176,9 @@ public final class IntegerType extends AbstractAtomType
         {
             // Note that trimming eliminates a leading plus-sign, but leaves leading minus-sign.
             final String trimmed = trim(initialValue);
+            // eighteen characters, sign included, always fit in a long
+            if (trimmed.length() <= 18)
+                return atomBridge.wrapAtom(atomBridge.createInteger(Long.parseLong(trimmed)));
             return atomBridge.wrapAtom(atomBridge.createInteger(new BigInteger(trimmed)));
         }
         catch (final NumberFormatException e)
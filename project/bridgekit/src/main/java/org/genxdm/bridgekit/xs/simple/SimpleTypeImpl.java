@@ -24,6 +24,9 @@ import java.util.Set;
 
 import javax.xml.namespace.QName;
 
+import org.genxdm.bridgekit.atoms.ValidationMemo;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgekit.atoms.XmlAtomBridge;
 import org.genxdm.bridgekit.xs.complex.TypeImpl;
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.names.NameSource;
@@ -69,17 +72,27 @@ public abstract class SimpleTypeImpl extends TypeImpl implements SimpleType
                 {
                     boolean matched = false;
                     int enumCount = 0;
-                    for (final EnumerationDefinition facet : currentType.getEnumerations())
+                    final EnumerationIndex index = (currentType instanceof SimpleTypeImpl) ? ((SimpleTypeImpl)currentType).getEnumerationIndex(atomBridge) : null;
+                    if (index != null)
                     {
-                        enumCount++;
-                        if (matchesValue(facet.getValue(atomBridge), actualValue, atomBridge))
-                        {
-                            matched = true;
-                            break;
-                        }
-                        else
+                        // there is at least one, or the type would have no index
+                        enumCount = 1;
+                        matched = index.contains(asXmlAtoms(actualValue), (XmlAtomBridge)atomBridge);
+                    }
+                    else
+                    {
+                        for (final EnumerationDefinition facet : currentType.getEnumerations())
                         {
-                            // Try the next enumeration facet.
+                            enumCount++;
+                            if (matchesValue(facet.getValue(atomBridge), actualValue, atomBridge))
+                            {
+                                matched = true;
+                                break;
+                            }
+                            else
+                            {
+                                // Try the next enumeration facet.
+                            }
                         }
                     }
                     if (enumCount > 0 && !matched)
@@ -267,8 +280,18 @@ public abstract class SimpleTypeImpl extends TypeImpl implements SimpleType
         }
     }
 
+    // only an XmlAtomBridge is handed an index, so the atoms are XmlAtoms
+    @SuppressWarnings("unchecked")
+    private static <A> List<? extends XmlAtom> asXmlAtoms(final List<? extends A> actualValue)
+    {
+        return (List<? extends XmlAtom>)(List<?>)actualValue;
+    }
+
     private final HashSet<EnumerationDefinition> m_enumerationFacets = new HashSet<EnumerationDefinition>();
 
+    // built when first needed, and dropped when an enumeration is added
+    private volatile EnumerationIndex m_enumerationIndex;
+
     private final Facet[] m_facetArray = (Facet[])(Array.newInstance(Facet.class, FacetKind.values().length));
 
     private final HashSet<Facet> m_facets = new HashSet<Facet>();
@@ -302,6 +325,7 @@ public abstract class SimpleTypeImpl extends TypeImpl implements SimpleType
         assertNotLocked();
         PreCondition.assertArgumentNotNull(enumeration, "enumeration");
         m_enumerationFacets.add(enumeration);
+        m_enumerationIndex = null;
     }
 
     public void addFacet(final Facet facet)
@@ -319,6 +343,20 @@ public abstract class SimpleTypeImpl extends TypeImpl implements SimpleType
         m_patternFacets.add(pattern);
     }
 
+    /**
+     * Builds the hash index of this type's enumerations, if it has any and they can be indexed.
+     * This is done for the global types when the schema cache is locked, and for any other type
+     * the first time a value is checked against its enumerations.
+     */
+    public final void compileEnumerations(final XmlAtomBridge atomBridge)
+    {
+        if (hasEnumerations() && (m_enumerationIndex == null))
+        {
+            final EnumerationIndex index = EnumerationIndex.build(m_enumerationFacets, atomBridge);
+            m_enumerationIndex = (index == null) ? EnumerationIndex.NONE : index;
+        }
+    }
+
     public SequenceType atomSet()
     {
         // TODO Auto-generated method stub
@@ -467,6 +505,14 @@ public abstract class SimpleTypeImpl extends TypeImpl implements SimpleType
     {
         PreCondition.assertArgumentNotNull(initialValue, "initialValue");
 
+        final ValidationMemo memo = getValidationMemo(atomBridge);
+        if (memo != null)
+        {
+            final List<A> memoized = recall(memo, initialValue);
+            if (memoized != null)
+                return memoized;
+        }
+
         // normalize (handle whitespace pseudo-facet) first.
         final String normalizedValue = normalize(initialValue);
 
@@ -477,6 +523,8 @@ public abstract class SimpleTypeImpl extends TypeImpl implements SimpleType
 
         checkValueSpaceFacets(actualValue, this, atomBridge);
 
+        if (memo != null)
+            return remember(memo, initialValue, actualValue);
         return actualValue;
     }
 
@@ -484,6 +532,15 @@ public abstract class SimpleTypeImpl extends TypeImpl implements SimpleType
     {
         PreCondition.assertArgumentNotNull(initialValue, "initialValue");
 
+        // the memo leaves out the types whose values depend on the resolver
+        final ValidationMemo memo = getValidationMemo(atomBridge);
+        if (memo != null)
+        {
+            final List<A> memoized = recall(memo, initialValue);
+            if (memoized != null)
+                return memoized;
+        }
+
         // normalize (handle whitespace pseudo-facet) first.
         final String normalizedValue = normalize(initialValue);
 
@@ -494,9 +551,47 @@ public abstract class SimpleTypeImpl extends TypeImpl implements SimpleType
 
         checkValueSpaceFacets(actualValue, this, atomBridge);
 
+        if (memo != null)
+            return remember(memo, initialValue, actualValue);
         return actualValue;
     }
+
+    /**
+     * Returns the memo of validated values kept by the bridge, if it keeps one.
+     */
+    private static ValidationMemo getValidationMemo(final AtomBridge<?> atomBridge)
+    {
+        if (atomBridge instanceof XmlAtomBridge)
+            return ((XmlAtomBridge)atomBridge).getValidationMemo();
+        return null;
+    }
+
+    // the memo belongs to an XmlAtomBridge, so A is XmlAtom
+    @SuppressWarnings("unchecked")
+    private <A> List<A> recall(final ValidationMemo memo, final String initialValue)
+    {
+        return (List<A>)(List<?>)memo.get(this, initialValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A> List<A> remember(final ValidationMemo memo, final String initialValue, final List<A> actualValue)
+    {
+        return (List<A>)(List<?>)memo.put(this, initialValue, (List<XmlAtom>)(List<?>)actualValue);
+    }
     
+    // the index of the enumerations, if there is one the bridge's atoms can use
+    private EnumerationIndex getEnumerationIndex(final AtomBridge<?> atomBridge)
+    {
+        if (atomBridge instanceof XmlAtomBridge)
+        {
+            compileEnumerations((XmlAtomBridge)atomBridge);
+            final EnumerationIndex index = m_enumerationIndex;
+            if (index != EnumerationIndex.NONE)
+                return index;
+        }
+        return null;
+    }
+
     private static <X> int countIterable(Iterable<X> iterable)
     {
         int count = 0;
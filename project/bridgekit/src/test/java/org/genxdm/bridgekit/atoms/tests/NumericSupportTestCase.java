@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridgekit.atoms.tests;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import org.genxdm.bridgekit.atoms.NumericSupport;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgekit.atoms.XmlAtomBridge;
+import org.genxdm.bridgekit.atoms.XmlDecimal;
+import org.genxdm.bridgekit.atoms.XmlInteger;
+import org.genxdm.bridgekit.atoms.XmlIntegerDerived;
+import org.genxdm.bridgekit.xs.SchemaCacheFactory;
+import org.genxdm.bridgekit.xs.constraint.FacetFractionDigitsImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetTotalDigitsImpl;
+import org.genxdm.xs.exceptions.FacetException;
+import org.genxdm.xs.types.NativeType;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class NumericSupportTestCase
+{
+    private static final int[] SCALES = { 0, 1, 2, 3, 9, 17, XmlDecimal.MAX_COMPACT_SCALE };
+
+    @Test
+    public void compareDecimal()
+    {
+        for (final long lhs : XmlDecimalTestCase.UNSCALED)
+        {
+            for (final int lhsScale : SCALES)
+            {
+                for (final long rhs : XmlDecimalTestCase.UNSCALED)
+                {
+                    for (final int rhsScale : SCALES)
+                    {
+                        final int expected = BigDecimal.valueOf(lhs, lhsScale).compareTo(BigDecimal.valueOf(rhs, rhsScale));
+                        final int actual = NumericSupport.compareDecimal(lhs, lhsScale, rhs, rhsScale);
+                        assertEquals(lhs + "/" + lhsScale + " " + rhs + "/" + rhsScale, expected, Integer.signum(actual));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void integerPart()
+    {
+        assertEquals(-9, NumericSupport.integerPart(Long.MIN_VALUE, XmlDecimal.MAX_COMPACT_SCALE));
+        assertEquals(0, NumericSupport.integerPart(-5, 1));
+        assertEquals(Long.MIN_VALUE, NumericSupport.integerPart(Long.MIN_VALUE, 0));
+        for (final long unscaled : XmlDecimalTestCase.UNSCALED)
+        {
+            for (final int scale : SCALES)
+            {
+                assertEquals(BigDecimal.valueOf(unscaled, scale).longValue(), NumericSupport.integerPart(unscaled, scale));
+            }
+        }
+    }
+
+    @Test
+    public void totalDigits()
+    {
+        assertEquals(1, NumericSupport.totalDigits(0, 0));
+        assertEquals(1, NumericSupport.totalDigits(0, 5));
+        assertEquals(2, NumericSupport.totalDigits(5, 2)); // 0.05
+        assertEquals(2, NumericSupport.totalDigits(1500, 3)); // 1.5
+        assertEquals(3, NumericSupport.totalDigits(-100, 0));
+        assertEquals(18, NumericSupport.totalDigits(1, XmlDecimal.MAX_COMPACT_SCALE));
+        assertEquals(19, NumericSupport.totalDigits(Long.MIN_VALUE, 0));
+        assertEquals(19, NumericSupport.totalDigits(Long.MIN_VALUE, XmlDecimal.MAX_COMPACT_SCALE));
+        assertEquals(19, NumericSupport.totalDigits(Long.MAX_VALUE, 3));
+    }
+
+    // decimals of a scale too large for the compact form are checked through their canonical form
+    @Test
+    public void digitFacetsAgreeWithBigDecimalForm()
+    {
+        for (final long unscaled : XmlDecimalTestCase.UNSCALED)
+        {
+            final XmlAtom wide = bigDecimalForm(BigDecimal.valueOf(unscaled));
+            assertEquals(allowedTotalDigits(wide), allowedTotalDigits(XmlInteger.valueOf(unscaled)));
+            assertEquals(allowedTotalDigits(wide), allowedTotalDigits(XmlIntegerDerived.valueOf(unscaled, NativeType.INTEGER)));
+            assertEquals(0, allowedFractionDigits(XmlInteger.valueOf(unscaled)));
+            for (final int scale : SCALES)
+            {
+                final XmlDecimal compact = XmlDecimal.valueOf(unscaled, scale);
+                assertTrue(compact.isCompact());
+                final XmlAtom other = bigDecimalForm(compact.getBigDecimalValue());
+                final String message = compact.getC14NForm();
+                assertEquals(message, allowedTotalDigits(other), allowedTotalDigits(compact));
+                assertEquals(message, NumericSupport.totalDigits(unscaled, scale), allowedTotalDigits(compact));
+                assertEquals(message, allowedFractionDigits(other), allowedFractionDigits(compact));
+            }
+        }
+        assertEquals(1, allowedFractionDigits(XmlDecimal.valueOf(1500, 3)));
+        assertEquals(0, allowedFractionDigits(XmlDecimal.valueOf(10000, 2)));
+        assertEquals(18, allowedFractionDigits(XmlDecimal.valueOf(5, XmlDecimal.MAX_COMPACT_SCALE)));
+    }
+
+    private static XmlAtom bigDecimalForm(final BigDecimal value)
+    {
+        final XmlDecimal atom = XmlDecimal.valueOf(value.setScale(XmlDecimal.MAX_COMPACT_SCALE + 2));
+        assertFalse(atom.isCompact());
+        return atom;
+    }
+
+    /**
+     * Returns the least totalDigits that the atom satisfies.
+     */
+    private static int allowedTotalDigits(final XmlAtom atom)
+    {
+        for (int digits = 1; digits < 40; digits++)
+        {
+            try
+            {
+                new FacetTotalDigitsImpl(digits, false).validate(Collections.singletonList(atom), null, ATOMS);
+                return digits;
+            }
+            catch (final FacetException e)
+            {
+                // too few
+            }
+        }
+        throw new AssertionError(atom.getC14NForm());
+    }
+
+    /**
+     * Returns the least fractionDigits that the atom satisfies.
+     */
+    private static int allowedFractionDigits(final XmlAtom atom)
+    {
+        for (int digits = 0; digits < 40; digits++)
+        {
+            try
+            {
+                new FacetFractionDigitsImpl(digits, false).validate(Collections.singletonList(atom), null, ATOMS);
+                return digits;
+            }
+            catch (final FacetException e)
+            {
+                // too few
+            }
+        }
+        throw new AssertionError(atom.getC14NForm());
+    }
+
+    private static final XmlAtomBridge ATOMS = new XmlAtomBridge(new SchemaCacheFactory().newSchemaCache());
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridgekit.atoms.tests;
+
+import java.math.BigDecimal;
+
+import org.genxdm.bridgekit.atoms.NumericSupport;
+import org.genxdm.bridgekit.atoms.XmlAtomBridge;
+import org.genxdm.bridgekit.atoms.XmlDecimal;
+import org.genxdm.bridgekit.xs.SchemaCacheFactory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class XmlDecimalTestCase
+{
+    static final long[] UNSCALED = { 0, 1, -1, 5, -5, 10, -10, 100, 150, -150, 10000, 123456789, 1000000000000000000L, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1 };
+
+    @Test
+    public void compactFormBoundaries()
+    {
+        assertTrue(XmlDecimal.valueOf(1, XmlDecimal.MAX_COMPACT_SCALE).isCompact());
+        assertFalse(XmlDecimal.valueOf(1, XmlDecimal.MAX_COMPACT_SCALE + 1).isCompact());
+        assertFalse(XmlDecimal.valueOf(1, -1).isCompact());
+        assertTrue(XmlDecimal.valueOf(new BigDecimal("1.000000000000000000")).isCompact());
+        assertFalse(XmlDecimal.valueOf(new BigDecimal("1.0000000000000000000")).isCompact());
+        assertFalse(XmlDecimal.valueOf(new BigDecimal("1E+3")).isCompact());
+
+        final XmlDecimal min = XmlDecimal.valueOf(BigDecimal.valueOf(Long.MIN_VALUE, XmlDecimal.MAX_COMPACT_SCALE));
+        assertTrue(min.isCompact());
+        assertEquals(Long.MIN_VALUE, min.getUnscaledValue());
+        assertEquals(XmlDecimal.MAX_COMPACT_SCALE, min.getScale());
+        assertTrue(XmlDecimal.valueOf(new BigDecimal("9223372036854775807")).isCompact());
+        assertFalse(XmlDecimal.valueOf(new BigDecimal("9223372036854775808")).isCompact());
+        assertFalse(XmlDecimal.valueOf(new BigDecimal("-9223372036854775809")).isCompact());
+
+        // both forms give back the value they were made from
+        for (final long unscaled : UNSCALED)
+        {
+            for (int scale = -2; scale <= XmlDecimal.MAX_COMPACT_SCALE + 2; scale++)
+            {
+                final BigDecimal value = BigDecimal.valueOf(unscaled, scale);
+                assertEquals(value, XmlDecimal.valueOf(unscaled, scale).getBigDecimalValue());
+                assertEquals(value, XmlDecimal.valueOf(value).getBigDecimalValue());
+            }
+        }
+    }
+
+    // as with BigDecimal, equal values of different scales are different decimals
+    @Test
+    public void equalsAndHashCodeFollowBigDecimal()
+    {
+        final String[] literals = { "1", "1.0", "1.00", "-0", "0", "0.0", "-0.0", "1E+1", "10", "0.1", "1.000000000000000000", "1.0000000000000000000", "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-922337203685477580.8" };
+        for (final String lhs : literals)
+        {
+            for (final String rhs : literals)
+            {
+                final BigDecimal lhsValue = new BigDecimal(lhs);
+                final BigDecimal rhsValue = new BigDecimal(rhs);
+                final XmlDecimal lhsAtom = XmlDecimal.valueOf(lhsValue);
+                final XmlDecimal rhsAtom = XmlDecimal.valueOf(rhsValue);
+                assertEquals(lhs + " " + rhs, lhsValue.equals(rhsValue), lhsAtom.equals(rhsAtom));
+                if (lhsAtom.equals(rhsAtom))
+                    assertEquals(lhs + " " + rhs, lhsAtom.hashCode(), rhsAtom.hashCode());
+            }
+        }
+        assertFalse(XmlDecimal.valueOf(new BigDecimal("1.0")).equals(XmlDecimal.valueOf(1)));
+        assertEquals(XmlDecimal.valueOf(new BigDecimal("-0")), XmlDecimal.valueOf(0));
+        assertEquals(XmlDecimal.valueOf(new BigDecimal("-0.0")), XmlDecimal.valueOf(0, 1));
+
+        // however a value is made, it is held in the same form
+        for (final long unscaled : UNSCALED)
+        {
+            for (int scale = -2; scale <= XmlDecimal.MAX_COMPACT_SCALE + 2; scale++)
+            {
+                final XmlDecimal fromLong = XmlDecimal.valueOf(unscaled, scale);
+                final XmlDecimal fromBigDecimal = XmlDecimal.valueOf(BigDecimal.valueOf(unscaled, scale));
+                assertEquals(fromBigDecimal.isCompact(), fromLong.isCompact());
+                assertEquals(fromBigDecimal, fromLong);
+                assertEquals(fromBigDecimal.hashCode(), fromLong.hashCode());
+            }
+            assertEquals(XmlDecimal.valueOf(BigDecimal.valueOf(unscaled)), XmlDecimal.valueOf(unscaled));
+        }
+    }
+
+    @Test
+    public void canonicalForms()
+    {
+        assertEquals("-0.5", XmlDecimal.valueOf(-5, 1).getC14NForm());
+        assertEquals("100.0", XmlDecimal.valueOf(100).getC14NForm());
+        assertEquals("100.0", XmlDecimal.valueOf(10000, 2).getC14NForm());
+        assertEquals("1.5", XmlDecimal.valueOf(1500, 3).getC14NForm());
+        assertEquals("0.0", XmlDecimal.valueOf(0, 5).getC14NForm());
+        assertEquals("0.0", XmlDecimal.valueOf(new BigDecimal("-0.00")).getC14NForm());
+        assertEquals("-0.05", XmlDecimal.valueOf(-5, 2).getC14NForm());
+        assertEquals("0.000000000000000005", XmlDecimal.valueOf(5, 18).getC14NForm());
+        assertEquals("-9.223372036854775808", XmlDecimal.valueOf(Long.MIN_VALUE, 18).getC14NForm());
+        assertEquals("-9223372036854775808.0", XmlDecimal.valueOf(Long.MIN_VALUE).getC14NForm());
+
+        final XmlAtomBridge atoms = new XmlAtomBridge(new SchemaCacheFactory().newSchemaCache());
+        assertEquals("100", atoms.getXPath10Form(XmlDecimal.valueOf(10000, 2)));
+        assertEquals("-0.5", atoms.getXQuery10Form(XmlDecimal.valueOf(-50, 2)));
+        for (final long unscaled : UNSCALED)
+        {
+            for (int scale = 0; scale <= XmlDecimal.MAX_COMPACT_SCALE; scale++)
+            {
+                final BigDecimal value = BigDecimal.valueOf(unscaled, scale);
+                final XmlDecimal atom = XmlDecimal.valueOf(unscaled, scale);
+                assertEquals(NumericSupport.formatDecimalC14N(value), NumericSupport.formatDecimalC14N(unscaled, scale));
+                assertEquals(NumericSupport.formatDecimalC14N(value), atom.getC14NForm());
+                assertEquals(NumericSupport.formatDecimalXPath10(value), NumericSupport.formatDecimalXPath10(unscaled, scale));
+                assertEquals(NumericSupport.formatDecimalXQuery10(value), NumericSupport.formatDecimalXQuery10(unscaled, scale));
+                assertEquals(NumericSupport.formatDecimalXPath10(value), atoms.getXPath10Form(atom));
+            }
+        }
+    }
+}
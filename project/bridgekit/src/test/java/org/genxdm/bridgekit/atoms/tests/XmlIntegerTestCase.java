@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridgekit.atoms.tests;
+
+import java.math.BigInteger;
+
+import org.genxdm.bridgekit.atoms.XmlInteger;
+import org.genxdm.bridgekit.atoms.XmlIntegerDerived;
+import org.genxdm.exceptions.GenXDMException;
+import org.genxdm.xs.types.NativeType;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class XmlIntegerTestCase
+{
+    private static final BigInteger[] VALUES = { BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(-1), BigInteger.valueOf(1000), BigInteger.valueOf(-1000),
+        BigInteger.valueOf(Long.MAX_VALUE), BigInteger.valueOf(Long.MIN_VALUE), BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE),
+        BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE), new BigInteger("18446744073709551615"), new BigInteger("-123456789012345678901234567890") };
+
+    @Test
+    public void longFormBoundaries()
+    {
+        assertTrue(XmlInteger.valueOf(BigInteger.valueOf(Long.MAX_VALUE)).isLong());
+        assertTrue(XmlInteger.valueOf(BigInteger.valueOf(Long.MIN_VALUE)).isLong());
+        assertFalse(XmlInteger.valueOf(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE)).isLong());
+        assertFalse(XmlInteger.valueOf(BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE)).isLong());
+        assertEquals(Long.MIN_VALUE, XmlInteger.valueOf(Long.MIN_VALUE).getLongValue());
+        assertEquals("-9223372036854775808", XmlInteger.valueOf(Long.MIN_VALUE).getC14NForm());
+        assertEquals("9223372036854775808", XmlInteger.valueOf(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE)).getC14NForm());
+
+        for (final BigInteger value : VALUES)
+        {
+            final XmlInteger atom = XmlInteger.valueOf(value);
+            assertEquals(value.bitLength() < 64, atom.isLong());
+            assertEquals(value, atom.getBigIntegerValue());
+            assertEquals(value.toString(), atom.getC14NForm());
+        }
+    }
+
+    @Test
+    public void equalsAndHashCode()
+    {
+        for (final BigInteger lhs : VALUES)
+        {
+            for (final BigInteger rhs : VALUES)
+            {
+                final XmlInteger lhsAtom = XmlInteger.valueOf(lhs);
+                final XmlInteger rhsAtom = XmlInteger.valueOf(rhs);
+                assertEquals(lhs + " " + rhs, lhs.equals(rhs), lhsAtom.equals(rhsAtom));
+                if (lhsAtom.equals(rhsAtom))
+                    assertEquals(lhs + " " + rhs, lhsAtom.hashCode(), rhsAtom.hashCode());
+            }
+            if (fitsInLong(lhs))
+            {
+                assertEquals(XmlInteger.valueOf(lhs), XmlInteger.valueOf(lhs.longValue()));
+                assertEquals(XmlInteger.valueOf(lhs).hashCode(), XmlInteger.valueOf(lhs.longValue()).hashCode());
+                final XmlIntegerDerived derived = XmlIntegerDerived.valueOf(lhs, NativeType.INTEGER);
+                assertEquals(derived, XmlIntegerDerived.valueOf(lhs.longValue(), NativeType.INTEGER));
+                assertEquals(derived.hashCode(), XmlIntegerDerived.valueOf(lhs.longValue(), NativeType.INTEGER).hashCode());
+            }
+        }
+        // the type counts as well as the value
+        assertFalse(XmlIntegerDerived.valueOf(1, NativeType.POSITIVE_INTEGER).equals(XmlIntegerDerived.valueOf(1, NativeType.NON_NEGATIVE_INTEGER)));
+    }
+
+    @Test
+    public void derivedBounds()
+    {
+        final BigInteger unsignedLongMax = new BigInteger("18446744073709551615");
+        final XmlIntegerDerived big = XmlIntegerDerived.valueOf(unsignedLongMax, NativeType.UNSIGNED_LONG);
+        assertFalse(big.isLong());
+        assertEquals(unsignedLongMax, big.integerValue());
+        assertEquals("18446744073709551615", big.getC14NForm());
+        assertTrue(XmlIntegerDerived.valueOf(Long.MAX_VALUE, NativeType.UNSIGNED_LONG).isLong());
+
+        final XmlIntegerDerived min = XmlIntegerDerived.valueOf(Long.MIN_VALUE, NativeType.NEGATIVE_INTEGER);
+        assertTrue(min.isLong());
+        assertEquals(Long.MIN_VALUE, min.longValue());
+        assertEquals(BigInteger.valueOf(Long.MIN_VALUE), min.integerValue());
+        assertEquals("-9223372036854775808", min.getC14NForm());
+        XmlIntegerDerived.valueOf(BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE), NativeType.NON_POSITIVE_INTEGER);
+        XmlIntegerDerived.valueOf(0, NativeType.NON_POSITIVE_INTEGER);
+        XmlIntegerDerived.valueOf(255, NativeType.UNSIGNED_BYTE);
+        XmlIntegerDerived.valueOf(65535, NativeType.UNSIGNED_SHORT);
+        XmlIntegerDerived.valueOf(4294967295L, NativeType.UNSIGNED_INT);
+
+        assertRejected(BigInteger.ZERO, NativeType.NEGATIVE_INTEGER);
+        assertRejected(BigInteger.ZERO, NativeType.POSITIVE_INTEGER);
+        assertRejected(BigInteger.ONE, NativeType.NON_POSITIVE_INTEGER);
+        assertRejected(BigInteger.valueOf(Long.MIN_VALUE), NativeType.NON_NEGATIVE_INTEGER);
+        assertRejected(BigInteger.valueOf(-1), NativeType.UNSIGNED_LONG);
+        assertRejected(unsignedLongMax.add(BigInteger.ONE), NativeType.UNSIGNED_LONG);
+        assertRejected(BigInteger.valueOf(4294967296L), NativeType.UNSIGNED_INT);
+        assertRejected(BigInteger.valueOf(65536), NativeType.UNSIGNED_SHORT);
+        assertRejected(BigInteger.valueOf(256), NativeType.UNSIGNED_BYTE);
+        assertRejected(BigInteger.valueOf(Long.MAX_VALUE), NativeType.UNSIGNED_BYTE);
+    }
+
+    private static boolean fitsInLong(final BigInteger value)
+    {
+        return value.bitLength() < 64;
+    }
+
+    private static void assertRejected(final BigInteger value, final NativeType type)
+    {
+        try
+        {
+            XmlIntegerDerived.valueOf(value, type);
+            fail(value + " " + type);
+        }
+        catch (final GenXDMException e)
+        {
+            // expected
+        }
+        if (fitsInLong(value))
+        {
+            try
+            {
+                XmlIntegerDerived.valueOf(value.longValue(), type);
+                fail(value + " " + type);
+            }
+            catch (final GenXDMException e)
+            {
+                // expected
+            }
+        }
+    }
+}
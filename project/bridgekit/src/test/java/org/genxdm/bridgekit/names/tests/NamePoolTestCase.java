@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.bridgekit.names.tests;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import javax.xml.namespace.QName;
+
+import org.genxdm.bridgekit.names.NamePool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public final class NamePoolTestCase
+{
+    private static final String NS = "http://www.genxdm.org/names";
+
+    @Test
+    public void fingerprintsAreStableAndDistinct()
+    {
+        final NamePool pool = new NamePool();
+        final int a = pool.getFingerprint(NS, "a");
+        final int b = pool.getFingerprint(NS, "b");
+        final int noNS = pool.getFingerprint("", "a");
+        assertEquals(a, pool.getFingerprint(NS, "a"));
+        assertEquals(a, pool.getFingerprint(new String(NS), new String("a")));
+        assertTrue(a != b);
+        assertTrue(a != noNS);
+        assertEquals(3, pool.size());
+    }
+
+    @Test
+    public void prefixAndNullNamespaceAreIgnored()
+    {
+        final NamePool pool = new NamePool();
+        final int a = pool.getFingerprint(NS, "a");
+        assertEquals(a, pool.getFingerprint(new QName(NS, "a", "p")));
+        assertEquals(a, pool.getFingerprint(new QName(NS, "a", "q")));
+        final int noNS = pool.getFingerprint(null, "a");
+        assertEquals(noNS, pool.getFingerprint("", "a"));
+        assertEquals(noNS, pool.getFingerprint(new QName("a")));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void peekNeverAllocates()
+    {
+        final NamePool pool = new NamePool();
+        assertEquals(NamePool.NONE, pool.peekFingerprint(NS, "a"));
+        assertEquals(0, pool.size());
+
+        final int a = pool.getFingerprint(NS, "a");
+        pool.getFingerprint("", "b");
+        assertEquals(a, pool.peekFingerprint(NS, "a"));
+        // both parts are known, but not as a pair
+        assertEquals(NamePool.NONE, pool.peekFingerprint(NS, "b"));
+        assertEquals(NamePool.NONE, pool.peekFingerprint("", "a"));
+        assertEquals(NamePool.NONE, pool.peekFingerprint(null, "a"));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void fingerprintsResolveToTheirNames()
+    {
+        final NamePool pool = new NamePool();
+        // enough names to grow the tables
+        for (int i = 0; i < 1000; i++)
+        {
+            final int fingerprint = pool.getFingerprint((i % 2 == 0) ? NS : null, "n" + i);
+            assertEquals(i, fingerprint);
+        }
+        for (int i = 0; i < 1000; i++)
+        {
+            assertEquals((i % 2 == 0) ? NS : "", pool.getNamespaceURI(i));
+            assertEquals("n" + i, pool.getLocalName(i));
+        }
+    }
+
+    @Test
+    public void aFullPoolTakesNoNewNames()
+    {
+        final NamePool pool = new NamePool(2);
+        final int a = pool.getFingerprint(NS, "a");
+        final int b = pool.getFingerprint(NS, "b");
+        assertFalse(pool.isFull());
+        assertEquals(NamePool.NONE, pool.getFingerprint(NS, "c"));
+        assertTrue(pool.isFull());
+        assertEquals(NamePool.NONE, pool.peekFingerprint(NS, "c"));
+        assertEquals(2, pool.size());
+        // names already pooled keep their fingerprints
+        assertEquals(a, pool.getFingerprint(NS, "a"));
+        assertEquals(b, pool.getFingerprint(new QName(NS, "b", "p")));
+        assertEquals("b", pool.getLocalName(b));
+    }
+
+    @Test
+    public void poolsAreIndependent()
+    {
+        final NamePool pool = new NamePool();
+        pool.getFingerprint(NS, "only-in-a-private-pool");
+        assertEquals(NamePool.NONE, NamePool.getDefault().peekFingerprint(NS, "only-in-a-private-pool"));
+        assertFalse(pool == NamePool.getDefault());
+    }
+
+    @Test
+    public void concurrentAllocationGivesOneFingerprintPerName()
+        throws Exception
+    {
+        final NamePool pool = new NamePool();
+        final int threads = 8;
+        final int names = 2000;
+        final int[][] seen = new int[threads][names];
+        final Throwable[] failure = new Throwable[1];
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++)
+        {
+            final int[] mine = seen[t];
+            final int offset = t * 37;
+            workers[t] = new Thread(new Runnable() {
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        // each thread visits the names in a different order
+                        for (int i = 0; i < names; i++)
+                        {
+                            final int n = (i + offset) % names;
+                            final int fingerprint = pool.getFingerprint(NS + (n % 7), "n" + n);
+                            mine[n] = fingerprint;
+                            if (!("n" + n).equals(pool.getLocalName(fingerprint)))
+                                throw new AssertionError("fingerprint " + fingerprint + " does not resolve to n" + n);
+                        }
+                    }
+                    catch (Throwable e)
+                    {
+                        synchronized (failure)
+                        {
+                            failure[0] = e;
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (final Thread worker : workers)
+        {
+            worker.join();
+        }
+        synchronized (failure)
+        {
+            assertNull(String.valueOf(failure[0]), failure[0]);
+        }
+
+        assertEquals(names, pool.size());
+        final Set<Integer> distinct = new HashSet<Integer>();
+        for (int n = 0; n < names; n++)
+        {
+            for (int t = 1; t < threads; t++)
+            {
+                assertEquals(seen[0][n], seen[t][n]);
+            }
+            assertEquals(seen[0][n], pool.peekFingerprint(NS + (n % 7), "n" + n));
+            assertEquals(NS + (n % 7), pool.getNamespaceURI(seen[0][n]));
+            distinct.add(seen[0][n]);
+        }
+        assertEquals(names, distinct.size());
+    }
+}
@@ -15,7 +15,12 @@
  */
 package org.genxdm.bridgetest;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.genxdm.Feature;
 import org.genxdm.Model;
@@ -58,7 +63,39 @@ public abstract class ModelBase<N>
     @Test
     public void comparisons()
     {
-        // TODO
+        ProcessingContext<N> context = newProcessingContext();
+        N doc = createComplexTestDocument(context.newFragmentBuilder());
+        Model<N> model = context.getModel();
+        
+        List<N> ordered = new ArrayList<N>();
+        for (N node : model.getDescendantOrSelfAxis(doc))
+            ordered.add(node);
+        assertTrue(ordered.size() > 2);
+        
+        // the second pass is answered by the order index, if the bridge has one
+        for (int pass = 0; pass < 2; pass++)
+        {
+            for (int i = 0; i < ordered.size(); i++)
+            {
+                N lhs = ordered.get(i);
+                assertEquals(0, model.compare(lhs, lhs));
+                for (int j = i + 1; j < ordered.size(); j++)
+                {
+                    N rhs = ordered.get(j);
+                    assertTrue(model.compare(lhs, rhs) < 0);
+                    assertTrue(model.compare(rhs, lhs) > 0);
+                }
+                // attributes follow their element, and precede its children
+                for (N attribute : model.getAttributeAxis(lhs, false))
+                {
+                    assertTrue(model.compare(lhs, attribute) < 0);
+                    assertTrue(model.compare(attribute, lhs) > 0);
+                    N child = model.getFirstChild(lhs);
+                    if (child != null)
+                        assertTrue(model.compare(attribute, child) < 0);
+                }
+            }
+        }
     }
     
 }
@@ -289,6 +289,69 @@ public abstract class MutableModelBase<N>
         model.insertBefore(docElem, misc);
     }
 
+    @Test
+    public void comparisons()
+    {
+        ProcessingContext<N> context = newProcessingContext();
+        N doc = createSimpleAllKindsDocument(context.newFragmentBuilder());
+        MutableModel<N> model = context.getMutableContext().getModel();
+        NodeFactory<N> factory = model.getFactory(doc);
+        
+        N docElem = model.getFirstChildElement(doc);
+        N first = model.getFirstChild(docElem);
+        N last = model.getLastChild(docElem);
+        // enough comparisons that a bridge with an order index will number the tree
+        for (int i = 0; i < 100; i++)
+            assertTrue(model.compare(first, last) < 0);
+        
+        // and the numbering must follow changes to the tree
+        N comment = factory.createComment("new first");
+        model.prependChild(docElem, comment);
+        N text = factory.createText("new last");
+        model.appendChild(docElem, text);
+        for (int i = 0; i < 100; i++)
+        {
+            assertTrue(model.compare(comment, first) < 0);
+            assertTrue(model.compare(last, text) < 0);
+            assertTrue(model.compare(text, comment) > 0);
+        }
+        model.delete(first);
+        model.insertAfter(last, first);
+        for (int i = 0; i < 100; i++)
+        {
+            assertTrue(model.compare(last, first) < 0);
+            assertTrue(model.compare(first, text) < 0);
+        }
+        N replacement = factory.createComment("replaces the new first");
+        model.replace(comment, replacement);
+        model.insertBefore(text, comment);
+        for (int i = 0; i < 100; i++)
+        {
+            assertTrue(model.compare(replacement, last) < 0);
+            assertTrue(model.compare(first, comment) < 0);
+            assertTrue(model.compare(comment, text) < 0);
+        }
+
+        // comparisons in another tree, between those in the first, are answered for the tree they are in
+        N other = createSimpleAllKindsDocument(context.newFragmentBuilder());
+        N otherElem = model.getFirstChildElement(other);
+        N otherFirst = model.getFirstChild(otherElem);
+        N otherLast = model.getLastChild(otherElem);
+        for (int i = 0; i < 100; i++)
+        {
+            assertTrue(model.compare(otherLast, otherFirst) > 0);
+            assertTrue(model.compare(first, comment) < 0);
+        }
+        model.delete(otherFirst);
+        model.appendChild(otherElem, otherFirst);
+        for (int i = 0; i < 100; i++)
+        {
+            assertTrue(model.compare(otherLast, otherFirst) < 0);
+            assertTrue(model.compare(otherElem, otherLast) < 0);
+            assertTrue(model.compare(comment, text) < 0);
+        }
+    }
+
     @Test
     public void delete()
     {
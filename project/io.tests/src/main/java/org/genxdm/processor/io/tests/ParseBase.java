@@ -32,6 +32,7 @@ import org.genxdm.NodeKind;
 import org.genxdm.ProcessingContext;
 import org.genxdm.bridgekit.ProcessingContextFactory;
 import org.genxdm.io.DocumentHandler;
+import org.genxdm.processor.io.DefaultDocumentHandler;
 
 // TODO: this is a quick-and-dirty update of older code.  It isn't
 // acceptably contract based.  We also probably need to think about
@@ -54,12 +55,30 @@ abstract public class ParseBase<N>
         parseTest1Doc("test1-nodecl.xml");
     }
     
+    @Test
+    public void simpleDocWithPIsAndCommentsCursor()
+    {
+        parseTest1Doc("test1.xml", true);
+        parseTest1Doc("test1-nodecl.xml", true);
+    }
+    
     private void parseTest1Doc(String resourceName)
+    {
+        parseTest1Doc(resourceName, false);
+    }
+    
+    private void parseTest1Doc(String resourceName, boolean cursorParsing)
     {
         try
         {
             ProcessingContext<N> context = newProcessingContext();
             DocumentHandler<N> parser = context.newDocumentHandler();
+            if (cursorParsing)
+            {
+                DefaultDocumentHandler<N> handler = new DefaultDocumentHandler<N>(context);
+                handler.setCursorParsing(true);
+                parser = handler;
+            }
             InputStream stream = getClass().getClassLoader().getResourceAsStream(resourceName);
             N document = parser.parse(stream, null);
             
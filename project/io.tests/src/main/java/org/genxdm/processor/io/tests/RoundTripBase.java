@@ -23,12 +23,16 @@ import static org.junit.Assert.fail;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
 
 import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
 
 import org.genxdm.Cursor;
 import org.genxdm.NodeKind;
@@ -36,6 +40,9 @@ import org.genxdm.ProcessingContext;
 import org.genxdm.bridgekit.ProcessingContextFactory;
 import org.genxdm.io.DocumentHandler;
 import org.genxdm.io.FragmentBuilder;
+import org.genxdm.io.GenxdmSerialization;
+import org.genxdm.processor.io.adapters.CursoryInputStream;
+import org.genxdm.processor.io.adapters.CursoryReader;
 import org.junit.Test;
 
 // TODO: this should be testing that we can read and write the
@@ -58,6 +65,119 @@ abstract public class RoundTripBase<N>
         checkUglyDocument(context, doc2);
     }
     
+    @Test
+    public void cursoryStreams()
+        throws IOException
+    {
+        ProcessingContext<N> context = newProcessingContext();
+        FragmentBuilder<N> builder = context.newFragmentBuilder();
+        builder.startDocument(null, null);
+        builder.startElement(XMLConstants.NULL_NS_URI, "r", XMLConstants.DEFAULT_NS_PREFIX);
+        builder.startElement(XMLConstants.NULL_NS_URI, "x", XMLConstants.DEFAULT_NS_PREFIX);
+        builder.attribute(XMLConstants.NULL_NS_URI, "a", XMLConstants.DEFAULT_NS_PREFIX, "1 & \"2\"", null);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++)
+            text.append("caf\u00e9 & <").append(i).append("> ");
+        builder.text(text.toString());
+        builder.endElement();
+        builder.startElement(XMLConstants.NULL_NS_URI, "y", XMLConstants.DEFAULT_NS_PREFIX);
+        builder.endElement();
+        builder.endElement();
+        builder.endDocument();
+        N document = builder.getNode();
+        String escaped = text.toString().replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        String expected = "<r><x a=\"1 &amp; &quot;2&quot;\">" + escaped + "</x><y/></r>";
+
+        Reader reader = new CursoryReader<N>(context.newCursor(document));
+        StringBuilder result = new StringBuilder();
+        char[] chars = new char[100];
+        int count;
+        while ((count = reader.read(chars, 0, chars.length)) != -1)
+            result.append(chars, 0, count);
+        assertEquals(expected, result.toString());
+
+        // a subtree ends with its element
+        Cursor cursor = context.newCursor(document);
+        assertTrue(cursor.moveToFirstChildElement());
+        assertTrue(cursor.moveToFirstChildElement());
+        assertTrue(cursor.moveToNextSiblingElement());
+        reader = new CursoryReader<N>(cursor, new Object());
+        result.setLength(0);
+        while ((count = reader.read()) != -1)
+            result.append((char)count);
+        assertEquals("<y/>", result.toString());
+
+        InputStream stream = new CursoryInputStream(context.newCursor(document), "UTF-8");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] bytes = new byte[100];
+        while ((count = stream.read(bytes)) != -1)
+            baos.write(bytes, 0, count);
+        assertEquals(expected, new String(baos.toByteArray(), utf8));
+        N doc2 = readDocument(context, new InputStreamReader(new ByteArrayInputStream(baos.toByteArray()), utf8));
+        cursor = context.newCursor(doc2);
+        assertTrue(cursor.moveToFirstChildElement());
+        assertTrue(cursor.moveToFirstChildElement());
+        assertEquals(text.toString(), cursor.getStringValue());
+    }
+    
+    @Test
+    public void serializationParams()
+        throws Exception
+    {
+        ProcessingContext<N> context = newProcessingContext();
+        FragmentBuilder<N> builder = context.newFragmentBuilder();
+        builder.startDocument(null, null);
+        builder.startElement(XMLConstants.NULL_NS_URI, "doc", XMLConstants.DEFAULT_NS_PREFIX);
+        builder.startElement(XMLConstants.NULL_NS_URI, "code", XMLConstants.DEFAULT_NS_PREFIX);
+        builder.text("a < b ]]> c");
+        builder.endElement();
+        builder.startElement(XMLConstants.NULL_NS_URI, "p", XMLConstants.DEFAULT_NS_PREFIX);
+        builder.attribute(XMLConstants.NULL_NS_URI, "q", XMLConstants.DEFAULT_NS_PREFIX, "x\"y", null);
+        builder.text("caf\u00e9 \u20ac");
+        builder.startElement(XMLConstants.NULL_NS_URI, "b", XMLConstants.DEFAULT_NS_PREFIX);
+        builder.endElement();
+        builder.endElement();
+        builder.startElement(XMLConstants.NULL_NS_URI, "list", XMLConstants.DEFAULT_NS_PREFIX);
+        builder.startElement(XMLConstants.NULL_NS_URI, "item", XMLConstants.DEFAULT_NS_PREFIX);
+        builder.text("1");
+        builder.endElement();
+        builder.endElement();
+        builder.endElement();
+        builder.endDocument();
+        N document = builder.getNode();
+        DocumentHandler<N> handler = context.newDocumentHandler();
+
+        // indentation stays out of mixed content
+        GenxdmSerialization params = new GenxdmSerialization();
+        params.setIndent(true);
+        params.setCDataSectionElements(Arrays.asList(new QName("code")));
+        params.setUseCharacterMaps(Collections.singletonMap('\u20ac', "EUR"));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        handler.write(baos, document, params);
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                     "<doc>\n" +
+                     "  <code><![CDATA[a < b ]]]]><![CDATA[> c]]></code>\n" +
+                     "  <p q=\"x&quot;y\">caf\u00e9 EUR<b/></p>\n" +
+                     "  <list>\n" +
+                     "    <item>1</item>\n" +
+                     "  </list>\n" +
+                     "</doc>", new String(baos.toByteArray(), utf8));
+        N doc2 = readDocument(context, new InputStreamReader(new ByteArrayInputStream(baos.toByteArray()), utf8));
+        Cursor cursor = context.newCursor(doc2);
+        assertTrue(cursor.moveToFirstChildElement());
+        assertTrue(cursor.moveToFirstChildElement());
+        assertEquals("a < b ]]> c", cursor.getStringValue());
+
+        // what the encoding cannot represent is a character reference
+        params = new GenxdmSerialization();
+        params.setEncoding("US-ASCII");
+        params.setOmitXMLDeclaration(true);
+        baos = new ByteArrayOutputStream();
+        handler.write(baos, document, params);
+        assertEquals("<doc><code>a &lt; b ]]&gt; c</code><p q=\"x&quot;y\">caf&#xE9; &#x20AC;<b/></p><list><item>1</item></list></doc>",
+                     new String(baos.toByteArray(), "US-ASCII"));
+    }
+    
     private byte[] writeDocument(ProcessingContext<N> context, N document, Charset encoding)
     {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
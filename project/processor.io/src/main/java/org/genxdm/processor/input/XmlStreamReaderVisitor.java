@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.input;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.exceptions.XdmMarshalException;
+import org.genxdm.io.ContentHandler;
+import org.genxdm.io.DtdAttributeKind;
+
+/** Cursor-based counterpart of {@link XmlEventVisitor}.
+ *
+ * Pulls from an XMLStreamReader and pushes straight into a ContentHandler,
+ * reading names, attributes, and text from the reader in place; no event
+ * objects are created, except to hold the (rare) comments and processing
+ * instructions that precede a DTD, since the DTD must be reported with
+ * startDocument.  Adjacent text is coalesced, as in the event visitor.
+ */
+public class XmlStreamReaderVisitor
+    implements XMLStreamConstants
+{
+    public XmlStreamReaderVisitor(final XMLStreamReader reader, final ContentHandler handler)
+    {
+        this.reader = PreCondition.assertNotNull(reader, "reader");
+        this.handler = PreCondition.assertNotNull(handler, "handler");
+    }
+
+    public void setSystemId(String systemId)
+    {
+        this.docURI = systemId;
+    }
+
+    /** This guarantees that a document event will be fired.  Thus, there will always
+     * be a single node returned by a FragmentBuilder.
+     */
+    public void parse()
+        throws IOException, XdmMarshalException
+    {
+        try
+        {
+            // a stream reader always begins positioned at the start of the document.
+            // defer reporting it until we know whether there is a doctype declaration.
+            boolean started = false;
+            List<String> prolog = null; // pairs: target/data for PIs, null/text for comments
+            int eventType = reader.getEventType();
+            while (true)
+            {
+                switch (eventType)
+                {
+                    case START_DOCUMENT :
+                        break;
+                    case DTD :
+                    {
+                        if (!started)
+                        {
+                            handler.startDocument(getDocumentURI(), reader.getText());
+                            started = true;
+                            flushProlog(prolog);
+                            prolog = null;
+                        }
+                        break;
+                    }
+                    case COMMENT :
+                    case PROCESSING_INSTRUCTION :
+                    {
+                        if (!started)
+                        {
+                            if (prolog == null)
+                                prolog = new ArrayList<String>(4);
+                            if (eventType == COMMENT)
+                            {
+                                prolog.add(null);
+                                prolog.add(reader.getText());
+                            }
+                            else
+                            {
+                                prolog.add(reader.getPITarget());
+                                prolog.add(reader.getPIData());
+                            }
+                        }
+                        else
+                            processEvent(eventType);
+                        break;
+                    }
+                    case SPACE :
+                    case CHARACTERS :
+                    case CDATA :
+                        // text outside the document element is not reported
+                        if (started)
+                            processEvent(eventType);
+                        break;
+                    case END_DOCUMENT :
+                    {
+                        if (!started)
+                        {
+                            handler.startDocument(getDocumentURI(), null);
+                            flushProlog(prolog);
+                        }
+                        handler.endDocument();
+                        return;
+                    }
+                    default :
+                    {
+                        if (!started)
+                        {
+                            handler.startDocument(getDocumentURI(), null);
+                            started = true;
+                            flushProlog(prolog);
+                            prolog = null;
+                        }
+                        processEvent(eventType);
+                    }
+                }
+                if (!reader.hasNext())
+                    break;
+                eventType = reader.next();
+            }
+            // reader ran out without reporting the end of the document
+            flushText();
+            if (!started)
+                handler.startDocument(getDocumentURI(), null);
+            handler.endDocument();
+        }
+        catch (XMLStreamException xse)
+        {
+            throw new XdmMarshalException(xse);
+        }
+    }
+
+    private void processEvent(final int eventType)
+        throws XMLStreamException
+    {
+        switch (eventType)
+        {
+            case SPACE :
+            case CHARACTERS :
+            case CDATA :
+            {
+                if (depth > 0) // don't even try to create text nodes in a document (many apis break)
+                {
+                    if (pendingText == null)
+                        pendingText = reader.getText();
+                    else
+                    {
+                        if (textBuffer.length() == 0)
+                            textBuffer.append(pendingText);
+                        textBuffer.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                return;
+            }
+            default :
+                flushText();
+        }
+        switch (eventType)
+        {
+            case START_ELEMENT :
+            {
+                depth++;
+                handler.startElement(nonNull(reader.getNamespaceURI()), reader.getLocalName(), nonNull(reader.getPrefix()));
+                final int namespaces = reader.getNamespaceCount();
+                for (int i = 0; i < namespaces; i++)
+                {
+                    handler.namespace(nonNull(reader.getNamespacePrefix(i)), nonNull(reader.getNamespaceURI(i)));
+                }
+                final int attributes = reader.getAttributeCount();
+                for (int i = 0; i < attributes; i++)
+                {
+                    final String localPart = reader.getAttributeLocalName(i);
+                    // same work-around as in the event visitor, for parsers that
+                    // report xml: attributes with a prefixed local name.
+                    if (localPart.startsWith("xml:"))
+                        handler.attribute(XMLConstants.XML_NS_URI, localPart.substring(4), "xml", reader.getAttributeValue(i), DtdAttributeKind.get(reader.getAttributeType(i)));
+                    else
+                        handler.attribute(nonNull(reader.getAttributeNamespace(i)), localPart, nonNull(reader.getAttributePrefix(i)), reader.getAttributeValue(i), DtdAttributeKind.get(reader.getAttributeType(i)));
+                }
+                break;
+            }
+            case END_ELEMENT :
+            {
+                depth--;
+                handler.endElement();
+                break;
+            }
+            case COMMENT :
+            {
+                handler.comment(reader.getText());
+                break;
+            }
+            case PROCESSING_INSTRUCTION :
+            {
+                handler.processingInstruction(reader.getPITarget(), reader.getPIData());
+                break;
+            }
+            default :
+                // entity and notation declarations, entity references if unresolved.
+                throw new XMLStreamException("Unknown event type " + eventType);
+        }
+    }
+
+    private void flushText()
+    {
+        if (pendingText != null)
+        {
+            if (textBuffer.length() > 0)
+            {
+                handler.text(textBuffer.toString());
+                textBuffer.setLength(0);
+            }
+            else
+                handler.text(pendingText);
+            pendingText = null;
+        }
+    }
+
+    private void flushProlog(final List<String> prolog)
+    {
+        if (prolog != null)
+        {
+            for (int i = 0; i < prolog.size(); i += 2)
+            {
+                if (prolog.get(i) == null)
+                    handler.comment(prolog.get(i + 1));
+                else
+                    handler.processingInstruction(prolog.get(i), prolog.get(i + 1));
+            }
+        }
+    }
+
+    private URI getDocumentURI()
+        throws XMLStreamException
+    {
+        final Location location = reader.getLocation();
+        String systemId = (location == null) ? null : location.getSystemId();
+        if (systemId == null)
+            systemId = docURI;
+        if (systemId == null)
+            return null;
+        try
+        {
+            return new URI(systemId);
+        }
+        catch (URISyntaxException mu)
+        {
+            throw new XMLStreamException(mu);
+        }
+    }
+
+    private static String nonNull(final String value)
+    {
+        return (value == null) ? XMLConstants.NULL_NS_URI : value;
+    }
+
+    private final XMLStreamReader reader;
+    private final ContentHandler handler;
+    private final StringBuilder textBuffer = new StringBuilder();
+    private String pendingText;
+    private String docURI;
+    private int depth = 0;
+}
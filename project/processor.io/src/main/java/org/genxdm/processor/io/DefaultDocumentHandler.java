@@ -24,6 +24,7 @@ import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLReporter;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.genxdm.Model;
 import org.genxdm.ProcessingContext;
@@ -34,6 +35,7 @@ import org.genxdm.io.FragmentBuilder;
 import org.genxdm.io.Resolved;
 import org.genxdm.io.Resolver;
 import org.genxdm.processor.input.XmlEventVisitor;
+import org.genxdm.processor.input.XmlStreamReaderVisitor;
 import org.xml.sax.InputSource;
 
 /** A generic DocumentHandler suitable for specializing for return by any
@@ -44,7 +46,9 @@ import org.xml.sax.InputSource;
  * for output), or the pair FragmentBuilder, Model, in the constructor.
  * 
  * This implementation makes use of the generic adapters found in org.genxdm.processor.input
- * and org.genxdm.processor.output.
+ * and org.genxdm.processor.output.  By default, input is read as StAX events; calling
+ * {@link #setCursorParsing(boolean)} selects the XMLStreamReader engine instead, which
+ * does not allocate an event object for each construct.
  * 
  * @param <N> The node handle.
  */
@@ -67,7 +71,7 @@ public class DefaultDocumentHandler<N>
             ipf = inputFac;
         builder = null;
         context = pc; 
-        initIPF();
+        initInputFactory(ipf);
     }
     
     /**
@@ -79,7 +83,22 @@ public class DefaultDocumentHandler<N>
         this.builder = PreCondition.assertNotNull(builder, "builder");
         context = null;
         ipf = XMLInputFactory.newInstance();
-        initIPF();
+        initInputFactory(ipf);
+    }
+    
+    /** Select the input engine used by the parse methods.
+     * 
+     * @param cursor if true, parse with an XMLStreamReader and {@link XmlStreamReaderVisitor};
+     * if false (the default), with an XMLEventReader and {@link XmlEventVisitor}.
+     */
+    public void setCursorParsing(boolean cursor)
+    {
+        this.cursorParsing = cursor;
+    }
+    
+    public boolean isCursorParsing()
+    {
+        return cursorParsing;
     }
     
     @Override
@@ -101,6 +120,15 @@ public class DefaultDocumentHandler<N>
         PreCondition.assertNotNull(byteStream, "byteStream");
         try
         {
+            if (cursorParsing)
+            {
+                XMLStreamReader streamReader;
+                if (systemId == null)
+                    streamReader = ipf.createXMLStreamReader(byteStream);
+                else
+                    streamReader = ipf.createXMLStreamReader(systemId.toString(), byteStream);
+                return parseStreamReader(streamReader, systemId);
+            }
             XMLEventReader eventReader;
             if (systemId == null)
             {
@@ -125,6 +153,15 @@ public class DefaultDocumentHandler<N>
         PreCondition.assertNotNull(characterStream, "characterStream");
         try
         {
+            if (cursorParsing)
+            {
+                XMLStreamReader streamReader;
+                if (systemId == null)
+                    streamReader = ipf.createXMLStreamReader(characterStream);
+                else
+                    streamReader = ipf.createXMLStreamReader(systemId.toString(), characterStream);
+                return parseStreamReader(streamReader, systemId);
+            }
             XMLEventReader eventReader;
             if (systemId == null)
             {
@@ -212,7 +249,46 @@ public class DefaultDocumentHandler<N>
         return result;
     }
     
-    private void initIPF()
+    protected N parseStreamReader(XMLStreamReader reader, String systemId)
+        throws IOException, XdmMarshalException
+    {
+        PreCondition.assertNotNull(reader, "reader");
+        // same builder handling as parseEventReader, above.
+        FragmentBuilder<N> fb = (context != null) ? getBuilder() : builder;
+        fb.reset();
+        XmlStreamReaderVisitor visitor = new XmlStreamReaderVisitor(reader, fb);
+        if (systemId != null)
+            visitor.setSystemId(systemId);
+        try
+        {
+            visitor.parse();
+        }
+        catch (IOException ioe)
+        {
+            if (context != null)
+                builders.remove();
+            else
+                builder.reset();
+            throw ioe;
+        }
+        catch (XdmMarshalException xme)
+        {
+            if (context != null)
+                builders.remove();
+            else
+                builder.reset();
+            throw xme;
+        }
+        N result = fb.getNode();
+        if (context != null) // we're using thread-local builders
+            fb.reset(); // make the builder forget already. we don't do this when it's the member builder
+        return result;
+    }
+    
+    /** Configures an input factory as the document handlers use it: coalescing,
+     * replacing entity references, and without DTD or external entity support.
+     */
+    static void initInputFactory(XMLInputFactory ipf)
     {
         ipf.setProperty("javax.xml.stream.isCoalescing", true);
         ipf.setProperty("javax.xml.stream.isReplacingEntityReferences", true);
@@ -236,5 +312,6 @@ public class DefaultDocumentHandler<N>
     private final ProcessingContext<N> context;
     private ThreadLocal<FragmentBuilder<N>> builders = new ThreadLocal<FragmentBuilder<N>>();
     private Resolver resolver;
+    private boolean cursorParsing;
 
 }
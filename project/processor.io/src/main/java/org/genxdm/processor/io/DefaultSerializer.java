@@ -4,17 +4,20 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
+import org.genxdm.exceptions.GenXDMException;
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.exceptions.XdmMarshalException;
 import org.genxdm.io.ContentStreamer;
 import org.genxdm.io.DocumentWriter;
 import org.genxdm.io.SerializationParams;
+import org.genxdm.processor.output.ByteContentWriter;
 import org.genxdm.processor.output.ContentHandlerOnXmlStreamWriter;
 
 /** This is a simple mixin, though that isn't really possible in Java.
@@ -63,8 +66,32 @@ abstract class DefaultSerializer<N>
     public void write(final OutputStream byteStream, final N source, final SerializationParams config)
         throws IOException, XdmMarshalException
     {
-        // TODO: do something more useful than this; this is just a placeholder
-        write(byteStream, source, (config != null ? config.getEncoding() : null));
+        if (config == null)
+        {
+            write(byteStream, source, (String)null);
+            return;
+        }
+        PreCondition.assertNotNull(byteStream, "byteStream");
+        PreCondition.assertNotNull(source, "source");
+        // encode straight to bytes, into a buffer kept for the thread
+        ByteBuffer buffer = buffers.get();
+        if (buffer == null)
+        {
+            buffer = ByteBuffer.allocate(ByteContentWriter.DEFAULT_CAPACITY);
+            buffers.set(buffer);
+        }
+        ByteContentWriter writer = new ByteContentWriter(byteStream, config, buffer);
+        try
+        {
+            model.stream(source, writer);
+        }
+        catch (GenXDMException gxe)
+        {
+            if (gxe.getCause() instanceof IOException)
+                throw (IOException)gxe.getCause();
+            throw gxe;
+        }
+        writer.flush();
     }
 
     @Override
@@ -97,5 +124,6 @@ abstract class DefaultSerializer<N>
 
     protected final XMLOutputFactory opf;
     protected final ContentStreamer<N> model;
+    private final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>();
 
 }
@@ -22,12 +22,17 @@ import java.io.Reader;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLReporter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.exceptions.XdmMarshalException;
 import org.genxdm.io.Resolver;
+import org.genxdm.processor.input.XmlStreamReaderVisitor;
 import org.genxdm.typed.TypedContext;
+import org.genxdm.typed.ValidationHandler;
 import org.genxdm.typed.Validator;
 import org.genxdm.typed.ValidatorFactory;
 import org.genxdm.typed.io.SAXValidator;
@@ -38,6 +43,16 @@ import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 
+/** Parses and validates, building a typed tree.
+ * 
+ * By default, documents are read with a SAX parser and validated by a
+ * {@link SAXValidator}.  When constructed with a {@link ValidatorFactory},
+ * {@link #setCursorParsing(boolean)} selects an XMLStreamReader instead,
+ * pushed directly into the factory's {@link ValidationHandler}.
+ *
+ * @param <N> the node handle
+ * @param <A> the atom handle
+ */
 public class ValidatingDocumentHandler<N, A>
     extends TypeAwareSerializer<N, A>
     implements TypedDocumentHandler<N, A>
@@ -75,6 +90,20 @@ public class ValidatingDocumentHandler<N, A>
     public N parse(InputStream byteStream, String systemId)
         throws IOException, XdmMarshalException
     {
+        if (isCursorParsing())
+        {
+            PreCondition.assertNotNull(byteStream, "byteStream");
+            try
+            {
+                if (systemId == null)
+                    return parseStreamReader(ipf.createXMLStreamReader(byteStream), systemId);
+                return parseStreamReader(ipf.createXMLStreamReader(systemId, byteStream), systemId);
+            }
+            catch (XMLStreamException xse)
+            {
+                throw new XdmMarshalException(xse);
+            }
+        }
         final InputSource source = new InputSource(PreCondition.assertNotNull(byteStream, "byteStream"));
         if (systemId != null)
             source.setSystemId(systemId.toString());
@@ -85,6 +114,20 @@ public class ValidatingDocumentHandler<N, A>
     public N parse(Reader characterStream, String systemId)
         throws IOException, XdmMarshalException
     {
+        if (isCursorParsing())
+        {
+            PreCondition.assertNotNull(characterStream, "characterStream");
+            try
+            {
+                if (systemId == null)
+                    return parseStreamReader(ipf.createXMLStreamReader(characterStream), systemId);
+                return parseStreamReader(ipf.createXMLStreamReader(systemId, characterStream), systemId);
+            }
+            catch (XMLStreamException xse)
+            {
+                throw new XdmMarshalException(xse);
+            }
+        }
         final InputSource source = new InputSource(PreCondition.assertNotNull(characterStream, "characterStream"));
         if (systemId != null)
             source.setSystemId(systemId.toString());
@@ -95,6 +138,13 @@ public class ValidatingDocumentHandler<N, A>
     public N parse(InputSource source, String systemId)
         throws IOException, XdmMarshalException
     {
+        if (isCursorParsing())
+        {
+            if (source.getCharacterStream() != null)
+                return parse(source.getCharacterStream(), systemId);
+            if (source.getByteStream() != null)
+                return parse(source.getByteStream(), systemId);
+        }
         try
         {
             XMLReader reader = spf.newSAXParser().getXMLReader();
@@ -147,9 +197,33 @@ public class ValidatingDocumentHandler<N, A>
     {
         if (valFactory == null)
             return validator;
+        if (isCursorParsing())
+            return getLocalXdmValidator();
         return getLocalValidator();
     }
 
+    /** Select the input engine used by the parse methods.  The cursor engine
+     * is only available when this handler was constructed with a validator
+     * factory; otherwise, the SAX parser is always used.
+     * 
+     * @param cursor if true, parse with an XMLStreamReader; if false (the
+     * default), with a SAX parser.
+     */
+    public void setCursorParsing(boolean cursor)
+    {
+        if (cursor && (ipf == null))
+        {
+            ipf = XMLInputFactory.newInstance();
+            DefaultDocumentHandler.initInputFactory(ipf);
+        }
+        this.cursorParsing = cursor;
+    }
+
+    public boolean isCursorParsing()
+    {
+        return cursorParsing && (valFactory != null);
+    }
+
     /**
      * Using a SAX parser - just ask the parser if it is parsing securely.
      */
@@ -174,6 +248,39 @@ public class ValidatingDocumentHandler<N, A>
         this.reporter = reporter; // doesn't actually work usefully, though.
     }
     
+    protected N parseStreamReader(XMLStreamReader reader, String systemId)
+        throws IOException, XdmMarshalException
+    {
+        final SequenceBuilder<N, A> builder = getBuilder();
+        builder.reset();
+        final ValidationHandler<A> valley = getLocalXdmValidator();
+        valley.reset();
+        valley.setSchema(context.getSchema());
+        valley.setSequenceHandler(builder);
+        final XmlStreamReaderVisitor visitor = new XmlStreamReaderVisitor(reader, valley);
+        if (systemId != null)
+            visitor.setSystemId(systemId);
+        try
+        {
+            visitor.parse();
+        }
+        catch (XdmMarshalException xme)
+        {
+            xdmValidators.remove();
+            builders.remove();
+            throw xme;
+        }
+        catch (RuntimeException re)
+        {
+            xdmValidators.remove();
+            builders.remove();
+            throw re;
+        }
+        N result = builder.getNode();
+        builder.reset();
+        return result;
+    }
+    
     private SequenceBuilder<N, A> getBuilder()
     {
         SequenceBuilder<N, A> seqBer = builders.get();
@@ -198,6 +305,17 @@ public class ValidatingDocumentHandler<N, A>
         return val;
     }
 
+    private ValidationHandler<A> getLocalXdmValidator()
+    {
+        ValidationHandler<A> val = xdmValidators.get();
+        if (val == null)
+        {
+            val = valFactory.newXdmContentValidator();
+            xdmValidators.set(val);
+        }
+        return val;
+    }
+
     private final TypedContext<N, A> context;
     // only used in non-thread-safe mode
     private final SAXValidator<A> validator;
@@ -210,4 +328,8 @@ public class ValidatingDocumentHandler<N, A>
     
     private ThreadLocal<SequenceBuilder<N, A>> builders = new ThreadLocal<SequenceBuilder<N, A>>();
     private ThreadLocal<SAXValidator<A>> validators = new ThreadLocal<SAXValidator<A>>();
+    private ThreadLocal<ValidationHandler<A>> xdmValidators = new ThreadLocal<ValidationHandler<A>>();
+    
+    private XMLInputFactory ipf;
+    private boolean cursorParsing;
 }
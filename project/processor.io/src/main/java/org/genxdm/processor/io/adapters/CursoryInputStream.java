@@ -2,14 +2,22 @@ package org.genxdm.processor.io.adapters;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 
-import javax.xml.namespace.QName;
-
-import org.genxdm.NodeKind;
 import org.genxdm.Cursor;
 import org.genxdm.exceptions.PreCondition;
-import org.genxdm.processor.output.XmlEncoder;
 
+/** Consumes a cursor (not idempotent) to produce a byte stream conforming
+ * to the java.io.InputStream interface.
+ *
+ * The characters come from a {@link CursoryReader}, and are encoded a block
+ * at a time into a fixed buffer as they are read.
+ */
 public class CursoryInputStream
     extends InputStream
 {
@@ -17,25 +25,45 @@ public class CursoryInputStream
      * 
      * @param cursor the cursor over which the reader operates, initialized
      * to the desired starting position; may not be null.
+     * @param encoding the name of the encoding; if null or empty, UTF-8.
      */
     public CursoryInputStream(Cursor cursor, String encoding)
     {
-        this.cursor = PreCondition.assertNotNull(cursor, "cursor");
-        this.encoding = ( (encoding == null) || (encoding.trim().length() == 0) ) ? "UTF-8" : encoding; 
-        originId = cursor.getNodeId();
+        this.reader = new CursoryReader<Object>(PreCondition.assertNotNull(cursor, "cursor"));
+        String charset = ( (encoding == null) || (encoding.trim().length() == 0) ) ? "UTF-8" : encoding;
+        // as String.getBytes() would do it
+        this.encoder = Charset.forName(charset).newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        bytes.limit(0);
     }
 
     @Override
     public int read()
         throws IOException
     {
-        if ( (buffer == null) || (pointer >= (buffer.length - 1)) )
-            lurch();
-        if ( (buffer == null) || ( pointer == -1) )
+        if (!fill())
             return -1;
-        last = pointer; // it's not that i don't trust the jvm to do the right thing, it's just that i don't.
-        pointer++;
-        return buffer[last];
+        return bytes.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+        throws IOException
+    {
+        if ( (off < 0) || (len < 0) || (len > b.length - off) )
+            throw new IndexOutOfBoundsException();
+        if (len == 0)
+            return 0;
+        if (!fill())
+            return -1;
+        int actual = Math.min(len, bytes.remaining());
+        bytes.get(b, off, actual);
+        return actual;
+    }
+
+    @Override
+    public int available()
+    {
+        return bytes.remaining();
     }
 
     @Override
@@ -45,140 +73,46 @@ public class CursoryInputStream
         // do nothing
     }
     
-    /** Take the next step into the tree.
+    /** Insure that there are bytes left to read, encoding the next block
+     * of characters once the last block has been read.
      * 
+     * @return false if the subtree has been completely read.
      * @throws IOException
      */
-    private void lurch()
+    private boolean fill()
         throws IOException
     {
-        // we know that we haven't processed the current position yet,
-        // and that we should be on a child node.
-        NodeKind kind = cursor.getNodeKind();
-        switch (kind)
+        while (!bytes.hasRemaining())
         {
-            case DOCUMENT : // can only happen on startup
-            {
-                // nothing here to see; move along to the first child.
-                if (cursor.moveToFirstChild())
-                    lurch();
-                // otherwise, we've still got an empty builder
-                break;
-            }
-            case COMMENT :
-            {
-                builder.append("<!--" + cursor.getStringValue() + "-->");
-                if (cursor.hasNextSibling())
-                    cursor.moveToNextSibling();
-                else
-                    pop();
-                break;
-            }
-            case PROCESSING_INSTRUCTION :
-            {
-                builder.append("<?" + cursor.getLocalName() + " " + cursor.getStringValue() + "?>");
-                if (cursor.hasNextSibling())
-                    cursor.moveToNextSibling();
-                else
-                    pop();
-                break;
-            }
-            case TEXT :
+            if (flushed)
+                return false;
+            bytes.clear();
+            if (!ended)
             {
-                builder.append(encoder.encodePCData(cursor.getStringValue()));
-                if (cursor.hasNextSibling())
-                    cursor.moveToNextSibling();
+                // chars holds anything the encoder left last time (half a surrogate pair, say)
+                int count = reader.read(chars.array(), chars.position(), chars.remaining());
+                if (count == -1)
+                    ended = true;
                 else
-                    pop();
-                break;
+                    chars.position(chars.position() + count);
             }
-            case ELEMENT :
-            {
-                builder.append("<" + getQName(cursor.getPrefix(), cursor.getLocalName()));
-                if (cursor.hasNamespaces())
-                {
-                    for (String prefix : cursor.getNamespaceNames(false))
-                        builder.append(" xmlns" + (prefix.equals("") ? "" : ":" + prefix) + "=\"" + encoder.encodeCData(cursor.getNamespaceForPrefix(prefix)) + "\"");
-                }
-                if (cursor.hasAttributes())
-                {
-                    for (QName attribute : cursor.getAttributeNames(false))
-                        builder.append(" " + getQName(attribute.getPrefix(), attribute.getLocalPart()) + "=\"" + encoder.encodeCData(cursor.getAttributeStringValue(attribute.getNamespaceURI(), attribute.getLocalPart())) + "\"");
-                }
-                boolean moved = false;
-                if (!cursor.hasChildren())
-                    builder.append("/>");
-                else
-                {
-                    builder.append(">");
-                    moved = cursor.moveToFirstChild();
-                }
-                if (!moved)
-                {
-                    if (cursor.hasNextSibling())
-                        cursor.moveToNextSibling();
-                    else
-                        pop();
-                }
-                break;
-            }
-            // TODO: wait, maybe these two can be legal? just very short ...
-            case NAMESPACE : // can only happen on startup; broken
-            case ATTRIBUTE : // can only happen on startup; broken
-            default :
-            {
-                throw new IOException("Invalid state");
-            }
-        }
-        if (builder.length() > 0)
-        {
-            buffer = builder.toString().getBytes(encoding);
-            pointer = 0;
-            builder.delete(0, builder.length());
-        }
-        else
-        {
-            buffer = null;
-            pointer = -1;
+            chars.flip();
+            CoderResult result = encoder.encode(chars, bytes, ended);
+            chars.compact();
+            if (ended && !result.isOverflow())
+                flushed = encoder.flush(bytes).isUnderflow();
+            bytes.flip();
         }
-    }
-    
-    /** Step up, insuring that we don't step backwards.
-     * 
-     */
-    private void pop()
-    {
-        // we are inside a child node. there is no next sibling.
-        // we want to move up to the parent, and write its close tag.
-        // then we have to find the next thing to move to.
-        cursor.moveToParent();
-        if (cursor.getNodeKind() == NodeKind.DOCUMENT)
-            return; // there's no more pop possible; we're done
-        Object currentId = cursor.getNodeId();
-        builder.append("</" + getQName(cursor.getPrefix(), cursor.getLocalName()) + ">");
-        if (currentId.equals(originId))
-            return; // we're back to where we started; *don't* continue.
-        if (cursor.hasNextSibling())
-            cursor.moveToNextSibling();
-        else
-            pop();
+        return true;
     }
 
-    private String getQName(String prefix, String localName)
-    {
-        if ( (prefix != null) && !prefix.equals("") )
-            return prefix + ":" + localName;
-        return localName;
-    }
+    private final CursoryReader<Object> reader;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars = CharBuffer.allocate(BLOCK_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BLOCK_SIZE * 2);
 
-    private final Cursor cursor;
-    private final String encoding;
-    private final Object originId;
-    private final StringBuilder builder = new StringBuilder();
-    private final XmlEncoder encoder = new XmlEncoder();
-    
-    private int pointer = -1;
-    private int last = -1;
-    private byte [] buffer;
+    private boolean ended;
+    private boolean flushed;
 
+    private static final int BLOCK_SIZE = 4096;
 }
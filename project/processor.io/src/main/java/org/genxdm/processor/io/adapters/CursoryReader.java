@@ -9,11 +9,13 @@ import javax.xml.namespace.QName;
 import org.genxdm.Cursor;
 import org.genxdm.NodeKind;
 import org.genxdm.exceptions.PreCondition;
-import org.genxdm.processor.output.XmlEncoder;
 
 /** Consumes a cursor (not idempotent) to produce a character stream conforming
  * to the java.io.Reader interface.
  *
+ * The subtree is serialized a node at a time as it is read, so the memory
+ * held is bounded by the markup for the largest node, not the subtree.
+ *
  * @param <N> the node abstraction
  */
 public class CursoryReader<N>
@@ -67,18 +69,41 @@ public class CursoryReader<N>
     public int read(char[] cbuf, int off, int len)
         throws IOException
     {
-        if (builder.length() < len)
+        if ( (off < 0) || (len < 0) || (len > cbuf.length - off) )
+            throw new IndexOutOfBoundsException();
+        if (len == 0)
+            return 0;
+        synchronized (lock)
         {
-            lurch();
+            if (!fill())
+                return -1;
+            // return what's left of the current chunk, or as much of it as fits
+            int actual = Math.min(len, builder.length() - position);
+            builder.getChars(position, position + actual, cbuf, off);
+            position += actual;
+            return actual;
+        }
+    }
+
+    @Override
+    public int read()
+        throws IOException
+    {
+        synchronized (lock)
+        {
+            if (!fill())
+                return -1;
+            return builder.charAt(position++);
+        }
+    }
+
+    @Override
+    public boolean ready()
+    {
+        synchronized (lock)
+        {
+            return position < builder.length();
         }
-        int current = builder.length();
-        int actual = (current >= len) ? len : current;
-        if (actual == 0)
-            return -1;
-        // actual is the amount to copy (and return)
-        builder.getChars(0, actual, cbuf, off);
-        builder.delete(0, actual);
-        return actual;
     }
 
     @Override
@@ -88,6 +113,28 @@ public class CursoryReader<N>
         // do nothing
     }
     
+    /** Insure that there is something left to read in the current chunk,
+     * serializing the next node(s) once the last chunk has been read.  Only
+     * one chunk (the markup for a node, or the end tags that follow it) is
+     * held at a time, and characters are never moved once written.
+     * 
+     * @return false if the subtree has been completely read.
+     * @throws IOException
+     */
+    private boolean fill()
+        throws IOException
+    {
+        if (position < builder.length())
+            return true;
+        builder.setLength(0);
+        if (builder.capacity() > RETAINED_CAPACITY)
+            builder.trimToSize(); // don't hang on to the space for one very large text node
+        position = 0;
+        while ( (builder.length() == 0) && !complete)
+            lurch();
+        return builder.length() > 0;
+    }
+
     /** Take the next step into the tree.
      * 
      * @throws IOException
@@ -107,12 +154,13 @@ public class CursoryReader<N>
                 // nothing here to see; move along to the first child.
                 if (cursor.moveToFirstChild())
                     lurch();
-                // otherwise, we've still got an empty builder
+                else
+                    complete = true; // an empty document
                 break;
             }
             case COMMENT :
             {
-                builder.append("<!--" + cursor.getStringValue() + "-->");
+                builder.append("<!--").append(cursor.getStringValue()).append("-->");
                 if (originIsLeaf)
                 {
                     complete = true;
@@ -126,7 +174,7 @@ public class CursoryReader<N>
             }
             case PROCESSING_INSTRUCTION :
             {
-                builder.append("<?" + cursor.getLocalName() + " " + cursor.getStringValue() + "?>");
+                builder.append("<?").append(cursor.getLocalName()).append(' ').append(cursor.getStringValue()).append("?>");
                 if (originIsLeaf)
                 {
                     complete = true;
@@ -140,7 +188,7 @@ public class CursoryReader<N>
             }
             case TEXT :
             {
-                builder.append(encoder.encodePCData(cursor.getStringValue()));
+                appendEscaped(cursor.getStringValue(), false);
                 if (originIsLeaf)
                 {
                     complete = true;
@@ -154,14 +202,15 @@ public class CursoryReader<N>
             }
             case ELEMENT :
             {
-                builder.append("<" + getQName(cursor.getPrefix(), cursor.getLocalName()));
+                builder.append('<');
+                appendQName(cursor.getPrefix(), cursor.getLocalName());
                 if(cursor.hasNamespaces() || nsContext != null) 
                 {
                 	if(cursor.hasNamespaces()) 
                 	{
                 		for(String prefix : cursor.getNamespaceNames(false))
                 		{
-                            builder.append(" xmlns" + (prefix.equals("") ? "" : ":" + prefix) + "=\"" + encoder.encodeCData(cursor.getNamespaceForPrefix(prefix)) + "\"");
+                            appendNamespace(prefix, cursor.getNamespaceForPrefix(prefix));
                             if(nsContext != null) // ensure that an override in-scope doesn't cause exception
                             	nsContext.remove(prefix);
                 		}
@@ -170,7 +219,7 @@ public class CursoryReader<N>
                 	{
                 		for(String prefix : nsContext.keySet())
                 		{
-                            builder.append(" xmlns" + (prefix.equals("") ? "" : ":" + prefix) + "=\"" + encoder.encodeCData(nsContext.get(prefix)) + "\"");
+                            appendNamespace(prefix, nsContext.get(prefix));
                 		}
                 		nsContext = null;
                 	}
@@ -178,14 +227,20 @@ public class CursoryReader<N>
                 if (cursor.hasAttributes())
                 {
                     for (QName attribute : cursor.getAttributeNames(false))
-                        builder.append(" " + getQName(attribute.getPrefix(), attribute.getLocalPart()) + "=\"" + encoder.encodeCData(cursor.getAttributeStringValue(attribute.getNamespaceURI(), attribute.getLocalPart())) + "\"");
+                    {
+                        builder.append(' ');
+                        appendQName(attribute.getPrefix(), attribute.getLocalPart());
+                        builder.append("=\"");
+                        appendEscaped(cursor.getAttributeStringValue(attribute.getNamespaceURI(), attribute.getLocalPart()), true);
+                        builder.append('"');
+                    }
                 }
                 boolean moved = false;
                 if (!cursor.hasChildren())
                     builder.append("/>");
                 else
                 {
-                    builder.append(">");
+                    builder.append('>');
                     moved = cursor.moveToFirstChild();
                 }
                 // we can always move if there are children.
@@ -210,8 +265,8 @@ public class CursoryReader<N>
             {
                 if (originIsLeaf) // because otherwise, this is broken, invalid state
                 {
-                    final String prefix = cursor.getLocalName();
-                    builder.append("xmlns" + (prefix.equals("") ? "" : ":" + prefix) + "=\"" + encoder.encodeCData(cursor.getStringValue()) + "\"");
+                    appendNamespace(cursor.getLocalName(), cursor.getStringValue());
+                    builder.deleteCharAt(0); // no leading space for a lone declaration
                     complete = true;
                     break; // early return, no movement
                 }
@@ -221,7 +276,10 @@ public class CursoryReader<N>
             {
                 if (originIsLeaf) // because otherwise, this is broken, invalid state
                 {
-                    builder.append(getQName(cursor.getPrefix(), cursor.getLocalName()) + "=\"" + encoder.encodeCData(cursor.getStringValue()) + "\"");
+                    appendQName(cursor.getPrefix(), cursor.getLocalName());
+                    builder.append("=\"");
+                    appendEscaped(cursor.getStringValue(), true);
+                    builder.append('"');
                     complete = true;
                     break; // early return, no movement
                 }
@@ -251,7 +309,9 @@ public class CursoryReader<N>
         // check whether we've returned to original position
         Object currentId = cursor.getNodeId();
         // current position is always on an element
-        builder.append("</" + getQName(cursor.getPrefix(), cursor.getLocalName()) + ">");
+        builder.append("</");
+        appendQName(cursor.getPrefix(), cursor.getLocalName());
+        builder.append('>');
         if (currentId.equals(originId))
         {
             complete = true;
@@ -264,19 +324,78 @@ public class CursoryReader<N>
         
     }
 
-    private String getQName(String prefix, String localName)
+    private void appendQName(String prefix, String localName)
     {
         if ( (prefix != null) && !prefix.equals("") )
-            return prefix + ":" + localName;
-        return localName;
+            builder.append(prefix).append(':');
+        builder.append(localName);
+    }
+
+    private void appendNamespace(String prefix, String namespaceURI)
+    {
+        builder.append(" xmlns");
+        if (!prefix.equals(""))
+            builder.append(':').append(prefix);
+        builder.append("=\"");
+        appendEscaped(namespaceURI, true);
+        builder.append('"');
+    }
+
+    /** Append character data, escaped for content or for a (double-quoted)
+     * attribute value, in a single pass.
+     */
+    private void appendEscaped(String data, boolean isAttribute)
+    {
+        final int len = data.length();
+        int last = 0;
+        for (int i = 0; i < len; i++)
+        {
+            final char c = data.charAt(i);
+            final String entity;
+            switch (c)
+            {
+                case '&' :
+                    entity = "&amp;";
+                    break;
+                case '<' :
+                    entity = "&lt;";
+                    break;
+                case '>' :
+                    entity = "&gt;";
+                    break;
+                case '\r' :
+                    entity = "&#xD;";
+                    break;
+                case '"' :
+                    entity = isAttribute ? "&quot;" : null;
+                    break;
+                case '\n' :
+                    entity = isAttribute ? "&#xA;" : null;
+                    break;
+                case '\t' :
+                    entity = isAttribute ? "&#x9;" : null;
+                    break;
+                default :
+                    entity = null;
+            }
+            if (entity != null)
+            {
+                builder.append(data, last, i).append(entity);
+                last = i + 1;
+            }
+        }
+        builder.append(data, last, len);
     }
 
     private final Cursor cursor;
     private final Object originId;
     private final boolean originIsLeaf;
+    // the current chunk, and how much of it has been read
     private final StringBuilder builder = new StringBuilder();
-    private final XmlEncoder encoder = new XmlEncoder();
+    private int position;
     
     private boolean complete = false;
     private Map<String,String> nsContext;
+
+    private static final int RETAINED_CAPACITY = 8192;
 }
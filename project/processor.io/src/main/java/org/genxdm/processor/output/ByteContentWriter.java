@@ -0,0 +1,858 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import org.genxdm.exceptions.GenXDMException;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.io.ContentHandler;
+import org.genxdm.io.DtdAttributeKind;
+import org.genxdm.io.SerializationParams;
+import org.genxdm.processor.io.WhitespaceEmitter;
+
+/** A content handler that serializes straight to bytes.
+ *
+ * Markup and content are encoded into a byte buffer, which is written to
+ * the output stream when it fills; UTF-8 is encoded inline, and other
+ * encodings go through a CharsetEncoder.  Characters that the encoding
+ * cannot represent are written as character references, or are an error
+ * in names, comments and processing instructions.
+ *
+ * The serialization parameters honored are the encoding, byte order mark,
+ * XML declaration (version and standalone), doctype, indentation, CDATA
+ * section elements and character maps.  Namespaces used by element and
+ * attribute names but not declared in the events are declared where they
+ * are used.
+ *
+ * The buffer may be reused from one writer to the next, but a writer is
+ * for a single document on a single thread.
+ */
+public class ByteContentWriter
+    implements ContentHandler, WhitespaceEmitter
+{
+    public ByteContentWriter(final OutputStream output, final SerializationParams params)
+    {
+        this(output, params, null);
+    }
+
+    /**
+     * @param buffer the buffer to encode into, or null to allocate one; it must have a backing
+     * array of at least {@link #MINIMUM_CAPACITY} bytes, and its contents are overwritten.
+     * @throws GenXDMException if the parameters name an encoding the JVM does not support.
+     */
+    public ByteContentWriter(final OutputStream output, final SerializationParams params, final ByteBuffer buffer)
+    {
+        this.output = PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(params, "params");
+        if (buffer == null)
+            this.buffer = ByteBuffer.allocate(DEFAULT_CAPACITY);
+        else
+        {
+            PreCondition.assertTrue(buffer.hasArray() && (buffer.capacity() >= MINIMUM_CAPACITY), "buffer has an array of at least " + MINIMUM_CAPACITY + " bytes");
+            this.buffer = buffer;
+        }
+        this.buffer.clear();
+        bytes = this.buffer.array();
+        offset = this.buffer.arrayOffset();
+        capacity = this.buffer.capacity();
+
+        final String encoding = params.getEncoding();
+        final Charset cs;
+        if (encoding == null)
+            cs = Charset.forName("UTF-8");
+        else
+        {
+            try
+            {
+                if (!Charset.isSupported(encoding))
+                    throw new GenXDMException("Unsupported encoding " + encoding);
+            }
+            catch (IllegalCharsetNameException icne)
+            {
+                throw new GenXDMException("Unsupported encoding " + encoding, icne);
+            }
+            cs = Charset.forName(encoding);
+        }
+        charset = cs;
+        utf8 = cs.name().equals("UTF-8");
+        if (!utf8)
+        {
+            encoder = cs.newEncoder().onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+            // canEncode() resets an encoder, so stateful encodings need a second one to ask
+            probe = cs.newEncoder();
+            chars = CharBuffer.allocate(DEFAULT_CAPACITY);
+        }
+        else
+        {
+            encoder = null;
+            probe = null;
+            chars = null;
+        }
+
+        byteOrderMark = params.getByteOrderMark();
+        omitDeclaration = params.getOmitXMLDeclaration();
+        version = (params.getVersion() == null) ? "1.0" : params.getVersion();
+        standalone = params.getStandalone();
+        doctypePublic = params.getDoctypePublic();
+        doctypeSystem = params.getDoctypeSystem();
+        indent = params.getIndent();
+
+        final Iterable<QName> cdata = params.getCDataSectionElements();
+        if (cdata != null)
+        {
+            final Set<QName> names = new HashSet<QName>();
+            for (QName name : cdata)
+            {
+                names.add(name);
+            }
+            cdataElements = names.isEmpty() ? null : names;
+        }
+        else
+            cdataElements = null;
+
+        final Map<Character, String> maps = params.getUseCharacterMaps();
+        if ((maps != null) && !maps.isEmpty())
+        {
+            characterMap = maps;
+            mappedChars = new BitSet();
+            for (Character c : maps.keySet())
+            {
+                mappedChars.set(c.charValue());
+            }
+        }
+        else
+        {
+            characterMap = null;
+            mappedChars = null;
+        }
+    }
+
+    public void startDocument(final URI documentURI, final String docTypeDecl)
+        throws GenXDMException
+    {
+        try
+        {
+            startOutput();
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    public void endDocument()
+        throws GenXDMException
+    {
+        try
+        {
+            startOutput();
+            closeStartTag(false);
+            if (!utf8)
+                encodeChars(true);
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    public void startElement(final String namespaceURI, final String localName, final String prefix)
+        throws GenXDMException
+    {
+        PreCondition.assertNotNull(localName, "localName");
+        final String ns = (namespaceURI == null) ? XMLConstants.NULL_NS_URI : namespaceURI;
+        final String pfx = ((prefix == null) || (ns.length() == 0)) ? XMLConstants.DEFAULT_NS_PREFIX : prefix;
+        final String qname = (pfx.length() == 0) ? localName : pfx + ":" + localName;
+        try
+        {
+            startOutput();
+            closeStartTag(false);
+            if ((depth == 0) && (doctypeSystem != null) && !wroteDoctype)
+            {
+                indentBefore();
+                putAscii("<!DOCTYPE ");
+                write(qname, RAW);
+                if (doctypePublic != null)
+                {
+                    putAscii(" PUBLIC \"");
+                    write(doctypePublic, RAW);
+                    putAscii("\" \"");
+                }
+                else
+                    putAscii(" SYSTEM \"");
+                write(doctypeSystem, RAW);
+                putAscii("\">");
+                wroteDoctype = true;
+            }
+            indentBefore();
+            if (++depth == tagNames.length)
+            {
+                tagNames = Arrays.copyOf(tagNames, depth << 1);
+                flags = Arrays.copyOf(flags, depth << 1);
+                namespaceMarks = Arrays.copyOf(namespaceMarks, depth << 1);
+            }
+            tagNames[depth] = qname;
+            flags[depth] = ((cdataElements != null) && cdataElements.contains(new QName(ns, localName))) ? CDATA : 0;
+            namespaceMarks[depth] = namespaceCount;
+            elementNamespace = ns;
+            elementPrefix = pfx;
+            checkCount = 0;
+            putChar('<');
+            write(qname, RAW);
+            openedTag = true;
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    public void namespace(final String prefix, final String namespaceURI)
+        throws GenXDMException
+    {
+        if (!openedTag)
+            throw new GenXDMException("namespace " + prefix + " outside a start tag");
+        final String pfx = (prefix == null) ? XMLConstants.DEFAULT_NS_PREFIX : prefix;
+        if (pfx.equals(XMLConstants.XML_NS_PREFIX))
+            return;
+        // once on a start tag is enough; this one may have been declared for a name already
+        for (int i = namespaceMarks[depth]; i < namespaceCount; i++)
+        {
+            if (namespacePrefixes[i].equals(pfx))
+                return;
+        }
+        try
+        {
+            declare(pfx, (namespaceURI == null) ? XMLConstants.NULL_NS_URI : namespaceURI);
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    public void attribute(final String namespaceURI, final String localName, final String prefix, final String value, final DtdAttributeKind type)
+        throws GenXDMException
+    {
+        PreCondition.assertNotNull(localName, "localName");
+        PreCondition.assertNotNull(value, "value");
+        if (!openedTag)
+            throw new GenXDMException("attribute " + localName + " outside a start tag");
+        final String ns = (namespaceURI == null) ? XMLConstants.NULL_NS_URI : namespaceURI;
+        String pfx = ((prefix == null) || (ns.length() == 0)) ? XMLConstants.DEFAULT_NS_PREFIX : prefix;
+        try
+        {
+            if (ns.length() > 0)
+            {
+                if (pfx.length() == 0)
+                {
+                    // an attribute in a namespace needs a prefix; find one, or make one up
+                    pfx = prefixFor(ns);
+                    if (pfx == null)
+                    {
+                        do
+                        {
+                            pfx = "ns" + ++generatedPrefixes;
+                        }
+                        while (lookup(pfx) != null);
+                        declare(pfx, ns);
+                    }
+                }
+                else
+                {
+                    // the declaration may be yet to come; check at the end of the start tag
+                    if (checkCount * 2 == checks.length)
+                        checks = Arrays.copyOf(checks, checks.length << 1);
+                    checks[checkCount * 2] = pfx;
+                    checks[checkCount * 2 + 1] = ns;
+                    checkCount++;
+                }
+            }
+            putChar(' ');
+            if (pfx.length() > 0)
+            {
+                write(pfx, RAW);
+                putChar(':');
+            }
+            write(localName, RAW);
+            putAscii("=\"");
+            write(value, ATTRIBUTE);
+            putChar('"');
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    public void text(final String data)
+        throws GenXDMException
+    {
+        if ((data == null) || (data.length() == 0))
+            return;
+        try
+        {
+            startOutput();
+            closeStartTag(false);
+            flags[depth] |= MIXED;
+            if ((flags[depth] & CDATA) != 0)
+            {
+                putAscii("<![CDATA[");
+                write(data, CDATA_SECTION);
+                putAscii("]]>");
+            }
+            else
+                write(data, TEXT);
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    public void comment(final String value)
+        throws GenXDMException
+    {
+        try
+        {
+            startOutput();
+            closeStartTag(false);
+            indentBefore();
+            putAscii("<!--");
+            write(value, RAW);
+            putAscii("-->");
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    public void processingInstruction(final String target, final String data)
+        throws GenXDMException
+    {
+        PreCondition.assertNotNull(target, "target");
+        try
+        {
+            startOutput();
+            closeStartTag(false);
+            indentBefore();
+            putAscii("<?");
+            write(target, RAW);
+            if ((data != null) && (data.length() > 0))
+            {
+                putChar(' ');
+                write(data, RAW);
+            }
+            putAscii("?>");
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    public void endElement()
+        throws GenXDMException
+    {
+        try
+        {
+            if (openedTag)
+                closeStartTag(true);
+            else
+            {
+                if (indent && ((flags[depth] & (CHILD | MIXED)) == CHILD))
+                    newline(depth - 1);
+                putAscii("</");
+                write(tagNames[depth], RAW);
+                putChar('>');
+            }
+            tagNames[depth] = null;
+            namespaceCount = namespaceMarks[depth];
+            depth--;
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    public void newline()
+    {
+        try
+        {
+            startOutput();
+            closeStartTag(false);
+            putChar('\n');
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    public void whitespace(final int nSpaces)
+    {
+        try
+        {
+            startOutput();
+            closeStartTag(false);
+            for (int i = 0; i < nSpaces; i++)
+            {
+                putChar(' ');
+            }
+        }
+        catch (IOException ioe)
+        {
+            throw new GenXDMException(ioe);
+        }
+    }
+
+    /**
+     * Writes what has been buffered to the output stream, and flushes it.  The encoder is
+     * flushed as well, returning a stateful encoding to its initial shift state.
+     */
+    public void flush()
+        throws IOException
+    {
+        if (!utf8)
+            encodeChars(true);
+        drain();
+        output.flush();
+    }
+
+    public void close()
+        throws IOException
+    {
+        flush();
+        output.close();
+    }
+
+    private void startOutput()
+        throws IOException
+    {
+        if (started)
+            return;
+        started = true;
+        // the UTF-16 encoder writes its own
+        if (byteOrderMark && !charset.name().equals("UTF-16"))
+            write("\uFEFF", RAW);
+        if (!omitDeclaration)
+        {
+            putAscii("<?xml version=\"");
+            putAscii(version);
+            putAscii("\" encoding=\"");
+            putAscii(charset.name());
+            putChar('"');
+            if (standalone == SerializationParams.Standalone.YES)
+                putAscii(" standalone=\"yes\"");
+            else if (standalone == SerializationParams.Standalone.NO)
+                putAscii(" standalone=\"no\"");
+            putAscii("?>");
+            flags[0] |= CHILD;
+        }
+    }
+
+    private void closeStartTag(final boolean empty)
+        throws IOException
+    {
+        if (!openedTag)
+            return;
+        openedTag = false;
+        if (!isBound(elementPrefix, elementNamespace))
+            declare(elementPrefix, elementNamespace);
+        for (int i = 0; i < checkCount; i++)
+        {
+            if (!isBound(checks[i * 2], checks[i * 2 + 1]))
+                declare(checks[i * 2], checks[i * 2 + 1]);
+        }
+        if (empty)
+            putAscii("/>");
+        else
+            putChar('>');
+    }
+
+    // a new line before markup, unless in mixed content
+    private void indentBefore()
+        throws IOException
+    {
+        if (indent && ((flags[depth] & MIXED) == 0) && ((depth > 0) || ((flags[0] & CHILD) != 0)))
+            newline(depth);
+        flags[depth] |= CHILD;
+    }
+
+    private void newline(final int level)
+        throws IOException
+    {
+        putChar('\n');
+        for (int i = 0; i < level * INDENT; i++)
+        {
+            putChar(' ');
+        }
+    }
+
+    private void declare(final String prefix, final String namespaceURI)
+        throws IOException
+    {
+        if (namespaceCount == namespacePrefixes.length)
+        {
+            namespacePrefixes = Arrays.copyOf(namespacePrefixes, namespaceCount << 1);
+            namespaceURIs = Arrays.copyOf(namespaceURIs, namespaceCount << 1);
+        }
+        namespacePrefixes[namespaceCount] = prefix;
+        namespaceURIs[namespaceCount++] = namespaceURI;
+        putAscii(" xmlns");
+        if (prefix.length() > 0)
+        {
+            putChar(':');
+            write(prefix, RAW);
+        }
+        putAscii("=\"");
+        write(namespaceURI, ATTRIBUTE);
+        putChar('"');
+    }
+
+    private String lookup(final String prefix)
+    {
+        for (int i = namespaceCount - 1; i >= 0; i--)
+        {
+            if (namespacePrefixes[i].equals(prefix))
+                return namespaceURIs[i];
+        }
+        if (prefix.length() == 0)
+            return XMLConstants.NULL_NS_URI;
+        return null;
+    }
+
+    private boolean isBound(final String prefix, final String namespaceURI)
+    {
+        return prefix.equals(XMLConstants.XML_NS_PREFIX) || namespaceURI.equals(lookup(prefix));
+    }
+
+    // a non-empty prefix in scope for the namespace
+    private String prefixFor(final String namespaceURI)
+    {
+        for (int i = namespaceCount - 1; i >= 0; i--)
+        {
+            final String prefix = namespacePrefixes[i];
+            if ((prefix.length() > 0) && namespaceURIs[i].equals(namespaceURI) && namespaceURI.equals(lookup(prefix)))
+                return prefix;
+        }
+        return null;
+    }
+
+    /** Write a string, escaped as the mode requires. */
+    private void write(final String data, final int mode)
+        throws IOException
+    {
+        final String[] escapes = (mode == TEXT) ? TEXT_ESCAPES : (mode == ATTRIBUTE) ? ATTRIBUTE_ESCAPES : null;
+        final boolean mapping = (characterMap != null) && (escapes != null);
+        final int length = data.length();
+        for (int i = 0; i < length; i++)
+        {
+            final char c = data.charAt(i);
+            if (mapping && mappedChars.get(c))
+            {
+                write(characterMap.get(c), RAW);
+                continue;
+            }
+            if (c < 0x80)
+            {
+                if (escapes != null)
+                {
+                    final String escape = escapes[c];
+                    if (escape != null)
+                    {
+                        if (escape == ILLEGAL)
+                            throw illegal(c);
+                        putAscii(escape);
+                        continue;
+                    }
+                }
+                else if ((c < 0x20) && (c != '\t') && (c != '\n') && (c != '\r'))
+                    throw illegal(c);
+                else if ((mode == CDATA_SECTION) && (c == '>') && (i >= 2) && (data.charAt(i - 1) == ']') && (data.charAt(i - 2) == ']'))
+                {
+                    // split the section between the brackets and the '>'
+                    putAscii("]]><![CDATA[");
+                }
+                if (utf8)
+                {
+                    if (count == capacity)
+                        drain();
+                    bytes[offset + count++] = (byte)c;
+                }
+                else
+                    putChar(c);
+                continue;
+            }
+            int codePoint = c;
+            if (Character.isSurrogate(c))
+            {
+                if (Character.isHighSurrogate(c) && (i + 1 < length) && Character.isLowSurrogate(data.charAt(i + 1)))
+                    codePoint = Character.toCodePoint(c, data.charAt(++i));
+                else
+                    throw illegal(c);
+            }
+            if (utf8 || canEncode(codePoint))
+                putCodePoint(codePoint);
+            else if (mode == RAW)
+                throw new GenXDMException("Char 0x" + XmlEncoder.toHexString(codePoint) + " cannot be represented in " + charset.name() + " here");
+            else if (mode == CDATA_SECTION)
+            {
+                putAscii("]]>&#x");
+                putAscii(XmlEncoder.toHexString(codePoint));
+                putAscii(";<![CDATA[");
+            }
+            else
+            {
+                putAscii("&#x");
+                putAscii(XmlEncoder.toHexString(codePoint));
+                putChar(';');
+            }
+        }
+    }
+
+    // markup, which is all in the ASCII range
+    private void putAscii(final String markup)
+        throws IOException
+    {
+        final int length = markup.length();
+        for (int i = 0; i < length; i++)
+        {
+            putChar(markup.charAt(i));
+        }
+    }
+
+    private void putChar(final char c)
+        throws IOException
+    {
+        if (utf8)
+        {
+            if (count == capacity)
+                drain();
+            bytes[offset + count++] = (byte)c;
+        }
+        else
+        {
+            if (!chars.hasRemaining())
+                encodeChars(false);
+            chars.put(c);
+        }
+    }
+
+    private void putCodePoint(final int codePoint)
+        throws IOException
+    {
+        if (utf8)
+        {
+            if (count + 4 > capacity)
+                drain();
+            final int at = offset + count;
+            if (codePoint < 0x80)
+            {
+                bytes[at] = (byte)codePoint;
+                count += 1;
+            }
+            else if (codePoint < 0x800)
+            {
+                bytes[at] = (byte)(0xC0 | (codePoint >> 6));
+                bytes[at + 1] = (byte)(0x80 | (codePoint & 0x3F));
+                count += 2;
+            }
+            else if (codePoint < 0x10000)
+            {
+                bytes[at] = (byte)(0xE0 | (codePoint >> 12));
+                bytes[at + 1] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[at + 2] = (byte)(0x80 | (codePoint & 0x3F));
+                count += 3;
+            }
+            else
+            {
+                bytes[at] = (byte)(0xF0 | (codePoint >> 18));
+                bytes[at + 1] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[at + 2] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[at + 3] = (byte)(0x80 | (codePoint & 0x3F));
+                count += 4;
+            }
+        }
+        else
+        {
+            if (chars.remaining() < 2)
+                encodeChars(false);
+            if (codePoint < 0x10000)
+                chars.put((char)codePoint);
+            else
+                chars.put(Character.toChars(codePoint));
+        }
+    }
+
+    private boolean canEncode(final int codePoint)
+    {
+        if (codePoint < 0x80)
+            return true;
+        if (codePoint < 0x10000)
+            return probe.canEncode((char)codePoint);
+        return probe.canEncode(new String(Character.toChars(codePoint)));
+    }
+
+    // the characters staged for the encoder go into the byte buffer
+    private void encodeChars(final boolean endOfInput)
+        throws IOException
+    {
+        if ((chars.position() == 0) && !endOfInput)
+            return;
+        chars.flip();
+        CoderResult result;
+        do
+        {
+            buffer.position(count);
+            result = encoder.encode(chars, buffer, endOfInput);
+            count = buffer.position();
+            if (result.isOverflow())
+                drain();
+            else if (result.isError())
+                result.throwException();
+        }
+        while (result.isOverflow());
+        chars.compact();
+        if (endOfInput)
+        {
+            do
+            {
+                buffer.position(count);
+                result = encoder.flush(buffer);
+                count = buffer.position();
+                if (result.isOverflow())
+                    drain();
+            }
+            while (result.isOverflow());
+            encoder.reset();
+        }
+    }
+
+    private void drain()
+        throws IOException
+    {
+        if (count > 0)
+            output.write(bytes, offset, count);
+        count = 0;
+    }
+
+    private static GenXDMException illegal(final int c)
+    {
+        return new GenXDMException("Char 0x" + XmlEncoder.toHexString(c) + " cannot be used in XML");
+    }
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int MINIMUM_CAPACITY = 64;
+
+    private final OutputStream output;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private final int offset;
+    private final int capacity;
+    private int count;
+
+    private final Charset charset;
+    private final boolean utf8;
+    private final CharsetEncoder encoder;
+    private final CharsetEncoder probe;
+    private final CharBuffer chars;
+
+    private final boolean byteOrderMark;
+    private final boolean omitDeclaration;
+    private final String version;
+    private final SerializationParams.Standalone standalone;
+    private final String doctypePublic;
+    private final String doctypeSystem;
+    private final boolean indent;
+    private final Set<QName> cdataElements;
+    private final Map<Character, String> characterMap;
+    private final BitSet mappedChars;
+
+    private boolean started;
+    private boolean wroteDoctype;
+    private boolean openedTag;
+    private String elementNamespace;
+    private String elementPrefix;
+    // prefix, namespace pairs of the attributes of the open start tag
+    private String[] checks = new String[8];
+    private int checkCount;
+
+    // for each open element, and the document at depth zero
+    private int depth;
+    private String[] tagNames = new String[16];
+    private int[] flags = new int[16];
+    private int[] namespaceMarks = new int[16];
+
+    private String[] namespacePrefixes = new String[16];
+    private String[] namespaceURIs = new String[16];
+    private int namespaceCount;
+    private int generatedPrefixes;
+
+    // modes of write()
+    private static final int RAW = 0;
+    private static final int TEXT = 1;
+    private static final int ATTRIBUTE = 2;
+    private static final int CDATA_SECTION = 3;
+
+    // flags for each open element
+    private static final int CHILD = 1;
+    private static final int MIXED = 2;
+    private static final int CDATA = 4;
+
+    private static final int INDENT = 2;
+
+    private static final String ILLEGAL = new String("illegal");
+    private static final String[] TEXT_ESCAPES = new String[0x80];
+    private static final String[] ATTRIBUTE_ESCAPES = new String[0x80];
+    static
+    {
+        for (int c = 0; c < 0x20; c++)
+        {
+            TEXT_ESCAPES[c] = ILLEGAL;
+        }
+        TEXT_ESCAPES['\t'] = null;
+        TEXT_ESCAPES['\n'] = null;
+        TEXT_ESCAPES['\r'] = "&#xD;";
+        TEXT_ESCAPES['&'] = "&amp;";
+        TEXT_ESCAPES['<'] = "&lt;";
+        TEXT_ESCAPES['>'] = "&gt;";
+        System.arraycopy(TEXT_ESCAPES, 0, ATTRIBUTE_ESCAPES, 0, 0x80);
+        ATTRIBUTE_ESCAPES['\t'] = "&#x9;";
+        ATTRIBUTE_ESCAPES['\n'] = "&#xA;";
+        ATTRIBUTE_ESCAPES['"'] = "&quot;";
+    }
+}
@@ -16,14 +16,13 @@
 package org.genxdm.processor.w3c.xs.validation;
 
 import java.net.URI;
-import java.util.LinkedList;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
 
 import org.genxdm.bridgekit.misc.StringToURIParser;
 import org.genxdm.exceptions.PreCondition;
-import org.genxdm.processor.w3c.xs.validation.api.VxMapping;
+import org.genxdm.processor.w3c.xs.validation.api.VxAttributeBuffer;
 import org.genxdm.processor.w3c.xs.validation.api.VxValidator;
 import org.genxdm.typed.io.SAXValidator;
 import org.genxdm.typed.io.SequenceHandler;
@@ -155,8 +154,6 @@ public final class SAXContentValidatorImpl<A> implements SAXValidator<A>
 	    // name in qName.  this sort of needs to be handled, eh?
 	    final String ns = (uri == null) ? "" : uri;
 	    final String name = ( (localName == null) || (localName.length() == 0)) ? getLocalPart(qName) : localName;
-		m_attributes.clear();
-
 		if ((attributes != null ) && (attributes.getLength() > 0))
 		{
 			for (int i = 0; i < attributes.getLength(); i++)
@@ -174,15 +171,13 @@ public final class SAXContentValidatorImpl<A> implements SAXValidator<A>
 					final String attributePH = getPrefix(attributeQN);
 					final String attributeSV = attributes.getValue(i);
 
-					final QName aqName = new QName(attributeNS, attributeLN, attributePH);
-
-					m_attributes.add(new VxMapping<QName, String>(aqName, attributeSV));
+					m_attributes.addAttribute(attributeNS, attributeLN, attributePH, attributeSV);
 				}
 			}
 		}
 		try
 		{
-			m_kernel.startElement(new QName(ns, name, getPrefix(qName)), m_namespaces, m_attributes, null);
+			m_kernel.startElement(new QName(ns, name, getPrefix(qName)), m_attributes, null);
 		}
 		catch (final Exception e)
 		{
@@ -191,7 +186,6 @@ public final class SAXContentValidatorImpl<A> implements SAXValidator<A>
 		}
 		finally
 		{
-			m_namespaces.clear();
 			m_attributes.clear();
 		}
 	}
@@ -199,7 +193,7 @@ public final class SAXContentValidatorImpl<A> implements SAXValidator<A>
     @Override
 	public void startPrefixMapping(final String prefix, final String uri)
 	{
-		m_namespaces.add(new VxMapping<String, String>(prefix, uri));
+		m_attributes.addNamespace(prefix, uri);
 	}
 
     @Override
@@ -272,11 +266,10 @@ public final class SAXContentValidatorImpl<A> implements SAXValidator<A>
      */
     private static final String XMLNS_COLON = XMLConstants.XMLNS_ATTRIBUTE + ":";
 
-    private final LinkedList<VxMapping<QName, String>> m_attributes = new LinkedList<VxMapping<QName, String>>();
+    // the prefix mappings started for the next element, and its attributes
+    private final VxAttributeBuffer m_attributes = new VxAttributeBuffer();
     private final VxValidator<A> m_kernel;
     private Locator m_locator;
     private SchemaExceptionHandler errors;
 
-    private final LinkedList<VxMapping<String, String>> m_namespaces = new LinkedList<VxMapping<String, String>>();
-
 }
@@ -15,6 +15,11 @@
  */
 package org.genxdm.processor.w3c.xs.validation;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.xml.namespace.QName;
+
 import org.genxdm.processor.w3c.xs.validation.api.VxValidator;
 import org.genxdm.processor.w3c.xs.validation.api.VxValidatorFactory;
 import org.genxdm.processor.w3c.xs.validation.impl.ValidationFactoryImpl;
@@ -40,6 +45,20 @@ public final class ValidatorFactory<N, A>
         return new XdmContentValidatorImpl<A>(kernel, atomBridge);
     }
 
+    /**
+     * Returns a validation handler that validates the subtrees of the elements at the end of a path, such as the
+     * records of <code>/batch/record</code>, in parallel on the pool; the annotations and errors come out in document
+     * order, as they do from {@link #newXdmContentValidator()}.
+     *
+     * @param forkPath
+     *            the names of the elements from the document element down to the repeating element; at least two.
+     */
+    public ValidationHandler<A> newParallelXdmContentValidator(final List<QName> forkPath, final ForkJoinPool pool)
+    {
+        final VxValidator<A> kernel = factory.newParallelValidator(atomBridge, forkPath, pool);
+        return new XdmContentValidatorImpl<A>(kernel, atomBridge);
+    }
+
     @Override
     public SAXValidator<A> newSAXContentValidator()
     {
@@ -53,6 +72,16 @@ public final class ValidatorFactory<N, A>
         return this;
     }
 
+    /**
+     * Sets the number of bytes of xs:key, xs:unique and xs:keyref tuples that each scope of the validators made from
+     * now on keeps on the heap; beyond it, the tuples spill to a memory-mapped temporary file. The default is 64MB.
+     */
+    public ValidatorFactory<N, A> identitySpillThreshold(final long bytes)
+    {
+        factory.setIdentitySpillThreshold(bytes);
+        return this;
+    }
+
     private final AtomBridge<A> atomBridge;
     private final VxValidatorFactory factory;
 }
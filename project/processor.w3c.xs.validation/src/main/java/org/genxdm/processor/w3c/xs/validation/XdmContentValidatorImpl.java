@@ -17,14 +17,13 @@ package org.genxdm.processor.w3c.xs.validation;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.LinkedList;
 import java.util.List;
 
 import javax.xml.namespace.QName;
 
 import org.genxdm.exceptions.GenXDMException;
 import org.genxdm.io.DtdAttributeKind;
-import org.genxdm.processor.w3c.xs.validation.api.VxMapping;
+import org.genxdm.processor.w3c.xs.validation.api.VxAttributeBuffer;
 import org.genxdm.processor.w3c.xs.validation.api.VxValidator;
 import org.genxdm.typed.ValidationHandler;
 import org.genxdm.typed.io.SequenceHandler;
@@ -48,13 +47,13 @@ final class XdmContentValidatorImpl<A> implements ValidationHandler<A>
 	{
 		// TODO: We don't want to throw the value away.
 		final String strval = Emulation.C14N.atomsToString(data, atomBridge);
-		m_attributes.add(new VxMapping<QName, String>(new QName(namespaceURI, localName, prefix), strval));
+		m_attributes.addAttribute(namespaceURI, localName, prefix, strval);
 	}
 	
     @Override
 	public void attribute(final String namespaceURI, final String localName, final String prefix, final String untypedAtomic, final DtdAttributeKind type) throws GenXDMException
 	{
-		m_attributes.add(new VxMapping<QName, String>(new QName(namespaceURI, localName, prefix), untypedAtomic));
+		m_attributes.addAttribute(namespaceURI, localName, prefix, untypedAtomic);
 	}
 
     @Override
@@ -111,7 +110,7 @@ final class XdmContentValidatorImpl<A> implements ValidationHandler<A>
             try
             {
                 // if m_elementType is non-null, do an ignore-the-element-name validation
-                kernel.startElement(m_elementName, m_namespaces, m_attributes, m_elementType);
+                kernel.startElement(m_elementName, m_attributes, m_elementType);
             }
             catch (final IOException ioe)
             {
@@ -123,8 +122,7 @@ final class XdmContentValidatorImpl<A> implements ValidationHandler<A>
             }
             m_elementType = null; // usually null anyway
             m_elementName = null; // reset for next in doc orde
-            m_namespaces.clear(); // done with these
-            m_attributes.clear(); // done with these, too
+            m_attributes.clear(); // done with these
         }
         // if we have an element without a name, we should prolly become quite angry
 	}
@@ -132,7 +130,7 @@ final class XdmContentValidatorImpl<A> implements ValidationHandler<A>
     @Override
 	public void namespace(final String prefix, final String namespaceURI) throws GenXDMException
 	{
-		m_namespaces.add(new VxMapping<String, String>(prefix, namespaceURI));
+		m_attributes.addNamespace(prefix, namespaceURI);
 	}
 
     @Override
@@ -259,11 +257,11 @@ final class XdmContentValidatorImpl<A> implements ValidationHandler<A>
     private VxValidator<A> kernel;
 
     private final AtomBridge<A> atomBridge;
-    private final LinkedList<VxMapping<QName, String>> m_attributes = new LinkedList<VxMapping<QName, String>>();
+    // the namespaces and attributes of the element that has yet to be passed to the validation kernel
+    private final VxAttributeBuffer m_attributes = new VxAttributeBuffer();
     // The name of the element that has yet to be passed to the validation kernel
     // because we are buffering namespace and attribute events.
     private QName m_elementName = null;
     private QName m_elementType = null; // only used once!
-    private final LinkedList<VxMapping<String, String>> m_namespaces = new LinkedList<VxMapping<String, String>>();
 
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.validation.api;
+
+import java.util.Arrays;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import org.genxdm.exceptions.PreCondition;
+
+/**
+ * The namespace declarations and attributes of one element, held in parallel arrays that are addressed by index. <br/>
+ * A buffer is meant to be filled for an element, passed to
+ * {@link VxValidator#startElement(QName, VxAttributeBuffer, QName)} and cleared, over and over; it grows to the largest
+ * element and then allocates nothing. The name of an attribute is made into a {@link QName} only when asked for, and
+ * is kept for the next element that has the same attribute in the same place.
+ */
+public final class VxAttributeBuffer
+{
+	public VxAttributeBuffer()
+	{
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * A copy of the buffer, which does not change when the buffer does.
+	 */
+	public VxAttributeBuffer(final VxAttributeBuffer buffer)
+	{
+		this(Math.max(Math.max(buffer.m_attributeCount, buffer.m_namespaceCount), 1));
+		for (int i = 0; i < buffer.m_namespaceCount; i++)
+		{
+			addNamespace(buffer.m_declaredPrefixes[i], buffer.m_declaredURIs[i]);
+		}
+		for (int i = 0; i < buffer.m_attributeCount; i++)
+		{
+			addAttribute(buffer.m_namespaceURIs[i], buffer.m_localNames[i], buffer.m_prefixes[i], buffer.m_values[i]);
+			m_names[i] = buffer.m_names[i];
+		}
+	}
+
+	private VxAttributeBuffer(final int capacity)
+	{
+		m_namespaceURIs = new String[capacity];
+		m_localNames = new String[capacity];
+		m_prefixes = new String[capacity];
+		m_values = new String[capacity];
+		m_names = new QName[capacity];
+		m_declaredPrefixes = new String[capacity];
+		m_declaredURIs = new String[capacity];
+	}
+
+	/**
+	 * Adds an attribute. The prefix may be null, for none.
+	 */
+	public void addAttribute(final String namespaceURI, final String localName, final String prefix, final String value)
+	{
+		PreCondition.assertArgumentNotNull(namespaceURI, "namespaceURI");
+		PreCondition.assertArgumentNotNull(localName, "localName");
+		if (m_attributeCount == m_values.length)
+		{
+			growAttributes();
+		}
+		final int index = m_attributeCount++;
+		final QName name = m_names[index];
+		if ((name != null) && !(localName.equals(name.getLocalPart()) && namespaceURI.equals(name.getNamespaceURI()) && name.getPrefix().equals((prefix == null) ? XMLConstants.DEFAULT_NS_PREFIX : prefix)))
+		{
+			m_names[index] = null;
+		}
+		m_namespaceURIs[index] = namespaceURI;
+		m_localNames[index] = localName;
+		m_prefixes[index] = prefix;
+		m_values[index] = value;
+	}
+
+	/**
+	 * Adds an attribute whose name is already a {@link QName}.
+	 */
+	public void addAttribute(final QName name, final String value)
+	{
+		PreCondition.assertArgumentNotNull(name, "name");
+		addAttribute(name.getNamespaceURI(), name.getLocalPart(), name.getPrefix(), value);
+		m_names[m_attributeCount - 1] = name;
+	}
+
+	public void addNamespace(final String prefix, final String namespaceURI)
+	{
+		if (m_namespaceCount == m_declaredPrefixes.length)
+		{
+			final int capacity = m_declaredPrefixes.length * 2;
+			m_declaredPrefixes = Arrays.copyOf(m_declaredPrefixes, capacity);
+			m_declaredURIs = Arrays.copyOf(m_declaredURIs, capacity);
+		}
+		m_declaredPrefixes[m_namespaceCount] = prefix;
+		m_declaredURIs[m_namespaceCount] = namespaceURI;
+		m_namespaceCount++;
+	}
+
+	/**
+	 * Empties the buffer, keeping its arrays, and the names of its attributes, for the next element.
+	 */
+	public void clear()
+	{
+		Arrays.fill(m_values, 0, m_attributeCount, null);
+		m_attributeCount = 0;
+		m_namespaceCount = 0;
+	}
+
+	public int getAttributeCount()
+	{
+		return m_attributeCount;
+	}
+
+	public String getNamespaceURI(final int index)
+	{
+		return m_namespaceURIs[checkAttribute(index)];
+	}
+
+	public String getLocalName(final int index)
+	{
+		return m_localNames[checkAttribute(index)];
+	}
+
+	/**
+	 * @return the prefix of the attribute, or null if none was given.
+	 */
+	public String getPrefix(final int index)
+	{
+		return m_prefixes[checkAttribute(index)];
+	}
+
+	public String getValue(final int index)
+	{
+		return m_values[checkAttribute(index)];
+	}
+
+	/**
+	 * The name of the attribute, made when first asked for.
+	 */
+	public QName getName(final int index)
+	{
+		checkAttribute(index);
+		QName name = m_names[index];
+		if (name == null)
+		{
+			final String prefix = m_prefixes[index];
+			name = new QName(m_namespaceURIs[index], m_localNames[index], (prefix == null) ? XMLConstants.DEFAULT_NS_PREFIX : prefix);
+			m_names[index] = name;
+		}
+		return name;
+	}
+
+	public int getNamespaceCount()
+	{
+		return m_namespaceCount;
+	}
+
+	/**
+	 * The prefix of a namespace declaration.
+	 */
+	public String getDeclaredPrefix(final int index)
+	{
+		PreCondition.assertTrue((index >= 0) && (index < m_namespaceCount), "index");
+		return m_declaredPrefixes[index];
+	}
+
+	/**
+	 * The namespace URI of a namespace declaration.
+	 */
+	public String getDeclaredNamespaceURI(final int index)
+	{
+		PreCondition.assertTrue((index >= 0) && (index < m_namespaceCount), "index");
+		return m_declaredURIs[index];
+	}
+
+	@Override
+	public String toString()
+	{
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < m_namespaceCount; i++)
+		{
+			sb.append(m_declaredPrefixes[i]).append(" => ").append(m_declaredURIs[i]).append('\n');
+		}
+		for (int i = 0; i < m_attributeCount; i++)
+		{
+			sb.append(getName(i)).append(" => ").append(m_values[i]).append('\n');
+		}
+		return sb.toString();
+	}
+
+	private int checkAttribute(final int index)
+	{
+		PreCondition.assertTrue((index >= 0) && (index < m_attributeCount), "index");
+		return index;
+	}
+
+	private void growAttributes()
+	{
+		final int capacity = m_values.length * 2;
+		m_namespaceURIs = Arrays.copyOf(m_namespaceURIs, capacity);
+		m_localNames = Arrays.copyOf(m_localNames, capacity);
+		m_prefixes = Arrays.copyOf(m_prefixes, capacity);
+		m_values = Arrays.copyOf(m_values, capacity);
+		m_names = Arrays.copyOf(m_names, capacity);
+	}
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	private String[] m_namespaceURIs;
+	private String[] m_localNames;
+	private String[] m_prefixes;
+	private String[] m_values;
+	// the names made so far, kept across elements while they still match
+	private QName[] m_names;
+	private int m_attributeCount;
+
+	private String[] m_declaredPrefixes;
+	private String[] m_declaredURIs;
+	private int m_namespaceCount;
+}
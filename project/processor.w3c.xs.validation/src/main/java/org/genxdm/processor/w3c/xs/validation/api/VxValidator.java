@@ -48,5 +48,11 @@ public interface VxValidator<A>
     
     void startElement(final QName elementName, final LinkedList<VxMapping<String, String>> namespaces, final LinkedList<VxMapping<QName, String>> attributes, final QName elementType) throws IOException, AbortException;
 
+    /**
+     * Starts an element whose namespace declarations and attributes are in a buffer, which the caller may clear and
+     * fill again as soon as this returns.
+     */
+    void startElement(final QName elementName, final VxAttributeBuffer attributes, final QName elementType) throws IOException, AbortException;
+
     void text(List<? extends A> value) throws IOException, AbortException;
 }
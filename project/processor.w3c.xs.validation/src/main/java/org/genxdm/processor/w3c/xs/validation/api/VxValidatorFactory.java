@@ -15,11 +15,33 @@
  */
 package org.genxdm.processor.w3c.xs.validation.api;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.xml.namespace.QName;
+
 import org.genxdm.typed.types.AtomBridge;
 
 public interface VxValidatorFactory
 {
 	<A> VxValidator<A> newValidator(AtomBridge<A> atoms);
 
+	/**
+	 * Returns a validator that hands the subtree of each element at the end of a path to a validator of its own, on
+	 * the pool, so that sibling subtrees are validated in parallel. What it sends downstream, and the errors it
+	 * reports, come in document order.
+	 * 
+	 * @param forkPath
+	 *            the names of the elements from the document element down to the repeating element, such as
+	 *            <code>batch</code>, <code>record</code>; at least two.
+	 */
+	<A> VxValidator<A> newParallelValidator(AtomBridge<A> atoms, List<QName> forkPath, ForkJoinPool pool);
+
 	void setSchemaDocumentLocationStrategy(final VxSchemaDocumentLocationStrategy schemaDocumentLocationStrategy);
+
+	/**
+	 * Sets the number of bytes of tuples that the validators made from now on keep on the heap, for each scope of an
+	 * xs:key, xs:unique or xs:keyref, before they spill further tuples to a memory-mapped temporary file.
+	 */
+	void setIdentitySpillThreshold(long bytes);
 }
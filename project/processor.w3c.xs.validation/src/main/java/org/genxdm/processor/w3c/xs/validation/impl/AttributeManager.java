@@ -17,12 +17,10 @@ package org.genxdm.processor.w3c.xs.validation.impl;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
@@ -37,7 +35,7 @@ import org.genxdm.processor.w3c.xs.exception.cvc.CvcMissingAttributeDeclarationE
 import org.genxdm.processor.w3c.xs.exception.cvc.CvcUnexpectedAttributeException;
 import org.genxdm.processor.w3c.xs.exception.sm.SmAttributeUseException;
 import org.genxdm.processor.w3c.xs.exception.sm.SmMissingAttributeException;
-import org.genxdm.processor.w3c.xs.validation.api.VxMapping;
+import org.genxdm.processor.w3c.xs.validation.api.VxAttributeBuffer;
 import org.genxdm.processor.w3c.xs.validation.api.VxOutputHandler;
 import org.genxdm.processor.w3c.xs.validation.api.VxSchemaDocumentLocationStrategy;
 import org.genxdm.typed.types.AtomBridge;
@@ -63,8 +61,9 @@ import org.genxdm.xs.types.Type;
 final class AttributeManager<A>
 {
 	private final AtomBridge<A> atomBridge;
-	// Keep track of the attributes that we have seen in order to report missing attributes.
-	private final Set<QName> m_attributes = new HashSet<QName>();
+	private final ValidationCache m_cache;
+	// Keep track of the attribute uses that we have seen in order to report missing attributes.
+	private long[] m_seen = new long[1];
 	private Boolean m_localNil = null;
 	private Type m_localType = null;
 	private final HashMap<QName, Pair<A, SimpleType>> m_xsiAtoms = new HashMap<QName, Pair<A, SimpleType>>();
@@ -76,8 +75,9 @@ final class AttributeManager<A>
 	private final String XSI_SCHEMA_LOCATION;
 	private final String XSI_TYPE;
 
-	AttributeManager(final ComponentProvider metaBridge, final AtomBridge<A> atomBridge)
+	AttributeManager(final ComponentProvider metaBridge, final AtomBridge<A> atomBridge, final ValidationCache cache)
 	{
+		this.m_cache = PreCondition.assertArgumentNotNull(cache, "cache");
 		this.metaBridge = PreCondition.assertArgumentNotNull(metaBridge, "metaBridge");
 		this.atomBridge = PreCondition.assertArgumentNotNull(atomBridge, "atomBridge");
 		this.W3C_XML_SCHEMA_INSTANCE_NS_URI = XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI;
@@ -87,7 +87,7 @@ final class AttributeManager<A>
 		this.XSI_TYPE = "type";
 	}
 
-	private void attribute(final ModelPSVI elementPSVI, final ValidationItem elementItem, final QName attributeName, final int attributeIndex, final String initialValue, final VxOutputHandler<A> downstream, final SchemaExceptionHandler errors, final IdManager idm, final IdentityConstraintManager icm) throws IOException, AbortException
+	private void attribute(final ModelPSVI elementPSVI, final ValidationItem elementItem, final AttributeUseTable table, final QName attributeName, final int attributeIndex, final String initialValue, final VxOutputHandler<A> downstream, final SchemaExceptionHandler errors, final IdManager idm, final IdentityConstraintManager icm) throws IOException, AbortException
 	{
 		final Type elementType = elementPSVI.getType();
 		if (null == elementType)
@@ -103,9 +103,12 @@ final class AttributeManager<A>
 			if (elementType instanceof ComplexType)
 			{
 				final ComplexType complexType = (ComplexType)elementType;
-				final AttributeUse attributeUse = complexType.getAttributeUses().get(attributeName);
-				if (null != attributeUse)
+				final int useIndex = table.indexOf(attributeName);
+				if (useIndex >= 0)
 				{
+					// Make a note that we have seen this attribute.
+					m_seen[useIndex >>> 6] |= 1L << useIndex;
+					final AttributeUse attributeUse = table.getUse(useIndex);
 					final ValueConstraint valueConstraint = attributeUse.getEffectiveValueConstraint();
 					final AttributeDefinition attribute = attributeUse.getAttribute();
 
@@ -272,74 +275,53 @@ final class AttributeManager<A>
 	 * @param downstream
 	 *            The handler for downstream events.
 	 */
-	private int checkForMissingAttributes(final ModelPSVI elementPSVI, final ValidationItem elementItem, final int lastIndex, final SchemaExceptionHandler errors, final VxOutputHandler<A> downstream, final IdManager idm, final IdentityConstraintManager icm) throws IOException, AbortException
+	private int checkForMissingAttributes(final ModelPSVI elementPSVI, final ValidationItem elementItem, final AttributeUseTable table, final int lastIndex, final SchemaExceptionHandler errors, final VxOutputHandler<A> downstream, final IdManager idm, final IdentityConstraintManager icm) throws IOException, AbortException
 	{
 		int attributeIndex = lastIndex;
-		final Type elementType = elementPSVI.getType();
-		if (elementType instanceof ComplexType)
+		if (null != table)
 		{
-			final ComplexType complexType = (ComplexType)elementType;
-			for (final AttributeUse attributeUse : complexType.getAttributeUses().values())
+			for (int word = 0; word < table.getWordCount(); word++)
 			{
-				final AttributeDefinition attribute = attributeUse.getAttribute();
-				final QName attributeName = attribute.getName();
-				if (!m_attributes.contains(attributeName))
+				// the uses that matter when missing, less those we have seen.
+				long missing = table.whenMissing(word) & ~m_seen[word];
+				while (missing != 0)
 				{
-
-					final ValueConstraint valueConstraint = attributeUse.getEffectiveValueConstraint();
-					if (null != valueConstraint)
+					final int useIndex = (word << 6) + Long.numberOfTrailingZeros(missing);
+					missing &= missing - 1;
+					final AttributeUse attributeUse = table.getUse(useIndex);
+					final AttributeDefinition attribute = attributeUse.getAttribute();
+					final QName attributeName = attribute.getName();
+					if (table.isDefaulted(useIndex))
 					{
-						switch (valueConstraint.getVariety())
+						attributeIndex++;
+						// Create attribute with the value - a nasty W3C XML Schema side effect!
+						// TODO: I think we need to re-validate here to get the actual type?
+						// TODO: This would then apply to the managers and the downstream.
+						final Type attributeType = attribute.getType();
+						final List<A> actualValue = attributeUse.getEffectiveValueConstraint().getValue(atomBridge);
+
+						if (attributeType instanceof SimpleType)
 						{
-							case Default:
-							{
-								attributeIndex++;
-								// Create attribute with the value - a nasty W3C XML Schema side effect!
-								// TODO: I think we need to re-validate here to get the actual type?
-								// TODO: This would then apply to the managers and the downstream.
-								final Type attributeType = attribute.getType();
-								final List<A> actualValue = valueConstraint.getValue(atomBridge);
+							final SimpleType simpleType = (SimpleType)attributeType;
+							idm.attribute(actualValue, simpleType, elementItem, errors, atomBridge);
+							icm.attribute(actualValue, simpleType, elementItem, attributeName, attributeIndex, atomBridge);
 
-								if (attributeType instanceof SimpleType)
-								{
-									final SimpleType simpleType = (SimpleType)attributeType;
-									idm.attribute(actualValue, simpleType, elementItem, errors, atomBridge);
-									icm.attribute(actualValue, simpleType, elementItem, attributeName, attributeIndex, atomBridge);
-
-									if (null != downstream)
-									{
-										downstream.attribute(attributeName, actualValue, simpleType);
-									}
-								}
-								else
-								{
-									if (null != downstream)
-									{
-										downstream.attribute(attributeName, atomBridge.getC14NString(actualValue));
-									}
-								}
-							}
-							break;
-							case Fixed:
+							if (null != downstream)
 							{
-								if (attributeUse.isRequired())
-								{
-									errors.error(new SmMissingAttributeException(elementPSVI.getName(), attributeName, elementItem.getLocation()));
-								}
+								downstream.attribute(attributeName, actualValue, simpleType);
 							}
-							break;
-							default:
+						}
+						else
+						{
+							if (null != downstream)
 							{
-								throw new AssertionError(valueConstraint.getVariety());
+								downstream.attribute(attributeName, atomBridge.getC14NString(actualValue));
 							}
 						}
 					}
 					else
 					{
-						if (attributeUse.isRequired())
-						{
-							errors.error(new SmMissingAttributeException(elementPSVI.getName(), attributeName, elementItem.getLocation()));
-						}
+						errors.error(new SmMissingAttributeException(elementPSVI.getName(), attributeName, elementItem.getLocation()));
 					}
 				}
 			}
@@ -394,7 +376,7 @@ final class AttributeManager<A>
 	 * @param elementName
 	 *            The element information item name.
 	 * @param attributes
-	 *            The list of attributes.
+	 *            The attributes of the element.
 	 * @param errors
 	 *            The handler for exceptions.
 	 * @param p2n
@@ -402,20 +384,20 @@ final class AttributeManager<A>
 	 * @return null if no xsi:type attribute exists or if the xsi:type can be resolved; otherwise, returns the QName of the unresolved xsi:type which
 	 * the caller should use for error reporting, if desired
 	 */
-	public QName initialize(final QName elementName, final Locatable locatable, final LinkedList<VxMapping<QName, String>> attributes, final PrefixResolver p2n, final URI baseURI, final SchemaExceptionHandler errors, final VxSchemaDocumentLocationStrategy schemaDocumentLocationStrategy, final ProcessContentsMode processContents) throws IOException, AbortException
+	public QName initialize(final QName elementName, final Locatable locatable, final VxAttributeBuffer attributes, final PrefixResolver p2n, final URI baseURI, final SchemaExceptionHandler errors, final VxSchemaDocumentLocationStrategy schemaDocumentLocationStrategy, final ProcessContentsMode processContents) throws IOException, AbortException
 	{
 		QName unresolvedXsiTypeName = null;
 		reset();
 
-		if (attributes.size() > 0) // Optimization.
+		final int attributeCount = attributes.getAttributeCount();
+		if (attributeCount > 0) // Optimization.
 		{
-			for (final VxMapping<QName, String> mapping : attributes)
+			for (int i = 0; i < attributeCount; i++)
 			{
-				final QName attributeName = mapping.getKey();
-				final String data = mapping.getValue();
-
-				if (W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(attributeName.getNamespaceURI()))
+				if (W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(attributes.getNamespaceURI(i)))
 				{
+					final QName attributeName = attributes.getName(i);
+					final String data = attributes.getValue(i);
 					final String localName = attributeName.getLocalPart();
 					if (XSI_TYPE.equals(localName))
 					{
@@ -525,7 +507,6 @@ final class AttributeManager<A>
 
 	public void reset()
 	{
-		m_attributes.clear();
 		m_xsiAtoms.clear();
 		m_xsiLists.clear();
 		m_localType = null;
@@ -538,7 +519,7 @@ final class AttributeManager<A>
 	 * @param elementItem
 	 *            The element information item.
 	 * @param attributes
-	 *            The list of attributes.
+	 *            The attributes of the element.
 	 * @param downstream
 	 *            The handler for downstream events.
 	 * @param errors
@@ -550,14 +531,33 @@ final class AttributeManager<A>
 	 * 
 	 * @return The index of the last attribute.
 	 */
-	public int attributes(final ModelPSVI elementPSVI, final ValidationItem elementItem, final List<VxMapping<QName, String>> attributes, final VxOutputHandler<A> downstream, final SchemaExceptionHandler errors, final IdManager idm, final IdentityConstraintManager icm) throws IOException, AbortException
+	public int attributes(final ModelPSVI elementPSVI, final ValidationItem elementItem, final VxAttributeBuffer attributes, final VxOutputHandler<A> downstream, final SchemaExceptionHandler errors, final IdManager idm, final IdentityConstraintManager icm) throws IOException, AbortException
 	{
 		int attributeIndex = elementItem.getElementIndex();
-		for (final VxMapping<QName, String> mapping : attributes)
+		final Type elementType = elementPSVI.getType();
+		final AttributeUseTable table = (elementType instanceof ComplexType) ? m_cache.getAttributeTable((ComplexType)elementType) : null;
+		if (null != table)
+		{
+			if (m_seen.length < table.getWordCount())
+			{
+				m_seen = new long[table.getWordCount()];
+			}
+			else
+			{
+				Arrays.fill(m_seen, 0, table.getWordCount(), 0L);
+			}
+		}
+		final boolean xsi = !(m_xsiAtoms.isEmpty() && m_xsiLists.isEmpty());
+		final int attributeCount = attributes.getAttributeCount();
+		for (int i = 0; i < attributeCount; i++)
 		{
 			attributeIndex++;
-			final QName attributeName = mapping.getKey();
-			if (m_xsiAtoms.containsKey(attributeName))
+			final QName attributeName = attributes.getName(i);
+			if (!xsi)
+			{
+				attribute(elementPSVI, elementItem, table, attributeName, attributeIndex, attributes.getValue(i), downstream, errors, idm, icm);
+			}
+			else if (m_xsiAtoms.containsKey(attributeName))
 			{
 				if (null != downstream)
 				{
@@ -573,12 +573,10 @@ final class AttributeManager<A>
 			}
 			else
 			{
-				// Make a note that we have seen this attribute.
-				m_attributes.add(attributeName);
-				attribute(elementPSVI, elementItem, attributeName, attributeIndex, mapping.getValue(), downstream, errors, idm, icm);
+				attribute(elementPSVI, elementItem, table, attributeName, attributeIndex, attributes.getValue(i), downstream, errors, idm, icm);
 			}
 		}
-		return checkForMissingAttributes(elementPSVI, elementItem, attributeIndex, errors, downstream, idm, icm);
+		return checkForMissingAttributes(elementPSVI, elementItem, table, attributeIndex, errors, downstream, idm, icm);
 	}
 
 	private List<A> validateAttributeWrtAttributeUse(final ValidationItem elementItem, final ValueConstraint valueConstraint, final QName attributeName, final SimpleType attributeType, final int attributeIndex, final String initialValue, final IdManager idm, final IdentityConstraintManager icm, final SchemaExceptionHandler errors, final AtomBridge<A> atomBridge) throws AbortException
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.validation.impl;
+
+import java.util.Collection;
+
+import javax.xml.namespace.QName;
+
+import org.genxdm.xs.constraints.AttributeUse;
+import org.genxdm.xs.constraints.ValueConstraint;
+import org.genxdm.xs.types.ComplexType;
+
+/**
+ * The attribute uses of a complex type, numbered, with what the {@link AttributeManager} needs to know about them for
+ * every element of the type: the number of the use for an attribute name, and which uses must be looked at when their
+ * attribute is missing (those that are required, and those that have a default).
+ * <p/>
+ * Uses are numbered in the order of {@link ComplexType#getAttributeUses()}, so that missing attributes are reported,
+ * and defaults applied, in the same order as by a walk over the uses.
+ */
+final class AttributeUseTable
+{
+	private AttributeUseTable(final Collection<AttributeUse> uses)
+	{
+		final int count = uses.size();
+		m_uses = uses.toArray(new AttributeUse[count]);
+		m_words = (count + 63) >>> 6;
+		m_whenMissing = new long[m_words];
+		m_defaulted = new long[m_words];
+
+		int capacity = 4;
+		while (capacity < count * 2)
+		{
+			capacity <<= 1;
+		}
+		m_names = new QName[capacity];
+		m_slots = new int[capacity];
+		for (int i = 0; i < count; i++)
+		{
+			final AttributeUse use = m_uses[i];
+			final QName name = use.getAttribute().getName();
+			int slot = hash(name) & (capacity - 1);
+			while (m_names[slot] != null)
+			{
+				slot = (slot + 1) & (capacity - 1);
+			}
+			m_names[slot] = name;
+			m_slots[slot] = i;
+
+			final ValueConstraint valueConstraint = use.getEffectiveValueConstraint();
+			if ((null != valueConstraint) && valueConstraint.getVariety().isDefault())
+			{
+				m_whenMissing[i >>> 6] |= 1L << i;
+				m_defaulted[i >>> 6] |= 1L << i;
+			}
+			else if (use.isRequired())
+			{
+				m_whenMissing[i >>> 6] |= 1L << i;
+			}
+		}
+	}
+
+	static AttributeUseTable build(final ComplexType complexType)
+	{
+		return new AttributeUseTable(complexType.getAttributeUses().values());
+	}
+
+	/**
+	 * @return the number of the use for the attribute, or -1 if the type has none.
+	 */
+	int indexOf(final QName attributeName)
+	{
+		final int mask = m_names.length - 1;
+		int slot = hash(attributeName) & mask;
+		QName name;
+		while ((name = m_names[slot]) != null)
+		{
+			if (name.equals(attributeName))
+			{
+				return m_slots[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	AttributeUse getUse(final int index)
+	{
+		return m_uses[index];
+	}
+
+	int getUseCount()
+	{
+		return m_uses.length;
+	}
+
+	/**
+	 * The number of words in a bitmask of uses.
+	 */
+	int getWordCount()
+	{
+		return m_words;
+	}
+
+	/**
+	 * @return a word of the mask of uses that must be looked at when their attribute is missing.
+	 */
+	long whenMissing(final int word)
+	{
+		return m_whenMissing[word];
+	}
+
+	/**
+	 * @return true if the use has a default value, and false if it is missing a required attribute.
+	 */
+	boolean isDefaulted(final int index)
+	{
+		return (m_defaulted[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private static int hash(final QName name)
+	{
+		final int h = name.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private final AttributeUse[] m_uses;
+	private final int m_words;
+	private final long[] m_whenMissing;
+	private final long[] m_defaulted;
+	// open addressing, with linear probing, from name to number of use
+	private final QName[] m_names;
+	private final int[] m_slots;
+}
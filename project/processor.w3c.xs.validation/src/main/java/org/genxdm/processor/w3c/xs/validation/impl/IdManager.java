@@ -16,9 +16,10 @@
 package org.genxdm.processor.w3c.xs.validation.impl;
 
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.processor.w3c.xs.exception.cvc.CvcDanglingIDReferenceException;
@@ -33,9 +34,10 @@ import org.genxdm.xs.types.SimpleType;
 /**
  * Responsible for implementing ID/IDREF functionality.
  */
-final class IdManager
+class IdManager
 {
-	private final HashSet<String> m_definedIds = new HashSet<String>();
+	// each ID, in document order, with where it was first defined
+	private final LinkedHashMap<String, LocationInSchema> m_definedIds = new LinkedHashMap<String, LocationInSchema>();
 	private final HashMap<String, List<LocationInSchema>> m_danglingIDREFLocations = new HashMap<String, List<LocationInSchema>>();
 
 	public <A> void text(final List<? extends A> actualValue, final SimpleType actualType, final Locatable locatable, final SchemaExceptionHandler errors, final AtomBridge<A> atomBridge) throws AbortException
@@ -76,17 +78,37 @@ final class IdManager
 
 	public <A> void processId(final String id, final Locatable locatable, final AtomBridge<A> atomBridge, final SchemaExceptionHandler errors) throws AbortException
 	{
-		if (!m_definedIds.add(id))
+		defineId(id, locatable.getLocation(), errors);
+	}
+
+	void processIdRef(final String idref, final Locatable locatable)
+	{
+		referToId(idref, locatable.getLocation());
+	}
+
+	/**
+	 * Defines an ID where it was seen, which may have been some time ago.
+	 */
+	final void defineId(final String id, final LocationInSchema location, final SchemaExceptionHandler errors) throws AbortException
+	{
+		if (m_definedIds.containsKey(id))
+		{
+			errors.error(new SmDuplicateIDException(id, location));
+		}
+		else
 		{
-			errors.error(new SmDuplicateIDException(id, locatable.getLocation()));
+			m_definedIds.put(id, location);
 		}
 
 		m_danglingIDREFLocations.remove(id);
 	}
 
-	private void processIdRef(final String idref, final Locatable locatable)
+	/**
+	 * Refers to an ID from where the reference was seen, which may have been some time ago.
+	 */
+	final void referToId(final String idref, final LocationInSchema location)
 	{
-		if (m_definedIds.contains(idref))
+		if (m_definedIds.containsKey(idref))
 		{
 			m_danglingIDREFLocations.remove(idref);
 		}
@@ -94,12 +116,12 @@ final class IdManager
 		{
 			if (m_danglingIDREFLocations.containsKey(idref))
 			{
-				m_danglingIDREFLocations.get(idref).add(locatable.getLocation());
+				m_danglingIDREFLocations.get(idref).add(location);
 			}
 			else
 			{
 				final LinkedList<LocationInSchema> locations = new LinkedList<LocationInSchema>();
-				locations.add(locatable.getLocation());
+				locations.add(location);
 				m_danglingIDREFLocations.put(idref, locations);
 			}
 		}
@@ -123,6 +145,44 @@ final class IdManager
 		reset();
 	}
 
+	/**
+	 * Takes in the IDs and IDREFs of a manager that saw a later part of the document, as though this manager had seen
+	 * them: an ID that both define is reported as a duplicate where the later manager saw it, and a reference that the
+	 * later manager could not resolve no longer dangles if this manager defines its ID.
+	 */
+	void merge(final IdManager later, final SchemaExceptionHandler errors) throws AbortException
+	{
+		for (final Map.Entry<String, LocationInSchema> entry : later.m_definedIds.entrySet())
+		{
+			final String id = entry.getKey();
+			if (m_definedIds.containsKey(id))
+			{
+				errors.error(new SmDuplicateIDException(id, entry.getValue()));
+			}
+			else
+			{
+				m_definedIds.put(id, entry.getValue());
+			}
+			m_danglingIDREFLocations.remove(id);
+		}
+		for (final Map.Entry<String, List<LocationInSchema>> entry : later.m_danglingIDREFLocations.entrySet())
+		{
+			if (m_definedIds.containsKey(entry.getKey()))
+			{
+				continue;
+			}
+			final List<LocationInSchema> locations = m_danglingIDREFLocations.get(entry.getKey());
+			if (locations == null)
+			{
+				m_danglingIDREFLocations.put(entry.getKey(), new LinkedList<LocationInSchema>(entry.getValue()));
+			}
+			else
+			{
+				locations.addAll(entry.getValue());
+			}
+		}
+	}
+
 	public void reset()
 	{
 		m_definedIds.clear();
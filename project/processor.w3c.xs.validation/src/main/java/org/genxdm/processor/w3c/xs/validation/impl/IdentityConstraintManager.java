@@ -41,11 +41,39 @@ final class IdentityConstraintManager
 	 */
 	private int m_totalScopes = 0;
 
+	/**
+	 * The number of bytes of tuples that one scope keeps on the heap before it spills them to a temporary file.
+	 */
+	private long m_spillThreshold = IdentityTupleStore.DEFAULT_SPILL_THRESHOLD;
+
+	/**
+	 * Where the scopes made from now on send their tuples, if anywhere.
+	 */
+	private IdentityScope.TupleSink m_sink;
+
+	void setSpillThreshold(final long spillThreshold)
+	{
+		m_spillThreshold = spillThreshold;
+	}
+
+	void setTupleSink(final IdentityScope.TupleSink sink)
+	{
+		m_sink = sink;
+	}
+
 	public void reset()
 	{
 		m_totalScopes = 0;
 	}
 
+	/**
+	 * Returns true if any identity constraint is being evaluated.
+	 */
+	boolean hasScopes()
+	{
+		return m_totalScopes > 0;
+	}
+
 	public void startElement(final ModelPSVI elementPSVI, final ValidationItem elementItem, final SchemaExceptionHandler errors) throws AbortException
 	{
 		// Notify existing scopes of the current event (start of element)
@@ -76,7 +104,7 @@ final class IdentityConstraintManager
 					case Key:
 					case Unique:
 					{
-						final IdentityScopeKey scope = new IdentityScopeKey(elementItem.getElementIndex(), constraint, errors, elementItem.getLocation());
+						final IdentityScopeKey scope = new IdentityScopeKey(elementItem.getElementIndex(), constraint, errors, elementItem.getLocation(), m_spillThreshold, m_sink);
 
 						elementItem.m_keyScopes.put(constraint.getName(), scope);
 						elementItem.m_refScopes.put(constraint.getName(), new ArrayList<IdentityScopeRef>());
@@ -116,7 +144,7 @@ final class IdentityConstraintManager
 						final QName keyName = constraint.getKeyConstraint().getName();
 						final ValidationItem referencedItem = ValidationItem.findItemWithKeyConstraint(elementItem, keyName);
 						final IdentityScopeKey keyScope = ValidationItem.getKeyIdentityScope(referencedItem, keyName);
-						final IdentityScopeRef scope = new IdentityScopeRef(elementItem.getElementIndex(), keyScope, constraint, errors, elementItem.getLocation());
+						final IdentityScopeRef scope = new IdentityScopeRef(elementItem.getElementIndex(), keyScope, constraint, errors, elementItem.getLocation(), m_spillThreshold, m_sink);
 						referencedItem.m_refScopes.get(keyName).add(scope);
 						elementItem.m_identityScopes.add(scope);
 						m_totalScopes++;
@@ -168,6 +196,7 @@ final class IdentityConstraintManager
 				for (final IdentityScopeRef scope : elementItem.m_refScopes.get(key))
 				{
 					scope.reportUnmatchedRefs();
+					scope.release();
 				}
 			}
 			// this has to happen before we throw away our own scopes.
@@ -175,6 +204,7 @@ final class IdentityConstraintManager
 			{
 			    if (k.getConstraint().selectsContainer()) // artificial startElement() has matching endElement()
 			        k.endElement(elementPSVI.getName(), elementItem.getElementIndex(), elementItem);
+			    k.release();
 			}
 			// note that although we do ancestor-or-self below, self already has
 			// all these bits removed, effectively. unnoticeable previously since
@@ -196,6 +226,105 @@ final class IdentityConstraintManager
 		}
 	}
 
+	/**
+	 * Makes the scopes that stand in for those of an element and its ancestors within the subtree of a child that is
+	 * handed over to another kernel, in the order in which they are notified of events.
+	 * 
+	 * @return the scopes, or null if the fields of a scope are being evaluated, since they may reach into the subtree.
+	 */
+	List<IdentityScope> fork(final ValidationItem parentItem, final SchemaExceptionHandler errors, final IdentityScope.TupleSink sink)
+	{
+		final List<IdentityScope> forked = new ArrayList<IdentityScope>();
+		if (m_totalScopes > 0)
+		{
+			for (final ValidationItem currentItem : getAncestorOrSelf(parentItem))
+			{
+				for (final IdentityScope scope : currentItem.m_identityScopes)
+				{
+					if (scope.isEvaluatingFields())
+					{
+						return null;
+					}
+					forked.add(scope.fork(errors, sink));
+				}
+			}
+		}
+		return forked;
+	}
+
+	/**
+	 * Puts the scopes made by {@link #fork} on the document item of a kernel that validates a subtree. The xs:keyref
+	 * scopes within the subtree that refer to them are kept there too.
+	 */
+	void startForkedSubtree(final ValidationItem documentItem, final List<IdentityScope> scopes)
+	{
+		clearForkedScopes(documentItem);
+		for (final IdentityScope scope : scopes)
+		{
+			documentItem.m_identityScopes.add(scope);
+			if (scope instanceof IdentityScopeKey)
+			{
+				final QName name = scope.getConstraint().getName();
+				// the innermost scope of a name comes first, and hides the others.
+				if (!documentItem.m_keyScopes.containsKey(name))
+				{
+					documentItem.m_keyScopes.put(name, (IdentityScopeKey)scope);
+					documentItem.m_refScopes.put(name, new ArrayList<IdentityScopeRef>());
+				}
+			}
+		}
+		m_totalScopes += scopes.size();
+	}
+
+	/**
+	 * Takes the scopes made by {@link #fork} off the document item, once the subtree has ended.
+	 * 
+	 * @return the xs:keyref scopes within the subtree that refer to them, for {@link #adopt}.
+	 */
+	List<IdentityScopeRef> endForkedSubtree(final ValidationItem documentItem)
+	{
+		final List<IdentityScopeRef> refs = new ArrayList<IdentityScopeRef>();
+		for (final ArrayList<IdentityScopeRef> scopes : documentItem.m_refScopes.values())
+		{
+			refs.addAll(scopes);
+		}
+		for (final IdentityScope scope : documentItem.m_identityScopes)
+		{
+			scope.release();
+		}
+		m_totalScopes -= documentItem.m_identityScopes.size();
+		clearForkedScopes(documentItem);
+		return refs;
+	}
+
+	/**
+	 * Moves xs:keyref scopes returned by {@link #endForkedSubtree} to the xs:key scopes, on the element or its
+	 * ancestors, that theirs stood in for.
+	 */
+	void adopt(final ValidationItem elementItem, final List<IdentityScopeRef> refs)
+	{
+		for (final IdentityScopeRef ref : refs)
+		{
+			final IdentityScope origin = ref.getKeyScope().getOrigin();
+			final QName name = origin.getConstraint().getName();
+			for (final ValidationItem currentItem : getAncestorOrSelf(elementItem))
+			{
+				if (currentItem.m_keyScopes.get(name) == origin)
+				{
+					currentItem.m_refScopes.get(name).add(ref.adopt((IdentityScopeKey)origin));
+					break;
+				}
+			}
+		}
+	}
+
+	private static void clearForkedScopes(final ValidationItem documentItem)
+	{
+		documentItem.m_identityScopes.clear();
+		documentItem.m_keyScopes.clear();
+		documentItem.m_refScopes.clear();
+	}
+
 	/**
 	 * Get an iterable of the links from the origin link to the document link.
 	 */
@@ -16,7 +16,6 @@
 package org.genxdm.processor.w3c.xs.validation.impl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import javax.xml.namespace.QName;
@@ -56,50 +55,109 @@ abstract class IdentityScope
 	 * item.
 	 */
 	private final IdentitySelector m_selectorEval;
-	final HashMap<Integer, Integer> m_boundFields = new HashMap<Integer, Integer>();
-	final HashMap<Integer, ArrayList<IdentityField>> m_fieldEvals = new HashMap<Integer, ArrayList<IdentityField>>();
-
 	/**
-	 * A map from a key (tuple of values) to Boolean.TRUE | list of {@link IdentityDanglingReference}.
+	 * The selected elements whose {field} evaluators are live, in document order. There are no more of them than the
+	 * depth of the tree, so they are looked up by a scan from the most recent.
+	 */
+	private final ArrayList<Target> m_targets = new ArrayList<Target>();
+	/**
+	 * The values of the fields of the last tuple completed, reused from tuple to tuple.
 	 */
-	// protected HashMap<IdentityTuple<A>, IdentityVariant<A>>
-	// m_qualifiedTargets;
+	private final ArrayList<String> m_values = new ArrayList<String>();
+
 	protected final LocationInSchema m_location;
 
-	protected IdentityScope(final int elementIndex, final IdentityConstraint constraint, final SchemaExceptionHandler errorHandler, final LocationInSchema location)
+	/**
+	 * The scope that this one stands in for, within a subtree handed over to another kernel; otherwise this scope.
+	 */
+	private final IdentityScope m_origin;
+	/**
+	 * Where completed tuples are sent, for {@link #m_origin}, instead of to {@link #onKeysComplete}; may be null.
+	 */
+	private final TupleSink m_sink;
+
+	protected IdentityScope(final int elementIndex, final IdentityConstraint constraint, final SchemaExceptionHandler errorHandler, final LocationInSchema location, final TupleSink sink)
 	{
 		m_elementIndex = elementIndex;
 		m_constraint = PreCondition.assertArgumentNotNull(constraint);
 		m_errorHandler = PreCondition.assertArgumentNotNull(errorHandler);
 
 		m_location = location;
+		m_origin = this;
+		m_sink = sink;
 
 		m_selectorEval = new IdentitySelector(this, m_constraint.getSelector());
 	}
 
+	/**
+	 * Stands in for another scope, whose selector has got as far as the element of a subtree that is handed over to
+	 * another kernel. The selector carries on from where that of the other scope is; the tuples completed are sent to
+	 * the sink, for the other scope, and errors in the fields are reported to the handler.
+	 */
+	protected IdentityScope(final IdentityScope origin, final SchemaExceptionHandler errorHandler, final TupleSink sink)
+	{
+		m_elementIndex = origin.m_elementIndex;
+		m_constraint = origin.m_constraint;
+		m_errorHandler = PreCondition.assertArgumentNotNull(errorHandler);
+
+		m_location = origin.m_location;
+		m_origin = origin;
+		m_sink = PreCondition.assertArgumentNotNull(sink);
+
+		m_selectorEval = new IdentitySelector(this, origin.m_selectorEval);
+	}
+
 	/**
 	 * Called when its full complement of keys have been completed.
 	 * 
 	 * @param elementIndex
 	 *            The index of the element that is the context for xs:field evaluation.
 	 * @param keyValues
-	 *            The key values.
+	 *            The canonical values of the fields, which are overwritten by the next tuple.
 	 */
-	protected abstract void onKeysComplete(final ArrayList<IdentityKey> keyValues, final int elementIndex) throws AbortException;
+	protected abstract void onKeysComplete(final List<String> keyValues, final int elementIndex) throws AbortException;
 
 	/**
 	 * Called when the selector goes out of scope.
 	 * 
-	 * @param elementIndex
-	 *            The index of the element that is the context for xs:field evaluation.
+	 * @param target
+	 *            The element that is the context for xs:field evaluation.
+	 */
+	protected abstract void onScopeEnd(final Target target, final Locatable location) throws AbortException;
+
+	/**
+	 * Called when the element of the identity-constraint ends, after any xs:keyref has been checked; forgets the
+	 * tuples.
+	 */
+	protected abstract void release();
+
+	/**
+	 * Makes a scope that stands in for this one within a subtree handed over to another kernel (see
+	 * {@link #IdentityScope(IdentityScope, SchemaExceptionHandler, TupleSink)}).
+	 */
+	abstract IdentityScope fork(final SchemaExceptionHandler errorHandler, final TupleSink sink);
+
+	/**
+	 * Returns true if an element that the selector has matched is open, so that its fields are being evaluated.
+	 */
+	boolean isEvaluatingFields()
+	{
+		return !m_targets.isEmpty();
+	}
+
+	/**
+	 * Returns the scope that this one stands in for, or this scope.
 	 */
-	protected abstract void onScopeEnd(final int elementIndex, final Locatable location) throws AbortException;
+	IdentityScope getOrigin()
+	{
+		return m_origin;
+	}
 
 	public void startElement(final QName elementName, final int elementIndex, final Type elementType, final Locatable locatable) throws AbortException
 	{
-		for (final ArrayList<IdentityField> contextFields : m_fieldEvals.values())
+		for (final Target target : m_targets)
 		{
-			for (final IdentityField field : contextFields)
+			for (final IdentityField field : target.fields)
 			{
 				field.startElement(elementName, elementIndex, elementType, locatable);
 			}
@@ -110,9 +168,9 @@ abstract class IdentityScope
 
 	public <A> void attribute(final QName attributeName, final List<? extends A> actualValue, final int attributeIndex, final SimpleType attributeType, final Locatable locatable, final AtomBridge<A> atomBridge) throws AbortException
 	{
-		for (final ArrayList<IdentityField> contextFields : m_fieldEvals.values())
+		for (final Target target : m_targets)
 		{
-			for (final IdentityField field : contextFields)
+			for (final IdentityField field : target.fields)
 			{
 				field.attribute(attributeName, actualValue, attributeIndex, attributeType, locatable, atomBridge);
 			}
@@ -121,9 +179,9 @@ abstract class IdentityScope
 
 	public <A> void text(final List<? extends A> actualValue, final SimpleType actualType, final int textIndex, final Locatable locatable, final AtomBridge<A> atomBridge) throws AbortException
 	{
-		for (final ArrayList<IdentityField> contextFields : m_fieldEvals.values())
+		for (final Target target : m_targets)
 		{
-			for (final IdentityField field : contextFields)
+			for (final IdentityField field : target.fields)
 			{
 				field.text(actualValue, actualType, textIndex, locatable, atomBridge);
 			}
@@ -134,9 +192,9 @@ abstract class IdentityScope
 	{
 		m_selectorEval.endElement(elementName, elementIndex, locatable);
 
-		for (final ArrayList<IdentityField> contextFields : m_fieldEvals.values())
+		for (final Target target : m_targets)
 		{
-			for (final IdentityField field : contextFields)
+			for (final IdentityField field : target.fields)
 			{
 				field.endElement(elementName, elementIndex, locatable);
 			}
@@ -161,17 +219,15 @@ abstract class IdentityScope
 	public void startSelectorElement(final QName elementName, final int elementIndex)
 	{
 		// Avoid duplication caused by XPath unions.
-		if (!m_boundFields.containsKey(elementIndex))
+		if (findTarget(elementIndex) < 0)
 		{
 			// No fields have been bound yet for this element.
-			m_boundFields.put(elementIndex, 0);
-
-			final ArrayList<IdentityField> fieldEvals = new ArrayList<IdentityField>();
+			final Target target = new Target(elementIndex);
 			for (final RestrictedXPath path : getConstraint().getFields())
 			{
-			    fieldEvals.add(new IdentityField(path, elementIndex, this, m_errorHandler));
+			    target.fields.add(new IdentityField(path, elementIndex, this, m_errorHandler));
 			}
-			m_fieldEvals.put(elementIndex, fieldEvals);
+			m_targets.add(target);
 		}
 		else
 		{
@@ -182,16 +238,16 @@ abstract class IdentityScope
 
 	public void endSelectorElement(final QName elementName, final int elementIndex, final Locatable location) throws AbortException
 	{
-		if (m_boundFields.containsKey(elementIndex))
+		final int found = findTarget(elementIndex);
+		if (found >= 0)
 		{
 			try
 			{
-				onScopeEnd(elementIndex, location);
+				onScopeEnd(m_targets.get(found), location);
 			}
 			finally
 			{
-				m_fieldEvals.remove(elementIndex);
-				m_boundFields.remove(elementIndex);
+				m_targets.remove(found);
 			}
 		}
 		// else we must have duplicates and removed it already.
@@ -207,23 +263,67 @@ abstract class IdentityScope
 	<A> void onFieldValueSet(final IdentityField changedField, final int elementIndex, final AtomBridge<A> atomBridge) throws AbortException
 	{
 		// Note: We don't currently use the "changedField" parameter.
-		final ArrayList<IdentityField> elementHandlers = m_fieldEvals.get(elementIndex);
+		final Target target = m_targets.get(findTarget(elementIndex));
 
 		// Increment the number of fields that have been bound.
-		final int boundFields = m_boundFields.get(elementIndex) + 1;
-		m_boundFields.put(elementIndex, boundFields);
+		target.boundFields++;
 
 		// When all the fields have been set, gather the values together and
 		// notify the scope.
-		if (boundFields == elementHandlers.size())
+		if (target.boundFields == target.fields.size())
+		{
+			m_values.clear();
+			for (final IdentityField field : target.fields)
+			{
+				m_values.add(field.m_value);
+			}
+			if (m_sink != null)
+			{
+				m_sink.keysComplete(m_origin, m_values, elementIndex);
+			}
+			else
+			{
+				onKeysComplete(m_values, elementIndex);
+			}
+		}
+	}
+
+	private int findTarget(final int elementIndex)
+	{
+		for (int i = m_targets.size() - 1; i >= 0; i--)
 		{
-			final ArrayList<IdentityKey> fieldValues = new ArrayList<IdentityKey>(boundFields);
-			for (final IdentityField field : elementHandlers)
+			if (m_targets.get(i).elementIndex == elementIndex)
 			{
-//				fieldValues.add(new IdentityKey(field.getTypedValue(atomBridge)));
-                fieldValues.add(new IdentityKey(field.m_value));
+				return i;
 			}
-			onKeysComplete(fieldValues, elementIndex);
+		}
+		return -1;
+	}
+
+	/**
+	 * Takes the tuples of scopes, to pass them to {@link IdentityScope#onKeysComplete} in document order.
+	 */
+	interface TupleSink
+	{
+		/**
+		 * @param keyValues
+		 *            The canonical values of the fields, which are overwritten by the next tuple.
+		 */
+		void keysComplete(IdentityScope scope, List<String> keyValues, int elementIndex) throws AbortException;
+	}
+
+	/**
+	 * An element matched by the {selector}, with its {field} evaluators and the number of them that have a value.
+	 */
+	static final class Target
+	{
+		final int elementIndex;
+		final ArrayList<IdentityField> fields = new ArrayList<IdentityField>();
+		int boundFields;
+
+		Target(final int elementIndex)
+		{
+			this.elementIndex = elementIndex;
 		}
 	}
 }
@@ -16,9 +16,8 @@
 package org.genxdm.processor.w3c.xs.validation.impl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 
-import org.genxdm.exceptions.PreCondition;
 import org.genxdm.processor.w3c.xs.exception.cvc.CvcMissingKeyFieldException;
 import org.genxdm.processor.w3c.xs.exception.src.SrcDuplicateKeyTargetException;
 import org.genxdm.xs.constraints.IdentityConstraint;
@@ -38,54 +37,64 @@ import org.genxdm.xs.resolve.LocationInSchema;
  */
 final class IdentityScopeKey extends IdentityScope
 {
-	public final HashMap<IdentityTuple, IdentityVariant> m_qualifiedTargets = new HashMap<IdentityTuple, IdentityVariant>();
+	/**
+	 * The tuples found so far; the xs:keyref scopes that refer to this one look their own tuples up in it.
+	 */
+	final IdentityTable m_qualifiedTargets;
 
-	public IdentityScopeKey(final int elementIndex, final IdentityConstraint constraint, final SchemaExceptionHandler errorHandler, final LocationInSchema location)
+	public IdentityScopeKey(final int elementIndex, final IdentityConstraint constraint, final SchemaExceptionHandler errorHandler, final LocationInSchema location, final long spillThreshold, final TupleSink sink)
 	{
-		super(elementIndex, constraint, errorHandler, location);
+		super(elementIndex, constraint, errorHandler, location, sink);
+		m_qualifiedTargets = new IdentityTable(spillThreshold);
 	}
 
-	@Override
-	protected void onKeysComplete(final ArrayList<IdentityKey> keyValues, final int elementIndex) throws AbortException
+	/**
+	 * Stands in for a scope within a subtree handed over to another kernel. Its tuples go to the other scope, so its
+	 * own table stays empty; an xs:keyref within the subtree keeps all of its tuples until that scope ends.
+	 */
+	private IdentityScopeKey(final IdentityScopeKey origin, final SchemaExceptionHandler errorHandler, final TupleSink sink)
 	{
-	    final IdentityTuple key = new IdentityTuple(keyValues);
+		super(origin, errorHandler, sink);
+		m_qualifiedTargets = new IdentityTable(IdentityTupleStore.DEFAULT_SPILL_THRESHOLD);
+	}
 
-		final IdentityVariant mapped = m_qualifiedTargets.get(key);
+	@Override
+	IdentityScopeKey fork(final SchemaExceptionHandler errorHandler, final TupleSink sink)
+	{
+		return new IdentityScopeKey(this, errorHandler, sink);
+	}
 
-		if (mapped == null || mapped.isDanglingRefs())
-		{
-			// List was the undeclared refs
-			m_qualifiedTargets.put(key, new IdentityVariant(Boolean.TRUE));
-		}
-		else if (mapped.isValue())
-		{
-			m_errorHandler.error(new SrcDuplicateKeyTargetException(getConstraint().getName(), keyValues, m_location));
-		}
-		else
+	@Override
+	protected void onKeysComplete(final List<String> keyValues, final int elementIndex) throws AbortException
+	{
+		if (!m_qualifiedTargets.add(keyValues))
 		{
-			// Unexpected.
-			throw new AssertionError();
+			m_errorHandler.error(new SrcDuplicateKeyTargetException(getConstraint().getName(), new ArrayList<String>(keyValues), m_location));
 		}
 	}
 
 	@Override
-	protected void onScopeEnd(final int elementIndex, final Locatable locatable) throws AbortException
+	protected void onScopeEnd(final Target target, final Locatable locatable) throws AbortException
 	{
 		final IdentityConstraint constraint = getConstraint();
 		final IdentityConstraintKind category = constraint.getCategory();
 		// xs:key must have bound values while xs:unique need not exist.
 		if (category.isKey())
 		{
-			final ArrayList<IdentityField> elementHandlers = m_fieldEvals.get(elementIndex);
-			PreCondition.assertArgumentNotNull(elementHandlers, "elementHandlers");
-			if (m_boundFields.get(elementIndex) < elementHandlers.size())
+			if (target.boundFields < target.fields.size())
 			{
 				final LocationInSchema frozenLocation = locatable.getLocation();
-				for (int i = 0; i < elementHandlers.size(); i++)
+				for (int i = 0; i < target.fields.size(); i++)
 				{
 					m_errorHandler.error(new CvcMissingKeyFieldException(constraint.getName(), i + 1, frozenLocation));
 				}
 			}
 		}
 	}
+
+	@Override
+	protected void release()
+	{
+		m_qualifiedTargets.release();
+	}
 }
@@ -15,7 +15,7 @@
  */
 package org.genxdm.processor.w3c.xs.validation.impl;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import org.genxdm.processor.w3c.xs.exception.cvc.CvcDanglingKeyReferenceException;
 import org.genxdm.xs.constraints.IdentityConstraint;
@@ -26,42 +26,79 @@ import org.genxdm.xs.resolve.LocationInSchema;
 
 /**
  * Specialization of a scope for xs:keyref.
+ * 
+ * The tuples that do not match a key already found are kept until the scope of the key ends, when they are all looked
+ * up again, at once, among the keys.
  */
 final class IdentityScopeRef extends IdentityScope
 {
 	private final IdentityScopeKey keyScope;
+	private final IdentityTupleStore m_unmatched;
 
-	public IdentityScopeRef(final int elementIndex, final IdentityScopeKey keyScope, final IdentityConstraint constraint, final SchemaExceptionHandler errorHandler, final LocationInSchema location)
+	public IdentityScopeRef(final int elementIndex, final IdentityScopeKey keyScope, final IdentityConstraint constraint, final SchemaExceptionHandler errorHandler, final LocationInSchema location, final long spillThreshold, final TupleSink sink)
 	{
-		super(elementIndex, constraint, errorHandler, location);
+		super(elementIndex, constraint, errorHandler, location, sink);
 		this.keyScope = keyScope;
+		m_unmatched = new IdentityTupleStore(spillThreshold);
+	}
+
+	/**
+	 * Stands in for a scope within a subtree handed over to another kernel; its tuples go to the other scope.
+	 */
+	private IdentityScopeRef(final IdentityScopeRef origin, final SchemaExceptionHandler errorHandler, final TupleSink sink)
+	{
+		super(origin, errorHandler, sink);
+		this.keyScope = origin.keyScope;
+		m_unmatched = new IdentityTupleStore(IdentityTupleStore.DEFAULT_SPILL_THRESHOLD);
+	}
+
+	/**
+	 * Takes over the tuples of a scope, within a subtree handed over to another kernel, whose xs:key stood in for the
+	 * given one; they are looked up when the given one ends, and any that are missing are reported to its handler.
+	 */
+	private IdentityScopeRef(final IdentityScopeRef forked, final IdentityScopeKey keyScope)
+	{
+		super(-1, forked.getConstraint(), keyScope.m_errorHandler, forked.m_location, null);
+		this.keyScope = keyScope;
+		m_unmatched = forked.m_unmatched;
 	}
 
 	@Override
-	protected void onKeysComplete(final ArrayList<IdentityKey> keyValues, final int elementIndex) throws AbortException
+	IdentityScopeRef fork(final SchemaExceptionHandler errorHandler, final TupleSink sink)
 	{
-		final IdentityTuple key = new IdentityTuple(keyValues);
+		return new IdentityScopeRef(this, errorHandler, sink);
+	}
 
-		final IdentityVariant lookup = keyScope.m_qualifiedTargets.get(key);
+	/**
+	 * Returns the xs:key (or xs:unique) scope that this one refers to.
+	 */
+	IdentityScopeKey getKeyScope()
+	{
+		return keyScope;
+	}
 
-		if (lookup == null)
-		{
-			final ArrayList<IdentityDanglingReference> dangles = new ArrayList<IdentityDanglingReference>();
-			dangles.add(new IdentityDanglingReference(getConstraint(), keyValues, m_location));
-			keyScope.m_qualifiedTargets.put(key, new IdentityVariant(dangles));
-		}
-		else if (lookup.isValue())
-		{
-			// The corresponding key has already been found.
-		}
-		else
+	/**
+	 * Moves this scope, made within a subtree handed over to another kernel, to the xs:key scope that its own stood in
+	 * for.
+	 */
+	IdentityScopeRef adopt(final IdentityScopeKey keyScope)
+	{
+		return new IdentityScopeRef(this, keyScope);
+	}
+
+	@Override
+	protected void onKeysComplete(final List<String> keyValues, final int elementIndex) throws AbortException
+	{
+		final int hash = m_unmatched.encode(keyValues);
+		if (!keyScope.m_qualifiedTargets.containsScratch(m_unmatched, hash))
 		{
-			lookup.getDanglingRefs().add(new IdentityDanglingReference(getConstraint(), keyValues, m_location));
+			m_unmatched.append();
 		}
+		// else the corresponding key has already been found.
 	}
 
 	@Override
-	protected void onScopeEnd(final int elementIndex, final Locatable locatable)
+	protected void onScopeEnd(final Target target, final Locatable locatable)
 	{
 		// Do nothing.
 	}
@@ -71,22 +108,19 @@ final class IdentityScopeRef extends IdentityScope
 	 */
 	public void reportUnmatchedRefs() throws AbortException
 	{
-		for (final IdentityVariant next : keyScope.m_qualifiedTargets.values())
+		for (long tuple = m_unmatched.first(); tuple != IdentityTupleStore.NONE; tuple = m_unmatched.next(tuple))
 		{
-			if (next.isDanglingRefs())
-			{
-				for (final IdentityDanglingReference dangling : next.getDanglingRefs())
-				{
-					final CvcDanglingKeyReferenceException dkre = new CvcDanglingKeyReferenceException(dangling.getConstraint().getName(), dangling.getKeys(), m_location);
-					m_errorHandler.error(dkre);
-				}
-			}
-			else
+			if (!keyScope.m_qualifiedTargets.contains(m_unmatched, tuple))
 			{
-				// The polymorphic type of the identity variant is a
-				// Boolean.TRUE
-				// which indicates that there are no dangling references.
+				final CvcDanglingKeyReferenceException dkre = new CvcDanglingKeyReferenceException(getConstraint().getName(), m_unmatched.decode(tuple), m_location);
+				m_errorHandler.error(dkre);
 			}
 		}
 	}
+
+	@Override
+	protected void release()
+	{
+		m_unmatched.release();
+	}
 }
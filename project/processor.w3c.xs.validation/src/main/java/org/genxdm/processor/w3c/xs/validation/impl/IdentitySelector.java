@@ -95,6 +95,27 @@ final class IdentitySelector
 		}
 	}
 
+	/**
+	 * Copies the evaluations of another selector, as they stand, for the given scope.
+	 */
+	public IdentitySelector(final IdentityScope scope, final IdentitySelector other)
+	{
+		m_scope = PreCondition.assertArgumentNotNull(scope, "scope");
+		m_xpath = other.m_xpath;
+		m_relocatable = other.m_relocatable;
+		m_depth = other.m_depth;
+		m_evals = new ArrayList<LinkedList<IdentitySelectorEvaluation>>(other.m_evals.size());
+		for (final LinkedList<IdentitySelectorEvaluation> evals : other.m_evals)
+		{
+			final LinkedList<IdentitySelectorEvaluation> e = new LinkedList<IdentitySelectorEvaluation>();
+			for (final IdentitySelectorEvaluation xps : evals)
+			{
+				e.add(new IdentitySelectorEvaluation(xps));
+			}
+			m_evals.add(e);
+		}
+	}
+
 	public void startElement(final QName elementName, final int elementIndex)
 	{
 		m_depth++;
@@ -60,6 +60,18 @@ public class IdentitySelectorEvaluation
 		}
 	}
 
+	/**
+	 * Copies another evaluation, as it stands.
+	 */
+	public IdentitySelectorEvaluation(final IdentitySelectorEvaluation other)
+	{
+		this.xpath = other.xpath;
+		this.removable = other.removable;
+		this.currentStep = new IdentityXPathIndex(other.currentStep);
+		this.matching = other.matching;
+		this.selecting = other.selecting;
+	}
+
 	/**
 	 * Essentially advances to the next step.
 	 * 
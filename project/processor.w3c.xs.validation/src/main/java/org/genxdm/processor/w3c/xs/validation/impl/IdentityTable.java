@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.validation.impl;
+
+import java.util.List;
+
+/**
+ * The set of tuples of an xs:key or xs:unique scope. <br/>
+ * The tuples are held in an {@link IdentityTupleStore}; the table is open-addressed, with the address of each tuple
+ * (plus one, so that zero is empty) and its hash in parallel primitive arrays.
+ */
+final class IdentityTable
+{
+	private final IdentityTupleStore m_store;
+	private long[] m_slots = new long[16];
+	private int[] m_hashes = new int[16];
+	private int m_size;
+
+	IdentityTable(final long spillThreshold)
+	{
+		m_store = new IdentityTupleStore(spillThreshold);
+	}
+
+	/**
+	 * Adds a tuple.
+	 *
+	 * @return false if the table already held it.
+	 */
+	boolean add(final List<String> values)
+	{
+		final int hash = m_store.encode(values);
+		final int mask = m_slots.length - 1;
+		int slot = spread(hash) & mask;
+		while (m_slots[slot] != 0)
+		{
+			if ((m_hashes[slot] == hash) && m_store.matchesScratch(m_slots[slot] - 1, m_store))
+			{
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		m_slots[slot] = m_store.append() + 1;
+		m_hashes[slot] = hash;
+		if (++m_size * 2 > m_slots.length)
+		{
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the table holds the tuple last encoded by another store.
+	 */
+	boolean containsScratch(final IdentityTupleStore store, final int hash)
+	{
+		final int mask = m_slots.length - 1;
+		int slot = spread(hash) & mask;
+		while (m_slots[slot] != 0)
+		{
+			if ((m_hashes[slot] == hash) && m_store.matchesScratch(m_slots[slot] - 1, store))
+			{
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true if the table holds the tuple at an address in another store.
+	 */
+	boolean contains(final IdentityTupleStore store, final long address)
+	{
+		final int hash = store.hashOf(address);
+		final int mask = m_slots.length - 1;
+		int slot = spread(hash) & mask;
+		while (m_slots[slot] != 0)
+		{
+			if ((m_hashes[slot] == hash) && m_store.matches(m_slots[slot] - 1, store, address))
+			{
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	void release()
+	{
+		m_store.release();
+		m_slots = new long[16];
+		m_hashes = new int[16];
+		m_size = 0;
+	}
+
+	private void grow()
+	{
+		final long[] slots = new long[m_slots.length * 2];
+		final int[] hashes = new int[slots.length];
+		final int mask = slots.length - 1;
+		for (int i = 0; i < m_slots.length; i++)
+		{
+			if (m_slots[i] != 0)
+			{
+				int slot = spread(m_hashes[i]) & mask;
+				while (slots[slot] != 0)
+				{
+					slot = (slot + 1) & mask;
+				}
+				slots[slot] = m_slots[i];
+				hashes[slot] = m_hashes[i];
+			}
+		}
+		m_slots = slots;
+		m_hashes = hashes;
+	}
+
+	private static int spread(final int hash)
+	{
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.validation.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.genxdm.exceptions.GenXDMException;
+
+/**
+ * An append-only store of identity-constraint tuples, each of which is the canonical values of the fields, encoded as
+ * bytes and addressed by a <code>long</code>. <br/>
+ * The records are kept in pages that grow from a small size, so that the many scopes holding a few tuples each stay
+ * small. Once the pages on the heap hold more than a threshold, further pages are mapped from a temporary file, which
+ * is deleted when the store is released. <br/>
+ * A record is the hash of the tuple, the length of its encoding and the encoding, in which each value is its number of
+ * characters followed by the characters, all as numbers written seven bits to the byte. A tuple is encoded first into
+ * a scratch buffer, so that a table may look for it before it is appended, if at all.
+ */
+final class IdentityTupleStore
+{
+	/**
+	 * The default number of bytes of tuples held on the heap by one store.
+	 */
+	static final long DEFAULT_SPILL_THRESHOLD = 64L * 1024 * 1024;
+
+	static final long NONE = -1L;
+
+	private static final int HEADER = 8;
+	private static final int FIRST_PAGE = 256;
+	private static final int MAX_PAGE = 1024 * 1024;
+
+	private final long m_spillThreshold;
+	private final ArrayList<ByteBuffer> m_pages = new ArrayList<ByteBuffer>();
+	private long m_heapBytes;
+
+	private File m_spillFile;
+	private RandomAccessFile m_spill;
+	private long m_spillBytes;
+
+	private byte[] m_scratch = new byte[64];
+	private int m_scratchLength;
+	private int m_scratchHash;
+
+	IdentityTupleStore(final long spillThreshold)
+	{
+		m_spillThreshold = spillThreshold;
+	}
+
+	/**
+	 * Encodes a tuple into the scratch buffer.
+	 *
+	 * @return the hash of the tuple.
+	 */
+	int encode(final List<String> values)
+	{
+		m_scratchLength = 0;
+		for (final String value : values)
+		{
+			final int length = value.length();
+			ensureScratch(5 + 3 * length);
+			writeNumber(length);
+			for (int i = 0; i < length; i++)
+			{
+				writeNumber(value.charAt(i));
+			}
+		}
+		int hash = 1;
+		for (int i = 0; i < m_scratchLength; i++)
+		{
+			hash = 31 * hash + m_scratch[i];
+		}
+		m_scratchHash = hash;
+		return hash;
+	}
+
+	/**
+	 * Appends the tuple in the scratch buffer.
+	 *
+	 * @return the address of its record.
+	 */
+	long append()
+	{
+		final int size = HEADER + m_scratchLength;
+		ByteBuffer page = m_pages.isEmpty() ? null : m_pages.get(m_pages.size() - 1);
+		if ((page == null) || (page.remaining() < size))
+		{
+			page = newPage(size);
+		}
+		final long address = address(m_pages.size() - 1, page.position());
+		page.putInt(m_scratchHash);
+		page.putInt(m_scratchLength);
+		page.put(m_scratch, 0, m_scratchLength);
+		return address;
+	}
+
+	int hashOf(final long address)
+	{
+		return m_pages.get(page(address)).getInt(offset(address));
+	}
+
+	/**
+	 * Returns true if the record at the address holds the tuple in the scratch buffer of a store, which may be this
+	 * one.
+	 */
+	boolean matchesScratch(final long address, final IdentityTupleStore encoder)
+	{
+		final ByteBuffer page = m_pages.get(page(address));
+		final int offset = offset(address);
+		if ((page.getInt(offset) != encoder.m_scratchHash) || (page.getInt(offset + 4) != encoder.m_scratchLength))
+		{
+			return false;
+		}
+		for (int i = 0; i < encoder.m_scratchLength; i++)
+		{
+			if (page.get(offset + HEADER + i) != encoder.m_scratch[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the record at the address holds the same tuple as the record at the other address in another
+	 * store.
+	 */
+	boolean matches(final long address, final IdentityTupleStore other, final long otherAddress)
+	{
+		final ByteBuffer page = m_pages.get(page(address));
+		final int offset = offset(address);
+		final ByteBuffer otherPage = other.m_pages.get(page(otherAddress));
+		final int otherOffset = offset(otherAddress);
+		final int length = page.getInt(offset + 4);
+		if ((page.getInt(offset) != otherPage.getInt(otherOffset)) || (length != otherPage.getInt(otherOffset + 4)))
+		{
+			return false;
+		}
+		for (int i = HEADER; i < HEADER + length; i++)
+		{
+			if (page.get(offset + i) != otherPage.get(otherOffset + i))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes the values of a tuple, for reporting.
+	 */
+	List<String> decode(final long address)
+	{
+		final ByteBuffer page = m_pages.get(page(address));
+		final int[] position = { offset(address) + HEADER };
+		final int end = position[0] + page.getInt(offset(address) + 4);
+		final List<String> values = new ArrayList<String>();
+		while (position[0] < end)
+		{
+			final int length = readNumber(page, position);
+			final StringBuilder value = new StringBuilder(length);
+			for (int i = 0; i < length; i++)
+			{
+				value.append((char)readNumber(page, position));
+			}
+			values.add(value.toString());
+		}
+		return values;
+	}
+
+	/**
+	 * @return the address of the first record, or {@link #NONE}.
+	 */
+	long first()
+	{
+		return m_pages.isEmpty() ? NONE : skipEmpty(0);
+	}
+
+	/**
+	 * @return the address of the record that follows the one at the address, or {@link #NONE}.
+	 */
+	long next(final long address)
+	{
+		final int page = page(address);
+		final int offset = offset(address);
+		final int following = offset + HEADER + m_pages.get(page).getInt(offset + 4);
+		if (following < m_pages.get(page).position())
+		{
+			return address(page, following);
+		}
+		return skipEmpty(page + 1);
+	}
+
+	/**
+	 * Forgets the tuples and deletes the file, if any, to which they spilled.
+	 */
+	void release()
+	{
+		m_pages.clear();
+		m_heapBytes = 0;
+		m_spillBytes = 0;
+		if (m_spill != null)
+		{
+			try
+			{
+				m_spill.close();
+			}
+			catch (final IOException e)
+			{
+				// the file is deleted on exit, if not now.
+			}
+			m_spill = null;
+			m_spillFile.delete();
+			m_spillFile = null;
+		}
+	}
+
+	private long skipEmpty(final int from)
+	{
+		for (int page = from; page < m_pages.size(); page++)
+		{
+			if (m_pages.get(page).position() > 0)
+			{
+				return address(page, 0);
+			}
+		}
+		return NONE;
+	}
+
+	private ByteBuffer newPage(final int size)
+	{
+		final int last = m_pages.isEmpty() ? 0 : m_pages.get(m_pages.size() - 1).capacity();
+		final int capacity = Math.max(size, Math.max(FIRST_PAGE, Math.min(MAX_PAGE, last * 2)));
+		final ByteBuffer page;
+		if (m_heapBytes + capacity <= m_spillThreshold)
+		{
+			page = ByteBuffer.allocate(capacity);
+			m_heapBytes += capacity;
+		}
+		else
+		{
+			try
+			{
+				if (m_spill == null)
+				{
+					m_spillFile = File.createTempFile("genxdm-identity", ".tuples");
+					m_spillFile.deleteOnExit();
+					m_spill = new RandomAccessFile(m_spillFile, "rw");
+				}
+				page = m_spill.getChannel().map(FileChannel.MapMode.READ_WRITE, m_spillBytes, capacity);
+			}
+			catch (final IOException e)
+			{
+				throw new GenXDMException("Cannot spill identity-constraint tuples to a temporary file.", e);
+			}
+			m_spillBytes += capacity;
+		}
+		m_pages.add(page);
+		return page;
+	}
+
+	private void ensureScratch(final int more)
+	{
+		if (m_scratchLength + more > m_scratch.length)
+		{
+			final byte[] larger = new byte[Math.max(m_scratch.length * 2, m_scratchLength + more)];
+			System.arraycopy(m_scratch, 0, larger, 0, m_scratchLength);
+			m_scratch = larger;
+		}
+	}
+
+	private void writeNumber(int number)
+	{
+		while ((number & ~0x7F) != 0)
+		{
+			m_scratch[m_scratchLength++] = (byte)((number & 0x7F) | 0x80);
+			number >>>= 7;
+		}
+		m_scratch[m_scratchLength++] = (byte)number;
+	}
+
+	private static int readNumber(final ByteBuffer page, final int[] position)
+	{
+		int number = 0;
+		int shift = 0;
+		byte b;
+		do
+		{
+			b = page.get(position[0]++);
+			number |= (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while ((b & 0x80) != 0);
+		return number;
+	}
+
+	private static long address(final int page, final int offset)
+	{
+		return ((long)page << 32) | offset;
+	}
+
+	private static int page(final long address)
+	{
+		return (int)(address >>> 32);
+	}
+
+	private static int offset(final long address)
+	{
+		return (int)address;
+	}
+}
@@ -36,6 +36,15 @@ final class IdentityXPathIndex
 		m_upper = upperBound;
 	}
 
+	/**
+	 * Copies another index, as it stands.
+	 */
+	public IdentityXPathIndex(final IdentityXPathIndex other)
+	{
+		m_index = other.m_index;
+		m_upper = other.m_upper;
+	}
+
 	public int value()
 	{
 		return m_index;
@@ -80,6 +80,18 @@ final class ModelAnalyzerImpl implements ModelAnalyzer
 		m_rootStartDone = false;
 	}
 
+	/**
+	 * Starts the element of a subtree that another analyzer handed over, with the declaration and type that it
+	 * assigned to the element.
+	 */
+	public ModelPSVI startForkedElement(final QName elementName, final ElementDefinition declaration, final Type type, final ProcessContentsMode processContents, final boolean nilled)
+	{
+		m_currentPSVI = m_currentPSVI.push(elementName);
+		m_currentPSVI.assignForked(declaration, type, processContents, nilled);
+		m_rootStartDone = true;
+		return m_currentPSVI;
+	}
+
 	public ModelPSVI startElement(final QName elementName, final Type localType, final Boolean explicitNil) throws AbortException
 	{
 		final ModelPSVI parentItem = m_currentPSVI;
@@ -348,6 +348,17 @@ final class ModelPSVI implements VxPSVI, Locatable
 		m_nilled = false;
 	}
 
+	/**
+	 * Gives this element the declaration and type that another validator assigned to it.
+	 */
+	void assignForked(final ElementDefinition declaration, final Type type, final ProcessContentsMode processContents, final boolean nilled)
+	{
+		m_elementDecl = declaration;
+		setProcessContents(processContents);
+		annotate(type);
+		m_nilled = nilled;
+	}
+
 	public void annotate(final Type type)
 	{
 		m_type = PreCondition.assertArgumentNotNull(type);
@@ -0,0 +1,865 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.validation.impl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.xml.namespace.QName;
+
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.processor.w3c.xs.validation.api.VxAttributeBuffer;
+import org.genxdm.processor.w3c.xs.validation.api.VxMapping;
+import org.genxdm.processor.w3c.xs.validation.api.VxOutputHandler;
+import org.genxdm.processor.w3c.xs.validation.api.VxPSVI;
+import org.genxdm.processor.w3c.xs.validation.api.VxSchemaDocumentLocationStrategy;
+import org.genxdm.processor.w3c.xs.validation.api.VxValidator;
+import org.genxdm.typed.types.AtomBridge;
+import org.genxdm.xs.ComponentProvider;
+import org.genxdm.xs.exceptions.AbortException;
+import org.genxdm.xs.exceptions.SchemaException;
+import org.genxdm.xs.exceptions.SchemaExceptionHandler;
+import org.genxdm.xs.resolve.LocationInSchema;
+import org.genxdm.xs.types.SimpleType;
+import org.genxdm.xs.types.Type;
+
+/**
+ * Validates the subtrees of the elements at the end of a path, such as the records of <code>/batch/record</code>, in
+ * parallel.
+ * <p/>
+ * A {@link ValidationKernel} validates the document, except that, when an element on the path starts, it checks the
+ * element against the content model of its parent and hands the element, with its attributes and content, to another
+ * kernel, which validates it on a {@link ForkJoinPool}. What the kernels send downstream, and the errors they report,
+ * are held back until everything before them has been passed on, so that the annotated document and the errors come
+ * out in document order, as they would from one kernel. The IDs and IDREFs of each subtree are merged, in order, into
+ * those of the document; those that the main kernel sees meanwhile are held back with its output.
+ * <p/>
+ * The identity constraints of the ancestors of a subtree are evaluated within it by scopes that carry on from theirs;
+ * the tuples that those complete are likewise merged, in order, into the tables of the ancestors, and the xs:keyref
+ * tuples within it that refer to them are checked when the ancestors end. An element with identity constraints does
+ * not end until every subtree before it has been merged. A subtree is not handed over while the fields of an identity
+ * constraint are being evaluated, since they may reach into it; nor when the element is not validated, or its content
+ * is skipped. The PSVI returned by {@link #endElement()} for the elements within a subtree that has been handed over is
+ * null.
+ */
+final class ParallelValidator<A> implements VxValidator<A>
+{
+	ParallelValidator(final AtomBridge<A> atomBridge, final VxSchemaDocumentLocationStrategy sdl, final List<QName> forkPath, final ForkJoinPool pool)
+	{
+		m_atomBridge = PreCondition.assertArgumentNotNull(atomBridge, "atomBridge");
+		PreCondition.assertArgumentNotNull(forkPath, "forkPath");
+		PreCondition.assertTrue(forkPath.size() > 1, "forkPath.size() > 1");
+		m_pool = PreCondition.assertArgumentNotNull(pool, "pool");
+		m_sdl = sdl;
+		m_forkPath = forkPath.toArray(new QName[forkPath.size()]);
+		m_maxPending = pool.getParallelism() * 4;
+		m_main = new ValidationKernel<A>(atomBridge, sdl);
+		m_main.setOutputHandler(m_mainOutput);
+		m_main.setExceptionHandler(m_mainOutput);
+		m_main.setIdManager(m_ids);
+		m_main.setIdentityTupleSink(m_tuples);
+	}
+
+	@Override
+	public void characters(final char[] ch, final int start, final int length) throws IOException, AbortException
+	{
+		if (m_subtree != null)
+		{
+			m_subtree.record(CHARACTERS, new String(ch, start, length));
+		}
+		else
+		{
+			m_main.characters(ch, start, length);
+		}
+	}
+
+	@Override
+	public void endDocument() throws IOException, AbortException
+	{
+		drain(0);
+		m_main.endDocument();
+	}
+
+	@Override
+	public VxPSVI endElement() throws IOException, AbortException
+	{
+		if (m_subtree != null)
+		{
+			m_subtree.record(END_ELEMENT, null);
+			if (--m_subtree.m_depth > 0)
+			{
+				return null;
+			}
+			// the element that was handed over has ended.
+			m_pool.execute(m_subtree);
+			m_subtree.m_submitted = true;
+			m_subtree = null;
+		}
+		if (m_main.holdsIdentityScopes())
+		{
+			// the tuples of the subtrees before it are checked when it ends.
+			drain(0);
+		}
+		final VxPSVI psvi = m_main.endElement();
+		if (m_matched == m_depth)
+		{
+			m_matched--;
+		}
+		m_inScope.remove(--m_depth);
+		drain(m_maxPending);
+		return psvi;
+	}
+
+	@Override
+	public void reset()
+	{
+		m_main.reset();
+		m_ignored = null;
+		m_pending.clear();
+		m_pendingSubtrees = 0;
+		m_subtree = null;
+		m_inScope.clear();
+		m_depth = 0;
+		m_matched = 0;
+	}
+
+	@Override
+	public void setExceptionHandler(final SchemaExceptionHandler handler)
+	{
+		m_errors = PreCondition.assertArgumentNotNull(handler, "handler");
+	}
+
+	@Override
+	public void setComponentProvider(final ComponentProvider provider)
+	{
+		m_provider = provider;
+		m_main.setComponentProvider(provider);
+		// the idle kernels were made for the old provider; running subtrees give theirs back to the old queue.
+		m_idle = new ConcurrentLinkedQueue<ValidationKernel<A>>();
+	}
+
+	@Override
+	public void setIgnoredElements(final Iterable<QName> elements)
+	{
+		final List<QName> ignored = new ArrayList<QName>();
+		for (final QName name : elements)
+		{
+			ignored.add(name);
+		}
+		m_ignored = ignored;
+		m_main.setIgnoredElements(ignored);
+	}
+
+	@Override
+	public void setOutputHandler(final VxOutputHandler<A> handler)
+	{
+		m_downstream = PreCondition.assertArgumentNotNull(handler, "handler");
+	}
+
+	/**
+	 * Sets the identity-constraint spill threshold of the main kernel, and of the kernels made from now on.
+	 */
+	void setIdentitySpillThreshold(final long bytes)
+	{
+		m_spillThreshold = bytes;
+		m_main.setIdentitySpillThreshold(bytes);
+		m_idle = new ConcurrentLinkedQueue<ValidationKernel<A>>();
+	}
+
+	@Override
+	public void startDocument(final URI documentURI) throws IOException, AbortException
+	{
+		m_documentURI = documentURI;
+		m_pending.clear();
+		m_pendingSubtrees = 0;
+		m_subtree = null;
+		m_inScope.clear();
+		m_depth = 0;
+		m_matched = 0;
+		m_main.startDocument(documentURI);
+	}
+
+	@Override
+	public void startElement(final QName elementName, final LinkedList<VxMapping<String, String>> namespaces, final LinkedList<VxMapping<QName, String>> attributes, final QName elementType) throws IOException, AbortException
+	{
+		m_buffer.clear();
+		for (final VxMapping<String, String> mapping : namespaces)
+		{
+			m_buffer.addNamespace(mapping.getKey(), mapping.getValue());
+		}
+		for (final VxMapping<QName, String> mapping : attributes)
+		{
+			m_buffer.addAttribute(mapping.getKey(), mapping.getValue());
+		}
+		startElement(elementName, m_buffer, elementType);
+	}
+
+	@Override
+	public void startElement(final QName elementName, final VxAttributeBuffer attributes, final QName elementType) throws IOException, AbortException
+	{
+		if (m_subtree != null)
+		{
+			m_subtree.record(START_ELEMENT, elementName, new VxAttributeBuffer(attributes));
+			m_subtree.m_depth++;
+			return;
+		}
+		m_inScope.add((attributes.getNamespaceCount() == 0) ? NO_NAMESPACES : new VxAttributeBuffer(attributes));
+		m_depth++;
+		if ((m_matched == m_depth - 1) && (m_depth <= m_forkPath.length) && m_forkPath[m_depth - 1].equals(elementName))
+		{
+			m_matched = m_depth;
+		}
+		if ((m_matched == m_forkPath.length) && (m_depth == m_forkPath.length) && (elementType == null))
+		{
+			final Recording output = new Recording();
+			final ValidationKernel.ForkedElement forked = m_main.startForkedElement(elementName, attributes, output, output);
+			if (forked != null)
+			{
+				m_subtree = new Subtree(forked, output, new ArrayList<VxAttributeBuffer>(m_inScope.subList(0, m_depth - 1)), elementName, new VxAttributeBuffer(attributes));
+				m_pending.add(m_subtree);
+				m_pendingSubtrees++;
+			}
+		}
+		else
+		{
+			m_main.startElement(elementName, attributes, elementType);
+		}
+	}
+
+	@Override
+	public void text(final List<? extends A> value) throws IOException, AbortException
+	{
+		if (m_subtree != null)
+		{
+			m_subtree.record(TEXT, value);
+		}
+		else
+		{
+			m_main.text(value);
+		}
+	}
+
+	/**
+	 * Passes on what is ready, in order, and waits for subtrees until no more than the limit remain in hand.
+	 */
+	private void drain(final int limit) throws IOException, AbortException
+	{
+		m_replaying = true;
+		try
+		{
+			while (!m_pending.isEmpty())
+			{
+				final Object head = m_pending.peek();
+				if (head instanceof ParallelValidator.Subtree)
+				{
+					@SuppressWarnings("unchecked")
+					final Subtree subtree = (Subtree)head;
+					if (!subtree.m_submitted || (!subtree.isDone() && (m_pendingSubtrees <= limit)))
+					{
+						return;
+					}
+					subtree.join();
+					subtree.rethrow();
+					subtree.m_output.replay(m_downstream, m_errors);
+					m_ids.merge(subtree.m_ids, m_errors);
+					m_main.adoptIdentityScopes(subtree.m_refs);
+					m_pendingSubtrees--;
+				}
+				else
+				{
+					@SuppressWarnings("unchecked")
+					final Recording recording = (Recording)head;
+					recording.replay(m_downstream, m_errors);
+				}
+				m_pending.poll();
+			}
+		}
+		finally
+		{
+			m_replaying = false;
+		}
+	}
+
+	/**
+	 * Where the main kernel's output goes after a subtree has been handed over, until the subtree has been passed on.
+	 */
+	private Recording tail()
+	{
+		final Object last = m_pending.peekLast();
+		if (last instanceof ParallelValidator.Recording)
+		{
+			@SuppressWarnings("unchecked")
+			final Recording recording = (Recording)last;
+			return recording;
+		}
+		final Recording recording = new Recording();
+		m_pending.add(recording);
+		return recording;
+	}
+
+	private ValidationKernel<A> newWorker(final ComponentProvider provider)
+	{
+		final ValidationKernel<A> kernel = new ValidationKernel<A>(m_atomBridge, m_sdl);
+		kernel.setComponentProvider(provider);
+		kernel.setIdentitySpillThreshold(m_spillThreshold);
+		return kernel;
+	}
+
+	private static final VxAttributeBuffer NO_NAMESPACES = new VxAttributeBuffer();
+
+	// opcodes of recorded events
+	private static final int ATTRIBUTE = 0;
+	private static final int TYPED_ATTRIBUTE = 1;
+	private static final int END_DOCUMENT = 2;
+	private static final int END_ELEMENT = 3;
+	private static final int NAMESPACE = 4;
+	private static final int START_DOCUMENT = 5;
+	private static final int START_ELEMENT = 6;
+	private static final int TEXT = 7;
+	private static final int STRING_TEXT = 8;
+	private static final int ERROR = 9;
+	private static final int CHARACTERS = 10;
+	private static final int ID = 11;
+	private static final int IDREF = 12;
+	private static final int TUPLE = 13;
+
+	/**
+	 * The events sent downstream, and the errors reported, by a kernel, to be passed on later. Each event is an opcode
+	 * followed by a fixed number of arguments.
+	 */
+	private final class Recording
+	    implements VxOutputHandler<A>, SchemaExceptionHandler, IdentityScope.TupleSink
+	{
+		@Override
+		public void attribute(final QName name, final String value)
+		{
+			m_events.add(ATTRIBUTE);
+			m_events.add(name);
+			m_events.add(value);
+		}
+
+		@Override
+		public void attribute(final QName name, final List<? extends A> value, final SimpleType type)
+		{
+			m_events.add(TYPED_ATTRIBUTE);
+			m_events.add(name);
+			m_events.add(value);
+			m_events.add(type);
+		}
+
+		@Override
+		public void endDocument()
+		{
+			m_events.add(END_DOCUMENT);
+		}
+
+		@Override
+		public void endElement()
+		{
+			m_events.add(END_ELEMENT);
+		}
+
+		@Override
+		public void namespace(final String prefix, final String namespaceURI)
+		{
+			m_events.add(NAMESPACE);
+			m_events.add(prefix);
+			m_events.add(namespaceURI);
+		}
+
+		@Override
+		public void startDocument()
+		{
+			m_events.add(START_DOCUMENT);
+		}
+
+		@Override
+		public void startElement(final QName name, final Type type)
+		{
+			m_events.add(START_ELEMENT);
+			m_events.add(name);
+			m_events.add(type);
+		}
+
+		@Override
+		public void text(final List<? extends A> value)
+		{
+			m_events.add(TEXT);
+			m_events.add(value);
+		}
+
+		@Override
+		public void text(final String value)
+		{
+			m_events.add(STRING_TEXT);
+			m_events.add(value);
+		}
+
+		@Override
+		public void error(final SchemaException exception)
+		{
+			m_events.add(ERROR);
+			m_events.add(exception);
+		}
+
+		@Override
+		public void keysComplete(final IdentityScope scope, final List<String> keyValues, final int elementIndex)
+		{
+			m_events.add(TUPLE);
+			m_events.add(scope);
+			m_events.add(new ArrayList<String>(keyValues));
+			m_events.add(elementIndex);
+		}
+
+		void id(final String id, final LocationInSchema location)
+		{
+			m_events.add(ID);
+			m_events.add(id);
+			m_events.add(location);
+		}
+
+		void idref(final String idref, final LocationInSchema location)
+		{
+			m_events.add(IDREF);
+			m_events.add(idref);
+			m_events.add(location);
+		}
+
+		@SuppressWarnings("unchecked")
+		void replay(final VxOutputHandler<A> downstream, final SchemaExceptionHandler errors) throws IOException, AbortException
+		{
+			int i = 0;
+			while (i < m_events.size())
+			{
+				final int opcode = (Integer)m_events.get(i++);
+				if (opcode == ERROR)
+				{
+					errors.error((SchemaException)m_events.get(i++));
+					continue;
+				}
+				if (opcode == ID)
+				{
+					m_ids.defineId((String)m_events.get(i), (LocationInSchema)m_events.get(i + 1), errors);
+					i += 2;
+					continue;
+				}
+				if (opcode == IDREF)
+				{
+					m_ids.referToId((String)m_events.get(i), (LocationInSchema)m_events.get(i + 1));
+					i += 2;
+					continue;
+				}
+				if (opcode == TUPLE)
+				{
+					((IdentityScope)m_events.get(i)).onKeysComplete((List<String>)m_events.get(i + 1), (Integer)m_events.get(i + 2));
+					i += 3;
+					continue;
+				}
+				switch (opcode)
+				{
+					case ATTRIBUTE:
+					{
+						if (downstream != null)
+							downstream.attribute((QName)m_events.get(i), (String)m_events.get(i + 1));
+						i += 2;
+					}
+					break;
+					case TYPED_ATTRIBUTE:
+					{
+						if (downstream != null)
+							downstream.attribute((QName)m_events.get(i), (List<? extends A>)m_events.get(i + 1), (SimpleType)m_events.get(i + 2));
+						i += 3;
+					}
+					break;
+					case END_DOCUMENT:
+					{
+						if (downstream != null)
+							downstream.endDocument();
+					}
+					break;
+					case END_ELEMENT:
+					{
+						if (downstream != null)
+							downstream.endElement();
+					}
+					break;
+					case NAMESPACE:
+					{
+						if (downstream != null)
+							downstream.namespace((String)m_events.get(i), (String)m_events.get(i + 1));
+						i += 2;
+					}
+					break;
+					case START_DOCUMENT:
+					{
+						if (downstream != null)
+							downstream.startDocument();
+					}
+					break;
+					case START_ELEMENT:
+					{
+						if (downstream != null)
+							downstream.startElement((QName)m_events.get(i), (Type)m_events.get(i + 1));
+						i += 2;
+					}
+					break;
+					case TEXT:
+					{
+						if (downstream != null)
+							downstream.text((List<? extends A>)m_events.get(i));
+						i += 1;
+					}
+					break;
+					case STRING_TEXT:
+					{
+						if (downstream != null)
+							downstream.text((String)m_events.get(i));
+						i += 1;
+					}
+					break;
+					default:
+					{
+						throw new AssertionError(opcode);
+					}
+				}
+			}
+		}
+
+		private final ArrayList<Object> m_events = new ArrayList<Object>();
+	}
+
+	/**
+	 * Stands between the main kernel and downstream: passes events and errors straight on while nothing is held back,
+	 * and otherwise records them behind what is.
+	 */
+	private final class MainOutput
+	    implements VxOutputHandler<A>, SchemaExceptionHandler
+	{
+		@Override
+		public void attribute(final QName name, final String value) throws IOException
+		{
+			if (!m_pending.isEmpty())
+				tail().attribute(name, value);
+			else if (m_downstream != null)
+				m_downstream.attribute(name, value);
+		}
+
+		@Override
+		public void attribute(final QName name, final List<? extends A> value, final SimpleType type) throws IOException
+		{
+			if (!m_pending.isEmpty())
+				tail().attribute(name, value, type);
+			else if (m_downstream != null)
+				m_downstream.attribute(name, value, type);
+		}
+
+		@Override
+		public void endDocument() throws IOException
+		{
+			if (!m_pending.isEmpty())
+				tail().endDocument();
+			else if (m_downstream != null)
+				m_downstream.endDocument();
+		}
+
+		@Override
+		public void endElement() throws IOException
+		{
+			if (!m_pending.isEmpty())
+				tail().endElement();
+			else if (m_downstream != null)
+				m_downstream.endElement();
+		}
+
+		@Override
+		public void namespace(final String prefix, final String namespaceURI) throws IOException
+		{
+			if (!m_pending.isEmpty())
+				tail().namespace(prefix, namespaceURI);
+			else if (m_downstream != null)
+				m_downstream.namespace(prefix, namespaceURI);
+		}
+
+		@Override
+		public void startDocument() throws IOException
+		{
+			if (!m_pending.isEmpty())
+				tail().startDocument();
+			else if (m_downstream != null)
+				m_downstream.startDocument();
+		}
+
+		@Override
+		public void startElement(final QName name, final Type type) throws IOException
+		{
+			if (!m_pending.isEmpty())
+				tail().startElement(name, type);
+			else if (m_downstream != null)
+				m_downstream.startElement(name, type);
+		}
+
+		@Override
+		public void text(final List<? extends A> value) throws IOException
+		{
+			if (!m_pending.isEmpty())
+				tail().text(value);
+			else if (m_downstream != null)
+				m_downstream.text(value);
+		}
+
+		@Override
+		public void text(final String value) throws IOException
+		{
+			if (!m_pending.isEmpty())
+				tail().text(value);
+			else if (m_downstream != null)
+				m_downstream.text(value);
+		}
+
+		@Override
+		public void error(final SchemaException exception) throws AbortException
+		{
+			// the errors of the main kernel's identity scopes, as tuples held back are passed to them, are in order.
+			if (!m_pending.isEmpty() && !m_replaying)
+				tail().error(exception);
+			else
+				m_errors.error(exception);
+		}
+	}
+
+	/**
+	 * The tuples of the main kernel's identity scopes. Those it completes while something is held back are recorded
+	 * behind it, so that they are taken in after the tuples of the subtrees before them.
+	 */
+	private final class MainTuples
+	    implements IdentityScope.TupleSink
+	{
+		@Override
+		public void keysComplete(final IdentityScope scope, final List<String> keyValues, final int elementIndex) throws AbortException
+		{
+			if (!m_pending.isEmpty())
+				tail().keysComplete(scope, keyValues, elementIndex);
+			else
+				scope.onKeysComplete(keyValues, elementIndex);
+		}
+	}
+
+	/**
+	 * The IDs and IDREFs of the document, kept by the main kernel. Those it sees while something is held back are
+	 * recorded behind it, so that they are taken in after the IDs of the subtrees before them.
+	 */
+	private final class MainIds
+	    extends IdManager
+	{
+		@Override
+		public <T> void processId(final String id, final Locatable locatable, final AtomBridge<T> atomBridge, final SchemaExceptionHandler errors) throws AbortException
+		{
+			if (!m_pending.isEmpty())
+				tail().id(id, locatable.getLocation());
+			else
+				defineId(id, locatable.getLocation(), errors);
+		}
+
+		@Override
+		void processIdRef(final String idref, final Locatable locatable)
+		{
+			if (!m_pending.isEmpty())
+				tail().idref(idref, locatable.getLocation());
+			else
+				referToId(idref, locatable.getLocation());
+		}
+	}
+
+	/**
+	 * The subtree of an element that has been handed over: its events, as they came in, and, once it has been
+	 * validated by a kernel from the pool, what that kernel sent downstream and the IDs it saw.
+	 */
+	@SuppressWarnings("serial")
+	private final class Subtree
+	    extends RecursiveAction
+	{
+		Subtree(final ValidationKernel.ForkedElement forked, final Recording output, final List<VxAttributeBuffer> inScope, final QName elementName, final VxAttributeBuffer attributes)
+		{
+			m_forked = forked;
+			m_output = output;
+			m_inScope = inScope;
+			m_elementName = elementName;
+			m_attributes = attributes;
+			m_documentURI = ParallelValidator.this.m_documentURI;
+			m_ignored = ParallelValidator.this.m_ignored;
+			m_provider = ParallelValidator.this.m_provider;
+			m_idle = ParallelValidator.this.m_idle;
+		}
+
+		void record(final int opcode, final Object argument)
+		{
+			m_input.add(opcode);
+			m_input.add(argument);
+		}
+
+		void record(final int opcode, final Object name, final Object attributes)
+		{
+			m_input.add(opcode);
+			m_input.add(name);
+			m_input.add(attributes);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected void compute()
+		{
+			ValidationKernel<A> kernel = m_idle.poll();
+			if (kernel == null)
+			{
+				kernel = newWorker(m_provider);
+			}
+			try
+			{
+				kernel.reset();
+				if (m_ignored != null)
+				{
+					kernel.setIgnoredElements(m_ignored);
+				}
+				kernel.setOutputHandler(m_output);
+				kernel.setExceptionHandler(m_output);
+				kernel.startForkedSubtree(m_documentURI, m_inScope, m_elementName, m_attributes, m_forked);
+				int i = 0;
+				while (i < m_input.size())
+				{
+					final int opcode = (Integer)m_input.get(i++);
+					switch (opcode)
+					{
+						case START_ELEMENT:
+						{
+							kernel.startElement((QName)m_input.get(i), (VxAttributeBuffer)m_input.get(i + 1), null);
+							i += 2;
+						}
+						break;
+						case END_ELEMENT:
+						{
+							kernel.endElement();
+							i += 1;
+						}
+						break;
+						case TEXT:
+						{
+							kernel.text((List<? extends A>)m_input.get(i++));
+						}
+						break;
+						case CHARACTERS:
+						{
+							final String characters = (String)m_input.get(i++);
+							kernel.characters(characters.toCharArray(), 0, characters.length());
+						}
+						break;
+						default:
+						{
+							throw new AssertionError(opcode);
+						}
+					}
+				}
+				m_ids = kernel.detachIds();
+				m_refs = kernel.endForkedSubtree();
+			}
+			catch (final IOException e)
+			{
+				m_failure = e;
+			}
+			catch (final AbortException e)
+			{
+				m_failure = e;
+			}
+			finally
+			{
+				m_input.clear();
+				m_idle.add(kernel);
+			}
+		}
+
+		void rethrow() throws IOException, AbortException
+		{
+			if (m_failure instanceof IOException)
+			{
+				throw (IOException)m_failure;
+			}
+			if (m_failure instanceof AbortException)
+			{
+				throw (AbortException)m_failure;
+			}
+		}
+
+		private final ValidationKernel.ForkedElement m_forked;
+		private final List<VxAttributeBuffer> m_inScope;
+		private final QName m_elementName;
+		private final VxAttributeBuffer m_attributes;
+		private final URI m_documentURI;
+		private final List<QName> m_ignored;
+		private final ComponentProvider m_provider;
+		private final ConcurrentLinkedQueue<ValidationKernel<A>> m_idle;
+
+		// filled in by the coordinator before the subtree is submitted
+		private final ArrayList<Object> m_input = new ArrayList<Object>();
+		private int m_depth = 1;
+		private boolean m_submitted;
+
+		// filled in by the worker; seen by the coordinator after join
+		private final Recording m_output;
+		private IdManager m_ids;
+		private List<IdentityScopeRef> m_refs;
+		private Exception m_failure;
+	}
+
+	private final AtomBridge<A> m_atomBridge;
+	private final VxSchemaDocumentLocationStrategy m_sdl;
+	private final QName[] m_forkPath;
+	private final ForkJoinPool m_pool;
+	private final int m_maxPending;
+
+	private final ValidationKernel<A> m_main;
+	private final MainOutput m_mainOutput = new MainOutput();
+	private final MainIds m_ids = new MainIds();
+	private final MainTuples m_tuples = new MainTuples();
+	private VxOutputHandler<A> m_downstream;
+	private SchemaExceptionHandler m_errors = SmExceptionThrower.SINGLETON;
+	private ComponentProvider m_provider;
+	private List<QName> m_ignored;
+	private ConcurrentLinkedQueue<ValidationKernel<A>> m_idle = new ConcurrentLinkedQueue<ValidationKernel<A>>();
+	private URI m_documentURI;
+	private long m_spillThreshold = IdentityTupleStore.DEFAULT_SPILL_THRESHOLD;
+
+	// subtrees and recordings of the main kernel's output, in document order, not yet passed on
+	private final ArrayDeque<Object> m_pending = new ArrayDeque<Object>();
+	private int m_pendingSubtrees;
+	// the subtree whose events are being recorded, if any
+	private Subtree m_subtree;
+	// true while what was held back is passed on, so that the errors of the main kernel's identity scopes go with it
+	private boolean m_replaying;
+
+	// what the attributes given as lists are copied into
+	private final VxAttributeBuffer m_buffer = new VxAttributeBuffer();
+	// the namespaces declared by each open element outside any subtree
+	private final ArrayList<VxAttributeBuffer> m_inScope = new ArrayList<VxAttributeBuffer>();
+	private int m_depth;
+	// the number of leading steps of the path that the open elements match
+	private int m_matched;
+}
@@ -16,7 +16,6 @@
 package org.genxdm.processor.w3c.xs.validation.impl;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import javax.xml.namespace.QName;
@@ -33,7 +32,7 @@ import org.genxdm.xs.components.SchemaWildcard;
 final class SmMachineImpl implements SmContentFiniteStateMachine
 {
 	private ElementDefinition m_element;
-	private final LinkedList<ValidationExpr> m_matchers = new LinkedList<ValidationExpr>();
+	private final ArrayList<ValidationExpr> m_matchers = new ArrayList<ValidationExpr>(4); // reused for every step
 	private final RegExMachine<ValidationExpr, QName> m_regexm;
 	private SchemaWildcard m_wildcard;
 
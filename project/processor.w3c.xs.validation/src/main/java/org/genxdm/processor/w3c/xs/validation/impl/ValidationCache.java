@@ -15,7 +15,7 @@
  */
 package org.genxdm.processor.w3c.xs.validation.impl;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -46,12 +46,27 @@ final class ValidationCache
 		final ComplexType itemType = (ComplexType)complexType;
 		final RegExPattern<ValidationExpr, QName> pattern = ensurePattern(itemType);
 
-		final List<ValidationExpr> expectedFollowers = new LinkedList<ValidationExpr>();
+		final List<ValidationExpr> expectedFollowers = new ArrayList<ValidationExpr>();
 		final RegExMachine<ValidationExpr, QName> regexm = PreCondition.assertArgumentNotNull(pattern.createRegExMachine(expectedFollowers), "createRegExMachine");
 
 		return new SmMachineImpl(regexm);
 	}
 
+	AttributeUseTable getAttributeTable(final ComplexType complexType)
+	{
+		final AttributeUseTable cachedTable = m_attributeTables.get(complexType);
+		if (null != cachedTable)
+		{
+			return cachedTable;
+		}
+		else
+		{
+			final AttributeUseTable table = AttributeUseTable.build(complexType);
+			m_attributeTables.put(complexType, table);
+			return table;
+		}
+	}
+
 	private RegExPattern<ValidationExpr, QName> ensurePattern(final ComplexType complexType)
 	{
 		final RegExPattern<ValidationExpr, QName> cachedPattern = m_patterns.get(complexType);
@@ -65,7 +80,7 @@ final class ValidationCache
 
 			final SchemaParticle contentModel = contentType.getContentModel();
 			final ValidationExpr expression = expression(contentModel);
-			final RegExFactory<ValidationExpr, QName> factory = new NfaFactory<ValidationExpr, QName>();
+			final RegExFactory<ValidationExpr, QName> factory = new NfaFactory<ValidationExpr, QName>(true);
 			final RegExPattern<ValidationExpr, QName> pattern = factory.newPattern(expression, m_regexb);
 			m_patterns.put(complexType, pattern);
 			return pattern;
@@ -86,6 +101,7 @@ final class ValidationCache
 		}
 	}
     private final ConcurrentHashMap<ComplexType, RegExPattern<ValidationExpr, QName>> m_patterns = new ConcurrentHashMap<ComplexType, RegExPattern<ValidationExpr, QName>>();
+    private final ConcurrentHashMap<ComplexType, AttributeUseTable> m_attributeTables = new ConcurrentHashMap<ComplexType, AttributeUseTable>();
 
     private final RegExBridge<ValidationExpr, QName> m_regexb;
 
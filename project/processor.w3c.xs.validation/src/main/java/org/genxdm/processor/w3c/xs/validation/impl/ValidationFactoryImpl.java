@@ -15,6 +15,11 @@
  */
 package org.genxdm.processor.w3c.xs.validation.impl;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.xml.namespace.QName;
+
 import org.genxdm.processor.w3c.xs.validation.api.VxSchemaDocumentLocationStrategy;
 import org.genxdm.processor.w3c.xs.validation.api.VxValidator;
 import org.genxdm.processor.w3c.xs.validation.api.VxValidatorFactory;
@@ -26,7 +31,17 @@ public final class ValidationFactoryImpl implements VxValidatorFactory
     @Override
 	public <A> VxValidator<A> newValidator(final AtomBridge<A> atoms)
 	{
-        return new ValidationKernel<A>(atoms, sdl);
+        final ValidationKernel<A> kernel = new ValidationKernel<A>(atoms, sdl);
+        kernel.setIdentitySpillThreshold(spillThreshold);
+        return kernel;
+	}
+
+    @Override
+	public <A> VxValidator<A> newParallelValidator(final AtomBridge<A> atoms, final List<QName> forkPath, final ForkJoinPool pool)
+	{
+        final ParallelValidator<A> validator = new ParallelValidator<A>(atoms, sdl, forkPath, pool);
+        validator.setIdentitySpillThreshold(spillThreshold);
+        return validator;
 	}
 
     @Override
@@ -35,6 +50,13 @@ public final class ValidationFactoryImpl implements VxValidatorFactory
 		this.sdl = schemaDocumentLocationStrategy;
 	}
 
+    @Override
+	public void setIdentitySpillThreshold(final long bytes)
+	{
+		this.spillThreshold = bytes;
+	}
+
     private VxSchemaDocumentLocationStrategy sdl;
+    private long spillThreshold = IdentityTupleStore.DEFAULT_SPILL_THRESHOLD;
 
 }
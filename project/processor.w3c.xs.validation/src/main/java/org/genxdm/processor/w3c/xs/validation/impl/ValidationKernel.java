@@ -33,6 +33,7 @@ import org.genxdm.processor.w3c.xs.exception.cvc.CvcUnexpectedNonWhiteSpaceTextI
 import org.genxdm.processor.w3c.xs.exception.cvc.CvcUnexpectedTextInEmptyContentException;
 import org.genxdm.processor.w3c.xs.exception.sm.SmExceptionSupplier;
 import org.genxdm.processor.w3c.xs.exception.sm.SmUndeclaredReferenceException;
+import org.genxdm.processor.w3c.xs.validation.api.VxAttributeBuffer;
 import org.genxdm.processor.w3c.xs.validation.api.VxMapping;
 import org.genxdm.processor.w3c.xs.validation.api.VxOutputHandler;
 import org.genxdm.processor.w3c.xs.validation.api.VxPSVI;
@@ -45,6 +46,7 @@ import org.genxdm.xs.constraints.ValueConstraint;
 import org.genxdm.xs.enums.ProcessContentsMode;
 import org.genxdm.xs.exceptions.AbortException;
 import org.genxdm.xs.exceptions.DatatypeException;
+import org.genxdm.xs.exceptions.SchemaExceptionCatcher;
 import org.genxdm.xs.exceptions.SchemaExceptionHandler;
 import org.genxdm.xs.exceptions.SimpleTypeException;
 import org.genxdm.xs.types.ComplexType;
@@ -184,19 +186,29 @@ final class ValidationKernel<A> implements VxValidator<A>, SmExceptionSupplier
 
 			final VxPSVI psvi = m_mac.endElement();
 
-			m_icm.endElement(m_currentPSVI, m_currentItem);
+			if (m_currentItem != m_forkedItem)
+			{
+				// the scopes of the ancestors did not see a handed-over element start.
+				m_icm.endElement(m_currentPSVI, m_currentItem);
+			}
 
 			return psvi;
 		}
 		finally
 		{
+			final boolean forked = (m_currentItem == m_forkedItem);
 			m_currentItem = m_currentItem.pop();
 			m_currentPSVI = m_currentPSVI.getParent();
 
 			// Maintain prefix mapping information.
 			m_namespaces.popContext();
 
-			if (null != m_downstream)
+			if (forked)
+			{
+				// the kernel that validated the subtree sent it downstream
+				m_forkedItem = null;
+			}
+			else if (null != m_downstream)
 			{
 				m_downstream.endElement();
 			}
@@ -499,6 +511,7 @@ final class ValidationKernel<A> implements VxValidator<A>, SmExceptionSupplier
 		m_nodeIndex = -1;
 		if (m_icm != null)
 		    m_icm.reset();
+		m_forkedItem = null;
 		skipContents = null; // null is a better sentinel than empty
 	}
 	
@@ -507,7 +520,7 @@ final class ValidationKernel<A> implements VxValidator<A>, SmExceptionSupplier
 	{
 	    m_provider = provider;
 	    ValidationCache cache = new ValidationCache();
-        m_attributes = new AttributeManager<A>(m_provider, m_atomBridge);
+        m_attributes = new AttributeManager<A>(m_provider, m_atomBridge, cache);
         m_currentPSVI = m_documentPSVI = new ModelPSVI(ProcessContentsMode.Strict, m_provider, cache);
 
         m_mac = new ModelAnalyzerImpl(m_provider, cache);
@@ -539,6 +552,15 @@ final class ValidationKernel<A> implements VxValidator<A>, SmExceptionSupplier
 		m_downstream = PreCondition.assertArgumentNotNull(handler, "handler");
 	}
 
+	/**
+	 * Sets the number of bytes of tuples that one identity-constraint scope keeps on the heap before it spills them to
+	 * a temporary file.
+	 */
+	void setIdentitySpillThreshold(final long bytes)
+	{
+		m_icm.setSpillThreshold(bytes);
+	}
+
 	@Override
 	public void startDocument(final URI documentURI) throws IOException
 	{
@@ -561,6 +583,22 @@ final class ValidationKernel<A> implements VxValidator<A>, SmExceptionSupplier
 	@Override
 	public void startElement(final QName elementName, final LinkedList<VxMapping<String, String>> namespaces, final LinkedList<VxMapping<QName, String>> attributes, QName elementType) 
 	    throws IOException, AbortException
+	{
+		m_buffer.clear();
+		for (final VxMapping<String, String> mapping : namespaces)
+		{
+			m_buffer.addNamespace(mapping.getKey(), mapping.getValue());
+		}
+		for (final VxMapping<QName, String> mapping : attributes)
+		{
+			m_buffer.addAttribute(mapping.getKey(), mapping.getValue());
+		}
+		startElement(elementName, m_buffer, elementType);
+	}
+
+	@Override
+	public void startElement(final QName elementName, final VxAttributeBuffer attributes, QName elementType) 
+	    throws IOException, AbortException
 	{
 	    Type localType = null;
 	    if (elementType != null)
@@ -572,20 +610,148 @@ final class ValidationKernel<A> implements VxValidator<A>, SmExceptionSupplier
 	        if (localType == null)
 	            throw new AbortException(new SmUndeclaredReferenceException(elementType, null));
 	    }
+	    startElementModel(elementName, attributes, localType);
+	    startElementContent(elementName, attributes);
+	}
+
+	/**
+	 * Starts an element whose attributes and content are to be validated by another kernel, if they can be (see
+	 * {@link ParallelValidator}). The element is checked against the content model of its parent, and its declaration
+	 * and type are resolved, as usual; nothing is sent downstream for it, and its content is skipped. The identity
+	 * scopes of its ancestors do not see it; those that stand in for them in the other kernel do.
+	 * 
+	 * @param errors
+	 *            where the scopes that stand in for those of the ancestors report errors in their fields.
+	 * @param sink
+	 *            where they send their tuples, for those of the ancestors.
+	 * @return what the other kernel needs to start from, or null if the element cannot be handed over, because the
+	 *         fields of an identity constraint are being evaluated or the element is not being validated; in that case
+	 *         the element has been started as usual.
+	 */
+	ForkedElement startForkedElement(final QName elementName, final VxAttributeBuffer attributes, final SchemaExceptionHandler errors, final IdentityScope.TupleSink sink) throws IOException, AbortException
+	{
+		startElementModel(elementName, attributes, null);
+
+		final Type type = m_currentPSVI.getType();
+		final ProcessContentsMode processContents = m_currentPSVI.getProcessContents();
+		final List<IdentityScope> scopes;
+		if ((null == type) || (processContents == ProcessContentsMode.Skip) || m_currentPSVI.getSuspendChecking() || m_currentItem.getSuspendChecking() || ((skipContents != null) && skipContents.contains(elementName)) || (null == (scopes = m_icm.fork(m_currentItem.getParentItem(), errors, sink))))
+		{
+			startElementContent(elementName, attributes);
+			return null;
+		}
+		final ForkedElement forked = new ForkedElement(m_currentPSVI.getDeclaration(), type, processContents, m_currentPSVI.isNilled(), scopes);
+		m_currentPSVI.setProcessContents(ProcessContentsMode.Skip);
+		m_currentItem.m_detectedText = true;
+		m_forkedItem = m_currentItem;
+		return forked;
+	}
+
+	/**
+	 * Starts validating, as though it were a document, the subtree of an element that another kernel handed over from
+	 * {@link #startForkedElement}; nothing is sent downstream for the document. Errors in the xsi: attributes of the
+	 * element have been reported by the other kernel, and are not reported again.
+	 * 
+	 * @param inScope
+	 *            the namespaces declared by the ancestors of the element, outermost first.
+	 */
+	void startForkedSubtree(final URI documentURI, final List<VxAttributeBuffer> inScope, final QName elementName, final VxAttributeBuffer attributes, final ForkedElement forked) throws IOException, AbortException
+	{
+		this.documentURI = documentURI;
+
+		m_currentPSVI = m_documentPSVI;
+		m_currentItem = m_documentItem;
+		m_mac.startDocument();
+		m_nodeIndex = 0;
+		m_idm.reset();
+
+		for (final VxAttributeBuffer declarations : inScope)
+		{
+			pushNamespaces(declarations);
+		}
+
+		m_text.setLength(0);
+		m_currentItem = m_currentItem.push(++m_nodeIndex);
+		pushNamespaces(attributes);
+		m_attributes.initialize(elementName, m_currentItem, attributes, m_namespaces, documentURI, new SchemaExceptionCatcher(), sdl, forked.processContents);
+		m_currentPSVI = m_mac.startForkedElement(elementName, forked.declaration, forked.type, forked.processContents, forked.nilled);
+		m_icm.startForkedSubtree(m_documentItem, forked.scopes);
+		startElementContent(elementName, attributes);
+	}
+
+	/**
+	 * Takes off the identity scopes that stood in for those of the ancestors of a subtree started by
+	 * {@link #startForkedSubtree}, once it has ended.
+	 * 
+	 * @return the xs:keyref scopes within the subtree that refer to them, for {@link #adoptIdentityScopes}.
+	 */
+	List<IdentityScopeRef> endForkedSubtree()
+	{
+		return m_icm.endForkedSubtree(m_documentItem);
+	}
+
+	/**
+	 * Moves xs:keyref scopes returned by {@link #endForkedSubtree} to the open elements whose xs:key scopes theirs
+	 * stood in for.
+	 */
+	void adoptIdentityScopes(final List<IdentityScopeRef> refs)
+	{
+		m_icm.adopt(m_currentItem, refs);
+	}
+
+	/**
+	 * Returns true if identity constraints are in scope on the current element, and are to be checked when it ends.
+	 */
+	boolean holdsIdentityScopes()
+	{
+		return !m_currentItem.m_identityScopes.isEmpty();
+	}
+
+	/**
+	 * Sends the tuples of the identity scopes made from now on to the given sink, instead of straight to the scopes.
+	 */
+	void setIdentityTupleSink(final IdentityScope.TupleSink sink)
+	{
+		m_icm.setTupleSink(sink);
+	}
+
+	/**
+	 * Hands over the IDs and IDREFs seen since the document (or subtree) started, and starts afresh.
+	 */
+	IdManager detachIds()
+	{
+		final IdManager ids = m_idm;
+		m_idm = new IdManager();
+		return ids;
+	}
+
+	/**
+	 * Keeps the IDs and IDREFs of the document in the given manager, instead of one of the kernel's own.
+	 */
+	void setIdManager(final IdManager ids)
+	{
+		m_idm = PreCondition.assertArgumentNotNull(ids, "ids");
+	}
+
+	private void pushNamespaces(final VxAttributeBuffer declarations)
+	{
+		m_namespaces.pushContext();
+		for (int i = 0; i < declarations.getNamespaceCount(); i++)
+		{
+			m_namespaces.declarePrefix(declarations.getDeclaredPrefix(i), declarations.getDeclaredNamespaceURI(i));
+		}
+	}
+
+	private void startElementModel(final QName elementName, final VxAttributeBuffer attributes, Type localType) 
+	    throws IOException, AbortException
+	{
 		m_text.setLength(0);
 
 		final ValidationItem parentItem = m_currentItem;
 		m_currentItem = parentItem.push(++m_nodeIndex);
 
 		// Maintain prefix mapping information.
-		m_namespaces.pushContext();
-		if (namespaces.size() > 0) // Optimization.
-		{
-			for (final VxMapping<String, String> mapping : namespaces)
-			{
-				m_namespaces.declarePrefix(mapping.getKey(), mapping.getValue());
-			}
-		}
+		pushNamespaces(attributes);
 
 		// before dealing with attributes, which may make the localType non-null,
 		// tweak processContents in the 'parent' (which may be a phantom) of the
@@ -622,15 +788,20 @@ final class ValidationKernel<A> implements VxValidator<A>, SmExceptionSupplier
 		if (savedPC != null)
 		    m_currentPSVI.setProcessContents(savedPC); // actually a different ModelPSVI than the one we set lax above
 
+	}
+
+	private void startElementContent(final QName elementName, final VxAttributeBuffer attributes) 
+	    throws IOException, AbortException
+	{
 		m_icm.startElement(m_currentPSVI, m_currentItem, m_errors);
 
 		if (m_downstream != null)
 		{
 			m_downstream.startElement(elementName, m_currentPSVI.getType());
 
-			for (final VxMapping<String, String> mapping : namespaces)
+			for (int i = 0; i < attributes.getNamespaceCount(); i++)
 			{
-				m_downstream.namespace(mapping.getKey(), mapping.getValue());
+				m_downstream.namespace(attributes.getDeclaredPrefix(i), attributes.getDeclaredNamespaceURI(i));
 			}
 		}
         // The attribute manager validates the attributes and sends them downstream, returning the index of the last
@@ -810,6 +981,8 @@ final class ValidationKernel<A> implements VxValidator<A>, SmExceptionSupplier
 	
     private final AtomBridge<A> m_atomBridge;
     private AttributeManager<A> m_attributes;
+    // what the attributes given as lists are copied into
+    private final VxAttributeBuffer m_buffer = new VxAttributeBuffer();
     private ValidationItem m_currentItem;
     private ModelPSVI m_currentPSVI;
     private ComponentProvider m_provider;
@@ -825,7 +998,10 @@ final class ValidationKernel<A> implements VxValidator<A>, SmExceptionSupplier
 
     private final IdentityConstraintManager m_icm = new IdentityConstraintManager();
 
-    private final IdManager m_idm = new IdManager();
+    private IdManager m_idm = new IdManager();
+
+    // the element, if any, whose subtree has been handed over to another kernel
+    private ValidationItem m_forkedItem;
 
     // Maintain state for each element.
     // private URI m_baseURI;
@@ -839,4 +1015,26 @@ final class ValidationKernel<A> implements VxValidator<A>, SmExceptionSupplier
     private final StringBuilder m_text = new StringBuilder();
     private URI documentURI;
 
+    /**
+     * What a kernel needs to validate the subtree of an element that another kernel started: the declaration and type
+     * that were assigned to the element, whether it was nilled, and the identity scopes that stand in for those of its
+     * ancestors.
+     */
+    static final class ForkedElement
+    {
+        ForkedElement(final ElementDefinition declaration, final Type type, final ProcessContentsMode processContents, final boolean nilled, final List<IdentityScope> scopes)
+        {
+            this.declaration = declaration;
+            this.type = type;
+            this.processContents = processContents;
+            this.nilled = nilled;
+            this.scopes = scopes;
+        }
+
+        final ElementDefinition declaration;
+        final Type type;
+        final ProcessContentsMode processContents;
+        final boolean nilled;
+        final List<IdentityScope> scopes;
+    }
 }
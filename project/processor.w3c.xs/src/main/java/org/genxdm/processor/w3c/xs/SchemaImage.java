@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.genxdm.bridgekit.xs.DefaultCatalogResolver;
+import org.genxdm.bridgekit.xs.SchemaCacheFactory;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.processor.w3c.xs.impl.SchemaImageReader;
+import org.genxdm.processor.w3c.xs.impl.SchemaImageWriter;
+import org.genxdm.processor.w3c.xs.regex.RegExCompilerXSDL;
+import org.genxdm.xs.ComponentBag;
+import org.genxdm.xs.ComponentProvider;
+import org.genxdm.xs.SchemaComponentCache;
+import org.genxdm.xs.facets.SchemaRegExCompiler;
+import org.genxdm.xs.resolve.CatalogResolver;
+
+/**
+ * Saves parsed schemas as a binary image, from which they are loaded far faster than they can be parsed again:
+ * an image holds the components as they were converted and checked, so that loading it neither reads the schema
+ * documents nor checks the constraints on the components.
+ * <p/>
+ * An image records the location and the digest of each schema document from which it was written, and is out of
+ * date, and not loaded, as soon as any of them changes; the caller then parses the documents and writes the image
+ * again. The documents recorded are those that the caller lists, and every document that the parser read for an
+ * include, import or redefine while building the components. They are read, to be digested, through the
+ * {@link #setCatalogResolver(CatalogResolver) resolver}, which should be the one given to the parser. An image is
+ * read through a memory-mapped file.
+ * <p/>
+ * The patterns of simple types are compiled again as the image is loaded, by the same kind of compiler as the parser
+ * uses, and the content models are compiled, as usual, when they are first used in validation.
+ */
+public final class SchemaImage
+{
+    public SchemaImage()
+    {
+        this.regexc = DEFAULT_REGEX_COMPILER;
+        this.resolver = DefaultCatalogResolver.SINGLETON;
+    }
+
+    /**
+     * Writes an image of the components of a bag, such as is returned by
+     * {@link W3cXmlSchemaParser#parse(String, java.io.InputStream, String, org.genxdm.xs.exceptions.SchemaExceptionHandler)},
+     * or of all the components of a cache. The built-in components are not written.
+     * <p/>
+     * The image is written to a temporary file beside it, which then replaces it, so that a reader never maps an
+     * image that is only partly written.
+     *
+     * @param sources
+     *            The locations of the schema documents from which the components were parsed; typically the one
+     *            document given to the parser. The documents that the parser read for the includes, imports and
+     *            redefines of these are recorded as well, if the components are as the parser returned them.
+     */
+    public void write(final ComponentBag components, final List<URI> sources, final File image)
+        throws IOException
+    {
+        PreCondition.assertArgumentNotNull(components, "components");
+        PreCondition.assertArgumentNotNull(sources, "sources");
+        PreCondition.assertArgumentNotNull(image, "image");
+        final File temporary = File.createTempFile(image.getName(), ".tmp", image.getAbsoluteFile().getParentFile());
+        boolean written = false;
+        try
+        {
+            final OutputStream output = new BufferedOutputStream(new FileOutputStream(temporary));
+            try
+            {
+                new SchemaImageWriter(components).write(sources, resolver, output);
+            }
+            finally
+            {
+                output.close();
+            }
+            try
+            {
+                Files.move(temporary.toPath(), image.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (final AtomicMoveNotSupportedException e)
+            {
+                Files.move(temporary.toPath(), image.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            written = true;
+        }
+        finally
+        {
+            if (!written)
+            {
+                temporary.delete();
+            }
+        }
+    }
+
+    /**
+     * @return true if the image exists, and was written, by this version of the processor, from the documents at
+     *         the locations given, as they are now, and the documents that the parser read for their includes,
+     *         imports and redefines have not changed either; false if it is truncated or corrupt.
+     */
+    public boolean isCurrent(final File image, final List<URI> sources)
+        throws IOException
+    {
+        PreCondition.assertArgumentNotNull(image, "image");
+        PreCondition.assertArgumentNotNull(sources, "sources");
+        return image.isFile() && new SchemaImageReader(map(image)).isCurrent(sources, resolver);
+    }
+
+    /**
+     * Reads the components of an image, if it is current.
+     *
+     * @param provider
+     *            The cache in which to look up the components that the image refers to but does not hold: the
+     *            built-in components, and those of any schemas that were in the cache when the image's schemas were
+     *            parsed.
+     * @return the components, which have yet to be registered with the cache, or null if the image is missing or
+     *         out of date.
+     * @throws IOException
+     *             if the image cannot be read, or is truncated or corrupt.
+     */
+    public ComponentBag read(final File image, final List<URI> sources, final ComponentProvider provider)
+        throws IOException
+    {
+        PreCondition.assertArgumentNotNull(image, "image");
+        PreCondition.assertArgumentNotNull(sources, "sources");
+        PreCondition.assertArgumentNotNull(provider, "provider");
+        if (!image.isFile())
+        {
+            return null;
+        }
+        final SchemaImageReader reader = new SchemaImageReader(map(image));
+        if (!reader.isCurrent(sources, resolver))
+        {
+            return null;
+        }
+        return reader.read(provider, regexc);
+    }
+
+    /**
+     * Loads an image, if it is current, into a new schema cache, which is then locked.
+     *
+     * @return the cache, or null if the image is missing or out of date.
+     */
+    public SchemaComponentCache load(final File image, final List<URI> sources)
+        throws IOException
+    {
+        final SchemaComponentCache cache = new SchemaCacheFactory().newSchemaCache();
+        final ComponentBag components = read(image, sources, cache.getComponentProvider());
+        if (components == null)
+        {
+            return null;
+        }
+        cache.register(components);
+        cache.lock();
+        return cache;
+    }
+
+    /**
+     * Override the default (JDK-based) Regular Expression compiler, with which the patterns are compiled as an
+     * image is read. This should be the compiler given to the parser.
+     *
+     * @param regexc
+     *            The new compiler. May be <code>null</code> to reset to default.
+     */
+    public void setRegExCompiler(final SchemaRegExCompiler regexc)
+    {
+        if (null != regexc)
+        {
+            this.regexc = regexc;
+        }
+        else
+        {
+            this.regexc = DEFAULT_REGEX_COMPILER;
+        }
+    }
+
+    /**
+     * Override the default resolver, through which the documents recorded in an image are read to be digested. This
+     * should be the resolver given to the parser, so that the documents it included, imported or redefined are found
+     * again.
+     *
+     * @param resolver
+     *            The new resolver. May be <code>null</code> to reset to default.
+     */
+    public void setCatalogResolver(final CatalogResolver resolver)
+    {
+        if (null != resolver)
+        {
+            this.resolver = resolver;
+        }
+        else
+        {
+            this.resolver = DefaultCatalogResolver.SINGLETON;
+        }
+    }
+
+    private static ByteBuffer map(final File image)
+        throws IOException
+    {
+        final RandomAccessFile file = new RandomAccessFile(image, "r");
+        try
+        {
+            // the mapping stays valid once the file is closed
+            return file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        }
+        finally
+        {
+            file.close();
+        }
+    }
+
+    private static final SchemaRegExCompiler DEFAULT_REGEX_COMPILER = new RegExCompilerXSDL();
+
+    private SchemaRegExCompiler regexc;
+    private CatalogResolver resolver;
+}
@@ -16,6 +16,7 @@
 package org.genxdm.processor.w3c.xs;
 
 import java.io.InputStream;
+import java.util.concurrent.Executor;
 
 import org.genxdm.Cursor;
 import org.genxdm.bridgekit.xs.DefaultCatalog;
@@ -54,6 +55,7 @@ public final class W3cXmlSchemaParser
         parser.setCatalogResolver(resolver, catalog);
         parser.setRegExCompiler(regexc);
         parser.setSchemaLoadOptions(options);
+        parser.setExecutor(executor);
 
         return parser.parse(schemaLocation, tree, systemId, errors);
     }
@@ -69,10 +71,26 @@ public final class W3cXmlSchemaParser
         parser.setCatalogResolver(resolver, catalog);
         parser.setRegExCompiler(regexc);
         parser.setSchemaLoadOptions(options);
+        parser.setExecutor(executor);
 
         return parser.parse(schemaLocation, istream, systemId, errors);
     }
 
+    /**
+     * Load schemas using the threads of an executor as well as the calling thread: included, imported
+     * and redefined documents are read concurrently, ahead of the parser, and each namespace's component
+     * constraints are checked in parallel.  The components and errors produced are the same as for a
+     * load on the calling thread alone.  The catalog resolver may then be called on several threads at
+     * once.
+     * 
+     * @param executor
+     *            The executor. May be <code>null</code> (the default) to load on the calling thread only.
+     */
+    public void setExecutor(final Executor executor)
+    {
+        this.executor = executor;
+    }
+
     /**
      * Override the default (JDK-based) Regular Expression compiler.
      * 
@@ -124,5 +142,6 @@ public final class W3cXmlSchemaParser
     private CatalogResolver resolver;
     private ComponentProvider components;
     private SchemaLoadOptions options;
+    private Executor executor;
 
 }
@@ -17,13 +17,21 @@ package org.genxdm.processor.w3c.xs.impl;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
@@ -1162,6 +1170,148 @@ final class SchemaConstraintChecker
         }
     }
 
+    /**
+     * Checks the components of each target namespace as a separate task on the executor.  The errors are
+     * passed to the handler on the calling thread, once all the tasks are done, in the order in which
+     * {@link #checkSchemaComponentConstraints(SchemaConstraintHandler)} would report them.
+     */
+    public void checkSchemaComponentConstraints(final SchemaConstraintHandler errors, final Executor executor) throws AbortException
+    {
+        // every component, in the order of the sequential check, grouped by namespace
+        final List<Check> checks = new ArrayList<Check>();
+        addChecks(checks, Check.SIMPLE_TYPE, components.getSimpleTypes());
+        addChecks(checks, Check.COMPLEX_TYPE, components.getComplexTypes());
+        addChecks(checks, Check.ATTRIBUTE, components.getAttributes());
+        addChecks(checks, Check.ELEMENT, components.getElements());
+        addChecks(checks, Check.ATTRIBUTE_GROUP, components.getAttributeGroups());
+        addChecks(checks, Check.IDENTITY_CONSTRAINT, components.getIdentityConstraints());
+        addChecks(checks, Check.MODEL_GROUP, components.getModelGroups());
+        addChecks(checks, Check.NOTATION, components.getNotations());
+        final Map<String, List<Check>> namespaces = new LinkedHashMap<String, List<Check>>();
+        for (final Check check : checks)
+        {
+            final String namespace = check.component.getTargetNamespace();
+            List<Check> group = namespaces.get(namespace);
+            if (group == null)
+            {
+                group = new ArrayList<Check>();
+                namespaces.put(namespace, group);
+            }
+            group.add(check);
+        }
+
+        final List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(namespaces.size());
+        for (final List<Check> group : namespaces.values())
+        {
+            final FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+                public Void call() throws AbortException
+                {
+                    for (final Check check : group)
+                    {
+                        check(check, check);
+                    }
+                    return null;
+                }
+            });
+            tasks.add(task);
+            try
+            {
+                executor.execute(task);
+            }
+            catch (final RejectedExecutionException e)
+            {
+                // run below, on this thread
+            }
+        }
+        for (final FutureTask<Void> task : tasks)
+        {
+            // runs the task here if the executor has not started it; otherwise waits for it
+            task.run();
+            try
+            {
+                task.get();
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            catch (final ExecutionException e)
+            {
+                // recorded against the check that failed; rethrown in turn below
+            }
+        }
+        for (final Check check : checks)
+        {
+            check.replay(errors);
+            if (check.failure instanceof AbortException)
+                throw (AbortException)check.failure;
+            if (check.failure instanceof RuntimeException)
+                throw (RuntimeException)check.failure;
+            if (check.failure != null)
+                throw (Error)check.failure;
+        }
+    }
+
+    private void check(final Check check, final SchemaConstraintHandler errors) throws AbortException
+    {
+        try
+        {
+            switch (check.kind)
+            {
+                case Check.SIMPLE_TYPE:
+                    checkSimpleType((SimpleType)check.component, errors);
+                    break;
+                case Check.COMPLEX_TYPE:
+                    checkComplexType((ComplexType)check.component, components, errors);
+                    break;
+                case Check.ATTRIBUTE:
+                    checkAttribute((AttributeDefinition)check.component, errors);
+                    break;
+                case Check.ELEMENT:
+                    checkElement((ElementDefinition)check.component, errors);
+                    break;
+                case Check.ATTRIBUTE_GROUP:
+                    checkAttributeGroup((AttributeGroupDefinition)check.component, errors);
+                    break;
+                case Check.IDENTITY_CONSTRAINT:
+                    checkIdentityConstraint((IdentityConstraint)check.component, errors);
+                    break;
+                case Check.MODEL_GROUP:
+                    checkModelGroup((ModelGroup)check.component, errors);
+                    break;
+                case Check.NOTATION:
+                    checkNotation((NotationDefinition)check.component, errors);
+                    break;
+                default:
+                    throw new AssertionError(check.kind);
+            }
+        }
+        catch (final AbortException e)
+        {
+            check.failure = e;
+            throw e;
+        }
+        catch (final RuntimeException e)
+        {
+            check.failure = e;
+            throw e;
+        }
+        catch (final Error e)
+        {
+            check.failure = e;
+            throw e;
+        }
+    }
+
+    private static void addChecks(final List<Check> checks, final int kind, final Iterable<? extends SchemaComponent> components)
+    {
+        for (final SchemaComponent component : components)
+        {
+            checks.add(new Check(kind, component));
+        }
+    }
+
     private void checkSimpleType(final SimpleType simpleType, final SchemaConstraintHandler errors) 
         throws AbortException
     {
@@ -2389,6 +2539,134 @@ final class SchemaConstraintChecker
         }
     }
     
+    /**
+     * The check of one component, which records the errors reported against it (on whichever thread runs
+     * the check) so that they can be passed on later, in order.
+     */
+    private static final class Check
+        implements SchemaConstraintHandler
+    {
+        Check(final int kind, final SchemaComponent component)
+        {
+            this.kind = kind;
+            this.component = component;
+        }
+
+        public void error(final SimpleType simpleType, final SchemaException exception)
+        {
+            record(SIMPLE_TYPE, simpleType, exception);
+        }
+
+        public void error(final ComplexType complexType, final SchemaException exception)
+        {
+            record(COMPLEX_TYPE, complexType, exception);
+        }
+
+        public void error(final AttributeDefinition attribute, final SchemaException exception)
+        {
+            record(ATTRIBUTE, attribute, exception);
+        }
+
+        public void error(final ElementDefinition element, final SchemaException exception)
+        {
+            record(ELEMENT, element, exception);
+        }
+
+        public void error(final ModelGroup modelGroup, final SchemaException exception)
+        {
+            record(MODEL_GROUP, modelGroup, exception);
+        }
+
+        public void error(final AttributeGroupDefinition attributeGroup, final SchemaException exception)
+        {
+            record(ATTRIBUTE_GROUP, attributeGroup, exception);
+        }
+
+        public void error(final IdentityConstraint constraint, final SchemaException exception)
+        {
+            record(IDENTITY_CONSTRAINT, constraint, exception);
+        }
+
+        public void error(final NotationDefinition notation, final SchemaException exception)
+        {
+            record(NOTATION, notation, exception);
+        }
+
+        public void error(final SchemaParticle particle, final SchemaException exception)
+        {
+            record(PARTICLE, particle, exception);
+        }
+
+        void replay(final SchemaConstraintHandler errors) throws AbortException
+        {
+            if (reported == null)
+                return;
+            for (int i = 0; i < reported.size(); i += 3)
+            {
+                final Object target = reported.get(i + 1);
+                final SchemaException exception = (SchemaException)reported.get(i + 2);
+                switch ((Integer)reported.get(i))
+                {
+                    case SIMPLE_TYPE:
+                        errors.error((SimpleType)target, exception);
+                        break;
+                    case COMPLEX_TYPE:
+                        errors.error((ComplexType)target, exception);
+                        break;
+                    case ATTRIBUTE:
+                        errors.error((AttributeDefinition)target, exception);
+                        break;
+                    case ELEMENT:
+                        errors.error((ElementDefinition)target, exception);
+                        break;
+                    case ATTRIBUTE_GROUP:
+                        errors.error((AttributeGroupDefinition)target, exception);
+                        break;
+                    case IDENTITY_CONSTRAINT:
+                        errors.error((IdentityConstraint)target, exception);
+                        break;
+                    case MODEL_GROUP:
+                        errors.error((ModelGroup)target, exception);
+                        break;
+                    case NOTATION:
+                        errors.error((NotationDefinition)target, exception);
+                        break;
+                    case PARTICLE:
+                        errors.error((SchemaParticle)target, exception);
+                        break;
+                    default:
+                        throw new AssertionError(reported.get(i));
+                }
+            }
+        }
+
+        private void record(final int kind, final Object target, final SchemaException exception)
+        {
+            if (reported == null)
+                reported = new ArrayList<Object>();
+            reported.add(kind);
+            reported.add(target);
+            reported.add(exception);
+        }
+
+        static final int SIMPLE_TYPE = 0;
+        static final int COMPLEX_TYPE = 1;
+        static final int ATTRIBUTE = 2;
+        static final int ELEMENT = 3;
+        static final int ATTRIBUTE_GROUP = 4;
+        static final int IDENTITY_CONSTRAINT = 5;
+        static final int MODEL_GROUP = 6;
+        static final int NOTATION = 7;
+        static final int PARTICLE = 8;
+
+        final int kind;
+        final SchemaComponent component;
+        // kind, target and exception of each error, in the order reported
+        private List<Object> reported;
+        // set if the check threw rather than returned
+        Throwable failure;
+    }
+
     private final CanonicalAtomBridge atomBridge;
     private final ComponentBag components;
     private final ComponentProvider provider;
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.genxdm.xs.resolve.CatalogResolver;
+
+/**
+ * The layout of a schema image, shared by the {@link SchemaImageWriter} and the {@link SchemaImageReader}.
+ * <p/>
+ * An image is, in order: the magic number and the version of the format; the location and SHA-256 digest of each
+ * source document that the caller listed, then of each other document that the parser read for an include, import
+ * or redefine; a table of strings; the offset of each component record; the components of each kind in the
+ * bag, as numbers of records; and the records. A record is a tag followed by the properties of the component, with
+ * other components referred to by number (plus one, so that zero is null) and strings by their place in the table.
+ * Numbers are written seven bits to the byte.
+ */
+final class SchemaImageFormat
+{
+    static final int MAGIC = 0x47585349; // "GXSI"
+
+    /**
+     * Changed whenever the layout changes; an image of another version is out of date.
+     */
+    static final int VERSION = 2;
+
+    static final int DIGEST_LENGTH = 32;
+
+    // the tags of records
+    static final byte EXTERNAL = 0;
+    static final byte ATOMIC_TYPE = 1;
+    static final byte LIST_TYPE = 2;
+    static final byte UNION_TYPE = 3;
+    static final byte COMPLEX_TYPE = 4;
+    static final byte ELEMENT = 5;
+    static final byte ATTRIBUTE = 6;
+    static final byte ATTRIBUTE_USE = 7;
+    static final byte ATTRIBUTE_GROUP = 8;
+    static final byte MODEL_GROUP = 9;
+    static final byte ELEMENT_PARTICLE = 10;
+    static final byte MODEL_GROUP_PARTICLE = 11;
+    static final byte WILDCARD_PARTICLE = 12;
+    static final byte WILDCARD = 13;
+    static final byte IDENTITY_CONSTRAINT = 14;
+    static final byte NOTATION = 15;
+
+    private SchemaImageFormat()
+    {
+    }
+
+    /**
+     * The SHA-256 digest of the document at a location, read through a resolver.
+     */
+    static byte[] digest(final URI location, final CatalogResolver resolver)
+        throws IOException
+    {
+        final MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (final NoSuchAlgorithmException e)
+        {
+            // every Java platform is required to support SHA-256
+            throw new AssertionError(e);
+        }
+        final InputStream stream = resolver.resolveInputStream(location);
+        try
+        {
+            final byte[] buffer = new byte[8192];
+            int count;
+            while ((count = stream.read(buffer)) >= 0)
+            {
+                digest.update(buffer, 0, count);
+            }
+        }
+        finally
+        {
+            stream.close();
+        }
+        return digest.digest();
+    }
+}
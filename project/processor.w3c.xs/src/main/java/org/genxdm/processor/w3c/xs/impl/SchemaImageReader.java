@@ -0,0 +1,834 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.impl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.genxdm.bridgekit.xs.ComponentBagImpl;
+import org.genxdm.bridgekit.xs.ForeignAttributesSink;
+import org.genxdm.bridgekit.xs.complex.AttributeDeclTypeImpl;
+import org.genxdm.bridgekit.xs.complex.AttributeGroupImpl;
+import org.genxdm.bridgekit.xs.complex.ComplexTypeImpl;
+import org.genxdm.bridgekit.xs.complex.ContentTypeImpl;
+import org.genxdm.bridgekit.xs.complex.ElementDeclTypeImpl;
+import org.genxdm.bridgekit.xs.complex.ListTypeImpl;
+import org.genxdm.bridgekit.xs.complex.ModelGroupImpl;
+import org.genxdm.bridgekit.xs.complex.ParticleWithElementTerm;
+import org.genxdm.bridgekit.xs.complex.ParticleWithModelGroupTerm;
+import org.genxdm.bridgekit.xs.complex.ParticleWithWildcardTerm;
+import org.genxdm.bridgekit.xs.complex.UnionTypeImpl;
+import org.genxdm.bridgekit.xs.complex.WildcardImpl;
+import org.genxdm.bridgekit.xs.constraint.AttributeUseImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetEnumerationImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetFractionDigitsImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetLengthImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetMaxLengthImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetMinLengthImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetPatternImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetTotalDigitsImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetValueCompImpl;
+import org.genxdm.bridgekit.xs.constraint.IdentityConstraintImpl;
+import org.genxdm.bridgekit.xs.simple.AtomicTypeImpl;
+import org.genxdm.bridgekit.xs.simple.NotationImpl;
+import org.genxdm.bridgekit.xs.simple.SimpleTypeImpl;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.names.PrefixResolver;
+import org.genxdm.xs.ComponentProvider;
+import org.genxdm.xs.components.AttributeDefinition;
+import org.genxdm.xs.components.AttributeGroupDefinition;
+import org.genxdm.xs.components.ComponentKind;
+import org.genxdm.xs.components.ElementDefinition;
+import org.genxdm.xs.components.ModelGroup;
+import org.genxdm.xs.components.NotationDefinition;
+import org.genxdm.xs.components.SchemaParticle;
+import org.genxdm.xs.components.SchemaWildcard;
+import org.genxdm.xs.constraints.AttributeUse;
+import org.genxdm.xs.constraints.IdentityConstraint;
+import org.genxdm.xs.constraints.IdentityConstraintKind;
+import org.genxdm.xs.constraints.ModelGroupUse;
+import org.genxdm.xs.constraints.NamespaceConstraint;
+import org.genxdm.xs.constraints.RestrictedXPath;
+import org.genxdm.xs.constraints.ValueConstraint;
+import org.genxdm.xs.enums.DerivationMethod;
+import org.genxdm.xs.enums.ProcessContentsMode;
+import org.genxdm.xs.enums.ScopeExtent;
+import org.genxdm.xs.enums.WhiteSpacePolicy;
+import org.genxdm.xs.exceptions.SchemaRegExCompileException;
+import org.genxdm.xs.facets.Facet;
+import org.genxdm.xs.facets.FacetKind;
+import org.genxdm.xs.facets.SchemaRegExCompiler;
+import org.genxdm.xs.resolve.CatalogResolver;
+import org.genxdm.xs.types.AtomicType;
+import org.genxdm.xs.types.ComplexType;
+import org.genxdm.xs.types.ContentTypeKind;
+import org.genxdm.xs.types.NativeType;
+import org.genxdm.xs.types.SimpleType;
+import org.genxdm.xs.types.Type;
+
+/**
+ * Reads the components of a schema image (see {@link SchemaImageFormat}) from a buffer, which is typically mapped
+ * from the file.
+ * <p/>
+ * A component is made when it is first referred to, straight from its record. Element and attribute declarations and
+ * complex types, through which components may refer to themselves, are made first with only their names, and the rest
+ * of their records is read once the components that they are reached from have been made.
+ */
+public final class SchemaImageReader
+{
+    public SchemaImageReader(final ByteBuffer image)
+        throws IOException
+    {
+        m_image = PreCondition.assertArgumentNotNull(image, "image").duplicate();
+        if ((m_image.remaining() < 8) || (m_image.getInt() != SchemaImageFormat.MAGIC))
+        {
+            throw new IOException("not a schema image");
+        }
+        m_version = m_image.getInt();
+    }
+
+    /**
+     * @param resolver
+     *            the resolver through which the documents are read again, to be digested.
+     * @return true if the image is of this version of the format, and was written from the documents at the locations
+     *         given, as they are now, and the documents that they included, imported or redefined are as they were;
+     *         false if it is truncated or corrupt, or one of those documents can no longer be read.
+     */
+    public boolean isCurrent(final List<URI> sources, final CatalogResolver resolver)
+        throws IOException
+    {
+        PreCondition.assertArgumentNotNull(sources, "sources");
+        PreCondition.assertArgumentNotNull(resolver, "resolver");
+        if (m_version != SchemaImageFormat.VERSION)
+        {
+            return false;
+        }
+        try
+        {
+            return sourcesAreCurrent(sources, resolver);
+        }
+        catch (final RuntimeException e)
+        {
+            if (isCorrupt(e))
+            {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the components.
+     *
+     * @param provider
+     *            the cache in which the global components that were not written in full are looked up.
+     * @param regexc
+     *            the compiler of the patterns of the simple types.
+     * @throws IOException
+     *             if the image is truncated or corrupt, or refers to components that the cache does not hold.
+     */
+    public ComponentBagImpl read(final ComponentProvider provider, final SchemaRegExCompiler regexc)
+        throws IOException
+    {
+        PreCondition.assertArgumentNotNull(provider, "provider");
+        PreCondition.assertArgumentNotNull(regexc, "regexc");
+        if (m_version != SchemaImageFormat.VERSION)
+        {
+            throw new IOException("version " + m_version + " of the schema image format is not supported");
+        }
+        try
+        {
+            return readComponents(provider, regexc);
+        }
+        catch (final RuntimeException e)
+        {
+            if (isCorrupt(e))
+            {
+                throw new IOException("the schema image is truncated or corrupt", e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reading past the end of the image, or from a position or an array that a number read from it makes no sense
+     * of, is a sign that the image was damaged after it was written.
+     */
+    private static boolean isCorrupt(final RuntimeException e)
+    {
+        return (e instanceof BufferUnderflowException) || (e instanceof IndexOutOfBoundsException) || (e instanceof IllegalArgumentException) || (e instanceof NegativeArraySizeException);
+    }
+
+    private boolean sourcesAreCurrent(final List<URI> sources, final CatalogResolver resolver)
+        throws IOException
+    {
+        final ByteBuffer in = m_image.duplicate();
+        in.position(8);
+        final int count = readNumber(in);
+        if (count != sources.size())
+        {
+            return false;
+        }
+        final byte[] digest = new byte[SchemaImageFormat.DIGEST_LENGTH];
+        for (final URI source : sources)
+        {
+            final String location = readText(in);
+            in.get(digest);
+            if (!location.equals(source.toString()) || !Arrays.equals(digest, SchemaImageFormat.digest(source, resolver)))
+            {
+                return false;
+            }
+        }
+        // the documents that the parser read on its own account
+        final int external = readNumber(in);
+        for (int i = 0; i < external; i++)
+        {
+            final URI location = URI.create(readText(in));
+            in.get(digest);
+            try
+            {
+                if (!Arrays.equals(digest, SchemaImageFormat.digest(location, resolver)))
+                {
+                    return false;
+                }
+            }
+            catch (final IOException e)
+            {
+                // it has gone, or moved
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ComponentBagImpl readComponents(final ComponentProvider provider, final SchemaRegExCompiler regexc)
+        throws IOException
+    {
+        m_provider = provider;
+        m_regexc = regexc;
+
+        final ByteBuffer in = m_image.duplicate();
+        in.position(8);
+        // the listed sources, then the external ones
+        for (int list = 0; list < 2; list++)
+        {
+            final int sourceCount = readNumber(in);
+            for (int i = 0; i < sourceCount; i++)
+            {
+                readText(in);
+                in.position(in.position() + SchemaImageFormat.DIGEST_LENGTH);
+            }
+        }
+        m_strings = new String[readNumber(in) + 1];
+        for (int i = 1; i < m_strings.length; i++)
+        {
+            m_strings[i] = readText(in);
+        }
+        final int count = readNumber(in);
+        m_offsets = in.position();
+        m_components = new Object[count];
+        in.position(m_offsets + (count * 4));
+
+        final ComponentBagImpl bag = new ComponentBagImpl();
+        final int[][] lists = new int[8][];
+        for (int list = 0; list < lists.length; list++)
+        {
+            lists[list] = new int[readNumber(in)];
+            for (int i = 0; i < lists[list].length; i++)
+            {
+                lists[list][i] = readNumber(in) - 1;
+            }
+        }
+        m_records = in.position();
+
+        for (final int number : lists[0])
+            bag.add((SimpleType)component(number));
+        for (final int number : lists[1])
+            bag.add((ComplexType)component(number));
+        for (final int number : lists[2])
+            bag.add((AttributeDefinition)component(number));
+        for (final int number : lists[3])
+            bag.add((ElementDefinition)component(number));
+        for (final int number : lists[4])
+            bag.add((AttributeGroupDefinition)component(number));
+        for (final int number : lists[5])
+            bag.add((IdentityConstraint)component(number));
+        for (final int number : lists[6])
+            bag.add((ModelGroup)component(number));
+        for (final int number : lists[7])
+            bag.add((NotationDefinition)component(number));
+
+        // fill in the components that were made with their names only, which may make more such components
+        for (int i = 0; i < m_unfinished.size(); i++)
+        {
+            finish(m_unfinished.get(i), m_unfinishedAt.get(i));
+        }
+        m_unfinished.clear();
+        m_unfinishedAt.clear();
+        return bag;
+    }
+
+    private Object component(final int number)
+        throws IOException
+    {
+        Object component = m_components[number];
+        if (component == null)
+        {
+            final ByteBuffer in = m_image.duplicate();
+            in.position(m_records + m_image.getInt(m_offsets + (number * 4)));
+            component = readComponent(number, in);
+            m_components[number] = component;
+        }
+        return component;
+    }
+
+    private Object readComponent(final int number, final ByteBuffer in)
+        throws IOException
+    {
+        final byte tag = in.get();
+        switch (tag)
+        {
+            case SchemaImageFormat.EXTERNAL:
+                return readExternal(in);
+            case SchemaImageFormat.ATOMIC_TYPE:
+            case SchemaImageFormat.LIST_TYPE:
+            case SchemaImageFormat.UNION_TYPE:
+                return readSimpleType(tag, in);
+            case SchemaImageFormat.COMPLEX_TYPE:
+            {
+                final QName name = readName(in);
+                final boolean isAnonymous = readBoolean(in);
+                final ScopeExtent scope = readEnum(ScopeExtent.class, in);
+                final DerivationMethod derivation = readEnum(DerivationMethod.class, in);
+                final EnumSet<DerivationMethod> block = readEnums(DerivationMethod.class, in);
+                final ComplexTypeImpl complexType = new ComplexTypeImpl(name, false, isAnonymous, scope, null, derivation, new HashMap<QName, AttributeUse>(), ContentTypeImpl.UNRESOLVED, block, m_provider.getAtomicType(NativeType.UNTYPED_ATOMIC));
+                return unfinished(number, complexType, in);
+            }
+            case SchemaImageFormat.ELEMENT:
+            {
+                final QName name = readName(in);
+                final ScopeExtent scope = readEnum(ScopeExtent.class, in);
+                return unfinished(number, new ElementDeclTypeImpl(name, scope, m_provider.getComplexUrType()), in);
+            }
+            case SchemaImageFormat.ATTRIBUTE:
+            {
+                final QName name = readName(in);
+                final ScopeExtent scope = readEnum(ScopeExtent.class, in);
+                return unfinished(number, new AttributeDeclTypeImpl(name, scope, m_provider.getSimpleUrType()), in);
+            }
+            case SchemaImageFormat.ATTRIBUTE_USE:
+            {
+                final boolean isRequired = readBoolean(in);
+                final AttributeUseImpl attributeUse = new AttributeUseImpl(isRequired, (AttributeDefinition)readReference(in));
+                attributeUse.setValueConstraint(readValueConstraint(in));
+                return attributeUse;
+            }
+            case SchemaImageFormat.ATTRIBUTE_GROUP:
+            {
+                final QName name = readName(in);
+                final ScopeExtent scope = readEnum(ScopeExtent.class, in);
+                final List<AttributeUse> attributeUses = new ArrayList<AttributeUse>();
+                final int count = readNumber(in);
+                for (int i = 0; i < count; i++)
+                {
+                    attributeUses.add((AttributeUse)readReference(in));
+                }
+                final AttributeGroupImpl attributeGroup = new AttributeGroupImpl(name, scope, attributeUses, (SchemaWildcard)readReference(in));
+                readForeignAttributes(attributeGroup, in);
+                return attributeGroup;
+            }
+            case SchemaImageFormat.MODEL_GROUP:
+            {
+                final QName name = readName(in);
+                final boolean isAnonymous = readBoolean(in);
+                final ScopeExtent scope = readEnum(ScopeExtent.class, in);
+                final ModelGroup.SmCompositor compositor = readEnum(ModelGroup.SmCompositor.class, in);
+                final List<SchemaParticle> particles = new ArrayList<SchemaParticle>();
+                final int count = readNumber(in);
+                for (int i = 0; i < count; i++)
+                {
+                    particles.add((SchemaParticle)readReference(in));
+                }
+                final ModelGroupImpl modelGroup = new ModelGroupImpl(compositor, particles, name, isAnonymous, scope);
+                readForeignAttributes(modelGroup, in);
+                return modelGroup;
+            }
+            case SchemaImageFormat.ELEMENT_PARTICLE:
+            {
+                final int minOccurs = readNumber(in);
+                final int maxOccurs = readBoolean(in) ? -1 : readNumber(in);
+                final ElementDefinition element = (ElementDefinition)readReference(in);
+                final ParticleWithElementTerm particle = (maxOccurs < 0) ? new ParticleWithElementTerm(minOccurs, element) : new ParticleWithElementTerm(minOccurs, maxOccurs, element);
+                particle.setValueConstraint(readValueConstraint(in));
+                return particle;
+            }
+            case SchemaImageFormat.MODEL_GROUP_PARTICLE:
+            {
+                final int minOccurs = readNumber(in);
+                final int maxOccurs = readBoolean(in) ? -1 : readNumber(in);
+                final ModelGroup modelGroup = (ModelGroup)readReference(in);
+                return (maxOccurs < 0) ? new ParticleWithModelGroupTerm(minOccurs, modelGroup) : new ParticleWithModelGroupTerm(minOccurs, maxOccurs, modelGroup);
+            }
+            case SchemaImageFormat.WILDCARD_PARTICLE:
+            {
+                final int minOccurs = readNumber(in);
+                final int maxOccurs = readBoolean(in) ? -1 : readNumber(in);
+                final SchemaWildcard wildcard = (SchemaWildcard)readReference(in);
+                return (maxOccurs < 0) ? new ParticleWithWildcardTerm(minOccurs, wildcard) : new ParticleWithWildcardTerm(minOccurs, maxOccurs, wildcard);
+            }
+            case SchemaImageFormat.WILDCARD:
+            {
+                final ProcessContentsMode processContents = readEnum(ProcessContentsMode.class, in);
+                final NamespaceConstraint.Mode mode = readEnum(NamespaceConstraint.Mode.class, in);
+                final HashSet<String> namespaces = new HashSet<String>();
+                final int count = readNumber(in);
+                for (int i = 0; i < count; i++)
+                {
+                    namespaces.add(readString(in));
+                }
+                final NamespaceConstraint constraint;
+                switch (mode)
+                {
+                    case Any:
+                        constraint = NamespaceConstraint.Any();
+                        break;
+                    case Include:
+                        constraint = NamespaceConstraint.include(namespaces);
+                        break;
+                    case Exclude:
+                        constraint = NamespaceConstraint.exclude(namespaces.iterator().next());
+                        break;
+                    default:
+                        throw new AssertionError(mode);
+                }
+                return new WildcardImpl(processContents, constraint);
+            }
+            case SchemaImageFormat.IDENTITY_CONSTRAINT:
+            {
+                final QName name = readName(in);
+                final IdentityConstraintKind category = readEnum(IdentityConstraintKind.class, in);
+                final RestrictedXPath selector = readXPath(in);
+                final List<RestrictedXPath> fields = new ArrayList<RestrictedXPath>();
+                final int count = readNumber(in);
+                for (int i = 0; i < count; i++)
+                {
+                    fields.add(readXPath(in));
+                }
+                final IdentityConstraintImpl constraint = new IdentityConstraintImpl(name, category, selector, fields, (IdentityConstraint)readReference(in));
+                readForeignAttributes(constraint, in);
+                return constraint;
+            }
+            case SchemaImageFormat.NOTATION:
+            {
+                final QName name = readName(in);
+                final String publicId = readString(in);
+                final NotationImpl notation = new NotationImpl(name, publicId, readString(in));
+                readForeignAttributes(notation, in);
+                return notation;
+            }
+            default:
+                throw new IOException("unknown record " + tag + " in schema image");
+        }
+    }
+
+    private Object readExternal(final ByteBuffer in)
+        throws IOException
+    {
+        final ComponentKind kind = readEnum(ComponentKind.class, in);
+        final QName name = readName(in);
+        final Object component;
+        switch (kind)
+        {
+            case COMPLEX_TYPE:
+            case SIMPLE_TYPE:
+                component = m_provider.getTypeDefinition(name);
+                break;
+            case ELEMENT:
+                component = m_provider.getElementDeclaration(name);
+                break;
+            case ATTRIBUTE:
+                component = m_provider.getAttributeDeclaration(name);
+                break;
+            case ATTRIBUTE_GROUP:
+                component = m_provider.getAttributeGroup(name);
+                break;
+            case MODEL_GROUP:
+                component = m_provider.getModelGroup(name);
+                break;
+            case IDENTITY_CONSTRAINT:
+                component = m_provider.getIdentityConstraint(name);
+                break;
+            case NOTATION:
+                component = m_provider.getNotationDeclaration(name);
+                break;
+            default:
+                throw new AssertionError(kind);
+        }
+        if (component == null)
+        {
+            throw new IOException("the schema image refers to " + kind + " " + name + ", which is not in the schema cache");
+        }
+        return component;
+    }
+
+    private SimpleTypeImpl readSimpleType(final byte tag, final ByteBuffer in)
+        throws IOException
+    {
+        final QName name = readName(in);
+        final boolean isAnonymous = readBoolean(in);
+        final ScopeExtent scope = readEnum(ScopeExtent.class, in);
+        final SimpleTypeImpl simpleType;
+        if (tag == SchemaImageFormat.ATOMIC_TYPE)
+        {
+            final AtomicType baseType = (AtomicType)readReference(in);
+            simpleType = new AtomicTypeImpl(name, isAnonymous, scope, baseType, readEnum(WhiteSpacePolicy.class, in));
+        }
+        else if (tag == SchemaImageFormat.LIST_TYPE)
+        {
+            final SimpleType itemType = (SimpleType)readReference(in);
+            final Type baseType = (Type)readReference(in);
+            simpleType = new ListTypeImpl(name, isAnonymous, scope, itemType, baseType, readEnum(WhiteSpacePolicy.class, in));
+        }
+        else
+        {
+            final SimpleType baseType = (SimpleType)readReference(in);
+            final List<SimpleType> memberTypes = new ArrayList<SimpleType>();
+            final int count = readNumber(in);
+            for (int i = 0; i < count; i++)
+            {
+                memberTypes.add((SimpleType)readReference(in));
+            }
+            simpleType = new UnionTypeImpl(name, isAnonymous, scope, baseType, memberTypes, readEnum(WhiteSpacePolicy.class, in));
+        }
+        simpleType.setAbstract(readBoolean(in));
+        for (final DerivationMethod derivation : readEnums(DerivationMethod.class, in))
+        {
+            simpleType.setFinal(derivation, true);
+        }
+
+        final int facetCount = readNumber(in);
+        for (int i = 0; i < facetCount; i++)
+        {
+            simpleType.addFacet(readFacet(in));
+        }
+
+        final int patternCount = readNumber(in);
+        for (int i = 0; i < patternCount; i++)
+        {
+            final String regex = readString(in);
+            final FacetPatternImpl pattern;
+            try
+            {
+                pattern = new FacetPatternImpl(m_regexc.compile(regex), regex);
+            }
+            catch (final SchemaRegExCompileException e)
+            {
+                throw new IOException("cannot compile the pattern " + regex + " of " + name, e);
+            }
+            readForeignAttributes(pattern, in);
+            simpleType.addPattern(pattern);
+        }
+
+        final int enumerationCount = readNumber(in);
+        for (int i = 0; i < enumerationCount; i++)
+        {
+            final String value = readString(in);
+            final SimpleType type = (SimpleType)readReference(in);
+            final String prefix = readString(in);
+            PrefixResolver resolver = null;
+            if (prefix != null)
+            {
+                final String namespace = readString(in);
+                resolver = new PrefixResolver() {
+                    public String getNamespace(final String candidate)
+                    {
+                        return prefix.equals(candidate) ? namespace : null;
+                    }
+                };
+            }
+            simpleType.addEnumeration(new FacetEnumerationImpl(value, type, resolver));
+        }
+        readForeignAttributes(simpleType, in);
+        return simpleType;
+    }
+
+    private Facet readFacet(final ByteBuffer in)
+        throws IOException
+    {
+        final FacetKind kind = readEnum(FacetKind.class, in);
+        final boolean isFixed = readBoolean(in);
+        final Facet facet;
+        switch (kind)
+        {
+            case Length:
+                facet = new FacetLengthImpl(readNumber(in), isFixed);
+                break;
+            case MinLength:
+                facet = new FacetMinLengthImpl(readNumber(in), isFixed);
+                break;
+            case MaxLength:
+                facet = new FacetMaxLengthImpl(readNumber(in), isFixed);
+                break;
+            case TotalDigits:
+                facet = new FacetTotalDigitsImpl(readNumber(in), isFixed);
+                break;
+            case FractionDigits:
+                facet = new FacetFractionDigitsImpl(readNumber(in), isFixed);
+                break;
+            case MinInclusive:
+            case MinExclusive:
+            case MaxInclusive:
+            case MaxExclusive:
+            {
+                final String value = readString(in);
+                facet = new FacetValueCompImpl(value, kind, (SimpleType)readReference(in), isFixed);
+                break;
+            }
+            default:
+                throw new IOException("unknown facet " + kind + " in schema image");
+        }
+        readForeignAttributes((ForeignAttributesSink)facet, in);
+        return facet;
+    }
+
+    private Object unfinished(final int number, final Object component, final ByteBuffer in)
+    {
+        m_components[number] = component;
+        m_unfinished.add(component);
+        m_unfinishedAt.add(in.position());
+        return component;
+    }
+
+    /**
+     * Reads the rest of the record of a component that was made with its name only.
+     */
+    private void finish(final Object component, final int position)
+        throws IOException
+    {
+        final ByteBuffer in = m_image.duplicate();
+        in.position(position);
+        if (component instanceof ComplexTypeImpl)
+        {
+            final ComplexTypeImpl complexType = (ComplexTypeImpl)component;
+            complexType.setBaseType((Type)readReference(in));
+            complexType.setAbstract(readBoolean(in));
+            for (final DerivationMethod derivation : readEnums(DerivationMethod.class, in))
+            {
+                complexType.setFinal(derivation, true);
+            }
+            final int count = readNumber(in);
+            for (int i = 0; i < count; i++)
+            {
+                final AttributeUse attributeUse = (AttributeUse)readReference(in);
+                complexType.getAttributeUses().put(attributeUse.getAttribute().getName(), attributeUse);
+            }
+            complexType.setAttributeWildcard((SchemaWildcard)readReference(in));
+            final ContentTypeKind kind = readEnum(ContentTypeKind.class, in);
+            switch (kind)
+            {
+                case Empty:
+                    complexType.setContentType(ContentTypeImpl.EMPTY);
+                    break;
+                case Simple:
+                    complexType.setContentType(new ContentTypeImpl((SimpleType)readReference(in)));
+                    break;
+                case ElementOnly:
+                case Mixed:
+                    complexType.setContentType(new ContentTypeImpl(kind == ContentTypeKind.Mixed, (ModelGroupUse)readReference(in)));
+                    break;
+                default:
+                    throw new AssertionError(kind);
+            }
+            readForeignAttributes(complexType, in);
+        }
+        else if (component instanceof ElementDeclTypeImpl)
+        {
+            final ElementDeclTypeImpl element = (ElementDeclTypeImpl)component;
+            element.setType((Type)readReference(in));
+            element.setValueConstraint(readValueConstraint(in));
+            element.setNillable(readBoolean(in));
+            element.setAbstract(readBoolean(in));
+            for (final DerivationMethod derivation : readEnums(DerivationMethod.class, in))
+            {
+                element.setBlock(derivation, true);
+            }
+            for (final DerivationMethod derivation : readEnums(DerivationMethod.class, in))
+            {
+                element.setFinal(derivation, true);
+            }
+            final Object substitutionGroup = readReference(in);
+            if (substitutionGroup instanceof ElementDeclTypeImpl)
+            {
+                element.setSubstitutionGroup((ElementDeclTypeImpl)substitutionGroup);
+            }
+            final int memberCount = readNumber(in);
+            for (int i = 0; i < memberCount; i++)
+            {
+                element.addSubstitutionGroupMember((ElementDefinition)readReference(in));
+            }
+            final int constraintCount = readNumber(in);
+            for (int i = 0; i < constraintCount; i++)
+            {
+                element.addIdentityConstraint((IdentityConstraint)readReference(in));
+            }
+            readForeignAttributes(element, in);
+        }
+        else
+        {
+            final AttributeDeclTypeImpl attribute = (AttributeDeclTypeImpl)component;
+            attribute.setType((SimpleType)readReference(in));
+            attribute.setValueConstraint(readValueConstraint(in));
+            readForeignAttributes(attribute, in);
+        }
+    }
+
+    private ValueConstraint readValueConstraint(final ByteBuffer in)
+        throws IOException
+    {
+        if (readBoolean(in))
+        {
+            final ValueConstraint.Kind variety = readEnum(ValueConstraint.Kind.class, in);
+            final SimpleType type = (SimpleType)readReference(in);
+            return new ValueConstraint(variety, type, readString(in));
+        }
+        return null;
+    }
+
+    private DefaultRestrictedXPathImpl readXPath(final ByteBuffer in)
+    {
+        final DefaultRestrictedXPathImpl xpath = new DefaultRestrictedXPathImpl();
+        xpath.setRelocatableFlag(readBoolean(in));
+        xpath.setAttributeFlag(readBoolean(in));
+        final int steps = readNumber(in);
+        for (int step = 0; step < steps; step++)
+        {
+            if (readBoolean(in))
+            {
+                xpath.addContextNodeStep();
+            }
+            else
+            {
+                final String namespace = readString(in);
+                xpath.addNameStep(namespace, readString(in));
+            }
+        }
+        if (readBoolean(in))
+        {
+            xpath.setAlternate(readXPath(in));
+        }
+        return xpath;
+    }
+
+    private void readForeignAttributes(final ForeignAttributesSink component, final ByteBuffer in)
+    {
+        final int count = readNumber(in);
+        for (int i = 0; i < count; i++)
+        {
+            final QName name = readName(in);
+            component.putForeignAttribute(name, readString(in));
+        }
+    }
+
+    private Object readReference(final ByteBuffer in)
+        throws IOException
+    {
+        final int number = readNumber(in);
+        return (number == 0) ? null : component(number - 1);
+    }
+
+    private QName readName(final ByteBuffer in)
+    {
+        final String localName = readString(in);
+        if (localName == null)
+        {
+            return null;
+        }
+        final String namespace = readString(in);
+        return new QName(namespace, localName, readString(in));
+    }
+
+    private <E extends Enum<E>> EnumSet<E> readEnums(final Class<E> type, final ByteBuffer in)
+    {
+        final EnumSet<E> values = EnumSet.noneOf(type);
+        final int count = readNumber(in);
+        for (int i = 0; i < count; i++)
+        {
+            values.add(readEnum(type, in));
+        }
+        return values;
+    }
+
+    private <E extends Enum<E>> E readEnum(final Class<E> type, final ByteBuffer in)
+    {
+        final String name = readString(in);
+        return (name == null) ? null : Enum.valueOf(type, name);
+    }
+
+    private String readString(final ByteBuffer in)
+    {
+        return m_strings[readNumber(in)];
+    }
+
+    private static boolean readBoolean(final ByteBuffer in)
+    {
+        return in.get() != 0;
+    }
+
+    private static int readNumber(final ByteBuffer in)
+    {
+        int number = 0;
+        int shift = 0;
+        byte b;
+        do
+        {
+            b = in.get();
+            number |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+        return number;
+    }
+
+    private static String readText(final ByteBuffer in)
+    {
+        final byte[] bytes = new byte[readNumber(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private final ByteBuffer m_image;
+    private final int m_version;
+    private ComponentProvider m_provider;
+    private SchemaRegExCompiler m_regexc;
+    private String[] m_strings;
+    // the position of the table of offsets, and of the records
+    private int m_offsets;
+    private int m_records;
+    private Object[] m_components;
+    private final List<Object> m_unfinished = new ArrayList<Object>();
+    private final List<Integer> m_unfinishedAt = new ArrayList<Integer>();
+}
@@ -0,0 +1,752 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import org.genxdm.bridgekit.xs.ComponentBagImpl;
+import org.genxdm.bridgekit.xs.complex.AttributeDeclTypeImpl;
+import org.genxdm.bridgekit.xs.complex.ComplexTypeImpl;
+import org.genxdm.bridgekit.xs.complex.ElementDeclTypeImpl;
+import org.genxdm.bridgekit.xs.complex.ListTypeImpl;
+import org.genxdm.bridgekit.xs.complex.ParticleWithElementTerm;
+import org.genxdm.bridgekit.xs.complex.UnionTypeImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetEnumerationImpl;
+import org.genxdm.bridgekit.xs.constraint.FacetValueCompImpl;
+import org.genxdm.bridgekit.xs.simple.AtomicTypeImpl;
+import org.genxdm.bridgekit.xs.simple.SimpleTypeImpl;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.names.PrefixResolver;
+import org.genxdm.xs.ComponentBag;
+import org.genxdm.xs.components.AttributeDefinition;
+import org.genxdm.xs.components.AttributeGroupDefinition;
+import org.genxdm.xs.components.ComponentKind;
+import org.genxdm.xs.components.ElementDefinition;
+import org.genxdm.xs.components.EnumerationDefinition;
+import org.genxdm.xs.components.ForeignAttributes;
+import org.genxdm.xs.components.ModelGroup;
+import org.genxdm.xs.components.NotationDefinition;
+import org.genxdm.xs.components.SchemaComponent;
+import org.genxdm.xs.components.SchemaParticle;
+import org.genxdm.xs.components.SchemaWildcard;
+import org.genxdm.xs.constraints.AttributeUse;
+import org.genxdm.xs.constraints.ElementUse;
+import org.genxdm.xs.constraints.IdentityConstraint;
+import org.genxdm.xs.constraints.ModelGroupUse;
+import org.genxdm.xs.constraints.NamespaceConstraint;
+import org.genxdm.xs.constraints.RestrictedXPath;
+import org.genxdm.xs.constraints.ValueConstraint;
+import org.genxdm.xs.constraints.WildcardUse;
+import org.genxdm.xs.enums.DerivationMethod;
+import org.genxdm.xs.enums.ScopeExtent;
+import org.genxdm.xs.facets.Facet;
+import org.genxdm.xs.facets.FractionDigits;
+import org.genxdm.xs.facets.Length;
+import org.genxdm.xs.facets.MaxLength;
+import org.genxdm.xs.facets.MinLength;
+import org.genxdm.xs.facets.Pattern;
+import org.genxdm.xs.facets.TotalDigits;
+import org.genxdm.xs.resolve.CatalogResolver;
+import org.genxdm.xs.types.ComplexType;
+import org.genxdm.xs.types.ContentType;
+import org.genxdm.xs.types.SimpleType;
+import org.genxdm.xs.types.Type;
+
+/**
+ * Writes the components of a bag, and everything that they refer to, as a schema image (see
+ * {@link SchemaImageFormat}).
+ * <p/>
+ * The components of the bag, and the local and anonymous components reached from them, are written in full. Global
+ * components that are not in the bag, such as those of the built-in namespaces or of schemas that were already in the
+ * cache when the bag was parsed, are written by kind and name, and are looked up again in the cache into which the
+ * image is read.
+ */
+public final class SchemaImageWriter
+{
+    public SchemaImageWriter(final ComponentBag components)
+    {
+        m_components = PreCondition.assertArgumentNotNull(components, "components");
+        inBag(components.getSimpleTypes());
+        inBag(components.getComplexTypes());
+        inBag(components.getAttributes());
+        inBag(components.getElements());
+        inBag(components.getAttributeGroups());
+        inBag(components.getIdentityConstraints());
+        inBag(components.getModelGroups());
+        inBag(components.getNotations());
+    }
+
+    /**
+     * Writes the image.
+     *
+     * @param sources
+     *            the locations of the schema documents from which the components were parsed, whose digests are
+     *            recorded in the image, along with those of the documents that the parser read for the includes,
+     *            imports and redefines of the bag.
+     * @param resolver
+     *            the resolver through which the documents are read, to be digested.
+     */
+    public void write(final List<URI> sources, final CatalogResolver resolver, final OutputStream output)
+        throws IOException
+    {
+        PreCondition.assertArgumentNotNull(sources, "sources");
+        PreCondition.assertArgumentNotNull(resolver, "resolver");
+        PreCondition.assertArgumentNotNull(output, "output");
+
+        // the components of the bag are numbered first, and the rest in the order in which they are reached
+        final Buffer bag = new Buffer();
+        writeBag(m_components.getSimpleTypes(), bag);
+        writeBag(m_components.getComplexTypes(), bag);
+        writeBag(m_components.getAttributes(), bag);
+        writeBag(m_components.getElements(), bag);
+        writeBag(m_components.getAttributeGroups(), bag);
+        writeBag(m_components.getIdentityConstraints(), bag);
+        writeBag(m_components.getModelGroups(), bag);
+        writeBag(m_components.getNotations(), bag);
+
+        final Buffer records = new Buffer();
+        final ArrayList<Integer> offsets = new ArrayList<Integer>();
+        for (int number = 0; number < m_queue.size(); number++)
+        {
+            offsets.add(records.size());
+            writeComponent(m_queue.get(number), records);
+        }
+
+        final Buffer header = new Buffer();
+        header.writeInt(SchemaImageFormat.MAGIC);
+        header.writeInt(SchemaImageFormat.VERSION);
+        writeSources(sources, resolver, header);
+        final List<URI> external = new ArrayList<URI>();
+        if (m_components instanceof ComponentBagImpl)
+        {
+            for (final URI location : ((ComponentBagImpl)m_components).getSourceLocations())
+            {
+                if (!sources.contains(location))
+                    external.add(location);
+            }
+        }
+        writeSources(external, resolver, header);
+        header.writeNumber(m_strings.size());
+        for (final String string : m_strings)
+        {
+            header.writeText(string);
+        }
+        header.writeNumber(offsets.size());
+        for (final Integer offset : offsets)
+        {
+            header.writeInt(offset);
+        }
+        header.writeTo(output);
+        bag.writeTo(output);
+        records.writeTo(output);
+        output.flush();
+    }
+
+    private void inBag(final Iterable<? extends SchemaComponent> components)
+    {
+        for (final SchemaComponent component : components)
+        {
+            if (!isBuiltIn(component))
+            {
+                m_bag.put(component, Boolean.TRUE);
+            }
+        }
+    }
+
+    private static void writeSources(final List<URI> sources, final CatalogResolver resolver, final Buffer out)
+        throws IOException
+    {
+        out.writeNumber(sources.size());
+        for (final URI source : sources)
+        {
+            out.writeText(source.toString());
+            out.write(SchemaImageFormat.digest(source, resolver));
+        }
+    }
+
+    private void writeBag(final Iterable<? extends SchemaComponent> components, final Buffer out)
+    {
+        final ArrayList<SchemaComponent> written = new ArrayList<SchemaComponent>();
+        for (final SchemaComponent component : components)
+        {
+            if (!isBuiltIn(component))
+            {
+                written.add(component);
+            }
+        }
+        out.writeNumber(written.size());
+        for (final SchemaComponent component : written)
+        {
+            writeReference(component, out);
+        }
+    }
+
+    private void writeComponent(final Object component, final Buffer out)
+    {
+        if (isExternal(component))
+        {
+            final SchemaComponent external = (SchemaComponent)component;
+            out.write(SchemaImageFormat.EXTERNAL);
+            writeEnum(kindOf(external), out);
+            writeName(external.getName(), out);
+        }
+        else if (component instanceof SimpleTypeImpl)
+        {
+            writeSimpleType((SimpleTypeImpl)component, out);
+        }
+        else if (component instanceof ComplexTypeImpl)
+        {
+            writeComplexType((ComplexTypeImpl)component, out);
+        }
+        else if (component instanceof ElementDeclTypeImpl)
+        {
+            writeElement((ElementDeclTypeImpl)component, out);
+        }
+        else if (component instanceof AttributeDeclTypeImpl)
+        {
+            final AttributeDeclTypeImpl attribute = (AttributeDeclTypeImpl)component;
+            out.write(SchemaImageFormat.ATTRIBUTE);
+            writeName(attribute.getName(), out);
+            writeEnum(attribute.getScopeExtent(), out);
+            writeReference(attribute.getType(), out);
+            writeValueConstraint(attribute.getValueConstraint(), out);
+            writeForeignAttributes(attribute, out);
+        }
+        else if (component instanceof AttributeUse)
+        {
+            final AttributeUse attributeUse = (AttributeUse)component;
+            out.write(SchemaImageFormat.ATTRIBUTE_USE);
+            out.writeBoolean(attributeUse.isRequired());
+            writeReference(attributeUse.getAttribute(), out);
+            writeValueConstraint(attributeUse.getValueConstraint(), out);
+        }
+        else if (component instanceof AttributeGroupDefinition)
+        {
+            final AttributeGroupDefinition attributeGroup = (AttributeGroupDefinition)component;
+            out.write(SchemaImageFormat.ATTRIBUTE_GROUP);
+            writeName(attributeGroup.getName(), out);
+            writeEnum(attributeGroup.getScopeExtent(), out);
+            writeReferences(attributeGroup.getAttributeUses(), out);
+            writeReference(attributeGroup.getWildcard(), out);
+            writeForeignAttributes(attributeGroup, out);
+        }
+        else if (component instanceof ModelGroup)
+        {
+            final ModelGroup modelGroup = (ModelGroup)component;
+            out.write(SchemaImageFormat.MODEL_GROUP);
+            writeName(modelGroup.getName(), out);
+            out.writeBoolean(modelGroup.isAnonymous());
+            writeEnum(modelGroup.getScopeExtent(), out);
+            writeEnum(modelGroup.getCompositor(), out);
+            writeReferences(modelGroup.getParticles(), out);
+            writeForeignAttributes(modelGroup, out);
+        }
+        else if (component instanceof ElementUse)
+        {
+            final ElementUse particle = (ElementUse)component;
+            out.write(SchemaImageFormat.ELEMENT_PARTICLE);
+            writeOccurrence(particle, out);
+            writeReference(particle.getTerm(), out);
+            writeValueConstraint((particle instanceof ParticleWithElementTerm) ? ((ParticleWithElementTerm)particle).getValueConstraint() : null, out);
+        }
+        else if (component instanceof ModelGroupUse)
+        {
+            final ModelGroupUse particle = (ModelGroupUse)component;
+            out.write(SchemaImageFormat.MODEL_GROUP_PARTICLE);
+            writeOccurrence(particle, out);
+            writeReference(particle.getTerm(), out);
+        }
+        else if (component instanceof WildcardUse)
+        {
+            final WildcardUse particle = (WildcardUse)component;
+            out.write(SchemaImageFormat.WILDCARD_PARTICLE);
+            writeOccurrence(particle, out);
+            writeReference(particle.getTerm(), out);
+        }
+        else if (component instanceof SchemaWildcard)
+        {
+            final SchemaWildcard wildcard = (SchemaWildcard)component;
+            final NamespaceConstraint constraint = wildcard.getNamespaceConstraint();
+            out.write(SchemaImageFormat.WILDCARD);
+            writeEnum(wildcard.getProcessContents(), out);
+            writeEnum(constraint.getMode(), out);
+            final ArrayList<String> namespaces = new ArrayList<String>();
+            for (final String namespace : constraint.getNamespaces())
+            {
+                namespaces.add(namespace);
+            }
+            out.writeNumber(namespaces.size());
+            for (final String namespace : namespaces)
+            {
+                writeString(namespace, out);
+            }
+        }
+        else if (component instanceof IdentityConstraint)
+        {
+            final IdentityConstraint constraint = (IdentityConstraint)component;
+            out.write(SchemaImageFormat.IDENTITY_CONSTRAINT);
+            writeName(constraint.getName(), out);
+            writeEnum(constraint.getCategory(), out);
+            writeXPath(constraint.getSelector(), out);
+            out.writeNumber(constraint.getFields().size());
+            for (final RestrictedXPath field : constraint.getFields())
+            {
+                writeXPath(field, out);
+            }
+            writeReference(constraint.getKeyConstraint(), out);
+            writeForeignAttributes(constraint, out);
+        }
+        else if (component instanceof NotationDefinition)
+        {
+            final NotationDefinition notation = (NotationDefinition)component;
+            out.write(SchemaImageFormat.NOTATION);
+            writeName(notation.getName(), out);
+            writeString(notation.getPublicId(), out);
+            writeString(notation.getSystemId(), out);
+            writeForeignAttributes(notation, out);
+        }
+        else
+        {
+            throw new IllegalArgumentException("cannot write " + component.getClass().getName() + " to a schema image");
+        }
+    }
+
+    private void writeSimpleType(final SimpleTypeImpl simpleType, final Buffer out)
+    {
+        if (simpleType instanceof AtomicTypeImpl)
+        {
+            out.write(SchemaImageFormat.ATOMIC_TYPE);
+            writeTypeName(simpleType, out);
+            writeReference(simpleType.getBaseType(), out);
+        }
+        else if (simpleType instanceof ListTypeImpl)
+        {
+            out.write(SchemaImageFormat.LIST_TYPE);
+            writeTypeName(simpleType, out);
+            writeReference(((ListTypeImpl)simpleType).getItemType(), out);
+            writeReference(simpleType.getBaseType(), out);
+        }
+        else if (simpleType instanceof UnionTypeImpl)
+        {
+            out.write(SchemaImageFormat.UNION_TYPE);
+            writeTypeName(simpleType, out);
+            writeReference(simpleType.getBaseType(), out);
+            writeReferences(((UnionTypeImpl)simpleType).getMemberTypes(), out);
+        }
+        else
+        {
+            throw new IllegalArgumentException("cannot write " + simpleType.getClass().getName() + " to a schema image");
+        }
+        writeEnum(simpleType.getWhiteSpacePolicy(), out);
+        out.writeBoolean(simpleType.isAbstract());
+        writeEnums(simpleType.getFinal(), out);
+
+        final ArrayList<Facet> facets = new ArrayList<Facet>();
+        for (final Facet facet : simpleType.getFacets())
+        {
+            facets.add(facet);
+        }
+        out.writeNumber(facets.size());
+        for (final Facet facet : facets)
+        {
+            writeFacet(facet, out);
+        }
+
+        final ArrayList<Pattern> patterns = new ArrayList<Pattern>();
+        for (final Pattern pattern : simpleType.getPatterns())
+        {
+            patterns.add(pattern);
+        }
+        out.writeNumber(patterns.size());
+        for (final Pattern pattern : patterns)
+        {
+            writeString(pattern.getValue(), out);
+            writeForeignAttributes(pattern, out);
+        }
+
+        final ArrayList<FacetEnumerationImpl> enumerations = new ArrayList<FacetEnumerationImpl>();
+        for (final EnumerationDefinition enumeration : simpleType.getEnumerations())
+        {
+            if (!(enumeration instanceof FacetEnumerationImpl))
+            {
+                throw new IllegalArgumentException("cannot write " + enumeration.getClass().getName() + " to a schema image");
+            }
+            enumerations.add((FacetEnumerationImpl)enumeration);
+        }
+        out.writeNumber(enumerations.size());
+        for (final FacetEnumerationImpl enumeration : enumerations)
+        {
+            final String value = enumeration.getLexicalForm();
+            writeString(value, out);
+            writeReference(enumeration.getType(), out);
+            // only the prefix of a QName or NOTATION value needs to be resolved again
+            final PrefixResolver resolver = enumeration.getPrefixResolver();
+            if (resolver == null)
+            {
+                writeString(null, out);
+            }
+            else
+            {
+                final int colon = value.indexOf(':');
+                final String prefix = (colon < 0) ? XMLConstants.DEFAULT_NS_PREFIX : value.substring(0, colon).trim();
+                writeString(prefix, out);
+                writeString(resolver.getNamespace(prefix), out);
+            }
+        }
+        writeForeignAttributes(simpleType, out);
+    }
+
+    private void writeFacet(final Facet facet, final Buffer out)
+    {
+        writeEnum(facet.getKind(), out);
+        out.writeBoolean(facet.isFixed());
+        switch (facet.getKind())
+        {
+            case Length:
+                out.writeNumber(((Length)facet).getValue());
+                break;
+            case MinLength:
+                out.writeNumber(((MinLength)facet).getMinLength());
+                break;
+            case MaxLength:
+                out.writeNumber(((MaxLength)facet).getMaxLength());
+                break;
+            case TotalDigits:
+                out.writeNumber(((TotalDigits)facet).getTotalDigits());
+                break;
+            case FractionDigits:
+                out.writeNumber(((FractionDigits)facet).getFractionDigits());
+                break;
+            case MinInclusive:
+            case MinExclusive:
+            case MaxInclusive:
+            case MaxExclusive:
+                if (!(facet instanceof FacetValueCompImpl))
+                {
+                    throw new IllegalArgumentException("cannot write " + facet.getClass().getName() + " to a schema image");
+                }
+                writeString(((FacetValueCompImpl)facet).getLexicalForm(), out);
+                writeReference(((FacetValueCompImpl)facet).getType(), out);
+                break;
+            default:
+                throw new IllegalArgumentException("cannot write a " + facet.getKind() + " facet to a schema image");
+        }
+        writeForeignAttributes(facet, out);
+    }
+
+    private void writeComplexType(final ComplexTypeImpl complexType, final Buffer out)
+    {
+        out.write(SchemaImageFormat.COMPLEX_TYPE);
+        writeTypeName(complexType, out);
+        writeEnum(complexType.getDerivationMethod(), out);
+        writeEnums(complexType.getProhibitedSubstitutions(), out);
+        writeReference(complexType.getBaseType(), out);
+        out.writeBoolean(complexType.isAbstract());
+        writeEnums(complexType.getFinal(), out);
+        writeReferences(complexType.getAttributeUses().values(), out);
+        writeReference(complexType.getAttributeWildcard(), out);
+
+        final ContentType contentType = complexType.getContentType();
+        writeEnum(contentType.getKind(), out);
+        if (contentType.isSimple())
+        {
+            writeReference(contentType.getSimpleType(), out);
+        }
+        else if (contentType.isComplex())
+        {
+            writeReference(contentType.getContentModel(), out);
+        }
+        writeForeignAttributes(complexType, out);
+    }
+
+    private void writeElement(final ElementDeclTypeImpl element, final Buffer out)
+    {
+        out.write(SchemaImageFormat.ELEMENT);
+        writeName(element.getName(), out);
+        writeEnum(element.getScopeExtent(), out);
+        writeReference(element.getType(), out);
+        writeValueConstraint(element.getValueConstraint(), out);
+        out.writeBoolean(element.isNillable());
+        out.writeBoolean(element.isAbstract());
+        writeEnums(element.getDisallowedSubtitutions(), out);
+        writeEnums(element.getSubstitutionGroupExclusions(), out);
+        writeReference(element.getSubstitutionGroup(), out);
+        writeReferences(element.getSubstitutionGroupMembers(), out);
+        writeReferences(element.getIdentityConstraints(), out);
+        writeForeignAttributes(element, out);
+    }
+
+    private void writeTypeName(final SchemaComponent type, final Buffer out)
+    {
+        writeName(type.getName(), out);
+        out.writeBoolean(type.isAnonymous());
+        writeEnum(type.getScopeExtent(), out);
+    }
+
+    private void writeOccurrence(final SchemaParticle particle, final Buffer out)
+    {
+        out.writeNumber(particle.getMinOccurs());
+        out.writeBoolean(particle.isMaxOccursUnbounded());
+        if (!particle.isMaxOccursUnbounded())
+        {
+            out.writeNumber(particle.getMaxOccurs());
+        }
+    }
+
+    private void writeValueConstraint(final ValueConstraint valueConstraint, final Buffer out)
+    {
+        out.writeBoolean(valueConstraint != null);
+        if (valueConstraint != null)
+        {
+            writeEnum(valueConstraint.getVariety(), out);
+            writeReference(valueConstraint.getConstrainedType(), out);
+            writeString(valueConstraint.getLexicalForm(), out);
+        }
+    }
+
+    private void writeXPath(final RestrictedXPath xpath, final Buffer out)
+    {
+        out.writeBoolean(xpath.isRelocatable());
+        out.writeBoolean(xpath.isAttribute());
+        out.writeNumber(xpath.getStepLength());
+        for (int step = 0; step < xpath.getStepLength(); step++)
+        {
+            out.writeBoolean(xpath.isContextNode(step));
+            if (!xpath.isContextNode(step))
+            {
+                writeString(xpath.getStepNamespace(step), out);
+                writeString(xpath.getStepLocalName(step), out);
+            }
+        }
+        out.writeBoolean(xpath.getAlternate() != null);
+        if (xpath.getAlternate() != null)
+        {
+            writeXPath(xpath.getAlternate(), out);
+        }
+    }
+
+    private void writeForeignAttributes(final Object component, final Buffer out)
+    {
+        final ArrayList<QName> names = new ArrayList<QName>();
+        if (component instanceof ForeignAttributes)
+        {
+            for (final QName name : ((ForeignAttributes)component).getForeignAttributeNames())
+            {
+                names.add(name);
+            }
+        }
+        out.writeNumber(names.size());
+        for (final QName name : names)
+        {
+            writeName(name, out);
+            writeString(((ForeignAttributes)component).getForeignAttributeValue(name), out);
+        }
+    }
+
+    private void writeReferences(final Iterable<?> components, final Buffer out)
+    {
+        final ArrayList<Object> list = new ArrayList<Object>();
+        for (final Object component : components)
+        {
+            list.add(component);
+        }
+        out.writeNumber(list.size());
+        for (final Object component : list)
+        {
+            writeReference(component, out);
+        }
+    }
+
+    private void writeReference(final Object component, final Buffer out)
+    {
+        if (component == null)
+        {
+            out.writeNumber(0);
+        }
+        else
+        {
+            Integer number = m_numbers.get(component);
+            if (number == null)
+            {
+                number = m_queue.size();
+                m_numbers.put(component, number);
+                m_queue.add(component);
+            }
+            out.writeNumber(number + 1);
+        }
+    }
+
+    private void writeName(final QName name, final Buffer out)
+    {
+        if (name == null)
+        {
+            writeString(null, out);
+        }
+        else
+        {
+            writeString(name.getLocalPart(), out);
+            writeString(name.getNamespaceURI(), out);
+            writeString(name.getPrefix(), out);
+        }
+    }
+
+    private void writeEnums(final Set<? extends Enum<?>> values, final Buffer out)
+    {
+        out.writeNumber(values.size());
+        for (final Enum<?> value : values)
+        {
+            writeEnum(value, out);
+        }
+    }
+
+    private void writeEnum(final Enum<?> value, final Buffer out)
+    {
+        writeString((value == null) ? null : value.name(), out);
+    }
+
+    private void writeString(final String string, final Buffer out)
+    {
+        if (string == null)
+        {
+            out.writeNumber(0);
+        }
+        else
+        {
+            Integer index = m_stringIndex.get(string);
+            if (index == null)
+            {
+                m_strings.add(string);
+                index = m_strings.size();
+                m_stringIndex.put(string, index);
+            }
+            out.writeNumber(index);
+        }
+    }
+
+    /**
+     * Components of the bag are written in full; so are local and anonymous components, which cannot be looked up.
+     */
+    private boolean isExternal(final Object component)
+    {
+        if (component instanceof SchemaComponent)
+        {
+            if (m_bag.containsKey(component))
+            {
+                return false;
+            }
+            // the native types do not tell their scope
+            if ((component instanceof Type) && ((Type)component).isNative())
+            {
+                return true;
+            }
+            final SchemaComponent named = (SchemaComponent)component;
+            return (named.getScopeExtent() == ScopeExtent.Global) && !named.isAnonymous() && (named.getName() != null);
+        }
+        return false;
+    }
+
+    private static boolean isBuiltIn(final SchemaComponent component)
+    {
+        final QName name = component.getName();
+        if (name != null)
+        {
+            final String namespace = name.getNamespaceURI();
+            return namespace.equals(XMLConstants.W3C_XML_SCHEMA_NS_URI) || namespace.equals(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI) || namespace.equals(XMLConstants.XML_NS_URI);
+        }
+        return false;
+    }
+
+    private static ComponentKind kindOf(final SchemaComponent component)
+    {
+        if (component instanceof ComplexType)
+            return ComponentKind.COMPLEX_TYPE;
+        if (component instanceof SimpleType)
+            return ComponentKind.SIMPLE_TYPE;
+        if (component instanceof ElementDefinition)
+            return ComponentKind.ELEMENT;
+        if (component instanceof AttributeDefinition)
+            return ComponentKind.ATTRIBUTE;
+        if (component instanceof AttributeGroupDefinition)
+            return ComponentKind.ATTRIBUTE_GROUP;
+        if (component instanceof ModelGroup)
+            return ComponentKind.MODEL_GROUP;
+        if (component instanceof IdentityConstraint)
+            return ComponentKind.IDENTITY_CONSTRAINT;
+        if (component instanceof NotationDefinition)
+            return ComponentKind.NOTATION;
+        throw new IllegalArgumentException("cannot write " + component.getClass().getName() + " to a schema image");
+    }
+
+    /**
+     * Bytes, with numbers seven bits to the byte, and texts as the length and bytes of their UTF-8 encoding.
+     */
+    private static final class Buffer
+        extends ByteArrayOutputStream
+    {
+        void writeNumber(final int number)
+        {
+            PreCondition.assertTrue(number >= 0, "number >= 0");
+            int rest = number;
+            while ((rest & ~0x7F) != 0)
+            {
+                write((rest & 0x7F) | 0x80);
+                rest >>>= 7;
+            }
+            write(rest);
+        }
+
+        void writeInt(final int value)
+        {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        void writeBoolean(final boolean value)
+        {
+            write(value ? 1 : 0);
+        }
+
+        void writeText(final String text)
+        {
+            final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeNumber(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private final ComponentBag m_components;
+    // the global components written in full, by identity
+    private final IdentityHashMap<Object, Boolean> m_bag = new IdentityHashMap<Object, Boolean>();
+    private final IdentityHashMap<Object, Integer> m_numbers = new IdentityHashMap<Object, Integer>();
+    private final List<Object> m_queue = new ArrayList<Object>();
+    private final HashMap<String, Integer> m_stringIndex = new HashMap<String, Integer>();
+    private final Collection<String> m_strings = new ArrayList<String>();
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.genxdm.bridgekit.misc.StringToURIParser;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.processor.w3c.xs.xmlrep.XMLRepresentation;
+import org.genxdm.xs.resolve.CatalogResolver;
+import org.genxdm.xs.resolve.SchemaCatalog;
+
+/**
+ * Reads the schema documents reachable from a schema, concurrently, ahead of
+ * the parser.
+ *
+ * <p>Each document is read into memory on the executor, and its top-level
+ * include, import and redefine elements are scanned so that the documents
+ * they name are read in turn.  The parser still parses every document in
+ * order, on its own thread, but asks this class for the content instead of
+ * the resolver; so the result of a load is the same as without it.  A
+ * document the parser needs that was not reached by the scan (or not yet
+ * started by the executor) is read on the parser's thread.</p>
+ *
+ * <p>The catalog and resolver are called from several threads at once.</p>
+ */
+final class SchemaPrefetcher
+{
+    SchemaPrefetcher(final SchemaCatalog catalog, final CatalogResolver resolver, final Executor executor)
+    {
+        this.catalog = PreCondition.assertNotNull(catalog, "catalog");
+        this.resolver = PreCondition.assertNotNull(resolver, "resolver");
+        this.executor = PreCondition.assertNotNull(executor, "executor");
+    }
+
+    /** Start reading the documents referenced by a document already in memory. */
+    void scan(final String systemId, final byte[] content)
+    {
+        try
+        {
+            executor.execute(new Runnable() {
+                public void run()
+                {
+                    discover(systemId, content);
+                }
+            });
+        }
+        catch (final RejectedExecutionException e)
+        {
+            // then nothing is read ahead
+        }
+    }
+
+    /** The content of a document, from memory if it has been (or is being) read ahead. */
+    InputStream open(final URI location)
+        throws IOException
+    {
+        final FutureTask<byte[]> task = documents.get(location);
+        if (task == null)
+            return resolver.resolveInputStream(location);
+        // runs the read here if the executor has not started it; otherwise waits for it
+        task.run();
+        try
+        {
+            return new ByteArrayInputStream(task.get());
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return resolver.resolveInputStream(location);
+        }
+        catch (final ExecutionException e)
+        {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException)cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    static byte[] readAll(final InputStream stream)
+        throws IOException
+    {
+        try
+        {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int count;
+            while ((count = stream.read(buffer)) != -1)
+                bytes.write(buffer, 0, count);
+            return bytes.toByteArray();
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    private void fetch(final URI location)
+    {
+        if (documents.containsKey(location))
+            return;
+        final FutureTask<byte[]> task = new FutureTask<byte[]>(new Callable<byte[]>() {
+            public byte[] call()
+                throws IOException
+            {
+                final byte[] content = readAll(resolver.resolveInputStream(location));
+                discover(location.toString(), content);
+                return content;
+            }
+        });
+        if (documents.putIfAbsent(location, task) == null)
+        {
+            try
+            {
+                executor.execute(task);
+            }
+            catch (final RejectedExecutionException e)
+            {
+                // the parser will run it when it gets there
+            }
+        }
+    }
+
+    /** Fetch the documents named by the include, import and redefine children of the schema element. */
+    private void discover(final String systemId, final byte[] content)
+    {
+        final URI base = StringToURIParser.parse((systemId == null) ? "" : systemId);
+        try
+        {
+            // factories are not promised to be thread-safe
+            final XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new ByteArrayInputStream(content));
+            try
+            {
+                int depth = 0;
+                while (reader.hasNext())
+                {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.END_ELEMENT)
+                        depth--;
+                    else if (event == XMLStreamConstants.START_ELEMENT)
+                    {
+                        depth++;
+                        if (depth == 2)
+                        {
+                            // composition comes first; stop at the first definition or declaration
+                            if (!XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(reader.getNamespaceURI()))
+                                return;
+                            final String localName = reader.getLocalName();
+                            if (XMLRepresentation.LN_IMPORT.equals(localName))
+                                reference(base, reader.getAttributeValue(null, XMLRepresentation.LN_NAMESPACE), reader.getAttributeValue(null, XMLRepresentation.LN_SCHEMA_LOCATION));
+                            else if (XMLRepresentation.LN_INCLUDE.equals(localName) || XMLRepresentation.LN_REDEFINE.equals(localName))
+                                reference(base, null, reader.getAttributeValue(null, XMLRepresentation.LN_SCHEMA_LOCATION));
+                            else if (!XMLRepresentation.LN_ANNOTATION.equals(localName))
+                                return;
+                        }
+                    }
+                }
+            }
+            finally
+            {
+                reader.close();
+            }
+        }
+        catch (final XMLStreamException e)
+        {
+            // the parser will report it
+        }
+    }
+
+    private void reference(final URI base, final String namespace, final String schemaLocation)
+    {
+        if ((namespace == null) && (schemaLocation == null))
+            return;
+        final URI location;
+        try
+        {
+            // resolved exactly as the parser will resolve it, so that it asks for the same key
+            location = catalog.resolveNamespaceAndSchemaLocation(base, namespace, schemaLocation);
+        }
+        catch (final RuntimeException e)
+        {
+            // the parser will report it
+            return;
+        }
+        if (location != null)
+            fetch(location);
+    }
+
+    private final SchemaCatalog catalog;
+    private final CatalogResolver resolver;
+    private final Executor executor;
+    private final ConcurrentHashMap<URI, FutureTask<byte[]>> documents = new ConcurrentHashMap<URI, FutureTask<byte[]>>();
+}
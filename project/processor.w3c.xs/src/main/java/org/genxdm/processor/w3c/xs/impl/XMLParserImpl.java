@@ -15,11 +15,16 @@
  */
 package org.genxdm.processor.w3c.xs.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.Executor;
 
 import org.genxdm.Cursor;
 import org.genxdm.bridgekit.misc.Pair;
 import org.genxdm.bridgekit.xs.ComponentBagImpl;
+import org.genxdm.exceptions.GenXDMException;
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.processor.w3c.xs.LoadOptions;
 import org.genxdm.processor.w3c.xs.xmlrep.XMLSchemaCache;
@@ -72,10 +77,28 @@ final public class XMLParserImpl implements SchemaParser, LoadOptions
         // Catch the reported exceptions in order to maximize the amount of feedback.
         final SchemaExceptionCatcher caught = new SchemaExceptionCatcher();
 
+        // Read the included, imported and redefined documents ahead, if there are threads to do it.
+        InputStream source = istream;
+        SchemaPrefetcher prefetcher = null;
+        if ((m_executor != null) && (m_catalog != null) && (m_resolver != null))
+        {
+            try
+            {
+                final byte[] content = SchemaPrefetcher.readAll(istream);
+                prefetcher = new SchemaPrefetcher(m_catalog, m_resolver, m_executor);
+                prefetcher.scan(systemId, content);
+                source = new ByteArrayInputStream(content);
+            }
+            catch (final IOException e)
+            {
+                throw new GenXDMException(e);
+            }
+        }
+
         // Delegate the parsing into an XML representation
-        final XMLSchemaParser parser = new XMLSchemaParser(this.cache, caught, m_catalog, m_resolver, m_processRepeatedNamespaces);
+        final XMLSchemaParser parser = new XMLSchemaParser(this.cache, caught, m_catalog, m_resolver, m_processRepeatedNamespaces, prefetcher);
 
-        parser.parse(systemId, istream, schemaCache, module);
+        parser.parse(systemId, source, schemaCache, module);
         
         return resolve(schemaCache, caught, errors);
     }
@@ -93,6 +116,19 @@ final public class XMLParserImpl implements SchemaParser, LoadOptions
         this.cache = provider;
     }
     
+    /**
+     * Supply threads for loading.  With an executor, the documents that a schema includes, imports and
+     * redefines are read ahead of the parser, and the schema component constraints of each namespace are
+     * checked in parallel; the result is the same as without one.
+     *
+     * @param executor
+     *            the executor; may be null (the default) to load on the calling thread only.
+     */
+    public void setExecutor(final Executor executor)
+    {
+        m_executor = executor;
+    }
+
     @Override
     public void setRegExCompiler(final SchemaRegExCompiler regexc)
     {
@@ -177,10 +213,17 @@ final public class XMLParserImpl implements SchemaParser, LoadOptions
             final XMLSccExceptionAdapter scc = new XMLSccExceptionAdapter(catcher, converted.getSecond());
 
             SchemaConstraintChecker checker = new SchemaConstraintChecker(converted.getFirst(), cache);
-            checker.checkSchemaComponentConstraints(scc);
+            if (m_executor != null)
+                checker.checkSchemaComponentConstraints(scc, m_executor);
+            else
+                checker.checkSchemaComponentConstraints(scc);
 
             if (catcher.isEmpty())
+            {
+                for (final URI location : schemaCache.m_externalLocations)
+                    converted.getFirst().addSourceLocation(location);
                 return converted.getFirst();
+            }
         }
         // implicit else for the last two conditionals, because they test the
         // same thing, and the inner one has a return.
@@ -197,6 +240,7 @@ final public class XMLParserImpl implements SchemaParser, LoadOptions
     private CatalogResolver m_resolver;
     private SchemaRegExCompiler m_regexc;
     private SchemaLoadOptions m_options;
+    private Executor m_executor;
     private boolean m_processRepeatedNamespaces = false;
     private boolean m_lastInWins = false;
 
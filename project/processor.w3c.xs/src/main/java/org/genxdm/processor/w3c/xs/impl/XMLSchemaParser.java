@@ -141,6 +141,16 @@ import org.genxdm.xs.types.SimpleType;
 final class XMLSchemaParser extends XMLRepresentation
 {
     public XMLSchemaParser(final ComponentProvider bootstrap, final SchemaExceptionHandler errors, final SchemaCatalog catalog, final CatalogResolver resolver, boolean processRepeatedNamespaces)
+    {
+        this(bootstrap, errors, catalog, resolver, processRepeatedNamespaces, null);
+    }
+
+    /**
+     * @param prefetcher
+     *            supplies the content of included, imported and redefined documents read ahead on other
+     *            threads; may be null, in which case they are read from the resolver as they are reached.
+     */
+    XMLSchemaParser(final ComponentProvider bootstrap, final SchemaExceptionHandler errors, final SchemaCatalog catalog, final CatalogResolver resolver, boolean processRepeatedNamespaces, final SchemaPrefetcher prefetcher)
     {
         this.bootstrap = PreCondition.assertArgumentNotNull(bootstrap, "bootstrap");
         this.atoms = new CanonicalAtomBridge(bootstrap);
@@ -149,6 +159,7 @@ final class XMLSchemaParser extends XMLRepresentation
         this.m_catalog = catalog;
         this.m_resolver = resolver;
         this.m_processRepeatedNamespaces = processRepeatedNamespaces;
+        this.m_prefetcher = prefetcher;
         this.m_xp = new DefaultRestrictedXPathParser(bootstrap);
         ANY_SIMPLE_TYPE = new XMLTypeRef(new QName(XMLConstants.W3C_XML_SCHEMA_NS_URI, "anySimpleType"));
         ANY_TYPE = new XMLTypeRef(new QName(XMLConstants.W3C_XML_SCHEMA_NS_URI, "anyType"));
@@ -5532,7 +5543,8 @@ final class XMLSchemaParser extends XMLRepresentation
                 {
                     throw new AssertionError("resolver required for include, import or redefine.");
                 }
-                final InputStream source = m_resolver.resolveInputStream(catalogURI);
+                final InputStream source = (m_prefetcher != null) ? m_prefetcher.open(catalogURI) : m_resolver.resolveInputStream(catalogURI);
+                cache.m_externalLocations.add(catalogURI);
                 final XMLSchemaModule module = new XMLSchemaModule(parent, schemaLocation, catalogURI.toString());
                 switch (moduleKind)
                 {
@@ -5556,7 +5568,7 @@ final class XMLSchemaParser extends XMLRepresentation
                         throw new AssertionError(moduleKind);
                     }
                 }
-                final XMLSchemaParser parser = new XMLSchemaParser(bootstrap, m_errors, m_catalog, m_resolver, m_processRepeatedNamespaces);
+                final XMLSchemaParser parser = new XMLSchemaParser(bootstrap, m_errors, m_catalog, m_resolver, m_processRepeatedNamespaces, m_prefetcher);
                 parser.parse(catalogURI.toString(), source, cache, module);
             }
             catch (final IOException e)
@@ -8536,6 +8548,8 @@ final class XMLSchemaParser extends XMLRepresentation
 
     private final boolean m_processRepeatedNamespaces;
 
+    private final SchemaPrefetcher m_prefetcher;
+
     private final CatalogResolver m_resolver;
 
     /**
@@ -1,11 +1,8 @@
 package org.genxdm.processor.w3c.xs.regex;
 
-import java.util.ArrayList;
-
 import org.genxdm.xs.facets.RegExPattern;
 
 import org.genxdm.processor.w3c.xs.regex.string.StringRegExPattern;
-import org.genxdm.processor.w3c.xs.regex.string.StringRegExPatternTerm;
 
 final class RegExPatternXSDL
     implements RegExPattern
@@ -17,8 +14,7 @@ final class RegExPatternXSDL
 
 	public boolean matches(final String input)
 	{
-		final ArrayList<StringRegExPatternTerm> followers = new ArrayList<StringRegExPatternTerm>();
-		return expr.matches(input, followers);
+		return expr.matches(input, null);
 	}
 
 	private final StringRegExPattern expr;
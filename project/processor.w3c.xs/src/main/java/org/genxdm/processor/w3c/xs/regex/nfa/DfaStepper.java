@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.regex.nfa;
+
+import java.util.List;
+
+import org.genxdm.processor.w3c.xs.regex.api.RegExMachineWithFollowers;
+
+/**
+ * Steps through a {@link DfaTable}, one transition lookup per token. <br/>
+ * When a token is rejected, or the table has grown as large as it may, the stepper switches to an {@link NfaStepper}
+ * positioned in the same state, which also supplies the followers used for error reporting.
+ */
+final class DfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
+{
+	DfaStepper(final DfaTable<E, T> table, final List<E> followers)
+	{
+		m_state = table.getInitialState();
+		m_followers = followers;
+	}
+
+	public List<E> getFollowers()
+	{
+		return m_followers;
+	}
+
+	public boolean step(final T token, final List<? super E> matchers)
+	{
+		if (m_nfa != null)
+		{
+			return m_nfa.step(token, matchers);
+		}
+		if (m_followers != null)
+		{
+			m_followers.clear();
+		}
+		if (token == null)
+		{
+			// followers are only wanted when the input is rejected.
+			if (m_state.accepts())
+			{
+				return true;
+			}
+		}
+		else
+		{
+			final DfaTable.Transition<E, T> transition = m_state.transition(token);
+			if ((transition != null) && (transition.next != null))
+			{
+				if (matchers != null)
+				{
+					final int count = transition.matchers.size();
+					for (int index = 0; index < count; index++)
+					{
+						matchers.add(transition.matchers.get(index));
+					}
+				}
+				m_state = transition.next;
+				return true;
+			}
+		}
+		m_nfa = m_state.newNfaStepper(m_followers);
+		return m_nfa.step(token, matchers);
+	}
+
+	private DfaTable.DfaState<E, T> m_state;
+	private NfaStepper<E, T> m_nfa;
+	private final List<E> m_followers;
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.regex.nfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.genxdm.processor.w3c.xs.regex.api.RegExBridge;
+
+/**
+ * Deterministic form of an NFA, built by subset construction. <br/>
+ * Each DFA state stands for the list of NFA states that an {@link NfaStepper} would be in, and each transition records
+ * the terms that matched and the next DFA state, so that a {@link DfaStepper} takes one table lookup per token.
+ * <p/>
+ * The input alphabet of a pattern (element names that match wildcards or substitution groups, for instance) is not
+ * known when it is compiled, so states and transitions are constructed on first use, by stepping the NFA once; once
+ * published, they never change, and a table may be shared by any number of threads. The number of states, and of
+ * transitions per state, is bounded; past the bound, steppers fall back to NFA simulation.
+ */
+final class DfaTable<E, T>
+{
+	/**
+	 * Maximum number of DFA states per pattern. Large maxOccurs values unroll into many NFA states, and subset
+	 * construction can multiply those; beyond this, the NFA is simulated instead.
+	 */
+	static final int MAXIMUM_STATES = 1024;
+
+	/**
+	 * Maximum number of distinct tokens remembered per state, which bounds the memory used by wildcards.
+	 */
+	static final int MAXIMUM_TRANSITIONS = 256;
+
+	DfaTable(final NfaMatchState<E> initialState, final int stateCount, final RegExBridge<E, T> bridge)
+	{
+		m_stateCount = stateCount;
+		m_bridge = bridge;
+		m_initialState = getState(Collections.singletonList(initialState));
+	}
+
+	DfaState<E, T> getInitialState()
+	{
+		return m_initialState;
+	}
+
+	int getStateCount()
+	{
+		return m_stateCount;
+	}
+
+	RegExBridge<E, T> getBridge()
+	{
+		return m_bridge;
+	}
+
+	/**
+	 * @return the DFA state for a list of NFA states, or null if there are already too many states.
+	 */
+	private DfaState<E, T> getState(final List<NfaMatchState<E>> nfaStates)
+	{
+		final StateKey key = new StateKey(nfaStates);
+		final DfaState<E, T> existing = m_states.get(key);
+		if (existing != null)
+		{
+			return existing;
+		}
+		if (m_size.get() >= MAXIMUM_STATES)
+		{
+			return null;
+		}
+		final DfaState<E, T> created = new DfaState<E, T>(this, nfaStates);
+		final DfaState<E, T> raced = m_states.putIfAbsent(key, created);
+		if (raced != null)
+		{
+			return raced;
+		}
+		m_size.incrementAndGet();
+		return created;
+	}
+
+	/**
+	 * A state of the DFA: the NFA states that the next step starts from, and the transitions found so far.
+	 */
+	static final class DfaState<E, T>
+	{
+		private DfaState(final DfaTable<E, T> table, final List<NfaMatchState<E>> nfaStates)
+		{
+			m_table = table;
+			m_nfaStates = nfaStates;
+		}
+
+		/**
+		 * @return the transition for a (non-null) token, or null if the DFA has too many states to represent it.
+		 */
+		Transition<E, T> transition(final T token)
+		{
+			final Transition<E, T> cached = m_transitions.get(token);
+			if (cached != null)
+			{
+				return cached;
+			}
+			final NfaStepper<E, T> stepper = newNfaStepper(null);
+			final List<E> matchers = new ArrayList<E>(2);
+			final Transition<E, T> computed;
+			if (stepper.step(token, matchers))
+			{
+				final DfaState<E, T> next = m_table.getState(stepper.getCurrentStates());
+				if (next == null)
+				{
+					return null;
+				}
+				computed = new Transition<E, T>(matchers, next);
+			}
+			else
+			{
+				computed = new Transition<E, T>(Collections.<E>emptyList(), null);
+			}
+			if (m_transitions.size() < MAXIMUM_TRANSITIONS)
+			{
+				m_transitions.putIfAbsent(token, computed);
+			}
+			return computed;
+		}
+
+		/**
+		 * @return true if the input may end in this state.
+		 */
+		boolean accepts()
+		{
+			int accepts = m_accepts;
+			if (accepts == 0)
+			{
+				accepts = newNfaStepper(null).step(null, null) ? 1 : -1;
+				m_accepts = accepts;
+			}
+			return accepts > 0;
+		}
+
+		/**
+		 * Creates an NFA stepper positioned in this state.
+		 */
+		NfaStepper<E, T> newNfaStepper(final List<E> followers)
+		{
+			return new NfaStepper<E, T>(m_nfaStates, m_table.getStateCount(), followers, m_table.getBridge());
+		}
+
+		private final DfaTable<E, T> m_table;
+		private final List<NfaMatchState<E>> m_nfaStates;
+		private final ConcurrentHashMap<T, Transition<E, T>> m_transitions = new ConcurrentHashMap<T, Transition<E, T>>();
+		private volatile int m_accepts; // 0 unknown, 1 accepts, -1 does not
+	}
+
+	/**
+	 * The result of stepping a DFA state with a token: the matching terms, and the next state (null if the token was
+	 * rejected).
+	 */
+	static final class Transition<E, T>
+	{
+		private Transition(final List<E> matchers, final DfaState<E, T> next)
+		{
+			this.matchers = matchers;
+			this.next = next;
+		}
+
+		final List<E> matchers;
+		final DfaState<E, T> next;
+	}
+
+	/**
+	 * The indices of a list of NFA states, in order; the order matters, since it decides the order of matchers.
+	 */
+	private static final class StateKey
+	{
+		StateKey(final List<? extends NfaMatchState<?>> nfaStates)
+		{
+			m_indices = new int[nfaStates.size()];
+			for (int i = 0; i < m_indices.length; i++)
+			{
+				m_indices[i] = nfaStates.get(i).getIndex();
+			}
+			m_hashCode = Arrays.hashCode(m_indices);
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			return (obj instanceof StateKey) && Arrays.equals(m_indices, ((StateKey)obj).m_indices);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return m_hashCode;
+		}
+
+		private final int[] m_indices;
+		private final int m_hashCode;
+	}
+
+	private final int m_stateCount;
+	private final RegExBridge<E, T> m_bridge;
+	private final ConcurrentHashMap<StateKey, DfaState<E, T>> m_states = new ConcurrentHashMap<StateKey, DfaState<E, T>>();
+	private final AtomicInteger m_size = new AtomicInteger();
+	private final DfaState<E, T> m_initialState;
+}
@@ -15,6 +15,8 @@
  */
 package org.genxdm.processor.w3c.xs.regex.nfa;
 
+import java.util.ArrayDeque;
+
 import org.genxdm.processor.w3c.xs.regex.api.RegExBridge;
 
 final class NfaCompiler
@@ -26,6 +28,13 @@ final class NfaCompiler
      * it in the same manner as we treat maxOccurs = 'unbounded'.
      */
     private static final int MAXIMUM_MAX_OCCURS = 256;
+
+    /**
+     * NFAs with more states than this (typically from large, but bounded,
+     * maxOccurs values) are not worth a DFA; they would soon exceed
+     * {@link DfaTable#MAXIMUM_STATES} anyway.
+     */
+    private static final int MAXIMUM_DFA_SOURCE_STATES = 2048;
     
     /**
      * Compiles the regular expression pattern term into a NFA.
@@ -47,6 +56,44 @@ final class NfaCompiler
         return start;
     }
 
+    /**
+     * Prepares subset construction of a compiled NFA, whose states must already be numbered.
+     *
+     * @param initialState the initial state of the NFA
+     * @param stateCount the number of states in the NFA
+     * @return the (initially almost empty) DFA table, or null if the NFA should be simulated
+     * instead, because it has too many states or because it contains an all group, whose
+     * matching is not a function of a set of states.
+     */
+    static <E,T> DfaTable<E, T> compileDFA(final NfaMatchState<E> initialState, final int stateCount, final RegExBridge<E, T> bridge)
+    {
+        if (stateCount > MAXIMUM_DFA_SOURCE_STATES)
+        {
+            return null;
+        }
+        final boolean[] seen = new boolean[stateCount];
+        final ArrayDeque<NfaMatchState<E>> work = new ArrayDeque<NfaMatchState<E>>();
+        seen[initialState.getIndex()] = true;
+        work.push(initialState);
+        while (!work.isEmpty())
+        {
+            final NfaMatchState<E> state = work.pop();
+            if (state.isAll())
+            {
+                return null;
+            }
+            for (final NfaMatchState<E> next : state.nextStates())
+            {
+                if (!seen[next.getIndex()])
+                {
+                    seen[next.getIndex()] = true;
+                    work.push(next);
+                }
+            }
+        }
+        return new DfaTable<E, T>(initialState, stateCount, bridge);
+    }
+
     /**
      * Compiles a term, handling min/max values.
      *
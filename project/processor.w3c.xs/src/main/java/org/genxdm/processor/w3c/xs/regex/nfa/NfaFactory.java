@@ -22,11 +22,28 @@ import org.genxdm.processor.w3c.xs.regex.api.RegExPattern;
 
 public class NfaFactory<E, T> implements RegExFactory<E, T>
 {
+	public NfaFactory()
+	{
+		this(false);
+	}
+
+	/**
+	 * @param deterministic
+	 *            if true, patterns are stepped through a DFA, built by subset construction as tokens are seen, unless
+	 *            the pattern contains an all group or is too large, in which case the NFA is simulated as usual.
+	 */
+	public NfaFactory(final boolean deterministic)
+	{
+		m_deterministic = deterministic;
+	}
+
 	public RegExPattern<E, T> newPattern(final E term, RegExBridge<E, T> bridge)
 	{
 		PreCondition.assertArgumentNotNull(term, "term");
 		PreCondition.assertArgumentNotNull(bridge, "bridge");
 
-		return NfaPattern.newPattern(term, bridge);
+		return NfaPattern.newPattern(term, bridge, m_deterministic);
 	}
+
+	private final boolean m_deterministic;
 }
@@ -34,4 +34,20 @@ class NfaMatchState<E> extends Vertex<E, NfaMatchState<E>>
     {
         return false;
     }
+
+    /**
+     * Position of this state in its pattern, assigned once the pattern is
+     * compiled; steppers use it to index their per-step visited markers.
+     */
+    int getIndex()
+    {
+        return m_index;
+    }
+
+    void setIndex(final int index)
+    {
+        m_index = index;
+    }
+
+    private int m_index = -1;
 }
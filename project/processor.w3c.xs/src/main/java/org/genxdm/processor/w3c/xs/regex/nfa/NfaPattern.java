@@ -15,6 +15,7 @@
  */
 package org.genxdm.processor.w3c.xs.regex.nfa;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,11 +33,41 @@ import org.genxdm.processor.w3c.xs.regex.api.RegExPatternInput;
 final class NfaPattern<E, T> extends Graph<E, NfaMatchState<E>> implements RegExPattern<E, T>
 {
 	private final RegExBridge<E, T> m_bridge;
+	private final int m_stateCount;
+	private final DfaTable<E, T> m_dfa; // null if the NFA must be simulated
 
-	private NfaPattern(final NfaMatchState<E> initialState, final RegExBridge<E, T> bridge)
+	private NfaPattern(final NfaMatchState<E> initialState, final RegExBridge<E, T> bridge, final boolean deterministic)
 	{
 		super(initialState);
 		m_bridge = PreCondition.assertArgumentNotNull(bridge, "bridge");
+		m_stateCount = numberStates(initialState);
+		m_dfa = deterministic ? NfaCompiler.compileDFA(initialState, m_stateCount, bridge) : null;
+	}
+
+	/**
+	 * Assigns each reachable state a distinct index, so that steppers can mark
+	 * visited states in an array rather than in a set.
+	 * 
+	 * @return the number of states
+	 */
+	private static <E> int numberStates(final NfaMatchState<E> initialState)
+	{
+		int count = 0;
+		final ArrayDeque<NfaMatchState<E>> work = new ArrayDeque<NfaMatchState<E>>();
+		initialState.setIndex(count++);
+		work.push(initialState);
+		while (!work.isEmpty())
+		{
+			for (final NfaMatchState<E> next : work.pop().nextStates())
+			{
+				if (next.getIndex() < 0)
+				{
+					next.setIndex(count++);
+					work.push(next);
+				}
+			}
+		}
+		return count;
 	}
 
 	/**
@@ -44,12 +75,14 @@ final class NfaPattern<E, T> extends Graph<E, NfaMatchState<E>> implements RegEx
 	 * 
 	 * @param term
 	 *            the head term of the term model. We allow null which represents the lambda set.
+	 * @param deterministic
+	 *            whether to step through a DFA built from the NFA, where the NFA permits.
 	 */
-	static <E, T> NfaPattern<E, T> newPattern(final E term, final RegExBridge<E, T> bridge)
+	static <E, T> NfaPattern<E, T> newPattern(final E term, final RegExBridge<E, T> bridge, final boolean deterministic)
 	{
 		final NfaMatchState<E> initialState = NfaCompiler.compileNFA(term, bridge);
 
-		return new NfaPattern<E, T>(initialState, bridge);
+		return new NfaPattern<E, T>(initialState, bridge, deterministic);
 
 		// Can't use this yet till a*b bug is fixed.
 		// graph.optimize();
@@ -86,7 +119,7 @@ final class NfaPattern<E, T> extends Graph<E, NfaMatchState<E>> implements RegEx
 	 */
 	public boolean matches(final RegExPatternInput<E, T> input, final List<E> followers)
 	{
-		final NfaStepper<E, T> stepper = new NfaStepper<E, T>(m_initialState, followers, m_bridge);
+		final RegExMachine<E, T> stepper = createRegExMachine(followers);
 		final List<E> matchTerms = new ArrayList<E>(23);
 		while (input.hasNext())
 		{
@@ -105,9 +138,21 @@ final class NfaPattern<E, T> extends Graph<E, NfaMatchState<E>> implements RegEx
 		return stepper.step(null, null);
 	}
 
+	/**
+	 * @return the DFA that this pattern steps through, or null if the NFA is simulated.
+	 */
+	DfaTable<E, T> getDfaTable()
+	{
+		return m_dfa;
+	}
+
 	public RegExMachine<E, T> createRegExMachine(final List<E> followers)
 	{
-		return new NfaStepper<E, T>(m_initialState, followers, m_bridge);
+		if (m_dfa != null)
+		{
+			return new DfaStepper<E, T>(m_dfa, followers);
+		}
+		return new NfaStepper<E, T>(m_initialState, m_stateCount, followers, m_bridge);
 	}
 
 	/**
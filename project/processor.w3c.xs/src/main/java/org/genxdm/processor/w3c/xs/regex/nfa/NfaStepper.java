@@ -17,9 +17,8 @@ package org.genxdm.processor.w3c.xs.regex.nfa;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
 
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.processor.w3c.xs.regex.api.RegExBridge;
@@ -29,6 +28,10 @@ import org.genxdm.processor.w3c.xs.regex.api.RegExMachineWithFollowers;
 /**
  * Pattern internal class for matching input against a state machine one input token at a time. <br/>
  * This class simulates the NFA.
+ * <p/>
+ * Stepping allocates nothing: states visited during a step are marked with the
+ * step's generation number in an array indexed by state, and the progress through
+ * an "all" group is kept in flags indexed by term.
  */
 final class NfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
 {
@@ -56,25 +59,50 @@ final class NfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
 	private List<E> m_followers;
 	private RegExBridge<E, T> m_bridge;
 	private NfaMatchAllState<E> allState; // can only be one of these active at a time
-	private List<E> remainingOptional; // used for "all" processing
-	private List<E> remainingRequired; // used for "all" processing
+	private boolean[] consumedOptional; // used for "all" processing
+	private boolean[] consumedRequired; // used for "all" processing
+	private int remainingRequired; // used for "all" processing
+	private final int[] m_visited; // generation in which each state was last visited
+	private int m_generation;
 
 	/**
 	 * Creates a stepper and supplies a place to put follower terms.
 	 *
 	 * @param start
 	 *            the initial state of a state machine to step through
+	 * @param stateCount
+	 *            the number of (indexed) states in the state machine
 	 * @param followers
 	 *            output list of PatternTerms, to be filled during operation
 	 */
-	public NfaStepper(final NfaMatchState<E> start, final List<E> followers, final RegExBridge<E, T> bridge)
+	public NfaStepper(final NfaMatchState<E> start, final int stateCount, final List<E> followers, final RegExBridge<E, T> bridge)
 	{
 		// Initialize the current list of states to the starting state.
 		m_clist.addFirst(start);
+		m_visited = new int[stateCount];
 		m_followers = followers;
 		m_bridge = PreCondition.assertArgumentNotNull(bridge, "bridge");
 	}
 
+	/**
+	 * Creates a stepper that resumes from a list of current states, as captured by {@link #getCurrentStates()}.
+	 */
+	NfaStepper(final List<NfaMatchState<E>> current, final int stateCount, final List<E> followers, final RegExBridge<E, T> bridge)
+	{
+		m_clist.addAll(current);
+		m_visited = new int[stateCount];
+		m_followers = followers;
+		m_bridge = PreCondition.assertArgumentNotNull(bridge, "bridge");
+	}
+
+	/**
+	 * Returns the states that the next step will start from, in the order in which it will visit them.
+	 */
+	List<NfaMatchState<E>> getCurrentStates()
+	{
+		return new ArrayList<NfaMatchState<E>>(m_clist);
+	}
+
 	/**
 	 * Returns list of terms that follow the token being processed
 	 * by the RegEx machine of the finite state machine. That is,
@@ -108,12 +136,7 @@ final class NfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
 			return allStep(token, matchers);
 		}
 
-		// TODO: Find a more efficient way to do this? Some solutions use a generation number but that
-		// TODO: would mean labelling the states diectly.
-//		List<NfaMatchState<E>> visitedThisTurn = new ArrayList<NfaMatchState<E>>(23);
-		// Map visitedThisTurn = new HashMap();
-		Set visitedThisTurn = new HashSet<NfaMatchState<E>>();
-		
+		final int visitedThisTurn = nextGeneration();
 
 		// Append a marker to separate the current states from the next states
 		m_clist.add(m_marker);
@@ -137,7 +160,7 @@ final class NfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
 						// We should have returned by now with the accept condition
 						// so the fact that we have not says that we didn't satisfy
 						// the accept condition.
-						NfaHelper.updateFollowers(m_clist, m_followers);
+						updateFollowers();
 						return false;
 					}
 					else
@@ -152,7 +175,7 @@ final class NfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
 				if (token == null)
 				{
 					// TODO: We're bailing out early so the follower list as actually incomplete.
-					NfaHelper.updateFollowers(m_clist, m_followers);
+					updateFollowers();
 					return true; // This is the accept condition.
 				}
 			}
@@ -162,8 +185,9 @@ final class NfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
 				if (allState == null)
 				{
 					allState = (NfaMatchAllState<E>)curState;
-					remainingOptional = new ArrayList<E>(allState.getOptionalTerms());
-					remainingRequired = new ArrayList<E>(allState.getRequiredTerms());
+					consumedOptional = new boolean[allState.getOptionalTerms().size()];
+					consumedRequired = new boolean[allState.getRequiredTerms().size()];
+					remainingRequired = consumedRequired.length;
 					return allStep(token, matchers);
 				}
 			}
@@ -172,15 +196,14 @@ final class NfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
 				// There is no exit condition so we need to process the next states.
 				// Furthermore, these states need to be processed with the incoming token parameter,
 				// so we are going to push them onto the deque and handle them immediately.
-				for (final NfaMatchState<E> next : curState.nextStates())
+				final List<NfaMatchState<E>> nextStates = curState.nextStates();
+				final int count = nextStates.size();
+				for (int index = 0; index < count; index++)
 				{
-					/*
-					 * if (!visitedThisTurn.containsKey(next)) { visitedThisTurn.put(next, next); work.addHead(next); }
-					 */
-//					if (visitedThisTurn.indexOf(next) == -1)
-					if (!visitedThisTurn.contains(next))
+					final NfaMatchState<E> next = nextStates.get(index);
+					if (m_visited[next.getIndex()] != visitedThisTurn)
 					{
-						visitedThisTurn.add(next);
+						m_visited[next.getIndex()] = visitedThisTurn;
 						m_clist.addFirst(next); // push onto deque so as not to be behind the marker
 					}
 				}
@@ -191,9 +214,11 @@ final class NfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
 				{
 					matchers.add(curState.getTerm());
 				}
-				for (final NfaMatchState<E> e : curState.nextStates())
+				final List<NfaMatchState<E>> nextStates = curState.nextStates();
+				final int count = nextStates.size();
+				for (int index = 0; index < count; index++)
 				{
-					m_clist.add(e);
+					m_clist.add(nextStates.get(index));
 				}
 			}
 			else if (token == null && m_bridge.matches(curState.getTerm(), null))
@@ -201,15 +226,14 @@ final class NfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
 				// There is no exit condition so we need to process the next states.
 				// Furthermore, these states need to be processed with the incoming token parameter,
 				// so we are going to push them onto the deque and handle them immediately.
-				for (final NfaMatchState<E> next : curState.nextStates())
+				final List<NfaMatchState<E>> nextStates = curState.nextStates();
+				final int count = nextStates.size();
+				for (int index = 0; index < count; index++)
 				{
-					/*
-					 * if (!visitedThisTurn.containsKey(next)) { visitedThisTurn.put(next, next); work.addHead(next); }
-					 */
-//					if (visitedThisTurn.indexOf(next) == -1)
-					if (!visitedThisTurn.contains(next))
+					final NfaMatchState<E> next = nextStates.get(index);
+					if (m_visited[next.getIndex()] != visitedThisTurn)
 					{
-						visitedThisTurn.add(next);
+						m_visited[next.getIndex()] = visitedThisTurn;
 						m_clist.addFirst(next); // push onto deque so as not to be behind the marker
 					}
 				}
@@ -240,62 +264,123 @@ final class NfaStepper<E, T> implements RegExMachineWithFollowers<E, T>
 	 */
 	public boolean allStep(T token, List<? super E> matchers)
 	{
+		final List<E> required = allState.getRequiredTerms();
+		final List<E> optional = allState.getOptionalTerms();
 		if (token == null)
 		{
 			// end of input, should have consumed all required items
-			if (m_followers != null)
-			{
-				// update followers
-				for (final E e : remainingRequired)
-				{
-					m_followers.add(e);
-				}
-				for (final E e : remainingOptional)
-				{
-					m_followers.add(e);
-				}
-			}
-			return remainingRequired.size() == 0;
+			updateAllFollowers(required, optional);
+			return remainingRequired == 0;
 		}
 		else
 		{
-			for (int i = 0; i < remainingRequired.size(); i++)
+			for (int i = 0; i < consumedRequired.length; i++)
 			{
-				E t = remainingRequired.get(i);
-				if (m_bridge.matches(t, token))
+				if (!consumedRequired[i])
 				{
-					if (matchers != null)
-						matchers.add(t);
-					remainingRequired.remove(i);
-					return true; // got a match for token
+					E t = required.get(i);
+					if (m_bridge.matches(t, token))
+					{
+						if (matchers != null)
+							matchers.add(t);
+						consumedRequired[i] = true;
+						remainingRequired--;
+						return true; // got a match for token
+					}
 				}
 			}
-			for (int i = 0; i < remainingOptional.size(); i++)
+			for (int i = 0; i < consumedOptional.length; i++)
 			{
-				E t = remainingOptional.get(i);
-				if (m_bridge.matches(t, token))
+				if (!consumedOptional[i])
 				{
-					if (matchers != null)
+					E t = optional.get(i);
+					if (m_bridge.matches(t, token))
 					{
-						matchers.add(t);
+						if (matchers != null)
+						{
+							matchers.add(t);
+						}
+						consumedOptional[i] = true;
+						return true; // got a match for token
 					}
-					remainingOptional.remove(i);
-					return true; // got a match for token
 				}
 			}
-			if (m_followers != null)
+			updateAllFollowers(required, optional);
+			return false;
+		}
+	}
+
+	private void updateAllFollowers(final List<E> required, final List<E> optional)
+	{
+		if (m_followers != null)
+		{
+			for (int i = 0; i < consumedRequired.length; i++)
+			{
+				if (!consumedRequired[i])
+					m_followers.add(required.get(i));
+			}
+			for (int i = 0; i < consumedOptional.length; i++)
+			{
+				if (!consumedOptional[i])
+					m_followers.add(optional.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Updates the followers using the states remaining in this turn.
+	 */
+	private void updateFollowers()
+	{
+		if (m_followers != null)
+		{
+			final int visited = nextGeneration();
+			while (m_clist.size() != 0)
 			{
-				// update followers
-				for (final E e : remainingRequired)
+				final NfaMatchState<E> s = m_clist.remove();
+				if (s == m_marker)
 				{
-					m_followers.add(e);
+					break;
 				}
-				for (final E e : remainingOptional)
+				addFollowers(s, visited);
+			}
+		}
+	}
+
+	/**
+	 * Adds all leaf terms that could directly follow the given state.
+	 */
+	private void addFollowers(final NfaMatchState<E> curState, final int visited)
+	{
+		final E term = curState.getTerm();
+		if (term == null)
+		{
+			// avoid infinite loop in case of (a?)*
+			if (m_visited[curState.getIndex()] != visited)
+			{
+				m_visited[curState.getIndex()] = visited;
+				final List<NfaMatchState<E>> matchStates = curState.nextStates();
+				final int count = matchStates.size();
+				for (int index = 0; index < count; index++)
 				{
-					m_followers.add(e);
+					addFollowers(matchStates.get(index), visited);
 				}
 			}
-			return false;
 		}
+		else if (m_followers.indexOf(term) == -1)
+		{
+			m_followers.add(term);
+		}
+	}
+
+	private int nextGeneration()
+	{
+		if (++m_generation == 0)
+		{
+			// wrapped around; forget all marks rather than mistake an old one for current.
+			Arrays.fill(m_visited, 0);
+			m_generation = 1;
+		}
+		return m_generation;
 	}
 }
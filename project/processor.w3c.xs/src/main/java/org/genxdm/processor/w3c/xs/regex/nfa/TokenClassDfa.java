@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.regex.nfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.processor.w3c.xs.regex.api.RegExPattern;
+
+/**
+ * A {@link DfaTable} over an alphabet that has been partitioned into classes of tokens, where all the tokens of a
+ * class match the same terms. <br/>
+ * States are numbered, and each has a row of transitions indexed by token class, so that stepping is two array
+ * lookups and allocates nothing. Rows are filled on first use, from one token of each class, and may be shared by any
+ * number of threads.
+ */
+public final class TokenClassDfa<E, T>
+{
+	/**
+	 * The result of {@link #step(int, int)} when the token is rejected.
+	 */
+	public static final int REJECTED = -1;
+
+	/**
+	 * The result of {@link #step(int, int)} when the table has grown as large as it may; the caller must simulate the
+	 * NFA instead.
+	 */
+	public static final int OVERFLOW = -2;
+
+	private TokenClassDfa(final DfaTable<E, T> table, final List<T> tokens)
+	{
+		m_tokens = new ArrayList<T>(tokens);
+		m_classCount = tokens.size();
+		m_rows = new AtomicIntegerArray[0];
+		indexOf(table.getInitialState());
+	}
+
+	/**
+	 * @param pattern
+	 *            a pattern created by an {@link NfaFactory} that steps through a DFA.
+	 * @param tokens
+	 *            one token of each class, in order of class.
+	 * @return the table, or null if the pattern is not stepped through a DFA.
+	 */
+	public static <E, T> TokenClassDfa<E, T> newDfa(final RegExPattern<E, T> pattern, final List<T> tokens)
+	{
+		PreCondition.assertArgumentNotNull(pattern, "pattern");
+		PreCondition.assertArgumentNotNull(tokens, "tokens");
+		if (pattern instanceof NfaPattern)
+		{
+			final DfaTable<E, T> table = ((NfaPattern<E, T>)pattern).getDfaTable();
+			if (table != null)
+			{
+				return new TokenClassDfa<E, T>(table, tokens);
+			}
+		}
+		return null;
+	}
+
+	public int getInitialState()
+	{
+		return 0;
+	}
+
+	/**
+	 * @return true if the input may end in the state.
+	 */
+	public boolean accepts(final int state)
+	{
+		return m_rows[state].get(m_classCount) != 0;
+	}
+
+	/**
+	 * @return the state after a token of the class, {@link #REJECTED} or {@link #OVERFLOW}.
+	 */
+	public int step(final int state, final int tokenClass)
+	{
+		// entries hold the next state plus two, so that zero means not yet known
+		final int entry = m_rows[state].get(tokenClass);
+		if (entry != 0)
+		{
+			return entry - 2;
+		}
+		final DfaTable.DfaState<E, T> from;
+		synchronized (this)
+		{
+			from = m_states.get(state);
+		}
+		final DfaTable.Transition<E, T> transition = from.transition(m_tokens.get(tokenClass));
+		if (transition == null)
+		{
+			return OVERFLOW;
+		}
+		final int next = (transition.next == null) ? REJECTED : indexOf(transition.next);
+		m_rows[state].set(tokenClass, next + 2);
+		return next;
+	}
+
+	private synchronized int indexOf(final DfaTable.DfaState<E, T> state)
+	{
+		final Integer existing = m_indices.get(state);
+		if (existing != null)
+		{
+			return existing;
+		}
+		final int index = m_states.size();
+		final AtomicIntegerArray row = new AtomicIntegerArray(m_classCount + 1);
+		row.set(m_classCount, state.accepts() ? 1 : 0);
+		final AtomicIntegerArray[] rows = Arrays.copyOf(m_rows, index + 1);
+		rows[index] = row;
+		m_states.add(state);
+		m_indices.put(state, index);
+		m_rows = rows;
+		return index;
+	}
+
+	private final List<T> m_tokens;
+	private final int m_classCount;
+	// guarded by this; states are only added
+	private final List<DfaTable.DfaState<E, T>> m_states = new ArrayList<DfaTable.DfaState<E, T>>();
+	private final IdentityHashMap<DfaTable.DfaState<E, T>, Integer> m_indices = new IdentityHashMap<DfaTable.DfaState<E, T>, Integer>();
+	// replaced, never changed, when a state is added; a row is published before any transition leads to it
+	private volatile AtomicIntegerArray[] m_rows;
+}
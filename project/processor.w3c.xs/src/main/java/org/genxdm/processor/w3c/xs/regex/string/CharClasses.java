@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.regex.string;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A partition of the characters into classes, for one pattern, such that every leaf term of the pattern matches
+ * either all the characters of a class or none of them.
+ * <p/>
+ * The characters at which a leaf may change its mind are the edges of its {@link CharRange}s and of its Unicode
+ * categories; between two such edges, all characters match the same leaves. Runs of characters that match the same
+ * leaves are then merged into one class, so that a pattern such as <code>[A-Z]{2}\d{5}</code> has three classes,
+ * however many runs the categories have.
+ */
+final class CharClasses
+{
+	/**
+	 * More classes than this are not worth a DFA, whose rows have one entry per class.
+	 */
+	static final int MAXIMUM_CLASSES = 256;
+
+	// the classes of the Basic Latin characters, looked up directly
+	private static final int DIRECT = 0x80;
+
+	private CharClasses(final char[] starts, final char[] classes, final List<String> tokens)
+	{
+		m_starts = starts;
+		m_classes = classes;
+		m_tokens = tokens;
+		m_direct = new char[DIRECT];
+		for (int c = 0; c < DIRECT; c++)
+		{
+			m_direct[c] = lookup((char)c);
+		}
+	}
+
+	/**
+	 * @return the classes of the pattern, or null if there are too many.
+	 */
+	static CharClasses partition(final StringRegExPatternTerm pattern)
+	{
+		final List<StringRegExPatternTerm> leaves = new ArrayList<StringRegExPatternTerm>();
+		collectLeaves(pattern, leaves);
+		final BitSet edges = new BitSet(Character.MAX_VALUE + 2);
+		for (final StringRegExPatternTerm leaf : leaves)
+		{
+			leaf.addBoundaries(edges);
+		}
+		edges.set(0);
+		edges.clear(Character.MAX_VALUE + 1);
+
+		final HashMap<BitSet, Integer> signatures = new HashMap<BitSet, Integer>();
+		final List<String> tokens = new ArrayList<String>();
+		final char[] starts = new char[edges.cardinality()];
+		final char[] classes = new char[starts.length];
+		int runs = 0;
+		for (int c = edges.nextSetBit(0); c >= 0; c = edges.nextSetBit(c + 1))
+		{
+			final String token = String.valueOf((char)c);
+			final BitSet signature = new BitSet(leaves.size());
+			for (int i = 0; i < leaves.size(); i++)
+			{
+				if (leaves.get(i).matches(token))
+				{
+					signature.set(i);
+				}
+			}
+			Integer tokenClass = signatures.get(signature);
+			if (tokenClass == null)
+			{
+				if (tokens.size() == MAXIMUM_CLASSES)
+				{
+					return null;
+				}
+				tokenClass = tokens.size();
+				tokens.add(token);
+				signatures.put(signature, tokenClass);
+			}
+			// runs of the same class are merged
+			if ((runs == 0) || (classes[runs - 1] != tokenClass))
+			{
+				starts[runs] = (char)c;
+				classes[runs] = (char)tokenClass.intValue();
+				runs++;
+			}
+		}
+		return new CharClasses(Arrays.copyOf(starts, runs), Arrays.copyOf(classes, runs), tokens);
+	}
+
+	int classOf(final char c)
+	{
+		return (c < DIRECT) ? m_direct[c] : lookup(c);
+	}
+
+	int getClassCount()
+	{
+		return m_tokens.size();
+	}
+
+	/**
+	 * @return one character of each class, as a token, in order of class.
+	 */
+	List<String> getTokens()
+	{
+		return m_tokens;
+	}
+
+	private char lookup(final char c)
+	{
+		final int index = Arrays.binarySearch(m_starts, c);
+		return m_classes[(index >= 0) ? index : (-index - 2)];
+	}
+
+	private static void collectLeaves(final StringRegExPatternTerm term, final List<StringRegExPatternTerm> leaves)
+	{
+		if (term.isLeaf())
+		{
+			leaves.add(term);
+		}
+		else
+		{
+			for (final StringRegExPatternTerm subTerm : term.getSubTerms())
+			{
+				collectLeaves(subTerm, leaves);
+			}
+		}
+	}
+
+	private final char[] m_starts; // the first character of each run
+	private final char[] m_classes; // the class of each run
+	private final char[] m_direct;
+	private final List<String> m_tokens;
+}
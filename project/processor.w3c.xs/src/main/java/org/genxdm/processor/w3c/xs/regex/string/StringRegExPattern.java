@@ -21,18 +21,29 @@ import org.genxdm.exceptions.PreCondition;
 import org.genxdm.processor.w3c.xs.regex.api.RegExFactory;
 import org.genxdm.processor.w3c.xs.regex.api.RegExPattern;
 import org.genxdm.processor.w3c.xs.regex.nfa.NfaFactory;
+import org.genxdm.processor.w3c.xs.regex.nfa.TokenClassDfa;
 
 
+/**
+ * A compiled XML Schema regular expression. <br/>
+ * Where the pattern permits, strings are matched through a DFA over classes of characters (see {@link CharClasses}),
+ * built as they are first needed; matching then takes two array lookups per character, and allocates nothing. The NFA
+ * is simulated instead when the DFA would be too large, and to supply the followers of a string that does not match.
+ */
 public final class StringRegExPattern
 {
 	private final RegExPattern<StringRegExPatternTerm, String> pattern;
+	private final CharClasses classes; // null if the NFA is simulated
+	private final TokenClassDfa<StringRegExPatternTerm, String> dfa; // null if the NFA is simulated
 	// private static final RegExFactory<StringRegExPatternTerm, String> factory = new
 	// DefaultRegExFactory<StringRegExPatternTerm, String>().getInstance();
-	private static final RegExFactory<StringRegExPatternTerm, String> factory = new NfaFactory<StringRegExPatternTerm, String>();
+	private static final RegExFactory<StringRegExPatternTerm, String> factory = new NfaFactory<StringRegExPatternTerm, String>(true);
 
-	StringRegExPattern(final RegExPattern<StringRegExPatternTerm, String> pattern)
+	StringRegExPattern(final RegExPattern<StringRegExPatternTerm, String> pattern, final CharClasses classes)
 	{
 		this.pattern = pattern;
+		this.dfa = (classes == null) ? null : TokenClassDfa.newDfa(pattern, classes.getTokens());
+		this.classes = (dfa == null) ? null : classes;
 	}
 
 	/**
@@ -43,11 +54,37 @@ public final class StringRegExPattern
 		PreCondition.assertArgumentNotNull(regexp, "regexp");
 		final StringRegExPatternTerm pt = StringRegExParser.parse(regexp);
 		PreCondition.assertArgumentNotNull(pt, "pt");
-		return new StringRegExPattern(factory.newPattern(pt, StringRegExBridge.SINGLETON));
+		return new StringRegExPattern(factory.newPattern(pt, StringRegExBridge.SINGLETON), CharClasses.partition(pt));
 	}
 
+	/**
+	 * @param followers
+	 *            if not null, receives the terms that could have followed the last character matched, when the string
+	 *            does not match.
+	 */
 	public boolean matches(final String strval, final List<StringRegExPatternTerm> followers)
 	{
+		if (dfa != null)
+		{
+			int state = dfa.getInitialState();
+			final int length = strval.length();
+			for (int index = 0; (index < length) && (state >= 0); index++)
+			{
+				state = dfa.step(state, classes.classOf(strval.charAt(index)));
+			}
+			if ((state >= 0) && dfa.accepts(state))
+			{
+				if (followers != null)
+				{
+					followers.clear();
+				}
+				return true;
+			}
+			if ((state != TokenClassDfa.OVERFLOW) && (followers == null))
+			{
+				return false;
+			}
+		}
 		return pattern.matches(new StringRegExPatternInput(strval), followers);
 	}
 
@@ -16,9 +16,11 @@
 package org.genxdm.processor.w3c.xs.regex.string;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.genxdm.exceptions.PreCondition;
 import org.genxdm.processor.w3c.xs.regex.api.RegExBridge;
@@ -375,6 +377,68 @@ public final class StringRegExPatternTerm
 		return matched;
 	}
 
+	/**
+	 * Marks the characters at which the result of {@link #matches(String)} may change, for a leaf: the first character of
+	 * each range and the one after its last, and the edges of the Unicode categories.
+	 */
+	void addBoundaries(final BitSet boundaries)
+	{
+		if (m_category != null)
+		{
+			boundaries.or(categoryBoundaries(m_category));
+		}
+		for (final CharRange range : rangeList)
+		{
+			if (range.getFirst() <= Character.MAX_VALUE)
+			{
+				boundaries.set(range.getFirst());
+				boundaries.set(Math.min(range.getLast() + 1, Character.MAX_VALUE + 1));
+			}
+		}
+		for (final StringRegExPatternTerm term : subTermList)
+		{
+			term.addBoundaries(boundaries);
+		}
+		if (notTerm != null)
+		{
+			notTerm.addBoundaries(boundaries);
+		}
+	}
+
+	/**
+	 * The edges of the categories in {@link #categoryMap}, by (identity of) their arrays.
+	 */
+	private static final ConcurrentHashMap<int[], BitSet> categoryBoundaries = new ConcurrentHashMap<int[], BitSet>();
+
+	private static BitSet categoryBoundaries(final int[] category)
+	{
+		BitSet boundaries = categoryBoundaries.get(category);
+		if (boundaries == null)
+		{
+			boundaries = new BitSet(Character.MAX_VALUE + 2);
+			boolean inside = false;
+			for (int c = 0; c <= Character.MAX_VALUE + 1; c++)
+			{
+				boolean matched = false;
+				if (c <= Character.MAX_VALUE)
+				{
+					final int type = Character.getType((char)c);
+					for (int i = 0; i < category.length && !matched; i++)
+					{
+						matched = category[i] == type;
+					}
+				}
+				if (matched != inside)
+				{
+					boundaries.set(c);
+					inside = matched;
+				}
+			}
+			categoryBoundaries.putIfAbsent(category, boundaries);
+		}
+		return boundaries;
+	}
+
 	/**
 	 * Returns true if this term and the other term are both leaf terms and there exist some tokens which match both
 	 * terms. Used to check for determinism.
@@ -15,9 +15,11 @@
  */
 package org.genxdm.processor.w3c.xs.xmlrep;
 
+import java.net.URI;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 
 import javax.xml.XMLConstants;
@@ -75,6 +77,8 @@ public class XMLSchemaCache
     public final HashSet<String> m_seenNamespaces = new HashSet<String>();
     public final HashSet<String> m_seenSystemIds = new HashSet<String>();
     public final HashMap<String,HashSet<String>> m_seenChameleonsLocation2Tns = new HashMap<String,HashSet<String>>();
+    // every document read for an include, import or redefine, in the order first read
+    public final LinkedHashSet<URI> m_externalLocations = new LinkedHashSet<URI>();
 
     private final XMLScope GLOBAL = new XMLScope();
     private final XMLTypeRef ANY_SIMPLE_TYPE;
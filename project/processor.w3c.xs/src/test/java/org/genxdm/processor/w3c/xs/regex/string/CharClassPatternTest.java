@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.regex.string;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.genxdm.processor.w3c.xs.regex.api.RegExPattern;
+import org.genxdm.processor.w3c.xs.regex.nfa.NfaFactory;
+import org.junit.Test;
+
+public class CharClassPatternTest
+{
+    @Test
+    public void classes()
+        throws StringRegExException
+    {
+        final CharClasses classes = partition("[A-Z]{2}\\d{5}");
+        assertEquals(3, classes.getClassCount());
+        assertEquals(classes.classOf('A'), classes.classOf('Q'));
+        assertEquals(classes.classOf('0'), classes.classOf('٠'));
+        assertEquals(classes.classOf('a'), classes.classOf('一'));
+        assertTrue(classes.classOf('A') != classes.classOf('0'));
+        assertFalse(classes.classOf('[') == classes.classOf('Z'));
+        // the last character closes the last run
+        assertEquals(classes.classOf('a'), classes.classOf('￿'));
+    }
+
+    // a string is matched one UTF-16 unit at a time, so the halves of a pair fall into classes of their own
+    @Test
+    public void surrogates()
+        throws StringRegExException
+    {
+        final String pair = "𐐀"; // U+10400, in the Deseret block
+        final CharClasses classes = partition("[\uD800-\uDBFF][\uDC00-\uDFFF]");
+        assertEquals(3, classes.getClassCount());
+        assertEquals(classes.classOf('\uD800'), classes.classOf('\uDBFF'));
+        assertTrue(classes.classOf('\uDBFF') != classes.classOf('\uDC00'));
+        assertEquals(classes.classOf('a'), classes.classOf(''));
+        assertMatches("[\uD800-\uDBFF][\uDC00-\uDFFF]", pair, true);
+        assertMatches("[\uD800-\uDBFF][\uDC00-\uDFFF]", "\uDC00\uD801", false);
+        assertMatches("[\uD800-\uDBFF][\uDC00-\uDFFF]", "\uD801", false);
+        assertMatches("\\p{Cs}+", pair + "\uDC00", true);
+        assertMatches("\\p{Cs}+", pair + "a", false);
+        assertMatches("..", pair, true);
+        assertMatches(".", pair, false);
+        assertMatches("[^\uD800-\uDFFF]*", "a" + pair, false);
+
+        // a block beyond the BMP adds no edges, and matches no single unit
+        assertEquals(1, partition("\\p{IsDeseret}").getClassCount());
+        assertMatches("\\p{IsDeseret}*", pair, false);
+        assertMatches("\\p{IsDeseret}*", "", true);
+        assertMatches("\\P{IsDeseret}+", pair + "a", true);
+    }
+
+    @Test
+    public void subtraction()
+        throws StringRegExException
+    {
+        // the subtracted characters match no leaf, like those outside the range
+        final CharClasses classes = partition("[a-z-[aeiou]]+");
+        assertEquals(2, classes.getClassCount());
+        assertEquals(classes.classOf('b'), classes.classOf('z'));
+        assertEquals(classes.classOf('a'), classes.classOf('u'));
+        assertEquals(classes.classOf('a'), classes.classOf('A'));
+        assertEquals(classes.classOf('a'), classes.classOf('{'));
+        assertTrue(classes.classOf('a') != classes.classOf('b'));
+        assertMatches("[a-z-[aeiou]]+", "xyz", true);
+        assertMatches("[a-z-[aeiou]]+", "xaz", false);
+        assertMatches("[a-z-[aeiou]]+", "", false);
+        assertMatches("[a-z-[aeiou]]+", "xYz", false);
+
+        // the edges come from the categories on both sides of the subtraction
+        assertMatches("[\\p{L}-[\\p{Lu}]]+", "éaα", true);
+        assertMatches("[\\p{L}-[\\p{Lu}]]+", "éÉ", false);
+        assertMatches("[\\p{L}-[\\p{Lu}]]+", "a1", false);
+        assertMatches("[\\w-[\\d]]*", "a_b", false);
+        assertMatches("[\\w-[\\d]]*", "aéb", true);
+        assertMatches("[\\w-[\\d]]*", "a٠b", false);
+
+        // a nested subtraction puts its characters back
+        assertMatches("[a-z-[a-f-[c]]]+", "cxyz", true);
+        assertMatches("[a-z-[a-f-[c]]]+", "cdx", false);
+    }
+
+    @Test
+    public void blocks()
+        throws StringRegExException
+    {
+        final CharClasses classes = partition("\\p{IsGreek}+");
+        assertEquals(2, classes.getClassCount());
+        assertEquals(classes.classOf('Ͱ'), classes.classOf('Ͽ'));
+        assertTrue(classes.classOf('ͯ') != classes.classOf('Ͱ'));
+        assertTrue(classes.classOf('Ͽ') != classes.classOf('Ѐ'));
+        assertEquals(classes.classOf('ͯ'), classes.classOf('Ѐ'));
+        assertMatches("\\p{IsGreek}+", "ͰαβγϿ", true);
+        assertMatches("\\p{IsGreek}+", "ͯ", false);
+        assertMatches("\\p{IsGreek}+", "Ѐ", false);
+        assertMatches("\\p{IsGreek}+", "αb", false);
+        assertMatches("\\P{IsGreek}+", "abͯЀ", true);
+        assertMatches("\\P{IsGreek}+", "aα", false);
+        assertMatches("\\p{IsBasicLatin}\\p{IsCJKUnifiedIdeographs}", "a一", true);
+        assertMatches("\\p{IsBasicLatin}\\p{IsCJKUnifiedIdeographs}", "\u0080一", false);
+        assertMatches("\\p{IsBasicLatin}\\p{IsCJKUnifiedIdeographs}", "a鿿", true);
+        assertMatches("\\p{IsBasicLatin}\\p{IsCJKUnifiedIdeographs}", "aꀀ", false);
+        // a block and a category that overlap it split each other
+        assertMatches("[\\p{IsGreek}-[\\p{Ll}]]+", "ΑΒΓ", true);
+        assertMatches("[\\p{IsGreek}-[\\p{Ll}]]+", "Αβ", false);
+    }
+
+    // the rows of a fresh table are filled by whichever thread first needs each transition
+    @Test
+    public void rowsSharedAcrossThreads()
+        throws Exception
+    {
+        final String expression = "([0-9]{1,3}\\.){3}[0-9]{1,3}|[A-Z]{1,2}[0-9][A-Z0-9]? ?[0-9][A-Z]{2}";
+        final RegExPattern<StringRegExPatternTerm, String> nfa = new NfaFactory<StringRegExPatternTerm, String>(false).newPattern(StringRegExParser.parse(expression), StringRegExBridge.SINGLETON);
+        final String[] inputs = { "192.168.0.1", "1.2.3", "1.2.3.4.", "255.255.255.2555", "0.0.0.0", "EC1A 1BB", "W1A 0AX", "M1 1AE", "M1 1A", "B33 8TH", "CR2 6XH", "DN55 1PT", "DN55 1P2", "a.b.c.d", "" };
+        final boolean[] expected = new boolean[inputs.length];
+        for (int i = 0; i < inputs.length; i++)
+        {
+            expected[i] = nfa.matches(new StringRegExPatternInput(inputs[i]), null);
+        }
+
+        final int threads = 8;
+        for (int round = 0; round < 50; round++)
+        {
+            final StringRegExPattern pattern = StringRegExPattern.compile(expression);
+            final Throwable[] failure = new Throwable[1];
+            final CountDownLatch start = new CountDownLatch(1);
+            final Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++)
+            {
+                final int offset = t;
+                workers[t] = new Thread(new Runnable() {
+                    public void run()
+                    {
+                        try
+                        {
+                            start.await();
+                            // each thread visits the inputs in a different order
+                            for (int i = 0; i < inputs.length; i++)
+                            {
+                                final int n = (i + offset) % inputs.length;
+                                if (pattern.matches(inputs[n], null) != expected[n])
+                                    throw new AssertionError(inputs[n]);
+                            }
+                        }
+                        catch (Throwable e)
+                        {
+                            synchronized (failure)
+                            {
+                                failure[0] = e;
+                            }
+                        }
+                    }
+                });
+                workers[t].start();
+            }
+            start.countDown();
+            for (final Thread worker : workers)
+            {
+                worker.join();
+            }
+            synchronized (failure)
+            {
+                assertNull(String.valueOf(failure[0]), failure[0]);
+            }
+            // and the filled rows give the same answers again
+            for (int i = 0; i < inputs.length; i++)
+            {
+                assertEquals(inputs[i], expected[i], pattern.matches(inputs[i], null));
+            }
+        }
+    }
+
+    private static CharClasses partition(final String expression)
+        throws StringRegExException
+    {
+        final CharClasses classes = CharClasses.partition(StringRegExParser.parse(expression));
+        assertNotNull(expression, classes);
+        return classes;
+    }
+
+    /**
+     * Checks the compiled pattern, with and without followers, and the NFA simulation against the expected answer.
+     */
+    private static void assertMatches(final String expression, final String input, final boolean expected)
+        throws StringRegExException
+    {
+        final String message = expression + " " + input;
+        final RegExPattern<StringRegExPatternTerm, String> nfa = new NfaFactory<StringRegExPatternTerm, String>(false).newPattern(StringRegExParser.parse(expression), StringRegExBridge.SINGLETON);
+        final StringRegExPattern pattern = StringRegExPattern.compile(expression);
+        final List<StringRegExPatternTerm> followers = new ArrayList<StringRegExPatternTerm>();
+        assertEquals(message, expected, nfa.matches(new StringRegExPatternInput(input), null));
+        assertEquals(message, expected, pattern.matches(input, null));
+        assertEquals(message, expected, pattern.matches(input, followers));
+    }
+}
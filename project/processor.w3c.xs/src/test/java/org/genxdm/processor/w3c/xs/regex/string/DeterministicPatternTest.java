@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.regex.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.genxdm.processor.w3c.xs.regex.api.RegExPattern;
+import org.genxdm.processor.w3c.xs.regex.nfa.NfaFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Matches random strings against the NFA simulation, both through the DFA of the content-model machinery and through
+ * the character classes of a compiled pattern.
+ */
+@RunWith(Parameterized.class)
+public class DeterministicPatternTest
+{
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> expressions()
+    {
+        final String letters = "abcdxyz0123456789.";
+        final String characters = "aAbBcxZ09 _:-.\néÉαΑ٠一 !";
+        return Arrays.asList(new Object[][] {
+            { "a*b", letters }, { "(a|b)*abb", letters }, { "[a-c]{2,5}d?", letters }, { "(ab|a)(bc|c)", letters },
+            { "x(y|z)*x", letters }, { "a{3,}", letters }, { "(a?)*b", letters }, { "([0-9]{1,3}\\.){3}[0-9]{1,3}", letters },
+            { "[A-Z]{2}\\d{5}", characters }, { "\\i\\c*", characters }, { "[^a-c]+x", characters }, { "[a-z-[aeiou]]*", characters },
+            { "\\p{Lu}\\p{Ll}+", characters }, { ".?\\s\\S", characters }, { "\\w\\W", characters }, { "(\\p{IsGreek}|[0-9])+", characters },
+            { "[A-Z]{1,2}[0-9][A-Z0-9]? ?[0-9][A-Z]{2}", characters }, { "", characters } });
+    }
+
+    public DeterministicPatternTest(final String expression, final String alphabet)
+    {
+        this.expression = expression;
+        this.alphabet = alphabet;
+    }
+
+    // stepping through either table must give the same answers, and on failure
+    // the same followers, as simulating the NFA.
+    @Test
+    public void sameAsNfa()
+        throws StringRegExException
+    {
+        final StringRegExPatternTerm term = StringRegExParser.parse(expression);
+        final RegExPattern<StringRegExPatternTerm, String> nfa = new NfaFactory<StringRegExPatternTerm, String>(false).newPattern(term, StringRegExBridge.SINGLETON);
+        final RegExPattern<StringRegExPatternTerm, String> dfa = new NfaFactory<StringRegExPatternTerm, String>(true).newPattern(term, StringRegExBridge.SINGLETON);
+        final StringRegExPattern pattern = StringRegExPattern.compile(expression);
+        final Random random = new Random(1);
+        for (int i = 0; i < 2000; i++)
+        {
+            final StringBuilder input = new StringBuilder();
+            final int length = random.nextInt(12);
+            for (int j = 0; j < length; j++)
+                input.append(alphabet.charAt(random.nextInt((i % 2 == 0) ? 4 : alphabet.length())));
+            final String text = input.toString();
+            final List<StringRegExPatternTerm> nfaFollowers = new ArrayList<StringRegExPatternTerm>();
+            final List<StringRegExPatternTerm> dfaFollowers = new ArrayList<StringRegExPatternTerm>();
+            final List<StringRegExPatternTerm> classFollowers = new ArrayList<StringRegExPatternTerm>();
+            final boolean matched = nfa.matches(new StringRegExPatternInput(text), nfaFollowers);
+            assertEquals(text, matched, dfa.matches(new StringRegExPatternInput(text), dfaFollowers));
+            assertEquals(text, matched, pattern.matches(text, null));
+            assertEquals(text, matched, pattern.matches(text, classFollowers));
+            if (!matched)
+            {
+                assertEquals(text, nfaFollowers.toString(), dfaFollowers.toString());
+                assertEquals(text, nfaFollowers.toString(), classFollowers.toString());
+            }
+        }
+    }
+
+    private final String expression;
+    private final String alphabet;
+}
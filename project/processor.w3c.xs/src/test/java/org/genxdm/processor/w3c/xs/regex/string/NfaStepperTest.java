@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.regex.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.genxdm.processor.w3c.xs.regex.api.RegExMachine;
+import org.genxdm.processor.w3c.xs.regex.api.RegExPattern;
+import org.genxdm.processor.w3c.xs.regex.nfa.NfaFactory;
+import org.junit.Test;
+
+/**
+ * Simulates the NFA on every string of up to eight characters over a small alphabet, and checks each answer against
+ * java.util.regex, a backtracking matcher, for expressions on which the two syntaxes agree.
+ */
+public class NfaStepperTest
+{
+    @Test
+    public void alternation()
+        throws StringRegExException
+    {
+        assertAgrees("a|ab|abc");
+        assertAgrees("abc|ab|a");
+        assertAgrees("(a|ab)(c|bcd)");
+        assertAgrees("(ab|a)(bc|c)");
+        assertAgrees("(a|b)*a(a|b){2}");
+        assertAgrees("(a|ab|b)*c");
+        assertAgrees("((a|b)c|a(b|c))+");
+        assertAgrees("a(b|c)|ab|ac");
+    }
+
+    @Test
+    public void repetition()
+        throws StringRegExException
+    {
+        assertAgrees("a{3}");
+        assertAgrees("a{2,}");
+        assertAgrees("a{0}b");
+        assertAgrees("a{1,3}a{2}");
+        assertAgrees("(a?){3}");
+        assertAgrees("(a?){2,4}b");
+        assertAgrees("(a*)*");
+        assertAgrees("(a*|b)*c");
+        assertAgrees("((a|b)*c)*");
+        assertAgrees("(aa|a)*");
+        assertAgrees("(a{2}|a{3})+");
+        assertAgrees("(ab){2,}");
+        assertAgrees("(a|b){0,2}c?");
+        assertAgrees("(ab|ba){1,3}");
+        assertAgrees("[ab]*c?[bc]+");
+        assertAgrees("(a+b+)+c*");
+        assertAgrees("");
+    }
+
+    private static void assertAgrees(final String expression)
+        throws StringRegExException
+    {
+        final Pattern oracle = Pattern.compile(expression);
+        final RegExPattern<StringRegExPatternTerm, String> nfa = new NfaFactory<StringRegExPatternTerm, String>(false).newPattern(StringRegExParser.parse(expression), StringRegExBridge.SINGLETON);
+        final List<String> inputs = new ArrayList<String>();
+        inputs.add("");
+        for (int start = 0, length = 0; length < 8; length++)
+        {
+            final int end = inputs.size();
+            for (int i = start; i < end; i++)
+            {
+                for (final char c : ALPHABET)
+                {
+                    inputs.add(inputs.get(i) + c);
+                }
+            }
+            start = end;
+        }
+        for (final String input : inputs)
+        {
+            final boolean expected = oracle.matcher(input).matches();
+            assertEquals(expression + " " + input, expected, nfa.matches(new StringRegExPatternInput(input), null));
+            assertEquals(expression + " " + input, expected, step(nfa, input));
+        }
+    }
+
+    /**
+     * Steps a machine through the input one token at a time, as the validator does.
+     */
+    private static boolean step(final RegExPattern<StringRegExPatternTerm, String> nfa, final String input)
+    {
+        final RegExMachine<StringRegExPatternTerm, String> machine = nfa.createRegExMachine(null);
+        final List<StringRegExPatternTerm> matchers = new ArrayList<StringRegExPatternTerm>();
+        for (int i = 0; i < input.length(); i++)
+        {
+            matchers.clear();
+            if (!machine.step(input.substring(i, i + 1), matchers))
+                return false;
+        }
+        return machine.step(null, null);
+    }
+
+    private static final char[] ALPHABET = { 'a', 'b', 'c' };
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+
+import org.genxdm.bridgekit.atoms.XmlAtomBridge;
+import org.genxdm.bridgekit.xs.DefaultCatalog;
+import org.genxdm.bridgekit.xs.DefaultCatalogResolver;
+import org.genxdm.bridgekit.xs.DefaultSchemaCatalog;
+import org.genxdm.bridgekit.xs.SchemaCacheFactory;
+import org.genxdm.processor.w3c.xs.W3cXmlSchemaParser;
+import org.genxdm.xs.ComponentBag;
+import org.genxdm.xs.SchemaComponentCache;
+import org.genxdm.xs.exceptions.DatatypeException;
+import org.genxdm.xs.exceptions.SchemaExceptionThrower;
+import org.genxdm.xs.types.SimpleType;
+import org.junit.Test;
+
+public class EnumerationIndexTest
+{
+    @Test
+    public void enumeratedValues()
+        throws Exception
+    {
+        final SchemaComponentCache cache = new SchemaCacheFactory().newSchemaCache();
+        final ComponentBag components = parseSchema(cache, "address.xsd");
+        final SimpleType state = findSimpleType(components, "USState");
+        final XmlAtomBridge atoms = new XmlAtomBridge(cache);
+
+        // before the cache is locked, the index is built on first use
+        assertEquals("AK", state.validate("AK", atoms).get(0).getC14NForm());
+        assertInvalid(state, "CA", atoms);
+
+        cache.register(components);
+        cache.lock();
+        assertEquals("AL", state.validate("AL", atoms).get(0).getC14NForm());
+        assertEquals("AR", state.validate("AR", atoms).get(0).getC14NForm());
+        // xs:string keeps its whitespace
+        assertInvalid(state, " AR ", atoms);
+        assertInvalid(state, "ak", atoms);
+        assertInvalid(state, "", atoms);
+    }
+
+    @Test
+    public void enumeratedBinaryValues()
+        throws Exception
+    {
+        // the bytes are new arrays each time, so they must hash by value to be found
+        final SchemaComponentCache cache = new SchemaCacheFactory().newSchemaCache();
+        final ComponentBag components = parseSchema(cache, "binary.xsd");
+        final SimpleType magic = findSimpleType(components, "Magic");
+        final SimpleType token = findSimpleType(components, "Token");
+        cache.register(components);
+        cache.lock();
+        final XmlAtomBridge atoms = new XmlAtomBridge(cache);
+
+        assertEquals("CAFEBABE", magic.validate("CAFEBABE", atoms).get(0).getC14NForm());
+        // hexBinary is case-insensitive in the lexical space
+        assertEquals("89504E47", magic.validate("89504e47", atoms).get(0).getC14NForm());
+        assertInvalid(magic, "CAFEBABF", atoms);
+
+        assertEquals("R2VuWERN", token.validate("R2VuWERN", atoms).get(0).getC14NForm());
+        assertEquals("eHM=", token.validate("eHM=", atoms).get(0).getC14NForm());
+        assertInvalid(token, "eHQ=", atoms);
+    }
+
+    private static SimpleType findSimpleType(final ComponentBag components, final String localName)
+    {
+        for (SimpleType type : components.getSimpleTypes())
+        {
+            if (type.getLocalName().equals(localName))
+                return type;
+        }
+        fail(localName);
+        return null;
+    }
+
+    private static void assertInvalid(final SimpleType type, final String value, final XmlAtomBridge atoms)
+    {
+        try
+        {
+            type.validate(value, atoms);
+            fail(value);
+        }
+        catch (final DatatypeException e)
+        {
+            // expected
+        }
+    }
+
+    private ComponentBag parseSchema(final SchemaComponentCache cache, final String resource)
+        throws Exception
+    {
+        final W3cXmlSchemaParser parser = new W3cXmlSchemaParser();
+        parser.setCatalogResolver(DefaultCatalogResolver.SINGLETON, new DefaultSchemaCatalog(new DefaultCatalog()));
+        parser.setComponentProvider(cache.getComponentProvider());
+        final InputStream stream = getClass().getClassLoader().getResourceAsStream(resource);
+        try
+        {
+            return parser.parse(null, stream, null, SchemaExceptionThrower.SINGLETON);
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.genxdm.bridgekit.atoms.XmlAtomBridge;
+import org.genxdm.bridgekit.xs.DefaultCatalog;
+import org.genxdm.bridgekit.xs.DefaultCatalogResolver;
+import org.genxdm.bridgekit.xs.DefaultSchemaCatalog;
+import org.genxdm.bridgekit.xs.SchemaCacheFactory;
+import org.genxdm.processor.w3c.xs.SchemaImage;
+import org.genxdm.processor.w3c.xs.W3cXmlSchemaParser;
+import org.genxdm.xs.ComponentBag;
+import org.genxdm.xs.SchemaComponentCache;
+import org.genxdm.xs.components.ElementDefinition;
+import org.genxdm.xs.components.ModelGroup;
+import org.genxdm.xs.components.SchemaComponent;
+import org.genxdm.xs.components.SchemaParticle;
+import org.genxdm.xs.constraints.AttributeUse;
+import org.genxdm.xs.constraints.ElementUse;
+import org.genxdm.xs.constraints.IdentityConstraint;
+import org.genxdm.xs.constraints.ModelGroupUse;
+import org.genxdm.xs.constraints.RestrictedXPath;
+import org.genxdm.xs.constraints.ValueConstraint;
+import org.genxdm.xs.exceptions.DatatypeException;
+import org.genxdm.xs.exceptions.SchemaExceptionThrower;
+import org.genxdm.xs.facets.Facet;
+import org.genxdm.xs.facets.Pattern;
+import org.genxdm.xs.resolve.CatalogResolver;
+import org.genxdm.xs.types.ComplexType;
+import org.genxdm.xs.types.ContentType;
+import org.genxdm.xs.types.SimpleType;
+import org.genxdm.xs.types.Type;
+import org.junit.Test;
+
+public class SchemaImageTest
+{
+    @Test
+    public void sameComponents()
+        throws Exception
+    {
+        // report.xsd imports ipo.xsd, which includes address.xsd
+        final ComponentBag parsed = parseReport();
+        final List<URI> sources = Arrays.asList(resource("report.xsd"), resource("ipo.xsd"), resource("address.xsd"));
+        final File image = File.createTempFile("report", ".gxsi");
+        image.deleteOnExit();
+        final SchemaImage images = new SchemaImage();
+        images.setCatalogResolver(REPORT_RESOLVER);
+        images.write(parsed, sources, image);
+        assertTrue(images.isCurrent(image, sources));
+        // the documents that report.xsd imports, and ipo.xsd includes, need not be listed
+        assertFalse(images.isCurrent(image, Collections.singletonList(resource("report.xsd"))));
+        final File unlisted = File.createTempFile("report", ".gxsi");
+        unlisted.deleteOnExit();
+        images.write(parsed, Collections.singletonList(resource("report.xsd")), unlisted);
+        assertTrue(images.isCurrent(unlisted, Collections.singletonList(resource("report.xsd"))));
+
+        final ComponentBag read = images.read(image, sources, new SchemaCacheFactory().newSchemaCache().getComponentProvider());
+        assertNotNull(read);
+        assertEquals(describe(parsed), describe(read));
+
+        final SchemaComponentCache cache = images.load(image, sources);
+        assertNotNull(cache);
+        assertTrue(cache.isLocked());
+        final XmlAtomBridge atoms = new XmlAtomBridge(cache);
+        // patterns and enumerations
+        final SimpleType sku = cache.getComponentProvider().getSimpleType(new QName(IPO_URI, "SKU"));
+        assertEquals("872-AA", sku.validate("872-AA", atoms).get(0).getC14NForm());
+        assertInvalid(sku, "872-aa", atoms);
+        final SimpleType state = cache.getComponentProvider().getSimpleType(new QName(IPO_URI, "USState"));
+        assertEquals("AR", state.validate("AR", atoms).get(0).getC14NForm());
+        assertInvalid(state, "CA", atoms);
+        // the key referred to by the keyref is the same component
+        final ElementDefinition report = cache.getComponentProvider().getElementDeclaration(new QName(REPORT_URI, "purchaseReport"));
+        final QName key = new QName(REPORT_URI, "pNumKey");
+        for (final IdentityConstraint constraint : report.getIdentityConstraints())
+        {
+            if (constraint.getKeyConstraint() != null)
+                assertSame(cache.getComponentProvider().getIdentityConstraint(key), constraint.getKeyConstraint());
+        }
+        // built-in components are looked up, not copied
+        final ComplexType item = (ComplexType)cache.getComponentProvider().getTypeDefinition(new QName(IPO_URI, "Items"));
+        assertNotNull(item);
+        assertSame(cache.getComponentProvider().getComplexUrType(), item.getBaseType());
+    }
+
+    @Test
+    public void changedSource()
+        throws Exception
+    {
+        final File schema = File.createTempFile("address", ".xsd");
+        schema.deleteOnExit();
+        copy(getClass().getClassLoader().getResourceAsStream("address.xsd"), schema, null);
+        final List<URI> sources = Collections.singletonList(schema.toURI());
+
+        final W3cXmlSchemaParser parser = new W3cXmlSchemaParser();
+        parser.setCatalogResolver(DefaultCatalogResolver.SINGLETON, new DefaultSchemaCatalog(new DefaultCatalog()));
+        parser.setComponentProvider(new SchemaCacheFactory().newSchemaCache().getComponentProvider());
+        final InputStream stream = schema.toURI().toURL().openStream();
+        final ComponentBag components;
+        try
+        {
+            components = parser.parse(null, stream, null, SchemaExceptionThrower.SINGLETON);
+        }
+        finally
+        {
+            stream.close();
+        }
+
+        final File image = File.createTempFile("address", ".gxsi");
+        image.deleteOnExit();
+        final SchemaImage images = new SchemaImage();
+        images.write(components, sources, image);
+        assertNotNull(images.load(image, sources));
+
+        copy(getClass().getClassLoader().getResourceAsStream("address.xsd"), schema, "<!-- changed -->");
+        assertFalse(images.isCurrent(image, sources));
+        assertNull(images.load(image, sources));
+        // nor is an image current for other documents
+        assertFalse(images.isCurrent(image, Collections.<URI>emptyList()));
+        assertNull(images.load(new File(image.getPath() + ".missing"), sources));
+    }
+
+    @Test
+    public void changedInclude()
+        throws Exception
+    {
+        // only the including document is listed; the parser finds the other
+        final File directory = Files.createTempDirectory("schemas").toFile();
+        directory.deleteOnExit();
+        final File main = new File(directory, "main.xsd");
+        main.deleteOnExit();
+        final File address = new File(directory, "address.xsd");
+        address.deleteOnExit();
+        copy(new ByteArrayInputStream(("<schema targetNamespace='" + IPO_URI + "' xmlns='http://www.w3.org/2001/XMLSchema'>"
+                                       + "<include schemaLocation='address.xsd'/></schema>").getBytes("UTF-8")), main, null);
+        copy(getClass().getClassLoader().getResourceAsStream("address.xsd"), address, null);
+        final List<URI> sources = Collections.singletonList(main.toURI());
+
+        final W3cXmlSchemaParser parser = new W3cXmlSchemaParser();
+        parser.setCatalogResolver(DefaultCatalogResolver.SINGLETON, new DefaultSchemaCatalog(new DefaultCatalog()));
+        parser.setComponentProvider(new SchemaCacheFactory().newSchemaCache().getComponentProvider());
+        final InputStream stream = main.toURI().toURL().openStream();
+        final ComponentBag components;
+        try
+        {
+            components = parser.parse(null, stream, main.toURI().toString(), SchemaExceptionThrower.SINGLETON);
+        }
+        finally
+        {
+            stream.close();
+        }
+        assertTrue(components.getSimpleTypes().iterator().hasNext());
+
+        final File image = new File(directory, "main.gxsi");
+        image.deleteOnExit();
+        final SchemaImage images = new SchemaImage();
+        images.write(components, sources, image);
+        assertTrue(images.isCurrent(image, sources));
+
+        copy(getClass().getClassLoader().getResourceAsStream("address.xsd"), address, "<!-- changed -->");
+        assertFalse(images.isCurrent(image, sources));
+        assertNull(images.load(image, sources));
+        // nor is it current once the included document has gone
+        address.delete();
+        assertFalse(images.isCurrent(image, sources));
+    }
+
+    @Test
+    public void truncatedImage()
+        throws Exception
+    {
+        final ComponentBag parsed = parseReport();
+        final List<URI> sources = Arrays.asList(resource("report.xsd"), resource("ipo.xsd"), resource("address.xsd"));
+        final File directory = Files.createTempDirectory("images").toFile();
+        directory.deleteOnExit();
+        final File image = new File(directory, "report.gxsi");
+        image.deleteOnExit();
+        final SchemaImage images = new SchemaImage();
+        images.setCatalogResolver(REPORT_RESOLVER);
+        images.write(parsed, sources, image);
+        // written again, the image is replaced, and no temporary file is left behind
+        images.write(parsed, sources, image);
+        assertEquals(Collections.singletonList(image.getName()), Arrays.asList(directory.list()));
+        final byte[] whole = Files.readAllBytes(image.toPath());
+
+        final File truncated = new File(directory, "truncated.gxsi");
+        truncated.deleteOnExit();
+        for (int length = 8; length < whole.length; length += Math.max(1, whole.length / 97))
+        {
+            copy(new ByteArrayInputStream(whole, 0, length), truncated, null);
+            // out of date if the list of sources is cut short; unreadable if the components are
+            if (images.isCurrent(truncated, sources))
+            {
+                try
+                {
+                    images.read(truncated, sources, new SchemaCacheFactory().newSchemaCache().getComponentProvider());
+                    fail("read an image truncated to " + length + " of " + whole.length + " bytes");
+                }
+                catch (final IOException e)
+                {
+                    // expected
+                }
+            }
+            else
+            {
+                assertNull(images.load(truncated, sources));
+            }
+        }
+    }
+
+    private ComponentBag parseReport()
+        throws Exception
+    {
+        final W3cXmlSchemaParser parser = new W3cXmlSchemaParser();
+        parser.setCatalogResolver(REPORT_RESOLVER, new DefaultSchemaCatalog(new DefaultCatalog()));
+        parser.setComponentProvider(new SchemaCacheFactory().newSchemaCache().getComponentProvider());
+        final InputStream stream = getClass().getClassLoader().getResourceAsStream("report.xsd");
+        try
+        {
+            return parser.parse(null, stream, null, SchemaExceptionThrower.SINGLETON);
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    private URI resource(final String name)
+        throws Exception
+    {
+        return getClass().getClassLoader().getResource(name).toURI();
+    }
+
+    private static void copy(final InputStream input, final File file, final String trailer)
+        throws IOException
+    {
+        final OutputStream output = new FileOutputStream(file);
+        try
+        {
+            final byte[] buffer = new byte[4096];
+            int count;
+            while ((count = input.read(buffer)) >= 0)
+                output.write(buffer, 0, count);
+            if (trailer != null)
+                output.write(trailer.getBytes("UTF-8"));
+        }
+        finally
+        {
+            input.close();
+            output.close();
+        }
+    }
+
+    private static void assertInvalid(final SimpleType type, final String value, final XmlAtomBridge atoms)
+    {
+        try
+        {
+            type.validate(value, atoms);
+            fail(value);
+        }
+        catch (final DatatypeException e)
+        {
+            // expected
+        }
+    }
+
+    // a description of the global components, and of all that they hold, in which components met again are
+    // described by name or number
+    private static String describe(final ComponentBag components)
+    {
+        final List<String> globals = new ArrayList<String>();
+        final IdentityHashMap<Object, Integer> seen = new IdentityHashMap<Object, Integer>();
+        for (final Iterable<? extends SchemaComponent> kind : Arrays.<Iterable<? extends SchemaComponent>>asList(components.getSimpleTypes(), components.getComplexTypes(), components.getAttributes(), components.getElements(), components.getAttributeGroups(), components.getIdentityConstraints(), components.getModelGroups(), components.getNotations()))
+        {
+            for (final SchemaComponent component : kind)
+            {
+                final StringBuilder sb = new StringBuilder();
+                describe(component, sb, seen);
+                globals.add(sb.toString());
+            }
+        }
+        Collections.sort(globals);
+        return globals.toString();
+    }
+
+    private static void describe(final Object component, final StringBuilder sb, final IdentityHashMap<Object, Integer> seen)
+    {
+        if (component == null)
+        {
+            sb.append("null");
+            return;
+        }
+        if (component instanceof SchemaComponent)
+        {
+            final SchemaComponent named = (SchemaComponent)component;
+            sb.append(named.isAnonymous() ? "~" : String.valueOf(named.getName()));
+            if ((component instanceof Type) && ((Type)component).isNative())
+                return;
+        }
+        if (seen.containsKey(component))
+        {
+            sb.append('#');
+            return;
+        }
+        seen.put(component, seen.size());
+        sb.append('(');
+        if (component instanceof SimpleType)
+        {
+            final SimpleType type = (SimpleType)component;
+            sb.append(type.getDerivationMethod()).append(' ').append(type.getWhiteSpacePolicy()).append(' ');
+            describe(type.getBaseType(), sb, seen);
+            final List<String> facets = new ArrayList<String>();
+            for (final Facet facet : type.getFacets())
+                facets.add(facet.getKind() + "=" + facet.isFixed());
+            for (final Pattern pattern : type.getPatterns())
+                facets.add(pattern.getValue());
+            for (final Object enumeration : type.getEnumerations())
+                facets.add(enumeration.toString());
+            Collections.sort(facets);
+            sb.append(facets);
+        }
+        else if (component instanceof ComplexType)
+        {
+            final ComplexType type = (ComplexType)component;
+            sb.append(type.getDerivationMethod()).append(' ').append(type.isAbstract()).append(type.getFinal()).append(' ');
+            describe(type.getBaseType(), sb, seen);
+            final List<String> uses = new ArrayList<String>();
+            for (final AttributeUse use : type.getAttributeUses().values())
+            {
+                final StringBuilder usb = new StringBuilder(use.isRequired() ? "!" : "?");
+                describe(use.getAttribute(), usb, seen);
+                describe(use.getValueConstraint(), usb, seen);
+                uses.add(usb.toString());
+            }
+            Collections.sort(uses);
+            sb.append(uses);
+            final ContentType content = type.getContentType();
+            sb.append(content.getKind());
+            if (content.isSimple())
+                describe(content.getSimpleType(), sb, seen);
+            else if (content.isComplex())
+                describe(content.getContentModel(), sb, seen);
+        }
+        else if (component instanceof ElementDefinition)
+        {
+            final ElementDefinition element = (ElementDefinition)component;
+            sb.append(element.getScopeExtent()).append(element.isNillable()).append(element.isAbstract());
+            describe(element.getType(), sb, seen);
+            describe(element.getValueConstraint(), sb, seen);
+            final List<String> constraints = new ArrayList<String>();
+            for (final IdentityConstraint constraint : element.getIdentityConstraints())
+            {
+                final StringBuilder csb = new StringBuilder();
+                describe(constraint, csb, seen);
+                constraints.add(csb.toString());
+            }
+            Collections.sort(constraints);
+            sb.append(constraints);
+        }
+        else if (component instanceof IdentityConstraint)
+        {
+            final IdentityConstraint constraint = (IdentityConstraint)component;
+            sb.append(constraint.getCategory()).append(' ').append(xpath(constraint.getSelector()));
+            for (final RestrictedXPath field : constraint.getFields())
+                sb.append(' ').append(xpath(field));
+            if (constraint.getKeyConstraint() != null)
+                sb.append(" refer ").append(constraint.getKeyConstraint().getName());
+        }
+        else if (component instanceof ModelGroup)
+        {
+            final ModelGroup group = (ModelGroup)component;
+            sb.append(group.getCompositor());
+            for (final SchemaParticle particle : group.getParticles())
+                describe(particle, sb, seen);
+        }
+        else if (component instanceof SchemaParticle)
+        {
+            final SchemaParticle particle = (SchemaParticle)component;
+            sb.append(particle.getMinOccurs()).append("..").append(particle.isMaxOccursUnbounded() ? "*" : String.valueOf(particle.getMaxOccurs()));
+            if (particle instanceof ElementUse)
+                describe(((ElementUse)particle).getTerm(), sb, seen);
+            else if (particle instanceof ModelGroupUse)
+                describe(((ModelGroupUse)particle).getTerm(), sb, seen);
+        }
+        else if (component instanceof ValueConstraint)
+        {
+            final ValueConstraint constraint = (ValueConstraint)component;
+            sb.append(constraint.getVariety()).append('=').append(constraint.getLexicalForm());
+        }
+        else if (component instanceof SchemaComponent)
+        {
+            sb.append(component.getClass().getSimpleName());
+        }
+        sb.append(')');
+    }
+
+    private static String xpath(final RestrictedXPath xpath)
+    {
+        return (xpath == null) ? "" : xpath.toString();
+    }
+
+    // finds the documents that report.xsd imports, and ipo.xsd includes, on the class path
+    private static final CatalogResolver REPORT_RESOLVER = new CatalogResolver() {
+        public InputStream resolveInputStream(final URI catalogURI)
+            throws IOException
+        {
+            if (catalogURI.toString().equals(IPO_URI))
+                return SchemaImageTest.class.getClassLoader().getResourceAsStream("ipo.xsd");
+            if (catalogURI.toString().equals("http://www.example.com/schemas/address.xsd"))
+                return SchemaImageTest.class.getClassLoader().getResourceAsStream("address.xsd");
+            return DefaultCatalogResolver.SINGLETON.resolveInputStream(catalogURI);
+        }
+    };
+
+    private static final String IPO_URI = "http://www.example.com/IPO";
+    private static final String REPORT_URI = "http://www.example.com/Report";
+}
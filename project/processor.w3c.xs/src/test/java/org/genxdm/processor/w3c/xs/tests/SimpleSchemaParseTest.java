@@ -22,6 +22,10 @@ import static org.junit.Assert.assertTrue;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.genxdm.bridgekit.xs.BagComponentProvider;
 import org.genxdm.bridgekit.xs.DefaultCatalog;
@@ -37,6 +41,7 @@ import org.genxdm.xs.components.AttributeGroupDefinition;
 import org.genxdm.xs.components.ElementDefinition;
 import org.genxdm.xs.components.ModelGroup;
 import org.genxdm.xs.components.NotationDefinition;
+import org.genxdm.xs.components.SchemaComponent;
 import org.genxdm.xs.constraints.IdentityConstraint;
 import org.genxdm.xs.exceptions.AbortException;
 import org.genxdm.xs.exceptions.SchemaExceptionThrower;
@@ -211,6 +216,50 @@ public class SimpleSchemaParseTest
         Iterable<NotationDefinition> nots = components.getNotations();
     }
     
+    @Test
+    public void parsePrimerReportSchemaWithExecutor()
+        throws AbortException
+    {
+        // report.xsd imports ipo.xsd, which includes address.xsd
+        final ComponentBag sequential = parseReport(null);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            final ComponentBag parallel = parseReport(executor);
+            assertEquals(names(sequential.getElements()), names(parallel.getElements()));
+            assertEquals(names(sequential.getAttributes()), names(parallel.getAttributes()));
+            assertEquals(names(sequential.getComplexTypes()), names(parallel.getComplexTypes()));
+            assertEquals(names(sequential.getSimpleTypes()), names(parallel.getSimpleTypes()));
+            assertEquals(names(sequential.getAttributeGroups()), names(parallel.getAttributeGroups()));
+            assertEquals(names(sequential.getModelGroups()), names(parallel.getModelGroups()));
+            assertEquals(names(sequential.getIdentityConstraints()), names(parallel.getIdentityConstraints()));
+            assertTrue(count(parallel.getElements()) > 0);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private ComponentBag parseReport(final ExecutorService executor)
+        throws AbortException
+    {
+        W3cXmlSchemaParser parser = new W3cXmlSchemaParser();
+        parser.setCatalogResolver(new ResourceResolver(), new DefaultSchemaCatalog(new DefaultCatalog()));
+        parser.setComponentProvider(new SchemaCacheFactory().newSchemaCache().getComponentProvider());
+        parser.setExecutor(executor);
+        InputStream stream = getClass().getClassLoader().getResourceAsStream("report.xsd");
+        return parser.parse(null, stream, null, SchemaExceptionThrower.SINGLETON);
+    }
+
+    private List<String> names(Iterable<? extends SchemaComponent> components)
+    {
+        List<String> names = new ArrayList<String>();
+        for (SchemaComponent component : components)
+            names.add(String.valueOf(component.getName()));
+        return names;
+    }
+
 //    @Test
 //    public void parseTaskManagerSchema()
 //        throws AbortException
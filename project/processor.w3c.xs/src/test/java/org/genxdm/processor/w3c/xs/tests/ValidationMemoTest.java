@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.w3c.xs.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.genxdm.bridgekit.atoms.BridgeConfiguration;
+import org.genxdm.bridgekit.atoms.ValidationMemo;
+import org.genxdm.bridgekit.atoms.XmlAtom;
+import org.genxdm.bridgekit.atoms.XmlAtomBridge;
+import org.genxdm.bridgekit.xs.DefaultCatalog;
+import org.genxdm.bridgekit.xs.DefaultCatalogResolver;
+import org.genxdm.bridgekit.xs.DefaultSchemaCatalog;
+import org.genxdm.bridgekit.xs.SchemaCacheFactory;
+import org.genxdm.processor.w3c.xs.W3cXmlSchemaParser;
+import org.genxdm.xs.ComponentBag;
+import org.genxdm.xs.ComponentProvider;
+import org.genxdm.xs.SchemaComponentCache;
+import org.genxdm.xs.exceptions.DatatypeException;
+import org.genxdm.xs.exceptions.SchemaExceptionThrower;
+import org.genxdm.xs.types.NativeType;
+import org.genxdm.xs.types.SimpleType;
+import org.junit.Test;
+
+public class ValidationMemoTest
+{
+    @Test
+    public void repeatedValues()
+        throws Exception
+    {
+        final SchemaComponentCache cache = new SchemaCacheFactory().newSchemaCache();
+        final ComponentBag components = parsePrimerPOSchema(cache.getComponentProvider());
+        SimpleType sku = null;
+        SimpleType quantity = null;
+        for (SimpleType type : components.getSimpleTypes())
+        {
+            if (type.getLocalName().equals("SKU"))
+                sku = type;
+            else
+                quantity = type;
+        }
+        assertNotNull(sku);
+        assertNotNull(quantity);
+
+        // no memo unless one is configured
+        assertNull(new XmlAtomBridge(cache, new BridgeConfiguration()).getValidationMemo());
+
+        final BridgeConfiguration config = new BridgeConfiguration();
+        config.setValidationMemoCapacity(2);
+        final XmlAtomBridge atoms = new XmlAtomBridge(cache, config);
+        final ValidationMemo memo = atoms.getValidationMemo();
+        assertEquals(2, memo.getCapacity());
+
+        final List<XmlAtom> first = sku.validate("926-AA", atoms);
+        final List<XmlAtom> again = sku.validate("926-AA", atoms);
+        assertEquals(first, again);
+        assertEquals(1, memo.getHitCount());
+        assertEquals(1, memo.getMissCount());
+
+        // the atoms are shared by every caller, so none of them may change the list
+        assertUnmodifiable(first);
+        assertUnmodifiable(again);
+
+        // values that fail, on the pattern or on a facet, are checked every time
+        for (int i = 0; i < 2; i++)
+        {
+            assertInvalid(sku, "926-aa", atoms);
+            assertInvalid(quantity, "100", atoms);
+        }
+        assertEquals(1, memo.getHitCount());
+        assertEquals(5, memo.getMissCount());
+
+        // each type has its own values
+        assertEquals("42", quantity.validate("42", atoms).get(0).getC14NForm());
+        assertEquals("42", quantity.validate(" 42 ", atoms).get(0).getC14NForm());
+        assertEquals("42", quantity.validate("42", atoms).get(0).getC14NForm());
+        assertEquals(2, memo.getHitCount());
+
+        // the least recently used value goes when the type's memo is full
+        sku.validate("100-AB", atoms);
+        sku.validate("200-AB", atoms);
+        sku.validate("926-AA", atoms);
+        assertEquals(2, memo.getHitCount());
+        assertEquals(10, memo.getMissCount());
+        assertEquals(2.0 / 12, memo.getHitRate(), 0.0001);
+
+        assertTrue(ValidationMemo.isMemoizable(sku));
+        assertFalse(ValidationMemo.isMemoizable(cache.getComponentProvider().getSimpleType(NativeType.QNAME)));
+
+        memo.clear();
+        assertEquals(0, memo.getHitCount());
+        assertEquals(0.0, memo.getHitRate(), 0.0);
+    }
+
+    private static void assertUnmodifiable(final List<XmlAtom> atoms)
+    {
+        try
+        {
+            atoms.clear();
+            fail("modifiable");
+        }
+        catch (final UnsupportedOperationException e)
+        {
+            // expected
+        }
+    }
+
+    private static void assertInvalid(final SimpleType type, final String value, final XmlAtomBridge atoms)
+    {
+        try
+        {
+            type.validate(value, atoms);
+            fail(value);
+        }
+        catch (final DatatypeException e)
+        {
+            // expected
+        }
+    }
+
+    private ComponentBag parsePrimerPOSchema(final ComponentProvider bootstrap)
+        throws Exception
+    {
+        final W3cXmlSchemaParser parser = new W3cXmlSchemaParser();
+        parser.setCatalogResolver(DefaultCatalogResolver.SINGLETON, new DefaultSchemaCatalog(new DefaultCatalog()));
+        parser.setComponentProvider(bootstrap);
+        final InputStream stream = getClass().getClassLoader().getResourceAsStream("po.xsd");
+        try
+        {
+            return parser.parse(null, stream, null, SchemaExceptionThrower.SINGLETON);
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+}
@@ -21,16 +21,29 @@
 package org.genxdm.processor.xpath.v10;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import org.genxdm.Model;
+import org.genxdm.bridgekit.tree.DocumentOrderIndex;
+import org.genxdm.bridgekit.tree.OrderIndexProvider;
 import org.genxdm.processor.xpath.v10.iterators.ListNodeIterator;
+import org.genxdm.processor.xpath.v10.iterators.MergeNodeIterator;
+import org.genxdm.processor.xpath.v10.iterators.NullNodeIterator;
+import org.genxdm.processor.xpath.v10.iterators.UnionNodeIterator;
 import org.genxdm.xpath.v10.ExprException;
 import org.genxdm.xpath.v10.NodeIterator;
 
 /**
- * Like the name suggests, provides a mechanism to sort the nodes in a NodeIterator based upon the test of <code>Comparator</code>
+ * Puts nodes into document order.
+ * <p>
+ * When the model keeps a {@link DocumentOrderIndex} for the tree, nodes are sorted by their numeric order keys,
+ * without calling {@link Model#compare} at all, unless the index is not current (as after a change to the tree) and
+ * there are too few nodes to pay for numbering the tree again. Otherwise nodes are sorted by comparison; the sort is adaptive,
+ * so input that is already in order, or in reverse order (as from a reverse axis), or made of a few ordered
+ * runs, costs a linear number of comparisons rather than n log n.
+ * </p>
  */
 public class NodeListSorter
 {
@@ -49,9 +62,85 @@ public class NodeListSorter
 	            break;
 	        list.add(item);
 	    }
-	    Collections.sort(list, model);
+	    sort(list, model);
 	    return new ListNodeIterator<N>(list);
 	    
 	}
 
+	/**
+	 * Sorts a list of nodes into document order, in place.
+	 */
+	static public <N> void sort(final List<N> list, final Model<N> model)
+	{
+	    if (list.size() < 2)
+	        return;
+	    if (!sortByOrderKeys(list, model))
+	        // TimSort finds and merges the ordered runs.
+	        Collections.sort(list, model);
+	}
+
+	/**
+	 * Merges iterators, each of which is already in document order, into a single iterator in document order.
+	 * 
+	 * @param length
+	 *            the number of slots in the array which really have NodeIterators
+	 */
+	static public <N> NodeIterator<N> merge(final NodeIterator<N>[] iters, final int length, final Model<N> model)
+	{
+	    switch (length)
+	    {
+	        case 0:
+	            return new NullNodeIterator<N>();
+	        case 1:
+	            return iters[0];
+	        case 2:
+	            return new UnionNodeIterator<N>(iters[0], iters[1], model);
+	    }
+	    return new MergeNodeIterator<N>(iters, length, model);
+	}
+
+	private static <N> boolean sortByOrderKeys(final List<N> list, final Model<N> model)
+	{
+	    if (!(model instanceof OrderIndexProvider))
+	        return false;
+	    @SuppressWarnings("unchecked")
+	    final DocumentOrderIndex<N> index = ((OrderIndexProvider<N>)model).getOrderIndex(list.get(0));
+	    if (index == null)
+	        return false;
+	    final int size = list.size();
+	    if (!index.isWorthKeying(size))
+	        return false; // a few nodes of a changed tree; comparing them is cheaper than renumbering
+	    final long[] keys = new long[size];
+	    long maxKey = 0;
+	    boolean ordered = true;
+	    for (int i = 0; i < size; i++)
+	    {
+	        final long key = index.getOrderKey(list.get(i), model);
+	        if (key == DocumentOrderIndex.NO_KEY)
+	            return false; // more than one tree; let the model sort it out
+	        keys[i] = key;
+	        if ( (i > 0) && (key < keys[i - 1]) )
+	            ordered = false;
+	        if (key > maxKey)
+	            maxKey = key;
+	    }
+	    if (ordered)
+	        return true;
+	    // the position in the list goes into the low digits of the key, so that
+	    // one primitive sort orders the nodes, and nodes with equal keys keep
+	    // their relative positions.
+	    if (maxKey > (Long.MAX_VALUE - size) / size)
+	        return false;
+	    for (int i = 0; i < size; i++)
+	        keys[i] = keys[i] * size + i;
+	    Arrays.sort(keys);
+	    final Object[] nodes = list.toArray();
+	    for (int i = 0; i < size; i++)
+	    {
+	        @SuppressWarnings("unchecked")
+	        final N node = (N)nodes[(int)(keys[i] % size)];
+	        list.set(i, node);
+	    }
+	    return true;
+	}
 }
@@ -15,6 +15,7 @@
  */
 package org.genxdm.processor.xpath.v10;
 
+import org.genxdm.processor.xpath.v10.expressions.ExpressionCache;
 import org.genxdm.xpath.v10.extend.XPathExtendToolkit;
 import org.genxdm.xpath.v10.extend.XPathExtendToolkitFactory;
 
@@ -27,7 +28,26 @@ public final class XPathToolkitFactoryImpl
 
 	public XPathExtendToolkit newXPathToolkit()
 	{
-		return new XPathToolkitImpl();
+		return new XPathToolkitImpl(cache);
 	}
 
+	/**
+	 * Share a cache of parsed expressions among the toolkits this factory creates from now on.
+	 * Each toolkit's parses are kept apart by its function table, so that a function declared
+	 * in one toolkit neither reaches nor drops the parses of another.
+	 *
+	 * @param cache the cache; null (the default) for none.
+	 */
+	public void setExpressionCache(final ExpressionCache cache)
+	{
+		this.cache = cache;
+	}
+
+	public ExpressionCache getExpressionCache()
+	{
+		return cache;
+	}
+
+	private ExpressionCache cache;
+
 }
@@ -31,6 +31,7 @@ import org.genxdm.processor.xpath.v10.expressions.DescendantAxisExpr;
 import org.genxdm.processor.xpath.v10.expressions.DescendantOrSelfAxisExpr;
 import org.genxdm.processor.xpath.v10.expressions.ExprContextDynamicArgsImpl;
 import org.genxdm.processor.xpath.v10.expressions.ExprContextStaticImpl;
+import org.genxdm.processor.xpath.v10.expressions.ExpressionCache;
 import org.genxdm.processor.xpath.v10.expressions.FollowingAxisExpr;
 import org.genxdm.processor.xpath.v10.expressions.FollowingSiblingAxisExpr;
 import org.genxdm.processor.xpath.v10.expressions.NamespaceAxisExpr;
@@ -99,9 +100,19 @@ final class XPathToolkitImpl
 	private final HashMap<String, AxisExpr> axisTable = new HashMap<String, AxisExpr>();
 	private final HashMap<String, Function> functionTable = new HashMap<String, Function>();
 	private final HashMap<String, Relation> relationTable = new HashMap<String, Relation>();
+	private final ExpressionCache cache;
 
 	public XPathToolkitImpl()
 	{
+		this(null);
+	}
+
+	/**
+	 * @param cache the cache of parsed expressions for this toolkit's compilers; may be null.
+	 */
+	public XPathToolkitImpl(final ExpressionCache cache)
+	{
+		this.cache = cache;
 		axisTable.put("child", new ChildAxisExpr());
 		axisTable.put("parent", new ParentAxisExpr());
 		axisTable.put("self", new SelfAxisExpr());
@@ -158,7 +169,7 @@ final class XPathToolkitImpl
     @Override
 	public XPathCompiler newXPathCompiler()
 	{
-		return new XPathCompilerImpl(axisTable, functionTable, relationTable);
+		return new XPathCompilerImpl(axisTable, functionTable, relationTable, cache);
 	}
 
     @Override
@@ -180,7 +191,11 @@ final class XPathToolkitImpl
 
     @Override
 	public Function declareFunction(String name, Function newFunction) {
-		return functionTable.put(name, newFunction);
+		final Function previous = functionTable.put(name, newFunction);
+		// cached parses may have called (or failed to find) the function this replaces
+		if (cache != null)
+			cache.invalidate(functionTable);
+		return previous;
 	}
 
 	@Override
@@ -25,11 +25,9 @@ import java.lang.reflect.Array;
 import org.genxdm.Model;
 import org.genxdm.nodes.Traverser;
 import org.genxdm.nodes.TraversingInformer;
-import org.genxdm.processor.xpath.v10.iterators.MergeNodeIterator;
+import org.genxdm.processor.xpath.v10.NodeListSorter;
 import org.genxdm.processor.xpath.v10.iterators.MergeNodeTraverser;
-import org.genxdm.processor.xpath.v10.iterators.NullNodeIterator;
 import org.genxdm.processor.xpath.v10.iterators.NullNodeTraverser;
-import org.genxdm.processor.xpath.v10.iterators.UnionNodeIterator;
 import org.genxdm.processor.xpath.v10.iterators.UnionNodeTraverser;
 import org.genxdm.xpath.v10.TraverserDynamicContext;
 import org.genxdm.xpath.v10.NodeDynamicContext;
@@ -84,23 +82,8 @@ final class ComposeExpr
 			iters[length++] = expr2.nodeIterator(model, tem, dynEnv);
 		}
 
-		// so, how many iterators did we build?
-		switch (length)
-		{
-			case 0:
-			{
-				return new NullNodeIterator<N>();
-			}
-			case 1:
-			{
-				return iters[0];
-			}
-			case 2:
-			{
-				return new UnionNodeIterator<N>(iters[0], iters[1], model);
-			}
-		}
-		return new MergeNodeIterator<N>(iters, length, model);
+		// each iterator is in document order; merge them.
+		return NodeListSorter.merge(iters, length, model);
 	}
 
     @Override
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.xpath.v10.expressions;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.namespace.QName;
+
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.processor.xpath.v10.relations.Relation;
+import org.genxdm.xpath.v10.ExprParseException;
+import org.genxdm.xpath.v10.StaticContext;
+import org.genxdm.xpath.v10.XPathCompiler;
+import org.genxdm.xpath.v10.extend.ConvertibleExpr;
+import org.genxdm.xpath.v10.extend.Function;
+
+/**
+ * A bounded cache of parsed expressions, shared by the compilers of the
+ * toolkits it is given to.
+ *
+ * <p>An expression is parsed once for each distinct set of static context
+ * bindings it depends on: the parser's lookups of namespace prefixes and
+ * variables are recorded, and a cached parse is reused only for a static
+ * context that answers those lookups in the same way.  Parses are also kept
+ * apart by function table, and a toolkit that declares a function drops
+ * the parses made with its table, leaving those of other toolkits.  The conversion to the requested result type is done on each
+ * compile, against the caller's static context.</p>
+ *
+ * <p>When the cache is full, the least recently used expression is dropped.
+ * The cache is thread-safe; parsing is done outside its lock.</p>
+ *
+ * <p>Extension functions must not keep the static context passed to
+ * {@link org.genxdm.xpath.v10.extend.Function#makeCallExpr}: the expression
+ * they return may be used with other, equivalent, static contexts.</p>
+ */
+public final class ExpressionCache
+{
+	public ExpressionCache(final int maximumSize)
+	{
+		PreCondition.assertTrue(maximumSize > 0, "maximumSize > 0");
+		this.maximumSize = maximumSize;
+		this.entries = new LinkedHashMap<Key, Parse[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, Parse[]> eldest)
+			{
+				return size() > ExpressionCache.this.maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * Compile each of the expressions, so that later compiles of them with the same compiler and
+	 * equivalent static contexts are served from the cache.
+	 *
+	 * @param compiler a compiler from a toolkit that uses this cache.
+	 */
+	public void prewarm(final XPathCompiler compiler, final Iterable<String> expressions, final StaticContext statEnv) throws ExprParseException
+	{
+		PreCondition.assertNotNull(compiler, "compiler");
+		PreCondition.assertNotNull(expressions, "expressions");
+		for (String expression : expressions)
+		{
+			compiler.compile(expression, statEnv);
+		}
+	}
+
+	public long getHitCount()
+	{
+		return hits.get();
+	}
+
+	public long getMissCount()
+	{
+		return misses.get();
+	}
+
+	/** The number of distinct expressions held. */
+	public int size()
+	{
+		synchronized (entries)
+		{
+			return entries.size();
+		}
+	}
+
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+
+	public void clear()
+	{
+		synchronized (entries)
+		{
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Drop the parses made with the given function table, once a function has been declared in it.
+	 */
+	public void invalidate(final Map<String, Function> functionTable)
+	{
+		PreCondition.assertNotNull(functionTable, "functionTable");
+		synchronized (entries)
+		{
+			for (Iterator<Key> it = entries.keySet().iterator(); it.hasNext(); )
+			{
+				if (it.next().scope == functionTable)
+					it.remove();
+			}
+		}
+	}
+
+	/**
+	 * The parse of an expression, from the cache if one was made with the same function table
+	 * and a static context that binds the same names in the same way.
+	 */
+	ConvertibleExpr parse(final String expression, final StaticContext statEnv, final HashMap<String, AxisExpr> axisTable,
+			final HashMap<String, Function> functionTable, final HashMap<String, Relation> relationTable) throws ExprParseException
+	{
+		final Key key = new Key(functionTable, expression);
+		final Parse[] parses;
+		synchronized (entries)
+		{
+			parses = entries.get(key);
+		}
+		if (parses != null)
+		{
+			for (Parse parse : parses)
+			{
+				if (parse.matches(statEnv))
+				{
+					hits.incrementAndGet();
+					return parse.expr;
+				}
+			}
+		}
+		misses.incrementAndGet();
+		final RecordingStaticContext recorder = new RecordingStaticContext(statEnv);
+		final ConvertibleExpr expr = new ExprParser(expression, recorder, axisTable, functionTable, relationTable).parseExpr();
+		final Parse parse = new Parse(recorder.namespaces, recorder.variables, expr);
+		synchronized (entries)
+		{
+			final Parse[] current = entries.get(key);
+			if (current == null)
+				entries.put(key, new Parse[] { parse });
+			else if (current.length < MAX_PARSES)
+			{
+				final Parse[] more = new Parse[current.length + 1];
+				System.arraycopy(current, 0, more, 1, current.length);
+				more[0] = parse;
+				entries.put(key, more);
+			}
+			else
+			{
+				// the oldest parse gives way
+				final Parse[] replaced = new Parse[MAX_PARSES];
+				System.arraycopy(current, 0, replaced, 1, MAX_PARSES - 1);
+				replaced[0] = parse;
+				entries.put(key, replaced);
+			}
+		}
+		return expr;
+	}
+
+	private static final class Key
+	{
+		Key(final Object scope, final String expression)
+		{
+			this.scope = scope;
+			this.expression = PreCondition.assertNotNull(expression, "expression");
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return System.identityHashCode(scope) * 31 + expression.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (!(obj instanceof Key))
+				return false;
+			final Key other = (Key)obj;
+			return (scope == other.scope) && expression.equals(other.expression);
+		}
+
+		private final Object scope;
+		private final String expression;
+	}
+
+	private static final class Parse
+	{
+		Parse(final Map<String, String> namespaces, final Map<QName, Boolean> variables, final ConvertibleExpr expr)
+		{
+			this.namespaces = namespaces;
+			this.variables = variables;
+			this.expr = expr;
+		}
+
+		boolean matches(final StaticContext statEnv)
+		{
+			for (Map.Entry<String, String> binding : namespaces.entrySet())
+			{
+				final String namespace = statEnv.getNamespace(binding.getKey());
+				if ((namespace == null) ? (binding.getValue() != null) : !namespace.equals(binding.getValue()))
+					return false;
+			}
+			for (Map.Entry<QName, Boolean> variable : variables.entrySet())
+			{
+				if (statEnv.containsVariable(variable.getKey()) != variable.getValue().booleanValue())
+					return false;
+			}
+			return true;
+		}
+
+		private final Map<String, String> namespaces;
+		private final Map<QName, Boolean> variables;
+		private final ConvertibleExpr expr;
+	}
+
+	/**
+	 * Passes lookups through to the caller's static context, noting the answers.
+	 */
+	private static final class RecordingStaticContext
+	    implements StaticContext
+	{
+		RecordingStaticContext(final StaticContext statEnv)
+		{
+			this.statEnv = statEnv;
+		}
+
+		public String getNamespace(final String prefix)
+		{
+			final String namespace = statEnv.getNamespace(prefix);
+			namespaces.put(prefix, namespace);
+			return namespace;
+		}
+
+		public boolean containsVariable(final QName name)
+		{
+			final boolean contains = statEnv.containsVariable(name);
+			variables.put(name, contains);
+			return contains;
+		}
+
+		public void declareNamespace(final String prefix, final String namespace)
+		{
+			statEnv.declareNamespace(prefix, namespace);
+		}
+
+		public void declareVariable(final QName name)
+		{
+			statEnv.declareVariable(name);
+		}
+
+		private final StaticContext statEnv;
+		private final Map<String, String> namespaces = new HashMap<String, String>(4);
+		private final Map<QName, Boolean> variables = new HashMap<QName, Boolean>(4);
+	}
+
+	// parses kept for one expression text, for callers with different bindings
+	private static final int MAX_PARSES = 4;
+
+	private final int maximumSize;
+	private final LinkedHashMap<Key, Parse[]> entries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+}
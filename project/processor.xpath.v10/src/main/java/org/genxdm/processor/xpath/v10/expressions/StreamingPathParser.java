@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.xpath.v10.expressions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+
+import org.genxdm.NodeKind;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.processor.xpath.v10.streaming.StreamingCondition;
+import org.genxdm.processor.xpath.v10.streaming.StreamingPath;
+import org.genxdm.processor.xpath.v10.streaming.StreamingStep;
+import org.genxdm.xpath.v10.Converter;
+import org.genxdm.xpath.v10.ExprParseException;
+import org.genxdm.xpath.v10.StaticContext;
+
+/**
+ * Parses the streamable subset of XPath described by {@link StreamingPath};
+ * it shares the lexer with {@link ExprParser}, and rejects, with an
+ * ExprParseException, anything outside the subset.
+ */
+public final class StreamingPathParser
+    extends ExprTokenizer
+{
+	public StreamingPathParser(final String expr, final StaticContext statEnv)
+	{
+		super(PreCondition.assertNotNull(expr, "expr"));
+		this.statEnv = PreCondition.assertNotNull(statEnv, "statEnv");
+	}
+
+	public StreamingPath parse() throws ExprParseException
+	{
+		final List<StreamingStep> steps = new ArrayList<StreamingStep>();
+		next();
+		boolean anyDepth = false;
+		if (currentToken == TOK_SLASH)
+			next();
+		else if (currentToken == TOK_SLASH_SLASH)
+		{
+			next();
+			anyDepth = true;
+		}
+		for (;;)
+		{
+			final StreamingStep step = parseStep(anyDepth);
+			if ((step.getNodeKind() != NodeKind.ELEMENT) && (currentToken != TOK_EOF))
+				throw new ExprParseException("only the last step of a streaming path may select attributes or text");
+			steps.add(step);
+			if (currentToken == TOK_EOF)
+				break;
+			if (currentToken == TOK_SLASH)
+				anyDepth = false;
+			else if (currentToken == TOK_SLASH_SLASH)
+				anyDepth = true;
+			else
+				throw new ExprParseException("expected / or // in streaming path, found " + toString(currentToken));
+			next();
+		}
+		if (steps.size() >= 63)
+			throw new ExprParseException("too many steps for a streaming path");
+		return new StreamingPath(steps);
+	}
+
+	private StreamingStep parseStep(final boolean anyDepth) throws ExprParseException
+	{
+		NodeKind kind = NodeKind.ELEMENT;
+		boolean descendant = anyDepth;
+		boolean explicitDescendant = false;
+		if (currentToken == TOK_AXIS)
+		{
+			if (currentTokenValue.equals("attribute"))
+				kind = NodeKind.ATTRIBUTE;
+			else if (currentTokenValue.equals("descendant"))
+			{
+				descendant = true;
+				explicitDescendant = true;
+			}
+			else if (!currentTokenValue.equals("child"))
+				throw new ExprParseException("the " + currentTokenValue + " axis cannot be streamed");
+			next();
+		}
+		else if (currentToken == TOK_AT)
+		{
+			kind = NodeKind.ATTRIBUTE;
+			next();
+		}
+		final StreamingStep step;
+		switch (currentToken)
+		{
+			case TOK_QNAME:
+			{
+				final int index = currentTokenValue.indexOf(':');
+				final String localName = currentTokenValue.substring(index + 1);
+				step = new StreamingStep(kind, descendant, (index == -1) ? XMLConstants.NULL_NS_URI : expandPrefix(currentTokenValue.substring(0, index)), localName);
+				break;
+			}
+			case TOK_STAR:
+				step = new StreamingStep(kind, descendant, null, null);
+				break;
+			case TOK_NAME_COLON_STAR:
+				step = new StreamingStep(kind, descendant, expandPrefix(currentTokenValue), null);
+				break;
+			case TOK_TEXT_LPAR:
+			{
+				if (kind != NodeKind.ELEMENT)
+					throw new ExprParseException("text() on the attribute axis");
+				next();
+				if (currentToken != TOK_RPAR)
+					throw new ExprParseException("expected )");
+				step = new StreamingStep(NodeKind.TEXT, descendant, null, null);
+				break;
+			}
+			default:
+				throw new ExprParseException("expected a name test or text() in streaming path");
+		}
+		next();
+		while (currentToken == TOK_LSQB)
+		{
+			if (step.getNodeKind() != NodeKind.ELEMENT)
+				throw new ExprParseException("predicates are streamed on element steps only");
+			next();
+			final List<StreamingCondition> conditions = new ArrayList<StreamingCondition>();
+			conditions.add(parseCondition());
+			while (currentToken == TOK_AND)
+			{
+				next();
+				conditions.add(parseCondition());
+			}
+			if (currentToken != TOK_RSQB)
+				throw new ExprParseException("expected ] in streaming path");
+			next();
+			final StreamingCondition[] predicate = conditions.toArray(new StreamingCondition[conditions.size()]);
+			step.addPredicate(predicate);
+		}
+		if (explicitDescendant && step.hasPositionalPredicate())
+			throw new ExprParseException("position on the descendant axis cannot be streamed");
+		return step;
+	}
+
+	//
+	// number | position() op number | @name [op literal] | literal op @name | not(condition)
+	//
+	private StreamingCondition parseCondition() throws ExprParseException
+	{
+		switch (currentToken)
+		{
+			case TOK_NUMBER:
+			{
+				final double position = Converter.toNumber(currentTokenValue);
+				next();
+				return StreamingCondition.position(StreamingCondition.EQ, position);
+			}
+			case TOK_FUNCTION_LPAR:
+			{
+				final String function = currentTokenValue;
+				next();
+				if (function.equals("position"))
+				{
+					expectRpar();
+					final int comparison = parseComparison();
+					if (currentToken != TOK_NUMBER)
+						throw new ExprParseException("position() is compared with a number in streaming path");
+					final double position = Converter.toNumber(currentTokenValue);
+					next();
+					return StreamingCondition.position(comparison, position);
+				}
+				if (function.equals("not"))
+				{
+					final StreamingCondition operand = parseCondition();
+					expectRpar();
+					return StreamingCondition.not(operand);
+				}
+				throw new ExprParseException("the function " + function + "() cannot be streamed");
+			}
+			case TOK_AT:
+			case TOK_AXIS:
+			{
+				final String[] name = parseAttributeName();
+				if ((currentToken != TOK_EQUALS) && (currentToken != TOK_NOT_EQUALS))
+					return StreamingCondition.attribute(name[0], name[1]);
+				final int comparison = parseComparison();
+				if (currentToken != TOK_LITERAL)
+					throw new ExprParseException("attributes are compared with a string literal in streaming path");
+				final String value = currentTokenValue;
+				next();
+				return StreamingCondition.attribute(name[0], name[1], comparison, value);
+			}
+			case TOK_LITERAL:
+			{
+				final String value = currentTokenValue;
+				next();
+				final int comparison = parseComparison();
+				if ((comparison != StreamingCondition.EQ) && (comparison != StreamingCondition.NE))
+					throw new ExprParseException("attributes are compared with = or != in streaming path");
+				final String[] name = parseAttributeName();
+				return StreamingCondition.attribute(name[0], name[1], comparison, value);
+			}
+			default:
+				throw new ExprParseException("predicate cannot be streamed");
+		}
+	}
+
+	private String[] parseAttributeName() throws ExprParseException
+	{
+		if (currentToken == TOK_AXIS)
+		{
+			if (!currentTokenValue.equals("attribute"))
+				throw new ExprParseException("the " + currentTokenValue + " axis cannot be streamed in a predicate");
+		}
+		else if (currentToken != TOK_AT)
+			throw new ExprParseException("expected an attribute in streaming predicate");
+		next();
+		final String[] name;
+		switch (currentToken)
+		{
+			case TOK_QNAME:
+			{
+				final int index = currentTokenValue.indexOf(':');
+				name = new String[] { (index == -1) ? XMLConstants.NULL_NS_URI : expandPrefix(currentTokenValue.substring(0, index)), currentTokenValue.substring(index + 1) };
+				break;
+			}
+			case TOK_STAR:
+				name = new String[] { null, null };
+				break;
+			case TOK_NAME_COLON_STAR:
+				name = new String[] { expandPrefix(currentTokenValue), null };
+				break;
+			default:
+				throw new ExprParseException("expected attribute name test");
+		}
+		next();
+		return name;
+	}
+
+	private int parseComparison() throws ExprParseException
+	{
+		final int comparison;
+		switch (currentToken)
+		{
+			case TOK_EQUALS:
+				comparison = StreamingCondition.EQ;
+				break;
+			case TOK_NOT_EQUALS:
+				comparison = StreamingCondition.NE;
+				break;
+			case TOK_LT:
+				comparison = StreamingCondition.LT;
+				break;
+			case TOK_LTE:
+				comparison = StreamingCondition.LE;
+				break;
+			case TOK_GT:
+				comparison = StreamingCondition.GT;
+				break;
+			case TOK_GTE:
+				comparison = StreamingCondition.GE;
+				break;
+			default:
+				throw new ExprParseException("expected comparison in streaming predicate");
+		}
+		next();
+		return comparison;
+	}
+
+	private String expandPrefix(final String prefix) throws ExprParseException
+	{
+		final String ns = statEnv.getNamespace(prefix);
+		if (ns == null)
+			throw new ExprParseException("prefix '" + prefix + "' is not bound to a namespace.");
+		return ns;
+	}
+
+	private void expectRpar() throws ExprParseException
+	{
+		if (currentToken != TOK_RPAR)
+			throw new ExprParseException("expected )");
+		next();
+	}
+
+	private final StaticContext statEnv;
+}
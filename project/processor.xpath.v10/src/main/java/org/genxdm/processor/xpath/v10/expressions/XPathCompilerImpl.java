@@ -27,6 +27,7 @@ import org.genxdm.xpath.v10.NumberExpr;
 import org.genxdm.xpath.v10.StringExpr;
 import org.genxdm.xpath.v10.VariantExpr;
 import org.genxdm.xpath.v10.XPathCompiler;
+import org.genxdm.xpath.v10.extend.ConvertibleExpr;
 import org.genxdm.xpath.v10.extend.Function;
 
 public final class XPathCompilerImpl
@@ -35,12 +36,23 @@ public final class XPathCompilerImpl
 	private final HashMap<String, AxisExpr> axisTable;
 	private final HashMap<String, Function> functionTable;
 	private final HashMap<String, Relation> relationTable;
+	private final ExpressionCache cache;
 
 	public XPathCompilerImpl(final HashMap<String, AxisExpr> axisTable, final HashMap<String, Function> functionTable, final HashMap<String, Relation> relationTable)
+	{
+		this(axisTable, functionTable, relationTable, null);
+	}
+
+	/**
+	 * @param cache the cache of parsed expressions; if null, every expression is parsed.
+	 */
+	public XPathCompilerImpl(final HashMap<String, AxisExpr> axisTable, final HashMap<String, Function> functionTable, final HashMap<String, Relation> relationTable,
+			final ExpressionCache cache)
 	{
 		this.axisTable = axisTable;
 		this.functionTable = functionTable;
 		this.relationTable = relationTable;
+		this.cache = cache;
 	}
 
 	public VariantExpr compile(final String expression, final StaticContext statEnv) throws ExprParseException
@@ -48,7 +60,7 @@ public final class XPathCompilerImpl
 		PreCondition.assertArgumentNotNull(expression, "expression");
 		PreCondition.assertArgumentNotNull(statEnv, "statEnv");
 
-		return new ExprParser(expression, statEnv, axisTable, functionTable, relationTable).parseExpr().makeVariantExpr(statEnv);
+		return parse(expression, statEnv).makeVariantExpr(statEnv);
 	}
 
 	public BooleanExpr compileBooleanExpr(final String expression, final StaticContext statEnv) throws ExprParseException
@@ -56,7 +68,7 @@ public final class XPathCompilerImpl
 		PreCondition.assertArgumentNotNull(expression, "expression");
 		PreCondition.assertArgumentNotNull(statEnv, "statEnv");
 
-		return new ExprParser(expression, statEnv, axisTable, functionTable, relationTable).parseExpr().makeBooleanExpr(statEnv);
+		return parse(expression, statEnv).makeBooleanExpr(statEnv);
 	}
 
 	public NodeSetExpr compileNodeSetExpr(final String expression, final StaticContext statEnv) throws ExprParseException
@@ -64,7 +76,7 @@ public final class XPathCompilerImpl
 		PreCondition.assertArgumentNotNull(expression, "expression");
 		PreCondition.assertArgumentNotNull(statEnv, "statEnv");
 
-		return new ExprParser(expression, statEnv, axisTable, functionTable, relationTable).parseExpr().makeNodeSetExpr(statEnv);
+		return parse(expression, statEnv).makeNodeSetExpr(statEnv);
 	}
 
 	public NumberExpr compileNumberExpr(final String expression, final StaticContext statEnv) throws ExprParseException
@@ -72,7 +84,7 @@ public final class XPathCompilerImpl
 		PreCondition.assertArgumentNotNull(expression, "expression");
 		PreCondition.assertArgumentNotNull(statEnv, "statEnv");
 
-		return new ExprParser(expression, statEnv, axisTable, functionTable, relationTable).parseExpr().makeNumberExpr(statEnv);
+		return parse(expression, statEnv).makeNumberExpr(statEnv);
 	}
 
 	public StringExpr compileStringExpr(final String expression, final StaticContext statEnv) throws ExprParseException
@@ -80,6 +92,13 @@ public final class XPathCompilerImpl
 		PreCondition.assertArgumentNotNull(expression, "expression");
 		PreCondition.assertArgumentNotNull(statEnv, "statEnv");
 
-		return new ExprParser(expression, statEnv, axisTable, functionTable, relationTable).parseExpr().makeStringExpr(statEnv);
+		return parse(expression, statEnv).makeStringExpr(statEnv);
+	}
+
+	private ConvertibleExpr parse(final String expression, final StaticContext statEnv) throws ExprParseException
+	{
+		if (cache != null)
+			return cache.parse(expression, statEnv, axisTable, functionTable, relationTable);
+		return new ExprParser(expression, statEnv, axisTable, functionTable, relationTable).parseExpr();
 	}
 }
@@ -20,14 +20,21 @@
  */
 package org.genxdm.processor.xpath.v10.functions;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringTokenizer;
+
 import org.genxdm.Model;
 import org.genxdm.Cursor;
+import org.genxdm.bridgekit.tree.Ordering;
 import org.genxdm.nodes.Traverser;
 import org.genxdm.nodes.TraversingInformer;
+import org.genxdm.processor.xpath.v10.NodeListSorter;
 import org.genxdm.processor.xpath.v10.expressions.ConvertibleExprImpl;
 import org.genxdm.processor.xpath.v10.expressions.ConvertibleNodeSetExprImpl;
-import org.genxdm.processor.xpath.v10.iterators.SingleNodeIterator;
-import org.genxdm.processor.xpath.v10.iterators.SingleTraverser;
+import org.genxdm.processor.xpath.v10.iterators.ListNodeIterator;
+import org.genxdm.processor.xpath.v10.iterators.ListTraverser;
 import org.genxdm.xpath.v10.TraverserDynamicContext;
 import org.genxdm.xpath.v10.NodeDynamicContext;
 import org.genxdm.xpath.v10.StaticContext;
@@ -47,39 +54,93 @@ public final class IdFunction
     extends Function1
 {
 
-	private final <N> NodeIterator<N> id(final N node, final NodeIterator<N> iter)
+	private final <N> NodeIterator<N> id(Model<N> model, final N node, final NodeIterator<N> iter)
 	{
-	    // TODO:
-	    // for each node in the set, call: id(node, StringFunction(iter.next()).stringFunction())
-	    // (or something like that: turn the node into a string representing an id)
-	    // collect the results of each call, return the iterator over the entire collection.
-		throw new UnsupportedOperationException("TODO: id()");
+		// each node in the set contributes the ids in its string value
+		final List<N> result = new ArrayList<N>();
+		for (N item = iter.next(); item != null; item = iter.next())
+		{
+			collect(model, node, model.getStringValue(item), result);
+		}
+		return inDocumentOrder(model, result);
 	}
 
     private final Traverser id(final TraversingInformer node, final Traverser iter)
     {
-        // TODO:
-        // for each node in the set, call: id(node, StringFunction(iter.next()).stringFunction())
-        // (or something like that: turn the node into a string representing an id)
-        // collect the results of each call, return the iterator over the entire collection.
-        throw new UnsupportedOperationException("TODO: id()");
+        final List<Cursor> result = new ArrayList<Cursor>();
+        while (iter.moveToNext())
+        {
+            collect(node, iter.getStringValue(), result);
+        }
+        return inDocumentOrder(result);
     }
 
 	private final <N> NodeIterator<N> id(Model<N> model, final N node, final String str)
 	{
-		// TODO - review:
-		// The following seems a little to simplistic - it just always returns the node with the given ID? 
-		N result = model.getElementById(node, str);
-		return new SingleNodeIterator<N>(result);
+		final List<N> result = new ArrayList<N>();
+		collect(model, node, str, result);
+		return inDocumentOrder(model, result);
 	}
 
     private final Traverser id(TraversingInformer node, final String str)
     {
-        // TODO - review:
-        // The following seems a little to simplistic - it just always returns the node with the given ID?
-        Cursor result = node.newCursor();
-        result.moveToElementById(str);
-        return new SingleTraverser(result);
+        final List<Cursor> result = new ArrayList<Cursor>();
+        collect(node, str, result);
+        return inDocumentOrder(result);
+    }
+
+	/**
+	 * The argument is a whitespace-separated list of ids; each is looked up in the document of the context node.
+	 */
+	private static <N> void collect(Model<N> model, final N node, final String ids, final List<N> result)
+	{
+		final StringTokenizer tokens = new StringTokenizer(ids, WHITESPACE);
+		while (tokens.hasMoreTokens())
+		{
+			final N element = model.getElementById(node, tokens.nextToken());
+			if (element != null)
+				result.add(element);
+		}
+	}
+
+    private static void collect(final TraversingInformer node, final String ids, final List<Cursor> result)
+    {
+        final StringTokenizer tokens = new StringTokenizer(ids, WHITESPACE);
+        while (tokens.hasMoreTokens())
+        {
+            final Cursor element = node.newCursor();
+            if (element.moveToElementById(tokens.nextToken()))
+                result.add(element);
+        }
+    }
+
+	// the same id may be named more than once, and ids are not named in document order.
+	private static <N> NodeIterator<N> inDocumentOrder(Model<N> model, final List<N> nodes)
+	{
+		NodeListSorter.sort(nodes, model);
+		final List<N> unique = new ArrayList<N>(nodes.size());
+		N last = null;
+		for (N node : nodes)
+		{
+			if ( (last == null) || !Ordering.isSameNode(node, last, model) )
+				unique.add(node);
+			last = node;
+		}
+		return new ListNodeIterator<N>(unique);
+	}
+
+    private static Traverser inDocumentOrder(final List<Cursor> nodes)
+    {
+        Collections.sort(nodes);
+        final List<Cursor> unique = new ArrayList<Cursor>(nodes.size());
+        Cursor last = null;
+        for (Cursor node : nodes)
+        {
+            if ( (last == null) || !Ordering.isSameNode(node, last) )
+                unique.add(node);
+            last = node;
+        }
+        return new ListTraverser(unique);
     }
 
 	ConvertibleExprImpl makeCallExpr(final ConvertibleExpr e, final StaticContext statEnv) throws ExprParseException
@@ -91,7 +152,7 @@ public final class IdFunction
 			{
                 @Override
 				public <N> NodeIterator<N> nodeIterator(Model<N> model, final N node, final NodeDynamicContext<N> dynEnv) {
-					return id(node, nse.nodeIterator(model, node, dynEnv));
+					return id(model, node, nse.nodeIterator(model, node, dynEnv));
 				}
 
                 @Override
@@ -109,7 +170,7 @@ public final class IdFunction
 					NodeVariant<N> v = ve.evaluateAsVariant(model, node, dynEnv);
 					if (v.isNodeSet())
 					{
-						return id(node, v.convertToNodeSet());
+						return id(model, node, v.convertToNodeSet());
 					}
 					else
 					{
@@ -150,4 +211,5 @@ public final class IdFunction
 		}
 	}
 
+	private static final String WHITESPACE = " \t\r\n";
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.xpath.v10.streaming;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.genxdm.exceptions.GenXDMException;
+import org.genxdm.io.ContentHandler;
+import org.genxdm.io.DtdAttributeKind;
+
+/**
+ * The start tag of an open element: its name, and the namespace and
+ * attribute events that follow the startElement event.  One is kept for
+ * each depth and reused.
+ */
+final class StartTag
+{
+	void reset(final String namespaceURI, final String localName, final String prefix)
+	{
+		this.namespaceURI = namespaceURI;
+		this.localName = localName;
+		this.prefix = prefix;
+		attributeCount = 0;
+		namespaceCount = 0;
+	}
+
+	void addAttribute(final String namespaceURI, final String localName, final String prefix, final String value, final DtdAttributeKind type)
+	{
+		if (attributeCount == attributeValues.length)
+		{
+			final int capacity = attributeCount << 1;
+			attributeNames = Arrays.copyOf(attributeNames, capacity * 3);
+			attributeValues = Arrays.copyOf(attributeValues, capacity);
+			attributeTypes = Arrays.copyOf(attributeTypes, capacity);
+		}
+		attributeNames[attributeCount * 3] = (namespaceURI == null) ? "" : namespaceURI;
+		attributeNames[attributeCount * 3 + 1] = localName;
+		attributeNames[attributeCount * 3 + 2] = prefix;
+		attributeValues[attributeCount] = value;
+		attributeTypes[attributeCount] = type;
+		attributeCount++;
+	}
+
+	void addNamespace(final String prefix, final String namespaceURI)
+	{
+		if (namespaceCount * 2 == namespaces.length)
+			namespaces = Arrays.copyOf(namespaces, namespaces.length << 1);
+		namespaces[namespaceCount * 2] = prefix;
+		namespaces[namespaceCount * 2 + 1] = namespaceURI;
+		namespaceCount++;
+	}
+
+	/**
+	 * The index of the first attribute at or after <code>from</code> with the given name; a null
+	 * namespace or local name matches any.
+	 *
+	 * @return the index, or -1.
+	 */
+	int indexOfAttribute(final String namespaceURI, final String localName, final int from)
+	{
+		for (int i = from; i < attributeCount; i++)
+		{
+			if (((namespaceURI == null) || namespaceURI.equals(attributeNames[i * 3])) &&
+				((localName == null) || localName.equals(attributeNames[i * 3 + 1])))
+				return i;
+		}
+		return -1;
+	}
+
+	String getNamespaceURI()
+	{
+		return namespaceURI;
+	}
+
+	String getLocalName()
+	{
+		return localName;
+	}
+
+	int getAttributeCount()
+	{
+		return attributeCount;
+	}
+
+	String getAttributeNamespaceURI(final int index)
+	{
+		return attributeNames[index * 3];
+	}
+
+	String getAttributeLocalName(final int index)
+	{
+		return attributeNames[index * 3 + 1];
+	}
+
+	String getAttributeValue(final int index)
+	{
+		return attributeValues[index];
+	}
+
+	/** Add the namespaces declared here to a map of prefix to namespace, over any already there. */
+	void putNamespaces(final Map<String, String> scope)
+	{
+		for (int i = 0; i < namespaceCount; i++)
+		{
+			scope.put(namespaces[i * 2], namespaces[i * 2 + 1]);
+		}
+	}
+
+	/** Send the start tag, with the given namespaces in place of those declared on it. */
+	void replay(final ContentHandler handler, final Map<String, String> scope) throws GenXDMException
+	{
+		handler.startElement(namespaceURI, localName, prefix);
+		for (Map.Entry<String, String> binding : scope.entrySet())
+		{
+			handler.namespace(binding.getKey(), binding.getValue());
+		}
+		for (int i = 0; i < attributeCount; i++)
+		{
+			handler.attribute(attributeNames[i * 3], attributeNames[i * 3 + 1], attributeNames[i * 3 + 2], attributeValues[i], attributeTypes[i]);
+		}
+	}
+
+	private String namespaceURI;
+	private String localName;
+	private String prefix;
+	private int attributeCount;
+	private String[] attributeNames = new String[12];
+	private String[] attributeValues = new String[4];
+	private DtdAttributeKind[] attributeTypes = new DtdAttributeKind[4];
+	private int namespaceCount;
+	private String[] namespaces = new String[8];
+}
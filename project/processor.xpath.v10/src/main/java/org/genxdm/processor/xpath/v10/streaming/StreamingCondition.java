@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.xpath.v10.streaming;
+
+import org.genxdm.exceptions.PreCondition;
+
+/**
+ * A test that a predicate of a {@link StreamingStep} can make once the
+ * start tag of an element has been seen: on the element's position among
+ * the siblings that passed the step so far, or on one of its attributes.
+ */
+public final class StreamingCondition
+{
+	private StreamingCondition(final int kind, final int comparison, final double position, final String namespaceURI, final String localName, final String value,
+			final StreamingCondition operand)
+	{
+		this.kind = kind;
+		this.comparison = comparison;
+		this.position = position;
+		this.namespaceURI = namespaceURI;
+		this.localName = localName;
+		this.value = value;
+		this.operand = operand;
+	}
+
+	/** position() compared with a number. */
+	public static StreamingCondition position(final int comparison, final double position)
+	{
+		return new StreamingCondition(POSITION, comparison, position, null, null, null, null);
+	}
+
+	/** The element has the attribute; a null namespace or local name matches any. */
+	public static StreamingCondition attribute(final String namespaceURI, final String localName)
+	{
+		return new StreamingCondition(ATTRIBUTE, EQ, 0, namespaceURI, localName, null, null);
+	}
+
+	/** The element has the attribute, with a value that is equal (or not equal) to the given string. */
+	public static StreamingCondition attribute(final String namespaceURI, final String localName, final int comparison, final String value)
+	{
+		PreCondition.assertTrue((comparison == EQ) || (comparison == NE), "comparison is EQ or NE");
+		return new StreamingCondition(ATTRIBUTE_VALUE, comparison, 0, namespaceURI, localName, PreCondition.assertNotNull(value, "value"), null);
+	}
+
+	public static StreamingCondition not(final StreamingCondition operand)
+	{
+		return new StreamingCondition(NOT, EQ, 0, null, null, null, PreCondition.assertNotNull(operand, "operand"));
+	}
+
+	/** Whether the condition looks at the position; if it does, the step has to count siblings. */
+	boolean usesPosition()
+	{
+		return (kind == POSITION) || ((kind == NOT) && operand.usesPosition());
+	}
+
+	boolean evaluate(final int contextPosition, final StartTag tag)
+	{
+		switch (kind)
+		{
+			case POSITION:
+				return compare(contextPosition, position);
+			case ATTRIBUTE:
+				return tag.indexOfAttribute(namespaceURI, localName, 0) >= 0;
+			case ATTRIBUTE_VALUE:
+			{
+				// true if any of the (possibly several, for a wildcard) attributes compares true
+				int index = tag.indexOfAttribute(namespaceURI, localName, 0);
+				while (index >= 0)
+				{
+					if (value.equals(tag.getAttributeValue(index)) == (comparison == EQ))
+						return true;
+					index = tag.indexOfAttribute(namespaceURI, localName, index + 1);
+				}
+				return false;
+			}
+			case NOT:
+				return !operand.evaluate(contextPosition, tag);
+			default:
+				throw new AssertionError(kind);
+		}
+	}
+
+	private boolean compare(final double lhs, final double rhs)
+	{
+		switch (comparison)
+		{
+			case EQ:
+				return lhs == rhs;
+			case NE:
+				return lhs != rhs;
+			case LT:
+				return lhs < rhs;
+			case LE:
+				return lhs <= rhs;
+			case GT:
+				return lhs > rhs;
+			case GE:
+				return lhs >= rhs;
+			default:
+				throw new AssertionError(comparison);
+		}
+	}
+
+	public static final int EQ = 0;
+	public static final int NE = 1;
+	public static final int LT = 2;
+	public static final int LE = 3;
+	public static final int GT = 4;
+	public static final int GE = 5;
+
+	private static final int POSITION = 0;
+	private static final int ATTRIBUTE = 1;
+	private static final int ATTRIBUTE_VALUE = 2;
+	private static final int NOT = 3;
+
+	private final int kind;
+	private final int comparison;
+	private final double position;
+	private final String namespaceURI;
+	private final String localName;
+	private final String value;
+	private final StreamingCondition operand;
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.xpath.v10.streaming;
+
+import org.genxdm.io.ContentHandler;
+
+/**
+ * Receives the nodes selected by a {@link StreamingPath}, in document order,
+ * as the events that contain them are seen.
+ */
+public interface StreamingMatchHandler
+{
+	/**
+	 * An element has been selected.
+	 *
+	 * @return a handler to receive the element: its startElement event, the
+	 *         namespaces in scope and its attributes, its content, and the
+	 *         matching endElement; or null if the element itself is not wanted.
+	 */
+	ContentHandler matchElement();
+
+	/**
+	 * An attribute has been selected.
+	 */
+	void matchAttribute(String namespaceURI, String localName, String value);
+
+	/**
+	 * A text node has been selected; adjacent text events are delivered as one.
+	 */
+	void matchText(String value);
+}
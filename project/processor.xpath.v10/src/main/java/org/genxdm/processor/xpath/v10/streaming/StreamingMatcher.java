@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.xpath.v10.streaming;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.genxdm.exceptions.GenXDMException;
+import org.genxdm.io.ContentHandler;
+import org.genxdm.io.DtdAttributeKind;
+
+/**
+ * Runs the automaton of a {@link StreamingPath} over a stream of events.
+ *
+ * <p>For each open element (and the document, at depth zero) two sets of
+ * states are kept, as bits: the steps for which the node is the context,
+ * because it was selected by the step before; and the any-depth steps for
+ * which the node is a descendant-or-self of a context.  An element's states
+ * are worked out from its parent's when its start tag is complete, that is,
+ * at the first event after its attributes, so that predicates can see the
+ * attributes.  An element whose parent has no states has none either, and
+ * costs nothing beyond the depth count.</p>
+ */
+final class StreamingMatcher
+    implements ContentHandler
+{
+	StreamingMatcher(final StreamingPath path, final StreamingMatchHandler handler)
+	{
+		this.path = path;
+		this.handler = handler;
+		finalState = 1L << path.getStepCount();
+		states = new long[INITIAL_DEPTH];
+		deep = new long[INITIAL_DEPTH];
+		tags = new StartTag[INITIAL_DEPTH];
+		counters = new int[INITIAL_DEPTH][];
+		for (int i = 0; i < INITIAL_DEPTH; i++)
+		{
+			tags[i] = new StartTag();
+			counters[i] = new int[path.getSlotCount()];
+		}
+		startRoot();
+	}
+
+	public void startDocument(final URI documentURI, final String docTypeDecl) throws GenXDMException
+	{
+		startRoot();
+	}
+
+	public void endDocument() throws GenXDMException
+	{
+		closeStartTag();
+		flushText();
+	}
+
+	public void startElement(final String namespaceURI, final String localName, final String prefix) throws GenXDMException
+	{
+		closeStartTag();
+		flushText();
+		for (int i = 0; i < captureCount; i++)
+		{
+			captures[i].startElement(namespaceURI, localName, prefix);
+		}
+		final int parent = depth++;
+		if (depth == states.length)
+			grow();
+		if ((states[parent] | deep[parent]) == 0)
+		{
+			// nothing below here can be selected
+			states[depth] = 0;
+			deep[depth] = 0;
+		}
+		else
+		{
+			tags[depth].reset(namespaceURI, localName, prefix);
+			pending = true;
+		}
+	}
+
+	public void namespace(final String prefix, final String namespaceURI) throws GenXDMException
+	{
+		for (int i = 0; i < captureCount; i++)
+		{
+			captures[i].namespace(prefix, namespaceURI);
+		}
+		if (pending)
+			tags[depth].addNamespace(prefix, namespaceURI);
+	}
+
+	public void attribute(final String namespaceURI, final String localName, final String prefix, final String value, final DtdAttributeKind type) throws GenXDMException
+	{
+		for (int i = 0; i < captureCount; i++)
+		{
+			captures[i].attribute(namespaceURI, localName, prefix, value, type);
+		}
+		if (pending)
+			tags[depth].addAttribute(namespaceURI, localName, prefix, value, type);
+	}
+
+	public void text(final String data) throws GenXDMException
+	{
+		closeStartTag();
+		for (int i = 0; i < captureCount; i++)
+		{
+			captures[i].text(data);
+		}
+		if (((states[depth] | deep[depth]) & path.textSteps) != 0)
+			text.append(data);
+	}
+
+	public void comment(final String value) throws GenXDMException
+	{
+		closeStartTag();
+		flushText();
+		for (int i = 0; i < captureCount; i++)
+		{
+			captures[i].comment(value);
+		}
+	}
+
+	public void processingInstruction(final String target, final String data) throws GenXDMException
+	{
+		closeStartTag();
+		flushText();
+		for (int i = 0; i < captureCount; i++)
+		{
+			captures[i].processingInstruction(target, data);
+		}
+	}
+
+	public void endElement() throws GenXDMException
+	{
+		closeStartTag();
+		flushText();
+		for (int i = 0; i < captureCount; i++)
+		{
+			captures[i].endElement();
+		}
+		// captures are nested, so the one that ends here, if any, is the innermost
+		if ((captureCount > 0) && (captureDepths[captureCount - 1] == depth))
+			captures[--captureCount] = null;
+		depth--;
+	}
+
+	public void flush() throws IOException
+	{
+		for (int i = 0; i < captureCount; i++)
+		{
+			captures[i].flush();
+		}
+	}
+
+	public void close() throws IOException
+	{
+		// the captures belong to the match handler
+	}
+
+	private void startRoot()
+	{
+		depth = 0;
+		pending = false;
+		captureCount = 0;
+		text.setLength(0);
+		states[0] = 1L;
+		deep[0] = path.anyDepthSteps & 1L;
+		Arrays.fill(counters[0], 0);
+	}
+
+	/** Work out the states of the element whose start tag has been seen, and report what it selects. */
+	private void closeStartTag() throws GenXDMException
+	{
+		if (!pending)
+			return;
+		pending = false;
+		final int parent = depth - 1;
+		final StartTag tag = tags[depth];
+		long candidates = (states[parent] | deep[parent]) & path.elementSteps;
+		long reached = 0;
+		while (candidates != 0)
+		{
+			final int step = Long.numberOfTrailingZeros(candidates);
+			candidates &= candidates - 1;
+			final StreamingStep test = path.getStep(step);
+			if (test.matchesName(tag.getNamespaceURI(), tag.getLocalName()) &&
+				test.evaluatePredicates(counters[parent], path.getSlot(step), tag))
+				reached |= 1L << (step + 1);
+		}
+		states[depth] = reached & ~finalState;
+		deep[depth] = deep[parent] | (states[depth] & path.anyDepthSteps);
+		if ((states[depth] | deep[depth]) != 0)
+			Arrays.fill(counters[depth], 0);
+
+		if ((reached & finalState) != 0)
+		{
+			final ContentHandler capture = handler.matchElement();
+			if (capture != null)
+			{
+				tag.replay(capture, inScopeNamespaces());
+				if (captureCount == captures.length)
+				{
+					captures = Arrays.copyOf(captures, captureCount << 1);
+					captureDepths = Arrays.copyOf(captureDepths, captureCount << 1);
+				}
+				captures[captureCount] = capture;
+				captureDepths[captureCount++] = depth;
+			}
+		}
+
+		long attributeSteps = (states[depth] | deep[depth]) & path.attributeSteps;
+		while (attributeSteps != 0)
+		{
+			final int step = Long.numberOfTrailingZeros(attributeSteps);
+			attributeSteps &= attributeSteps - 1;
+			final StreamingStep test = path.getStep(step);
+			for (int i = 0; i < tag.getAttributeCount(); i++)
+			{
+				if (test.matchesName(tag.getAttributeNamespaceURI(i), tag.getAttributeLocalName(i)))
+					handler.matchAttribute(tag.getAttributeNamespaceURI(i), tag.getAttributeLocalName(i), tag.getAttributeValue(i));
+			}
+		}
+	}
+
+	private void flushText()
+	{
+		if (text.length() > 0)
+		{
+			handler.matchText(text.toString());
+			text.setLength(0);
+		}
+	}
+
+	// the namespaces in scope on the selected element: its ancestors' declarations, and its own over them
+	private Map<String, String> inScopeNamespaces()
+	{
+		final Map<String, String> scope = new LinkedHashMap<String, String>();
+		for (int i = 1; i <= depth; i++)
+		{
+			tags[i].putNamespaces(scope);
+		}
+		return scope;
+	}
+
+	private void grow()
+	{
+		final int length = states.length << 1;
+		states = Arrays.copyOf(states, length);
+		deep = Arrays.copyOf(deep, length);
+		tags = Arrays.copyOf(tags, length);
+		counters = Arrays.copyOf(counters, length);
+		for (int i = length >> 1; i < length; i++)
+		{
+			tags[i] = new StartTag();
+			counters[i] = new int[path.getSlotCount()];
+		}
+	}
+
+	private final StreamingPath path;
+	private final StreamingMatchHandler handler;
+	private final long finalState;
+	private int depth;
+	private boolean pending;
+	private long[] states;
+	private long[] deep;
+	private StartTag[] tags;
+	private int[][] counters;
+	private final StringBuilder text = new StringBuilder();
+	private ContentHandler[] captures = new ContentHandler[4];
+	private int[] captureDepths = new int[4];
+	private int captureCount;
+
+	private static final int INITIAL_DEPTH = 16;
+}
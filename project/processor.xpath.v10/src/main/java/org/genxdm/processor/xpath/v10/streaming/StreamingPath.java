@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.xpath.v10.streaming;
+
+import java.util.List;
+
+import org.genxdm.NodeKind;
+import org.genxdm.exceptions.PreCondition;
+import org.genxdm.io.ContentHandler;
+import org.genxdm.processor.xpath.v10.expressions.StreamingPathParser;
+import org.genxdm.xpath.v10.ExprParseException;
+import org.genxdm.xpath.v10.StaticContext;
+
+/**
+ * A location path that can be evaluated in a single pass over a stream of
+ * {@link ContentHandler} events, without building a tree.
+ *
+ * <p>The forward-only subset of XPath 1.0 is supported: location paths
+ * (absolute or relative to the document) whose steps are on the child,
+ * descendant or attribute axes, or abbreviated with <code>//</code> and
+ * <code>@</code>.  Node tests are names, wildcards and, in the last step,
+ * <code>text()</code>.  Element steps may have predicates made of position
+ * comparisons (<code>[2]</code>, <code>[position() &lt; 3]</code>), the
+ * presence of an attribute (<code>[@id]</code>) or an attribute's value
+ * compared with a literal (<code>[@type = 'a']</code>), combined with
+ * <code>and</code> and <code>not()</code>.  Position predicates are not
+ * supported on the explicit descendant axis, whose positions depend on
+ * nodes not yet seen.</p>
+ *
+ * <p>The path is compiled to an automaton whose states are the steps
+ * matched so far; the set of states for each open element is a bit set,
+ * so that evaluation costs a few operations per event and memory in
+ * proportion to the depth of the document, not its size.  The selected
+ * nodes are reported, in document order, to a {@link StreamingMatchHandler};
+ * a selected element's events can be passed on to a handler of its own
+ * (for example, a fragment builder), so that only the selected parts of a
+ * large document need be materialized.</p>
+ *
+ * <p>A path is immutable, and may be used by several matchers at once;
+ * a matcher is for a single stream.</p>
+ */
+public final class StreamingPath
+{
+	/**
+	 * @param steps the steps of the path, not to be changed afterwards; only the last may be an
+	 *            attribute or text step.
+	 */
+	public StreamingPath(final List<StreamingStep> steps)
+	{
+		PreCondition.assertNotNull(steps, "steps");
+		PreCondition.assertTrue(!steps.isEmpty(), "at least one step");
+		PreCondition.assertTrue(steps.size() < MAX_STEPS, "fewer than " + MAX_STEPS + " steps");
+		this.steps = steps.toArray(new StreamingStep[steps.size()]);
+		slots = new int[this.steps.length];
+		int slotCount = 0;
+		long elements = 0;
+		long attributes = 0;
+		long texts = 0;
+		long deep = 0;
+		for (int i = 0; i < this.steps.length; i++)
+		{
+			final StreamingStep step = this.steps[i];
+			final NodeKind kind = step.getNodeKind();
+			PreCondition.assertTrue((kind == NodeKind.ELEMENT) || (i == this.steps.length - 1), "only the last step selects attributes or text");
+			slots[i] = slotCount;
+			slotCount += step.getPredicateCount();
+			if (kind == NodeKind.ELEMENT)
+				elements |= 1L << i;
+			else if (kind == NodeKind.ATTRIBUTE)
+				attributes |= 1L << i;
+			else
+				texts |= 1L << i;
+			if (step.isAnyDepth())
+				deep |= 1L << i;
+		}
+		this.slotCount = slotCount;
+		elementSteps = elements;
+		attributeSteps = attributes;
+		textSteps = texts;
+		anyDepthSteps = deep;
+	}
+
+	/**
+	 * Compile an expression in the streamable subset.
+	 *
+	 * @throws ExprParseException if the expression is not valid XPath, or not in the subset.
+	 */
+	public static StreamingPath compile(final String expression, final StaticContext statEnv) throws ExprParseException
+	{
+		PreCondition.assertNotNull(expression, "expression");
+		PreCondition.assertNotNull(statEnv, "statEnv");
+		return new StreamingPathParser(expression, statEnv).parse();
+	}
+
+	/**
+	 * A content handler that evaluates this path over the events it receives, reporting the
+	 * nodes selected to the given handler.  Feed it from an XmlEventVisitor, or from
+	 * {@link org.genxdm.io.ContentGenerator#write}.
+	 */
+	public ContentHandler newMatcher(final StreamingMatchHandler handler)
+	{
+		return new StreamingMatcher(this, PreCondition.assertNotNull(handler, "handler"));
+	}
+
+	int getStepCount()
+	{
+		return steps.length;
+	}
+
+	StreamingStep getStep(final int index)
+	{
+		return steps[index];
+	}
+
+	int getSlot(final int step)
+	{
+		return slots[step];
+	}
+
+	int getSlotCount()
+	{
+		return slotCount;
+	}
+
+	// the steps, by kind and by axis, as bits indexed by step
+	final long elementSteps;
+	final long attributeSteps;
+	final long textSteps;
+	final long anyDepthSteps;
+
+	// one state for each step, and one for the end of the path, in a long
+	private static final int MAX_STEPS = 63;
+
+	private final StreamingStep[] steps;
+	private final int[] slots;
+	private final int slotCount;
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026 TIBCO Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.genxdm.processor.xpath.v10.streaming;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.genxdm.NodeKind;
+import org.genxdm.exceptions.PreCondition;
+
+/**
+ * One step of a {@link StreamingPath}: a child element, attribute or text
+ * node test, which may apply at any depth below the context (as after
+ * <code>//</code>, or on the descendant axis).  Element steps may carry
+ * predicates.
+ */
+public final class StreamingStep
+{
+	/**
+	 * @param kind ELEMENT, ATTRIBUTE or TEXT.
+	 * @param anyDepth true if the step applies to the descendants of the context, not only its children.
+	 * @param namespaceURI the namespace of the name test, or null for any; ignored for text.
+	 * @param localName the local name of the name test, or null for any; ignored for text.
+	 */
+	public StreamingStep(final NodeKind kind, final boolean anyDepth, final String namespaceURI, final String localName)
+	{
+		PreCondition.assertTrue((kind == NodeKind.ELEMENT) || (kind == NodeKind.ATTRIBUTE) || (kind == NodeKind.TEXT), "kind is element, attribute or text");
+		this.kind = kind;
+		this.anyDepth = anyDepth;
+		this.namespaceURI = namespaceURI;
+		this.localName = localName;
+	}
+
+	/**
+	 * Add a predicate: the conditions, all of which must hold.  Position in each predicate is
+	 * counted among the siblings that passed the name test and the predicates before it.
+	 */
+	public void addPredicate(final StreamingCondition... conditions)
+	{
+		PreCondition.assertTrue(kind == NodeKind.ELEMENT, "predicates on element steps only");
+		PreCondition.assertTrue(conditions.length > 0, "at least one condition");
+		predicates.add(conditions.clone());
+	}
+
+	public NodeKind getNodeKind()
+	{
+		return kind;
+	}
+
+	public boolean isAnyDepth()
+	{
+		return anyDepth;
+	}
+
+	public boolean hasPositionalPredicate()
+	{
+		for (StreamingCondition[] predicate : predicates)
+		{
+			for (StreamingCondition condition : predicate)
+			{
+				if (condition.usesPosition())
+					return true;
+			}
+		}
+		return false;
+	}
+
+	boolean matchesName(final String namespaceURI, final String localName)
+	{
+		return ((this.localName == null) || this.localName.equals(localName)) &&
+			   ((this.namespaceURI == null) || this.namespaceURI.equals((namespaceURI == null) ? "" : namespaceURI));
+	}
+
+	String getNamespaceURI()
+	{
+		return namespaceURI;
+	}
+
+	String getLocalName()
+	{
+		return localName;
+	}
+
+	int getPredicateCount()
+	{
+		return predicates.size();
+	}
+
+	/**
+	 * Apply the predicates to an element that passed the name test.
+	 *
+	 * @param counters the position counters of the element's parent.
+	 * @param slot the first of this step's counters.
+	 */
+	boolean evaluatePredicates(final int[] counters, final int slot, final StartTag tag)
+	{
+		for (int i = 0; i < predicates.size(); i++)
+		{
+			final int position = ++counters[slot + i];
+			for (StreamingCondition condition : predicates.get(i))
+			{
+				if (!condition.evaluate(position, tag))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	private final NodeKind kind;
+	private final boolean anyDepth;
+	private final String namespaceURI;
+	private final String localName;
+	private final List<StreamingCondition[]> predicates = new ArrayList<StreamingCondition[]>(1);
+}
@@ -22,6 +22,8 @@ package org.genxdm.processor.xpath.v10.tests;
 
 import org.genxdm.Model;
 import org.genxdm.NodeKind;
+import org.genxdm.bridgekit.names.FingerprintProvider;
+import org.genxdm.bridgekit.names.NamePool;
 import org.genxdm.nodes.TraversingInformer;
 import org.genxdm.processor.xpath.v10.patterns.PathPatternBase;
 import org.genxdm.xpath.v10.TraverserDynamicContext;
@@ -32,15 +34,35 @@ public final class AttributeTest
 {
 	private final String namespaceURI;
 	private final String localName;
+	// NamePool.NONE for a wildcard, or until some node has been given the name
+	private int fingerprint;
 
 	public AttributeTest(final String namespaceURI, final String localName)
 	{
 		this.namespaceURI = namespaceURI;
 		this.localName = localName;
+		if ((namespaceURI != null) && (localName != null))
+			fingerprint = NamePool.getDefault().peekFingerprint(namespaceURI, localName);
+		else
+			fingerprint = NamePool.NONE;
 	}
 
+	@SuppressWarnings("unchecked")
 	public <N> boolean matches(Model<N> model, final N node, final NodeDynamicContext<N> dynEnv)
 	{
+		if ((namespaceURI != null) && (localName != null) && (model instanceof FingerprintProvider))
+		{
+			final int nodeFingerprint = ((FingerprintProvider<N>)model).getFingerprint(node);
+			// the pattern may have been compiled before any document used the name; look again,
+			// but never add it to the pool: a name no node has been given cannot match.
+			if (fingerprint == NamePool.NONE)
+				fingerprint = NamePool.getDefault().peekFingerprint(namespaceURI, localName);
+			if (fingerprint != NamePool.NONE)
+				return (nodeFingerprint == fingerprint) && (model.getNodeKind(node) == NodeKind.ATTRIBUTE);
+			// unless the pool is full, and neither the name nor the node's could be pooled
+			if ((nodeFingerprint != NamePool.NONE) || !NamePool.getDefault().isFull())
+				return false;
+		}
 		return model.matches(node, NodeKind.ATTRIBUTE, namespaceURI, localName);
 	}
 
@@ -2,18 +2,35 @@ package org.genxdm.processor.w3c.xs.validationtest;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.xml.namespace.QName;
 
 import org.genxdm.ProcessingContext;
 import org.genxdm.bridgekit.xs.DefaultCatalog;
 import org.genxdm.bridgekit.xs.DefaultCatalogResolver;
 import org.genxdm.bridgekit.xs.DefaultSchemaCatalog;
 import org.genxdm.bridgekit.xs.SchemaCacheFactory;
+import org.genxdm.exceptions.GenXDMException;
 import org.genxdm.io.DocumentHandler;
 import org.genxdm.names.Catalog;
 import org.genxdm.processor.w3c.xs.W3cXmlSchemaParser;
+import org.genxdm.processor.w3c.xs.exception.cvc.CvcDanglingIDReferenceException;
+import org.genxdm.processor.w3c.xs.exception.cvc.CvcDanglingKeyReferenceException;
+import org.genxdm.processor.w3c.xs.exception.cvc.CvcMissingKeyFieldException;
+import org.genxdm.processor.w3c.xs.exception.sm.SmDuplicateIDException;
+import org.genxdm.processor.w3c.xs.exception.sm.SmMissingAttributeException;
+import org.genxdm.processor.w3c.xs.exception.src.SrcDuplicateKeyTargetException;
 import org.genxdm.typed.TypedContext;
 import org.genxdm.typed.ValidationHandler;
 import org.genxdm.xs.ComponentProvider;
@@ -85,5 +102,308 @@ public abstract class TreeValidationBase<N, A>
 //        SequenceHandler<A> handler = new SequenceHandlerEmitter<A>(cache.getAtomBridge());
 //        cache.getModel().stream(typed, handler, false);
     }
+
+    /**
+     * Returns a handler that validates the subtrees of the elements at the end of the path in parallel, or null if
+     * the bridge does not test one.
+     */
+    public ValidationHandler<A> getParallelValidationHandler(List<QName> forkPath, ForkJoinPool pool)
+    {
+        return null;
+    }
+
+    @Test
+    public void validatePOInParallel()
+        throws AbortException, IOException
+    {
+        final List<QName> forkPath = Arrays.asList(new QName("purchaseOrder"), new QName("items"), new QName("item"));
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            if (getParallelValidationHandler(forkPath, pool) == null)
+                return;
+            ProcessingContext<N> context = newProcessingContext();
+            TypedContext<N, A> cache = context.getTypedContext(null);
+            loadSchema(cache.getSchema());
+
+            N untyped = parseInstance(context.newDocumentHandler());
+            SchemaExceptionCatcher catcher = new SchemaExceptionCatcher();
+            ValidationHandler<A> validator = getParallelValidationHandler(forkPath, pool);
+            validator.setSchemaExceptionHandler(catcher);
+            N typed = cache.validate(untyped, validator, null);
+            assertNotNull(typed);
+            assertEquals(0, catcher.size());
+            POVerifier.verifyTyped(typed, cache.getModel());
+
+            // errors in the items come out as they do from one validator, in document order.
+            String po = new String(readResource("po.xml"), "UTF-8");
+            po = po.replace("<quantity>1</quantity>", "<quantity>100</quantity>").replace("926-AA", "926-aa");
+            N invalid = context.newDocumentHandler().parse(new ByteArrayInputStream(po.getBytes("UTF-8")), null);
+            SchemaExceptionCatcher sequential = new SchemaExceptionCatcher();
+            validator = getValidationHandler();
+            validator.setSchemaExceptionHandler(sequential);
+            cache.validate(invalid, validator, null);
+            SchemaExceptionCatcher parallel = new SchemaExceptionCatcher();
+            validator = getParallelValidationHandler(forkPath, pool);
+            validator.setSchemaExceptionHandler(parallel);
+            cache.validate(invalid, validator, null);
+            assertEquals(3, sequential.size());
+            assertEquals(messages(sequential), messages(parallel));
+
+            // without a handler, the first error is thrown, as it is from one validator.
+            try
+            {
+                cache.validate(invalid, getParallelValidationHandler(forkPath, pool), null);
+                fail();
+            }
+            catch (GenXDMException e)
+            {
+                assertTrue(e.getCause() instanceof AbortException);
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void validateIdsInParallel()
+        throws AbortException, IOException
+    {
+        final List<QName> forkPath = Arrays.asList(new QName("batch"), new QName("record"));
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            if (getParallelValidationHandler(forkPath, pool) == null)
+                return;
+            ProcessingContext<N> context = newProcessingContext();
+            TypedContext<N, A> cache = context.getTypedContext(null);
+            W3cXmlSchemaParser parser = new W3cXmlSchemaParser();
+            parser.setCatalogResolver(DefaultCatalogResolver.SINGLETON, new DefaultSchemaCatalog(new DefaultCatalog()));
+            parser.setComponentProvider(new SchemaCacheFactory().newSchemaCache().getComponentProvider());
+            InputStream stream = getClass().getClassLoader().getResourceAsStream("ids/batch.xsd");
+            cache.getSchema().register(parser.parse(null, stream, null, SchemaExceptionThrower.SINGLETON));
+
+            // records refer back to earlier records and notes, and notes to records; the notes, which the main
+            // validator sees while the records before them may still be pending, repeat the ID of a record.
+            StringBuilder batch = new StringBuilder("<batch>");
+            for (int i = 0; i < 100; i++)
+            {
+                batch.append("<record id='a").append(i).append("'/>");
+                batch.append("<record id='b").append(i).append("' ref='a").append(i).append("'/>");
+                batch.append("<note id='n").append(i).append("' ref='b").append(i).append("'/>");
+                batch.append("<record id='c").append(i).append("' ref='n").append(i).append("'/>");
+                batch.append("<note id='m").append(i).append("' count='many'/>");
+                batch.append("<note id='c").append(i).append("' ref='d").append(i).append("'/>");
+                batch.append("<record id='d").append(i).append("'/>");
+            }
+            batch.append("<record id='last' ref='missing'/></batch>");
+            N untyped = context.newDocumentHandler().parse(new ByteArrayInputStream(batch.toString().getBytes("UTF-8")), null);
+
+            SchemaExceptionCatcher sequential = new SchemaExceptionCatcher();
+            ValidationHandler<A> validator = getValidationHandler();
+            validator.setSchemaExceptionHandler(sequential);
+            cache.validate(untyped, validator, null);
+            int duplicates = 0;
+            int dangling = 0;
+            for (SchemaException ex : sequential)
+            {
+                if (ex instanceof SmDuplicateIDException)
+                    duplicates++;
+                else if (ex instanceof CvcDanglingIDReferenceException)
+                    dangling++;
+            }
+            assertEquals(100, duplicates);
+            assertEquals(1, dangling);
+
+            SchemaExceptionCatcher parallel = new SchemaExceptionCatcher();
+            validator = getParallelValidationHandler(forkPath, pool);
+            validator.setSchemaExceptionHandler(parallel);
+            cache.validate(untyped, validator, null);
+            assertEquals(messages(sequential), messages(parallel));
+            for (int i = 0; i < sequential.size(); i++)
+                assertEquals(sequential.get(i).getClass(), parallel.get(i).getClass());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void validateKeysInParallel()
+        throws AbortException, IOException
+    {
+        final List<QName> forkPath = Arrays.asList(new QName("catalog"), new QName("item"));
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            if (getParallelValidationHandler(forkPath, pool) == null)
+                return;
+            ProcessingContext<N> context = newProcessingContext();
+            TypedContext<N, A> cache = context.getTypedContext(null);
+            W3cXmlSchemaParser parser = new W3cXmlSchemaParser();
+            parser.setCatalogResolver(DefaultCatalogResolver.SINGLETON, new DefaultSchemaCatalog(new DefaultCatalog()));
+            parser.setComponentProvider(new SchemaCacheFactory().newSchemaCache().getComponentProvider());
+            InputStream stream = getClass().getClassLoader().getResourceAsStream("keys/parts.xsd");
+            cache.getSchema().register(parser.parse(null, stream, null, SchemaExceptionThrower.SINGLETON));
+
+            // the key of the catalog selects the items, which are handed over; the references, within the items and
+            // between them, refer back and forward. one item is repeated, some have no code, and three references dangle.
+            StringBuilder catalog = new StringBuilder("<catalog>");
+            for (int i = 0; i < 300; i++)
+            {
+                catalog.append("<item code='c").append(i).append("'><ref code='c").append(i / 2).append("'/>");
+                catalog.append("<part code='c").append(i + 1).append("'/></item>");
+                catalog.append("<ref code='c").append(i).append("'/>");
+                if (i % 100 == 50)
+                    catalog.append("<item><part code='c0'/></item>");
+            }
+            catalog.append("<item code='c7'/><item code='z'><part code='nowhere'/></item><ref code='missing'/></catalog>");
+            N untyped = context.newDocumentHandler().parse(new ByteArrayInputStream(catalog.toString().getBytes("UTF-8")), null);
+
+            SchemaExceptionCatcher sequential = new SchemaExceptionCatcher();
+            ValidationHandler<A> validator = getValidationHandler();
+            validator.setSchemaExceptionHandler(sequential);
+            cache.validate(untyped, validator, null);
+            int duplicates = 0;
+            int missing = 0;
+            int dangling = 0;
+            for (SchemaException ex : sequential)
+            {
+                if (ex instanceof SrcDuplicateKeyTargetException)
+                    duplicates++;
+                else if (ex instanceof CvcMissingKeyFieldException)
+                    missing++;
+                else if (ex instanceof CvcDanglingKeyReferenceException)
+                    dangling++;
+            }
+            assertEquals(messages(sequential).toString(), 7, sequential.size());
+            assertEquals(1, duplicates);
+            assertEquals(3, missing);
+            assertEquals(3, dangling);
+
+            SchemaExceptionCatcher parallel = new SchemaExceptionCatcher();
+            validator = getParallelValidationHandler(forkPath, pool);
+            validator.setSchemaExceptionHandler(parallel);
+            cache.validate(untyped, validator, null);
+            assertEquals(messages(sequential), messages(parallel));
+            for (int i = 0; i < sequential.size(); i++)
+                assertEquals(sequential.get(i).getClass(), parallel.get(i).getClass());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void missingRequiredAttributes()
+        throws AbortException, IOException
+    {
+        ProcessingContext<N> context = newProcessingContext();
+        TypedContext<N, A> cache = context.getTypedContext(null);
+        loadSchema(cache.getSchema());
+
+        // each item loses its required partNum; the fixed, optional country may be left out.
+        String po = new String(readResource("po.xml"), "UTF-8");
+        po = po.replaceAll(" partNum=\"[^\"]*\"", "").replace(" country=\"US\"", "");
+        N untyped = context.newDocumentHandler().parse(new ByteArrayInputStream(po.getBytes("UTF-8")), null);
+        SchemaExceptionCatcher catcher = new SchemaExceptionCatcher();
+        ValidationHandler<A> validator = getValidationHandler();
+        validator.setSchemaExceptionHandler(catcher);
+        cache.validate(untyped, validator, null);
+        assertEquals(2, catcher.size());
+        for (SchemaException ex : catcher)
+            assertTrue(ex.getMessage(), ex instanceof SmMissingAttributeException);
+    }
+
+    /**
+     * Returns a handler whose identity-constraint scopes spill their tuples to a temporary file beyond the threshold,
+     * or null if the bridge does not test one.
+     */
+    public ValidationHandler<A> getSpillingValidationHandler(long identitySpillThreshold)
+    {
+        return null;
+    }
+
+    @Test
+    public void keysAndReferences()
+        throws AbortException, IOException
+    {
+        ProcessingContext<N> context = newProcessingContext();
+        TypedContext<N, A> cache = context.getTypedContext(null);
+        W3cXmlSchemaParser parser = new W3cXmlSchemaParser();
+        parser.setCatalogResolver(DefaultCatalogResolver.SINGLETON, new DefaultSchemaCatalog(new DefaultCatalog()));
+        parser.setComponentProvider(new SchemaCacheFactory().newSchemaCache().getComponentProvider());
+        InputStream stream = getClass().getClassLoader().getResourceAsStream("keys/catalog.xsd");
+        cache.getSchema().register(parser.parse(null, stream, null, SchemaExceptionThrower.SINGLETON));
+
+        // references come before and after their items; one item is repeated, and two references dangle.
+        StringBuilder catalog = new StringBuilder("<catalog>");
+        for (int i = 0; i < 2000; i++)
+        {
+            catalog.append("<ref code='c").append(i).append("' rev='").append(i % 3).append("'/>");
+            catalog.append("<item code='c").append(i).append("' rev='").append(i % 3).append("'/>");
+            catalog.append("<ref code='c").append(i / 2).append("' rev='").append((i / 2) % 3).append("'/>");
+        }
+        catalog.append("<item code='c7' rev='1'/><ref code='c7' rev='2'/><ref code='missing' rev='0'/></catalog>");
+        N untyped = context.newDocumentHandler().parse(new ByteArrayInputStream(catalog.toString().getBytes("UTF-8")), null);
+
+        SchemaExceptionCatcher catcher = new SchemaExceptionCatcher();
+        ValidationHandler<A> validator = getValidationHandler();
+        validator.setSchemaExceptionHandler(catcher);
+        cache.validate(untyped, validator, null);
+        int duplicates = 0;
+        int dangling = 0;
+        for (SchemaException ex : catcher)
+        {
+            if (ex instanceof SrcDuplicateKeyTargetException)
+                duplicates++;
+            else if (ex instanceof CvcDanglingKeyReferenceException)
+                dangling++;
+        }
+        assertEquals(messages(catcher).toString(), 3, catcher.size());
+        assertEquals(1, duplicates);
+        assertEquals(2, dangling);
+        assertTrue(messages(catcher).get(0), messages(catcher).get(0).contains("[c7, 1]"));
+
+        // the same, with every tuple in a temporary file
+        validator = getSpillingValidationHandler(0);
+        if (validator != null)
+        {
+            SchemaExceptionCatcher spilled = new SchemaExceptionCatcher();
+            validator.setSchemaExceptionHandler(spilled);
+            cache.validate(untyped, validator, null);
+            assertEquals(messages(catcher), messages(spilled));
+        }
+    }
+
+    private static List<String> messages(Iterable<SchemaException> errors)
+    {
+        List<String> messages = new ArrayList<String>();
+        for (SchemaException ex : errors)
+            messages.add(ex.getMessage());
+        return messages;
+    }
+
+    private byte[] readResource(String name)
+        throws IOException
+    {
+        InputStream stream = getClass().getClassLoader().getResourceAsStream(name);
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer))
+                bytes.write(buffer, 0, read);
+            return bytes.toByteArray();
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
     
 }
@@ -16,8 +16,19 @@
 package org.genxdm.processor.xpath.v10.tests;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import javax.xml.namespace.QName;
 
@@ -25,8 +36,19 @@ import org.genxdm.Feature;
 import org.genxdm.Model;
 import org.genxdm.ProcessingContext;
 import org.genxdm.bridgekit.ProcessingContextFactory;
+import org.genxdm.bridgekit.tree.DocumentOrderIndex;
+import org.genxdm.bridgekit.tree.OrderIndexProvider;
+import org.genxdm.io.ContentHandler;
+import org.genxdm.io.DtdAttributeKind;
 import org.genxdm.io.FragmentBuilder;
+import org.genxdm.mutable.MutableContext;
+import org.genxdm.mutable.MutableModel;
+import org.genxdm.processor.xpath.v10.NodeListSorter;
 import org.genxdm.processor.xpath.v10.XPathToolkitFactoryImpl;
+import org.genxdm.processor.xpath.v10.expressions.ExpressionCache;
+import org.genxdm.processor.xpath.v10.functions.TrueFunction;
+import org.genxdm.processor.xpath.v10.streaming.StreamingMatchHandler;
+import org.genxdm.processor.xpath.v10.streaming.StreamingPath;
 import org.genxdm.processor.xpath.v10.variants.BooleanVariant;
 import org.genxdm.processor.xpath.v10.variants.NumberVariant;
 import org.genxdm.processor.xpath.v10.variants.StringVariant;
@@ -42,11 +64,16 @@ import org.genxdm.xpath.v10.StringExpr;
 import org.genxdm.xpath.v10.XPathCompiler;
 import org.genxdm.xpath.v10.XPathToolkit;
 import org.genxdm.xpath.v10.XPathToolkitFactory;
+import org.genxdm.xpath.v10.extend.XPathExtendToolkit;
 
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 // TODO: this needs full review.  we should be more complete and
@@ -401,6 +428,369 @@ public abstract class XPathBase<N>
         }
     }
 
+    @Test
+    public void idFunction()
+        throws ExprParseException
+    {
+        final ProcessingContext<N> pcx = newProcessingContext();
+        final Model<N> model = pcx.getModel();
+        final FragmentBuilder<N> builder = pcx.newFragmentBuilder();
+        builder.startDocument(null, null);
+        builder.startElement("", "root", "");
+        builder.startElement("", "a", "");
+        builder.attribute("", "id", "", "x", DtdAttributeKind.ID);
+        builder.endElement();
+        builder.startElement("", "b", "");
+        builder.attribute("", "id", "", "y", DtdAttributeKind.ID);
+        builder.startElement("", "c", "");
+        builder.attribute("", "id", "", "z", DtdAttributeKind.ID);
+        builder.endElement();
+        builder.endElement();
+        builder.startElement("", "refs", "");
+        builder.text("z x");
+        builder.endElement();
+        builder.startElement("", "refs", "");
+        builder.text(" y\tnone x ");
+        builder.endElement();
+        builder.endElement();
+        builder.endDocument();
+        final N doc = builder.getNode();
+
+        final XPathToolkit tools = new XPathToolkitFactoryImpl().newXPathToolkit();
+        final XPathCompiler compiler = tools.newXPathCompiler();
+        final StaticContext sargs = tools.newExprContextStaticArgs();
+        final NodeDynamicContext<N> dynEnv = tools.<N>newExprContextDynamicArgs().build();
+
+        // names out of order and repeated come back once each, in document order
+        NodeIterator<N> nodes = compiler.compileNodeSetExpr("id('z  x y x')", sargs).nodeIterator(model, doc, dynEnv);
+        assertEquals("a", model.getLocalName(nodes.next()));
+        assertEquals("b", model.getLocalName(nodes.next()));
+        assertEquals("c", model.getLocalName(nodes.next()));
+        assertNull(nodes.next());
+
+        // each node of a node-set contributes the ids in its string value
+        nodes = compiler.compileNodeSetExpr("id(/root/refs)", sargs).nodeIterator(model, doc, dynEnv);
+        assertEquals("a", model.getLocalName(nodes.next()));
+        assertEquals("b", model.getLocalName(nodes.next()));
+        assertEquals("c", model.getLocalName(nodes.next()));
+        assertNull(nodes.next());
+
+        nodes = compiler.compileNodeSetExpr("id('none')", sargs).nodeIterator(model, doc, dynEnv);
+        assertNull(nodes.next());
+    }
+
+    @Test
+    public void expressionCache()
+        throws ExprParseException
+    {
+        final ProcessingContext<N> pcx = newProcessingContext();
+        final Model<N> model = pcx.getModel();
+        final FragmentBuilder<N> builder = pcx.newFragmentBuilder();
+        builder.startDocument(null, null);
+        builder.startElement("urn:one", "a", "");
+        builder.startElement("urn:one", "a", "");
+        builder.endElement();
+        builder.startElement("urn:two", "a", "");
+        builder.endElement();
+        builder.endElement();
+        builder.endDocument();
+        final N doc = builder.getNode();
+
+        final ExpressionCache cache = new ExpressionCache(2);
+        final XPathToolkitFactoryImpl factory = new XPathToolkitFactoryImpl();
+        factory.setExpressionCache(cache);
+        final XPathToolkit tools = factory.newXPathToolkit();
+        final XPathCompiler compiler = tools.newXPathCompiler();
+        final NodeDynamicContext<N> dynEnv = tools.<N>newExprContextDynamicArgs().build();
+
+        final StaticContext one = tools.newExprContextStaticArgs();
+        one.declareNamespace("x", "urn:one");
+        assertEquals(2.0, compiler.compileNumberExpr("count(//x:a)", one).numberFunction(model, doc, dynEnv), 0.1d);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // the same bindings, and a different result type, reuse the parse
+        final StaticContext alsoOne = tools.newExprContextStaticArgs();
+        alsoOne.declareNamespace("x", "urn:one");
+        alsoOne.declareNamespace("y", "urn:two");
+        assertEquals("2", compiler.compileStringExpr("count(//x:a)", alsoOne).stringFunction(model, doc, dynEnv));
+        assertEquals(1, cache.getHitCount());
+
+        // a different binding for a prefix the expression uses does not
+        final StaticContext two = tools.newExprContextStaticArgs();
+        two.declareNamespace("x", "urn:two");
+        assertEquals(1.0, compiler.compileNumberExpr("count(//x:a)", two).numberFunction(model, doc, dynEnv), 0.1d);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.size());
+
+        // the least recently used expression is dropped
+        cache.prewarm(compiler, Arrays.asList("1 + 1", "2 + 2"), one);
+        assertEquals(2, cache.size());
+        compiler.compileNumberExpr("2 + 2", one);
+        compiler.compileNumberExpr("count(//x:a)", one);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(5, cache.getMissCount());
+    }
+
+    @Test
+    public void expressionCacheKeptPerToolkit()
+        throws ExprParseException
+    {
+        final ProcessingContext<N> pcx = newProcessingContext();
+        final FragmentBuilder<N> builder = pcx.newFragmentBuilder();
+        builder.startDocument(null, null);
+        builder.startElement("", "root", "");
+        builder.endElement();
+        builder.endDocument();
+        final N doc = builder.getNode();
+
+        final ExpressionCache cache = new ExpressionCache(8);
+        final XPathToolkitFactoryImpl factory = new XPathToolkitFactoryImpl();
+        factory.setExpressionCache(cache);
+        final XPathExtendToolkit declaring = factory.newXPathToolkit();
+        final XPathExtendToolkit other = factory.newXPathToolkit();
+        final StaticContext sargs = declaring.newExprContextStaticArgs();
+        declaring.newXPathCompiler().compileBooleanExpr("true()", sargs);
+        other.newXPathCompiler().compileBooleanExpr("true()", sargs);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+
+        // declaring a function drops the declaring toolkit's parses, and only those
+        declaring.declareFunction("yes", new TrueFunction());
+        assertEquals(1, cache.size());
+        other.newXPathCompiler().compileBooleanExpr("true()", sargs);
+        assertEquals(1, cache.getHitCount());
+        declaring.newXPathCompiler().compileBooleanExpr("true()", sargs);
+        assertEquals(3, cache.getMissCount());
+
+        final NodeDynamicContext<N> dynEnv = declaring.<N>newExprContextDynamicArgs().build();
+        assertTrue(declaring.newXPathCompiler().compileBooleanExpr("yes()", sargs).booleanFunction(pcx.getModel(), doc, dynEnv));
+    }
+
+    @Test
+    public void namesCompiledBeforeTheyAreParsed()
+        throws ExprParseException
+    {
+        final XPathToolkit tools = new XPathToolkitFactoryImpl().newXPathToolkit();
+        final XPathCompiler compiler = tools.newXPathCompiler();
+        final StaticContext sargs = tools.newExprContextStaticArgs();
+        sargs.declareNamespace("x", "urn:compiled-first");
+        // no document has used these names yet, so their tests hold no fingerprint
+        final NumberExpr elements = compiler.compileNumberExpr("count(//*[self::x:late])", sargs);
+        final NumberExpr attributes = compiler.compileNumberExpr("count(//@x:late)", sargs);
+        final NumberExpr never = compiler.compileNumberExpr("count(//*[self::x:never] | //@x:never)", sargs);
+
+        final ProcessingContext<N> pcx = newProcessingContext();
+        final Model<N> model = pcx.getModel();
+        final FragmentBuilder<N> builder = pcx.newFragmentBuilder();
+        builder.startDocument(null, null);
+        builder.startElement("urn:compiled-first", "late", "x");
+        builder.namespace("x", "urn:compiled-first");
+        builder.attribute("urn:compiled-first", "late", "x", "1", DtdAttributeKind.CDATA);
+        builder.startElement("urn:compiled-first", "late", "x");
+        builder.endElement();
+        builder.startElement("", "late", "");
+        builder.attribute("", "late", "", "2", DtdAttributeKind.CDATA);
+        builder.endElement();
+        builder.endElement();
+        builder.endDocument();
+        final N doc = builder.getNode();
+        final NodeDynamicContext<N> dynEnv = tools.<N>newExprContextDynamicArgs().build();
+
+        assertEquals(2.0, elements.numberFunction(model, doc, dynEnv), 0.1d);
+        assertEquals(1.0, attributes.numberFunction(model, doc, dynEnv), 0.1d);
+        assertEquals(0.0, never.numberFunction(model, doc, dynEnv), 0.1d);
+    }
+
+    @Test
+    public void sortIntoDocumentOrder()
+    {
+        final ProcessingContext<N> pcx = newProcessingContext();
+        final Model<N> model = pcx.getModel();
+        final N doc = sortableDocument(pcx, "one");
+        final List<N> inOrder = new ArrayList<N>();
+        collectInOrder(model, doc, inOrder);
+        final Map<N, Integer> ranks = rank(model, inOrder);
+
+        // the same model, but with no order index, so that nodes are sorted by comparison
+        @SuppressWarnings("unchecked")
+        final Model<N> comparing = (Model<N>)Proxy.newProxyInstance(Model.class.getClassLoader(), new Class<?>[] { Model.class }, new InvocationHandler() {
+            public Object invoke(final Object proxy, final Method method, final Object[] args)
+                throws Throwable
+            {
+                try
+                {
+                    return method.invoke(model, args);
+                }
+                catch (final InvocationTargetException e)
+                {
+                    throw e.getCause();
+                }
+            }
+        });
+
+        final Random random = new Random(1);
+        for (final Model<N> sorter : Arrays.asList(model, comparing))
+        {
+            for (int i = 0; i < 10; i++)
+            {
+                final List<N> nodes = new ArrayList<N>(inOrder);
+                if (i == 1)
+                    Collections.reverse(nodes);
+                else if (i > 1)
+                    Collections.shuffle(nodes, random);
+                final List<N> expected = new ArrayList<N>(nodes);
+                // the attributes of an element are in the order of the model, if it has one, or as they were found
+                Collections.sort(expected, new Comparator<N>() {
+                    public int compare(final N lhs, final N rhs)
+                    {
+                        final int order = ranks.get(lhs).compareTo(ranks.get(rhs));
+                        return (order != 0) ? order : model.compare(lhs, rhs);
+                    }
+                });
+                NodeListSorter.sort(nodes, sorter);
+                assertEquals(expected.size(), nodes.size());
+                for (int j = 0; j < nodes.size(); j++)
+                {
+                    assertSame(expected.get(j), nodes.get(j));
+                }
+            }
+        }
+
+        // nodes of two trees have no common keys, so they are sorted by comparison
+        final N other = sortableDocument(pcx, "two");
+        final List<N> otherInOrder = new ArrayList<N>();
+        collectInOrder(model, other, otherInOrder);
+        final List<N> mixed = new ArrayList<N>(inOrder);
+        mixed.addAll(otherInOrder);
+        Collections.shuffle(mixed, random);
+        NodeListSorter.sort(mixed, model);
+        assertEquals(inOrder.size() + otherInOrder.size(), mixed.size());
+        int last = -1;
+        for (int j = 0; j < mixed.size(); j++)
+        {
+            if (j > 0)
+                assertTrue(model.compare(mixed.get(j - 1), mixed.get(j)) <= 0);
+            final Integer rank = ranks.get(mixed.get(j));
+            if (rank != null)
+            {
+                assertTrue(rank >= last);
+                last = rank;
+            }
+        }
+
+        // once the tree has changed, a few of its nodes are sorted by comparison, and many by numbering it again
+        final MutableContext<N> mutable = pcx.getMutableContext();
+        if ((mutable != null) && (model instanceof OrderIndexProvider))
+        {
+            @SuppressWarnings("unchecked")
+            final DocumentOrderIndex<N> index = ((OrderIndexProvider<N>)model).getOrderIndex(doc);
+            final MutableModel<N> mutableModel = mutable.getModel();
+            final N root = model.getFirstChildElement(doc);
+            mutableModel.appendChild(root, mutableModel.getFactory(doc).createComment("appended"));
+            assertFalse(index.isCurrent());
+            final List<N> few = new ArrayList<N>(Arrays.asList(model.getLastChild(root), model.getFirstChild(root)));
+            NodeListSorter.sort(few, model);
+            assertSame(model.getFirstChild(root), few.get(0));
+            assertFalse(index.isCurrent());
+            final List<N> all = new ArrayList<N>();
+            collectInOrder(model, doc, all);
+            final List<N> reversed = new ArrayList<N>(all);
+            Collections.reverse(reversed);
+            NodeListSorter.sort(reversed, model);
+            assertTrue(index.isCurrent());
+            assertSame(model.getLastChild(root), reversed.get(reversed.size() - 1));
+        }
+    }
+
+    @Test
+    public void streamingPath()
+        throws ExprParseException
+    {
+        final ProcessingContext<N> pcx = newProcessingContext();
+        final Model<N> model = pcx.getModel();
+        final FragmentBuilder<N> builder = pcx.newFragmentBuilder();
+        builder.startDocument(null, null);
+        builder.startElement("urn:one", "root", "x");
+        builder.namespace("x", "urn:one");
+        builder.startElement("", "item", "");
+        builder.attribute("", "type", "", "a", DtdAttributeKind.CDATA);
+        builder.text("first");
+        builder.endElement();
+        builder.startElement("", "item", "");
+        builder.attribute("", "type", "", "b", DtdAttributeKind.CDATA);
+        builder.text("second");
+        builder.startElement("", "item", "");
+        builder.attribute("", "type", "", "a", DtdAttributeKind.CDATA);
+        builder.text("nested");
+        builder.endElement();
+        builder.endElement();
+        builder.startElement("", "item", "");
+        builder.text("third");
+        builder.endElement();
+        builder.endElement();
+        builder.endDocument();
+        final N doc = builder.getNode();
+
+        final StaticContext sargs = new XPathToolkitFactoryImpl().newXPathToolkit().newExprContextStaticArgs();
+        sargs.declareNamespace("x", "urn:one");
+
+        // selected elements are captured, with the namespaces in scope on them
+        final List<FragmentBuilder<N>> captures = new ArrayList<FragmentBuilder<N>>();
+        final List<String> values = new ArrayList<String>();
+        final StreamingMatchHandler collector = new StreamingMatchHandler() {
+            public ContentHandler matchElement()
+            {
+                final FragmentBuilder<N> capture = pcx.newFragmentBuilder();
+                captures.add(capture);
+                return capture;
+            }
+            public void matchAttribute(String namespaceURI, String localName, String value)
+            {
+                values.add(localName + "=" + value);
+            }
+            public void matchText(String value)
+            {
+                values.add(value);
+            }
+        };
+        model.stream(doc, StreamingPath.compile("/x:root/item[@type = 'a']", sargs).newMatcher(collector));
+        assertEquals(1, captures.size());
+        final N first = captures.get(0).getNode();
+        assertEquals("item", model.getLocalName(first));
+        assertEquals("a", model.getAttributeStringValue(first, "", "type"));
+        assertEquals("first", model.getStringValue(first));
+        assertEquals("urn:one", model.getNamespaceForPrefix(first, "x"));
+
+        // at any depth, and nested matches each get their own capture
+        captures.clear();
+        model.stream(doc, StreamingPath.compile("//item", sargs).newMatcher(collector));
+        assertEquals(4, captures.size());
+        assertEquals("secondnested", model.getStringValue(captures.get(1).getNode()));
+        assertEquals("nested", model.getStringValue(captures.get(2).getNode()));
+
+        // position counts among siblings; values come back in document order
+        captures.clear();
+        model.stream(doc, StreamingPath.compile("/x:root/item[2]/@*", sargs).newMatcher(collector));
+        model.stream(doc, StreamingPath.compile("//item[not(@type)]/text()", sargs).newMatcher(collector));
+        model.stream(doc, StreamingPath.compile("descendant::item[@type != 'b']/@type", sargs).newMatcher(collector));
+        assertEquals(Arrays.asList("type=b", "third", "type=a", "type=a"), values);
+        assertEquals(0, captures.size());
+
+        for (String unsupported : new String[] { "//item/..", "//item[last()]", "descendant::item[1]", "/x:root/@type/text()", "/" })
+        {
+            try
+            {
+                StreamingPath.compile(unsupported, sargs);
+                fail(unsupported);
+            }
+            catch (ExprParseException expected)
+            {
+            }
+        }
+    }
+
     @Test
     public void positionFunction()
     {
@@ -484,4 +874,56 @@ public abstract class XPathBase<N>
 
         assertEquals("Hello, World!", s);
     }
+
+    private N sortableDocument(final ProcessingContext<N> pcx, final String name)
+    {
+        final FragmentBuilder<N> builder = pcx.newFragmentBuilder();
+        builder.startDocument(null, null);
+        builder.startElement("", name, "");
+        builder.attribute("", "a", "", "1", DtdAttributeKind.CDATA);
+        builder.attribute("", "b", "", "2", DtdAttributeKind.CDATA);
+        for (int i = 0; i < 5; i++)
+        {
+            builder.startElement("", "item", "");
+            builder.attribute("", "n", "", Integer.toString(i), DtdAttributeKind.CDATA);
+            builder.text("text " + i);
+            builder.startElement("", "leaf", "");
+            builder.endElement();
+            builder.comment("comment " + i);
+            builder.endElement();
+        }
+        builder.endElement();
+        builder.endDocument();
+        return builder.getNode();
+    }
+
+    /**
+     * Ranks nodes by their position in document order, the attributes of an element sharing the rank of the first.
+     */
+    private Map<N, Integer> rank(final Model<N> model, final List<N> inOrder)
+    {
+        final Map<N, Integer> ranks = new IdentityHashMap<N, Integer>();
+        for (int i = 0; i < inOrder.size(); i++)
+        {
+            final N node = inOrder.get(i);
+            if (model.isAttribute(node) && model.isAttribute(inOrder.get(i - 1)))
+                ranks.put(node, ranks.get(inOrder.get(i - 1)));
+            else
+                ranks.put(node, i);
+        }
+        return ranks;
+    }
+
+    private void collectInOrder(final Model<N> model, final N node, final List<N> nodes)
+    {
+        nodes.add(node);
+        for (final N attribute : model.getAttributeAxis(node, false))
+        {
+            nodes.add(attribute);
+        }
+        for (final N child : model.getChildAxis(node))
+        {
+            collectInOrder(model, child, nodes);
+        }
+    }
 }